@@ -6,7 +6,7 @@ import gr.forth.ics.graph.Node;
 import gr.forth.ics.graph.PrimaryGraph;
 import gr.forth.ics.graph.event.EmptyGraphListener;
 import gr.forth.ics.graph.event.GraphEvent;
-import gr.forth.ics.util.Partition;
+import gr.forth.ics.util.IntUnionFind;
 
 /**
  * Example of using "UnionFind" algorithm. We will use it to dynamically calculate
@@ -40,38 +40,44 @@ public class UnionFind {
         System.out.println(con.areConnected(nodes[0], nodes[3])); //prints true!
     }
 
-    //this class maintains at each node an identifier representing which
-    //partition (connected component) each graph node belongs into.
-    //All nodes are initialized with singleton partitions (representing only themselves),
-    //and for each edge, two partitions are merged
+    //this class assigns to each node an index in an IntUnionFind, whose sets
+    //are the connected components of the graph.
+    //All nodes are initialized with singleton sets (representing only themselves),
+    //and for each edge, two sets are merged.
+    //Note that slots of an IntUnionFind are never freed: a node keeps its index only weakly,
+    //so if the index is collected (or the node is removed and later seen again) a new slot
+    //is taken, and the old one stays in the structure. So this leaks one slot per node ever seen;
+    //for graphs with many short-lived nodes, Partition (one object per node, collected with it)
+    //is the better fit
     static class Connectivity {
-        final Object componentKey = new Object();
+        final Object indexKey = new Object();
+        final IntUnionFind components = new IntUnionFind(0);
 
         Connectivity(Graph g) {
             g.addEdgeListener(new EmptyGraphListener() {
                 @Override public void edgeAdded(GraphEvent e) {
                     Edge edge = e.getEdge();
-                    Partition<?> set1 = getOrCreatePartitionOf(edge.n1());
-                    Partition<?> set2 = getOrCreatePartitionOf(edge.n2());
+                    int index1 = getOrCreateIndexOf(edge.n1());
+                    int index2 = getOrCreateIndexOf(edge.n2());
                     //combine sets
-                    set1.merge(set2);
+                    components.union(index1, index2);
                 }
             });
         }
 
         boolean areConnected(Node n1, Node n2) {
-            return Partition.areMerged(
-                    getOrCreatePartitionOf(n1),
-                    getOrCreatePartitionOf(n2));
+            return components.areMerged(
+                    getOrCreateIndexOf(n1),
+                    getOrCreateIndexOf(n2));
         }
 
-        Partition<?> getOrCreatePartitionOf(Node n) {
-            Partition<?> partition = (Partition<?>)n.get(componentKey);
-            if (partition == null) {
-                partition = Partition.singleton(n);
-                n.putWeakly(componentKey, partition);
+        int getOrCreateIndexOf(Node n) {
+            Integer index = (Integer)n.get(indexKey);
+            if (index == null) {
+                index = components.add();
+                n.putWeakly(indexKey, index);
             }
-            return partition;
+            return index;
         }
     }
 }
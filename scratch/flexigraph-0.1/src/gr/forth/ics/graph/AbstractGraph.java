@@ -40,6 +40,25 @@ abstract class AbstractGraph extends AbstractInspectableGraph implements Graph {
         return newEdge(n1, n2, null);
     }
     
+    public Edge[] newEdges(Node[] sources, Node[] targets) {
+        Args.notNull(sources, targets);
+        if (sources.length != targets.length) {
+            throw new IllegalArgumentException("Sources and targets differ in length: " + sources.length +
+                    " != " + targets.length);
+        }
+        for (int i = 0; i < sources.length; i++) {
+            if (!containsNode(sources[i]) || !containsNode(targets[i])) {
+                throw new IllegalArgumentException("Node " + (containsNode(sources[i]) ? targets[i] : sources[i]) +
+                        " not contained in graph");
+            }
+        }
+        Edge[] edges = new Edge[sources.length];
+        for (int i = 0; i < edges.length; i++) {
+            edges[i] = newEdge(sources[i], targets[i]);
+        }
+        return edges;
+    }
+    
     public Node[] newNodes(Object ... values) {
         Node[] ids = new Node[values.length];
         for (int i = 0; i < values.length; ++i) {
@@ -81,6 +100,13 @@ abstract class AbstractGraph extends AbstractInspectableGraph implements Graph {
         return false;
     }
     
+    /**
+     * Returns a compact copy of this graph, see {@link Graphs#freeze(InspectableGraph)}.
+     */
+    public InspectableGraph snapshot() {
+        return new CsrGraph(this);
+    }
+    
     public void importGraph(Graph g) {
         importGraph(g, g.nodes());
     }
@@ -17,6 +17,7 @@ import gr.forth.ics.util.ExtendedListIterable;
 abstract class AbstractInspectableGraph implements InspectableGraph, Serializable {
     transient GraphEventSupport graphEventSupport = new GraphEventSupport();
     int edgeCount;
+    long modCount;
     
     private final Set<Hint> hints = EnumSet.noneOf(Hint.class);
     
@@ -63,6 +64,10 @@ abstract class AbstractInspectableGraph implements InspectableGraph, Serializabl
         return graphEventSupport.getEdgeListeners();
     }
     
+    public long modCount() {
+        return modCount;
+    }
+    
     public Tuple tuple() {
         return tuple;
     }
@@ -72,7 +77,7 @@ abstract class AbstractInspectableGraph implements InspectableGraph, Serializabl
     }
     
     public boolean areAdjacent(Node n1, Node n2) {
-        return edges(n1, n2).iterator().hasNext();
+        return areAdjacent(n1, n2, Direction.EITHER);
     }
     
     public boolean areAdjacent(Node n1, Node n2, Direction direction) {
@@ -91,6 +96,18 @@ abstract class AbstractInspectableGraph implements InspectableGraph, Serializabl
         return adjacentNodes(n, Direction.EITHER);
     }
     
+    public EdgeCursor edgeCursor() {
+        return nodeCursor();
+    }
+    
+    /**
+     * Returns a cursor that is backed by {@link #edges(Node, Direction)}, which allocates an iterator
+     * on every reset. Implementations should override this with a cursor over their own structures.
+     */
+    public NodeCursor nodeCursor() {
+        return new IteratingCursor(this);
+    }
+    
     public Edge anEdge() {
         return firstEdge(edges());
     }
@@ -104,7 +121,7 @@ abstract class AbstractInspectableGraph implements InspectableGraph, Serializabl
     }
     
     public Edge anEdge(Node n1, Node n2) {
-        return firstEdge(edges(n1, n2));
+        return anEdge(n1, n2, Direction.EITHER);
     }
     
     public Edge anEdge(Node n1, Node n2, Direction direction) {
@@ -4,8 +4,15 @@ import java.util.ListIterator;
 import gr.forth.ics.util.Accessor;
 import gr.forth.ics.graph.event.GraphEvent;
 import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Consumer;
 import gr.forth.ics.util.AbstractCompoundListIterator;
 import gr.forth.ics.util.FastLinkedList;
 import gr.forth.ics.util.Args;
@@ -16,11 +23,19 @@ import gr.forth.ics.util.FilteringListIterator;
 
 //TODO: find (node, node) implementation should be more configurable...
 //TODO: more thorough test (randomized? so that iterators are always in sync)
-abstract class AbstractListGraph extends AbstractGraph {
+abstract class AbstractListGraph extends AbstractGraph implements IndexedInspectableGraph {
     final FastLinkedList<NodeImpl> nodes = new FastLinkedList<NodeImpl>();
+    final IndexTable nodeIndexes = new IndexTable();
+    final IndexTable edgeIndexes = new IndexTable();
     
     private SoftReference<List<Node>> nodesCache;
     private SoftReference<List<Edge>> edgesCache;
+    //built on first use, if the FAST_ADJACENCY_TEST hint is given
+    private transient AdjacencyIndex adjacencyIndex;
+    //created by PrimaryGraph#snapshot(), and dropped once the snapshots taken from it are collected
+    transient volatile SnapshotStore snapshots;
+    private static final AtomicReferenceFieldUpdater<AbstractListGraph, SnapshotStore> SNAPSHOTS =
+            AtomicReferenceFieldUpdater.newUpdater(AbstractListGraph.class, SnapshotStore.class, "snapshots");
     
     abstract void setNodeRef(NodeImpl node, Accessor<NodeImpl> ref);
     abstract void setEdgeOutRef(EdgeImpl edge, Accessor<EdgeImpl> ref);
@@ -36,6 +51,11 @@ abstract class AbstractListGraph extends AbstractGraph {
     
     abstract void initNode(NodeImpl node);
     
+    abstract int getNodeIndex(NodeImpl node);
+    abstract int getEdgeIndex(EdgeImpl edge);
+    abstract void setNodeIndex(NodeImpl node, int index);
+    abstract void setEdgeIndex(EdgeImpl edge, int index);
+    
     //TODO: clearly document that nodes can only be created here. No other node than the supplied internal
     //type (NodeImpl) will work. The same for Edge/EdgeImpl.
     public Node newNode(Object value) {
@@ -44,6 +64,8 @@ abstract class AbstractListGraph extends AbstractGraph {
             public void run() {
                 initNode(node);
                 setNodeRef(node, nodes.addLast(node));
+                setNodeIndex(node, nodeIndexes.add(node));
+                nodeInserted(node);
                 nodesCache = null;
             }
         });
@@ -62,12 +84,88 @@ abstract class AbstractListGraph extends AbstractGraph {
                 Accessor<EdgeImpl> inRef = getInEdges(node2).addLast(edge);
                 setEdgeOutRef(edge, outRef);
                 setEdgeInRef(edge, inRef);
+                setEdgeIndex(edge, edgeIndexes.add(edge));
+                edgeInserted(edge);
                 edgesCache = null;
             }
         });
         return edge;
     }
     
+    @Override public Node[] newNodes(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException();
+        }
+        Node[] created = new Node[count];
+        for (int i = 0; i < count; i++) {
+            created[i] = new NodeImpl(null);
+        }
+        addNodes(created);
+        return created;
+    }
+    
+    @Override public Node[] newNodes(Object... values) {
+        Node[] created = new Node[values.length];
+        for (int i = 0; i < created.length; i++) {
+            created[i] = new NodeImpl(values[i]);
+        }
+        addNodes(created);
+        return created;
+    }
+    
+    //batches the events and the growth of the index table; every node is still linked on its own
+    private void addNodes(final Node[] created) {
+        if (created.length == 0) {
+            return;
+        }
+        graphEventSupport.fire(new GraphEvent(this, GraphEvent.Type.NODES_ADDED,
+                Collections.unmodifiableList(Arrays.asList(created))), new Runnable() {
+            public void run() {
+                nodeIndexes.ensureCapacity(nodeIndexes.capacity() + created.length);
+                for (Node n : created) {
+                    NodeImpl node = (NodeImpl)n;
+                    initNode(node);
+                    setNodeRef(node, nodes.addLast(node));
+                    setNodeIndex(node, nodeIndexes.add(node));
+                    nodeInserted(node);
+                }
+                nodesCache = null;
+            }
+        });
+    }
+    
+    //batches the events and the growth of the index table; every edge is still linked on its own
+    @Override public Edge[] newEdges(Node[] sources, Node[] targets) {
+        Args.notNull(sources, targets);
+        if (sources.length != targets.length) {
+            throw new IllegalArgumentException("Sources and targets differ in length: " + sources.length +
+                    " != " + targets.length);
+        }
+        final Edge[] created = new Edge[sources.length];
+        for (int i = 0; i < created.length; i++) {
+            created[i] = new EdgeImpl(checkContainedAndCast(sources[i]), checkContainedAndCast(targets[i]), null);
+        }
+        if (created.length == 0) {
+            return created;
+        }
+        graphEventSupport.fire(new GraphEvent(this, GraphEvent.Type.EDGES_ADDED,
+                Collections.unmodifiableList(Arrays.asList(created))), new Runnable() {
+            public void run() {
+                edgeIndexes.ensureCapacity(edgeIndexes.capacity() + created.length);
+                for (Edge e : created) {
+                    EdgeImpl edge = (EdgeImpl)e;
+                    setEdgeOutRef(edge, getOutEdges(edge.n1).addLast(edge));
+                    setEdgeInRef(edge, getInEdges(edge.n2).addLast(edge));
+                    setEdgeIndex(edge, edgeIndexes.add(edge));
+                    edgeInserted(edge);
+                }
+                edgeCount += created.length;
+                edgesCache = null;
+            }
+        });
+        return created;
+    }
+    
     public int nodeCount() {
         return nodes.size();
     }
@@ -143,6 +241,11 @@ abstract class AbstractListGraph extends AbstractGraph {
                     }
                 };
             }
+            
+            @Override
+            protected Spliterator<Node> spliteratorImpl() {
+                return castNodes(seq).spliterator();
+            }
         };
     }
     
@@ -163,6 +266,9 @@ abstract class AbstractListGraph extends AbstractGraph {
     }
     
     public ExtendedListIterable<Node> nodes() {
+        if (containsHint(Hint.FAIL_FAST_ITERATION)) {
+            return failFast(iterableNodes(nodes, nodeCount()), nodeCount());
+        }
         if (containsHint(Hint.FAST_NODE_ITERATION)) {
             List<Node> nodesList = null;
             if (nodesCache != null) {
@@ -190,6 +296,11 @@ abstract class AbstractListGraph extends AbstractGraph {
                             }
                         };
                     }
+                    
+                    @Override
+                    protected Spliterator<Node> spliteratorImpl() {
+                        return finalNodesList.spliterator();
+                    }
                 };
             }
         }
@@ -259,6 +370,8 @@ abstract class AbstractListGraph extends AbstractGraph {
                 NodeImpl n2 = (NodeImpl)e.n2();
                 getEdgeOutRef(e).remove();
                 getEdgeInRef(e).remove();
+                edgeIndexes.remove(getEdgeIndex(e));
+                edgeDeleted(e);
                 removeEdgeRefs(e);
                 edgeCount--;
                 edgesCache = null;
@@ -274,10 +387,13 @@ abstract class AbstractListGraph extends AbstractGraph {
         graphEventSupport.fire(new GraphEvent(this, GraphEvent.Type.NODE_REMOVED, node), new Runnable() {
             public void run() {
                 NodeImpl n = (NodeImpl)node;
-                for (Edge e : edges(node)) {
+                //not the fail-fast view, since every removal changes the modification count
+                for (Edge e : incidentEdges(n, Direction.EITHER)) {
                     removeEdge(e);
                 }
                 getNodeRef(n).remove();
+                nodeIndexes.remove(getNodeIndex(n));
+                nodeDeleted(n);
                 removeNodeRef(n);
                 edgesCache = null;
                 nodesCache = null;
@@ -289,7 +405,11 @@ abstract class AbstractListGraph extends AbstractGraph {
     public ExtendedListIterable<Edge> edges(Node node, final Direction direction) {
         Args.notNull(direction);
         final NodeImpl n = checkContainedAndCast(node);
-        return new ExtendedListIterable<Edge>(degree(node, direction)) {
+        return failFast(incidentEdges(n, direction), degree(node, direction));
+    }
+    
+    private ExtendedListIterable<Edge> incidentEdges(final NodeImpl n, final Direction direction) {
+        return new ExtendedListIterable<Edge>(degree(n, direction)) {
             protected ListIterator<Edge> listIteratorImpl() {
                 return new CompoundListIterator<Edge>(
                         direction.isOut() ? castEdges(getOutEdges(n)).listIterator() : null,
@@ -299,11 +419,202 @@ abstract class AbstractListGraph extends AbstractGraph {
         };
     }
     
-//TODO: slow, typically
+    /**
+     * Returns the specified iterable if {@link Hint#FAIL_FAST_ITERATION} is not set, otherwise an
+     * iterable of the same (expected) size whose iterators and spliterators check the modification
+     * count of this graph.
+     */
+    private <E> ExtendedListIterable<E> failFast(final ExtendedListIterable<E> iterable, int expectedSize) {
+        if (!containsHint(Hint.FAIL_FAST_ITERATION)) {
+            return iterable;
+        }
+        return new ExtendedListIterable<E>(expectedSize) {
+            protected ListIterator<E> listIteratorImpl() {
+                return new FailFastListIterator<E>(AbstractListGraph.this, iterable.listIterator());
+            }
+            
+            @Override
+            protected Spliterator<E> spliteratorImpl() {
+                return new FailFastSpliterator<E>(AbstractListGraph.this, iterable.spliterator());
+            }
+        };
+    }
+    
+    @Override
+    public NodeCursor nodeCursor() {
+        return new ListCursor();
+    }
+    
+    /**
+     * Walks the out-list and then the in-list of a node, with a single reusable list cursor.
+     */
+    private class ListCursor implements NodeCursor {
+        private final FastLinkedList.Cursor<EdgeImpl> edges = new FastLinkedList.Cursor<EdgeImpl>();
+        private NodeImpl node;
+        //whether the in-list is still to be walked after the current list
+        private boolean inPending;
+        private EdgeImpl edge;
+        
+        public void reset(Node node, Direction direction) {
+            Args.notNull(direction);
+            NodeImpl n = checkContainedAndCast(node);
+            this.node = n;
+            edges.reset(direction.isOut() ? getOutEdges(n) : getInEdges(n));
+            inPending = direction == Direction.EITHER;
+            edge = null;
+        }
+        
+        public boolean next() {
+            if (edges.next()) {
+                edge = edges.get();
+                return true;
+            }
+            if (inPending) {
+                inPending = false;
+                edges.reset(getInEdges(node));
+                return next();
+            }
+            edge = null;
+            return false;
+        }
+        
+        public Edge edge() {
+            if (edge == null) {
+                throw new NoSuchElementException();
+            }
+            return edge;
+        }
+        
+        public Node node() {
+            return edge().opposite(node);
+        }
+    }
+    
+    /**
+     * Returns the index of the edges by their endpoints, building it if needed, or null if the
+     * {@link Hint#FAST_ADJACENCY_TEST} hint has not been given.
+     */
+    private AdjacencyIndex adjacencyIndex() {
+        if (adjacencyIndex == null && containsHint(Hint.FAST_ADJACENCY_TEST)) {
+            AdjacencyIndex index = new AdjacencyIndex(edgeCount());
+            for (NodeImpl n : nodes) {
+                for (EdgeImpl e : getOutEdges(n)) {
+                    index.add(e);
+                }
+            }
+            adjacencyIndex = index;
+        }
+        return adjacencyIndex;
+    }
+    
+    final void nodeInserted(NodeImpl node) {
+        modCount++;
+        SnapshotStore store = snapshots;
+        if (store != null && !store.nodeAdded(node)) {
+            detach(store);
+        }
+    }
+    
+    final void nodeDeleted(NodeImpl node) {
+        modCount++;
+        SnapshotStore store = snapshots;
+        if (store != null && !store.nodeRemoved(node)) {
+            detach(store);
+        }
+    }
+    
+    final void edgeInserted(EdgeImpl edge) {
+        modCount++;
+        if (adjacencyIndex != null) {
+            adjacencyIndex.add(edge);
+        }
+        SnapshotStore store = snapshots;
+        if (store != null && !store.edgeAdded(edge)) {
+            detach(store);
+        }
+    }
+    
+    final void edgeDeleted(EdgeImpl edge) {
+        modCount++;
+        if (adjacencyIndex != null) {
+            adjacencyIndex.remove(edge);
+        }
+        SnapshotStore store = snapshots;
+        if (store != null && !store.edgeRemoved(edge)) {
+            detach(store);
+        }
+    }
+    
+    /**
+     * Drops the specified snapshot store, which has been detached, unless it has been replaced already.
+     */
+    final void detach(SnapshotStore store) {
+        SNAPSHOTS.compareAndSet(this, store, null);
+    }
+    
+    @Override public boolean areAdjacent(Node n1, Node n2, Direction direction) {
+        AdjacencyIndex index = adjacencyIndex();
+        if (index == null) {
+            return super.areAdjacent(n1, n2, direction);
+        }
+        return anIndexedEdge(index, n1, n2, direction) != null;
+    }
+    
+    @Override public Edge anEdge(Node n1, Node n2, Direction direction) {
+        AdjacencyIndex index = adjacencyIndex();
+        if (index == null) {
+            return super.anEdge(n1, n2, direction);
+        }
+        Edge edge = anIndexedEdge(index, n1, n2, direction);
+        if (edge == null) {
+            throw new NoSuchElementException();
+        }
+        return edge;
+    }
+    
+    private EdgeImpl anIndexedEdge(AdjacencyIndex index, Node n1, Node n2, Direction direction) {
+        Args.notNull(direction);
+        NodeImpl node1 = checkContainedAndCast(n1);
+        NodeImpl node2 = checkContainedAndCast(n2);
+        EdgeImpl edge = null;
+        if (direction.isOut()) {
+            edge = index.anEdge(node1, node2);
+        }
+        if (edge == null && direction.isIn()) {
+            edge = index.anEdge(node2, node1);
+        }
+        return edge;
+    }
+    
     public ExtendedListIterable<Edge> edges(final Node n1, final Node n2, final Direction direction) {
         Args.notNull(direction);
         final NodeImpl node1 = checkContainedAndCast(n1);
         final NodeImpl node2 = checkContainedAndCast(n2);
+        AdjacencyIndex index = adjacencyIndex();
+        if (index != null) {
+            final List<Edge> found = new ArrayList<Edge>(2);
+            if (direction.isOut()) {
+                index.collect(node1, node2, found);
+            }
+            if (direction.isIn()) {
+                index.collect(node2, node1, found);
+            }
+            return failFast(new ExtendedListIterable<Edge>(found.size()) {
+                protected ListIterator<Edge> listIteratorImpl() {
+                    return new DelegateListIterator<Edge>(found.listIterator()) {
+                        public void remove() {
+                            super.remove();
+                            if (!removeEdge(last)) {
+                                //already removed, as the iterators of the incidence lists report it
+                                throw new NoSuchElementException();
+                            }
+                            last = null;
+                        }
+                    };
+                }
+            }, found.size());
+        }
+        //scans the smaller incidence list; see Hint.FAST_ADJACENCY_TEST
         Direction flip = direction.flip();
         if (degree(n1, direction) > (degree(n2, flip)) && n1 != n2) {
             return edges(n2, n1, flip);
@@ -316,7 +627,7 @@ abstract class AbstractListGraph extends AbstractGraph {
             (inDegree(n1) < outDegree(n2) ?
                 castEdges(getInEdges(node1)).listIterator() :
                 castEdges(getOutEdges(node2)).listIterator()));
-        return new ExtendedListIterable<Edge>() {
+        return failFast(new ExtendedListIterable<Edge>() {
             protected ListIterator<Edge> listIteratorImpl() {
                 return new FilteringListIterator<Edge>(new CompoundListIterator<Edge>(outIterator, inIterator), new Filter<Edge>() {
                     public boolean accept(Edge e) {
@@ -324,7 +635,7 @@ abstract class AbstractListGraph extends AbstractGraph {
                     }
                 });
             }
-        };
+        }, -1);
     }
     
     public boolean containsEdge(Edge edge) {
@@ -352,6 +663,30 @@ abstract class AbstractListGraph extends AbstractGraph {
         }
     }
     
+    public int indexOf(Node node) {
+        return containsNode(node) ? getNodeIndex((NodeImpl)node) : -1;
+    }
+    
+    public int indexOf(Edge edge) {
+        return containsEdge(edge) ? getEdgeIndex((EdgeImpl)edge) : -1;
+    }
+    
+    public Node nodeAt(int index) {
+        return (Node)nodeIndexes.get(index);
+    }
+    
+    public Edge edgeAt(int index) {
+        return (Edge)edgeIndexes.get(index);
+    }
+    
+    public int nodeIndexCapacity() {
+        return nodeIndexes.capacity();
+    }
+    
+    public int edgeIndexCapacity() {
+        return edgeIndexes.capacity();
+    }
+    
     public int inDegree(Node node) {
         NodeImpl n = checkContainedAndCast(node);
         return getInEdges(n).size();
@@ -368,6 +703,9 @@ abstract class AbstractListGraph extends AbstractGraph {
     }
     
     public ExtendedListIterable<Edge> edges() {
+        if (containsHint(Hint.FAIL_FAST_ITERATION)) {
+            return failFast(edgesImpl(), edgeCount());
+        }
         if (containsHint(Hint.FAST_EDGE_ITERATION)) {
             List<Edge> edgesList = null;
             if (edgesCache != null) {
@@ -398,6 +736,11 @@ abstract class AbstractListGraph extends AbstractGraph {
                             }
                         };
                     }
+                    
+                    @Override
+                    protected Spliterator<Edge> spliteratorImpl() {
+                        return edgeList.spliterator();
+                    }
                 };
             }
         }
@@ -411,7 +754,9 @@ abstract class AbstractListGraph extends AbstractGraph {
                 return new AbstractCompoundListIterator<Edge>() {
                     private Direction direction = null; //keeps the last direction of this iterator
                     
-                    final ListIterator<Node> nodeCursor = nodes().listIterator();
+                    //removals through this iterator must not trip a fail-fast node iterator
+                    final ListIterator<Node> nodeCursor = (containsHint(Hint.FAIL_FAST_ITERATION) ?
+                        iterableNodes(nodes, nodeCount()) : nodes()).listIterator();
                     
                     protected boolean hasNextIterator() {
                         if (direction == Direction.IN) {
@@ -459,9 +804,78 @@ abstract class AbstractListGraph extends AbstractGraph {
                     }
                 };
             }
+            
+            @Override
+            protected Spliterator<Edge> spliteratorImpl() {
+                return new EdgeSpliterator(nodes.spliterator(), edgeCount(), Spliterator.SIZED);
+            }
         };
     }
     
+    /**
+     * Splits the edges of the graph by splitting the node list; each node contributes its out-edges.
+     * Only the initial spliterator knows its exact size, the split ones estimate theirs.
+     */
+    private class EdgeSpliterator implements Spliterator<Edge>, Consumer<NodeImpl> {
+        private final Spliterator<NodeImpl> nodes;
+        private FastLinkedList.Cursor<EdgeImpl> edges = new FastLinkedList.Cursor<EdgeImpl>();
+        private long size;
+        //SIZED until split, 0 afterwards
+        private int sized;
+        private NodeImpl node;
+        
+        EdgeSpliterator(Spliterator<NodeImpl> nodes, long size, int sized) {
+            this.nodes = nodes;
+            this.size = size;
+            this.sized = sized;
+        }
+        
+        public void accept(NodeImpl node) {
+            this.node = node;
+        }
+        
+        public boolean tryAdvance(Consumer<? super Edge> action) {
+            while (node == null || !edges.next()) {
+                node = null;
+                if (!nodes.tryAdvance(this)) {
+                    return false;
+                }
+                edges.reset(getOutEdges(node));
+            }
+            if (size > 0) {
+                size--;
+            }
+            action.accept(edges.get());
+            return true;
+        }
+        
+        public Spliterator<Edge> trySplit() {
+            long remainingNodes = nodes.estimateSize();
+            Spliterator<NodeImpl> prefixNodes = nodes.trySplit();
+            if (prefixNodes == null || remainingNodes == 0) {
+                return null;
+            }
+            //the prefix takes the edges of the current node too, so it continues with this cursor
+            long prefixSize = size * prefixNodes.estimateSize() / remainingNodes;
+            EdgeSpliterator prefix = new EdgeSpliterator(prefixNodes, prefixSize, 0);
+            prefix.edges = edges;
+            prefix.node = node;
+            edges = new FastLinkedList.Cursor<EdgeImpl>();
+            node = null;
+            size -= prefixSize;
+            sized = 0;
+            return prefix;
+        }
+        
+        public long estimateSize() {
+            return size;
+        }
+        
+        public int characteristics() {
+            return ORDERED | NONNULL | sized;
+        }
+    }
+    
     public OrderManager getOrderManager() {
         return new OrderManagerImpl();
     }
@@ -519,6 +933,7 @@ abstract class AbstractListGraph extends AbstractGraph {
             NodeImpl n = checkContainedAndCast(node);
             getNodeRef(n).moveToFront();
             nodesCache = null;
+            modCount++;
             graphEventSupport.fire(new GraphEvent(AbstractListGraph.this, GraphEvent.Type.NODE_REORDERED, node));
         }
         
@@ -526,6 +941,7 @@ abstract class AbstractListGraph extends AbstractGraph {
             NodeImpl n = checkContainedAndCast(node);
             getNodeRef(n).moveToBack();
             nodesCache = null;
+            modCount++;
             graphEventSupport.fire(new GraphEvent(AbstractListGraph.this, GraphEvent.Type.NODE_REORDERED, node));
         }
         
@@ -534,6 +950,7 @@ abstract class AbstractListGraph extends AbstractGraph {
             NodeImpl before = checkContainedAndCast(beforeWhat);
             getNodeRef(n).moveBefore(getNodeRef(before));
             nodesCache = null;
+            modCount++;
             graphEventSupport.fire(new GraphEvent(AbstractListGraph.this, GraphEvent.Type.NODE_REORDERED, node));
         }
         
@@ -542,6 +959,7 @@ abstract class AbstractListGraph extends AbstractGraph {
             NodeImpl after = checkContainedAndCast(afterWhat);
             getNodeRef(n).moveAfter(getNodeRef(after));
             nodesCache = null;
+            modCount++;
             graphEventSupport.fire(new GraphEvent(AbstractListGraph.this, GraphEvent.Type.NODE_REORDERED, node));
         }
         
@@ -561,6 +979,7 @@ abstract class AbstractListGraph extends AbstractGraph {
             }
             ref.moveToFront();
             edgesCache = null;
+            modCount++;
             graphEventSupport.fire(new GraphEvent(AbstractListGraph.this, GraphEvent.Type.EDGE_REORDERED, edge));
         }
         
@@ -580,6 +999,7 @@ abstract class AbstractListGraph extends AbstractGraph {
             }
             ref.moveToBack();
             edgesCache = null;
+            modCount++;
             graphEventSupport.fire(new GraphEvent(AbstractListGraph.this, GraphEvent.Type.EDGE_REORDERED, edge));
         }
         
@@ -603,6 +1023,7 @@ abstract class AbstractListGraph extends AbstractGraph {
             }
             ref.moveBefore(ref2);
             edgesCache = null;
+            modCount++;
             graphEventSupport.fire(new GraphEvent(AbstractListGraph.this, GraphEvent.Type.EDGE_REORDERED, edge));
         }
         
@@ -626,6 +1047,7 @@ abstract class AbstractListGraph extends AbstractGraph {
             }
             ref.moveAfter(ref2);
             edgesCache = null;
+            modCount++;
             graphEventSupport.fire(new GraphEvent(AbstractListGraph.this, GraphEvent.Type.EDGE_REORDERED, edge));
         }
     }
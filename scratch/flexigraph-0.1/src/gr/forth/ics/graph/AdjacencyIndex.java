@@ -0,0 +1,200 @@
+package gr.forth.ics.graph;
+
+import java.util.List;
+
+/**
+ * Hashes the edges of a graph by their (ordered) pair of endpoints, so that the edges from a node to another
+ * can be found in expected constant time. Open addressing with linear probing; the table is kept at most half
+ * full, and removals shift back the entries that follow instead of leaving markers behind.
+ * <p>
+ * Every slot costs three references (source, target, and the edge, or an array of the parallel edges, of the pair),
+ * so the index takes between 6 and 12 references per distinct pair of adjacent nodes.
+ *
+ * @see Hint#FAST_ADJACENCY_TEST
+ */
+final class AdjacencyIndex {
+    private static final int MIN_CAPACITY = 16;
+
+    private NodeImpl[] sources;
+    private NodeImpl[] targets;
+    //an EdgeImpl, or an EdgeImpl[] (without nulls) if there are parallel edges
+    private Object[] buckets;
+    private int size;
+
+    AdjacencyIndex(int expectedPairs) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedPairs * 2) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        sources = new NodeImpl[capacity];
+        targets = new NodeImpl[capacity];
+        buckets = new Object[capacity];
+    }
+
+    private static int hash(NodeImpl source, NodeImpl target) {
+        int h = System.identityHashCode(source) * 0x9E3779B9 + System.identityHashCode(target);
+        return h ^ (h >>> 16);
+    }
+
+    private int slotOf(NodeImpl source, NodeImpl target) {
+        final NodeImpl[] sources = this.sources;
+        final int mask = sources.length - 1;
+        int i = hash(source, target) & mask;
+        NodeImpl s;
+        while ((s = sources[i]) != null) {
+            if (s == source && targets[i] == target) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return ~i;
+    }
+
+    void add(EdgeImpl edge) {
+        int i = slotOf(edge.n1, edge.n2);
+        if (i >= 0) {
+            Object bucket = buckets[i];
+            EdgeImpl[] parallel;
+            if (bucket instanceof EdgeImpl) {
+                parallel = new EdgeImpl[] { (EdgeImpl)bucket, edge };
+            } else {
+                EdgeImpl[] old = (EdgeImpl[])bucket;
+                parallel = new EdgeImpl[old.length + 1];
+                System.arraycopy(old, 0, parallel, 0, old.length);
+                parallel[old.length] = edge;
+            }
+            buckets[i] = parallel;
+            return;
+        }
+        if ((size + 1) * 2 > sources.length) {
+            rehash(sources.length * 2);
+            i = slotOf(edge.n1, edge.n2);
+        }
+        i = ~i;
+        sources[i] = edge.n1;
+        targets[i] = edge.n2;
+        buckets[i] = edge;
+        size++;
+    }
+
+    void remove(EdgeImpl edge) {
+        int i = slotOf(edge.n1, edge.n2);
+        if (i < 0) {
+            return;
+        }
+        Object bucket = buckets[i];
+        if (bucket == edge) {
+            deleteSlot(i);
+            return;
+        }
+        if (bucket instanceof EdgeImpl) {
+            return;
+        }
+        EdgeImpl[] old = (EdgeImpl[])bucket;
+        int pos = -1;
+        for (int j = 0; j < old.length; j++) {
+            if (old[j] == edge) {
+                pos = j;
+                break;
+            }
+        }
+        if (pos < 0) {
+            return;
+        }
+        if (old.length == 2) {
+            buckets[i] = old[1 - pos];
+        } else {
+            EdgeImpl[] parallel = new EdgeImpl[old.length - 1];
+            System.arraycopy(old, 0, parallel, 0, pos);
+            System.arraycopy(old, pos + 1, parallel, pos, parallel.length - pos);
+            buckets[i] = parallel;
+        }
+    }
+
+    private void deleteSlot(int i) {
+        final int mask = sources.length - 1;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (sources[j] == null) {
+                break;
+            }
+            int home = hash(sources[j], targets[j]) & mask;
+            //the entry at j can stay if its home lies cyclically in (i, j]
+            if (i <= j ? (i < home && home <= j) : (i < home || home <= j)) {
+                continue;
+            }
+            sources[i] = sources[j];
+            targets[i] = targets[j];
+            buckets[i] = buckets[j];
+            i = j;
+        }
+        sources[i] = null;
+        targets[i] = null;
+        buckets[i] = null;
+        size--;
+    }
+
+    private void rehash(int capacity) {
+        NodeImpl[] oldSources = sources;
+        NodeImpl[] oldTargets = targets;
+        Object[] oldBuckets = buckets;
+        allocate(capacity);
+        for (int j = 0; j < oldSources.length; j++) {
+            if (oldSources[j] != null) {
+                int i = ~slotOf(oldSources[j], oldTargets[j]);
+                sources[i] = oldSources[j];
+                targets[i] = oldTargets[j];
+                buckets[i] = oldBuckets[j];
+            }
+        }
+    }
+
+    /**
+     * Returns the first edge from source to target, or null.
+     */
+    EdgeImpl anEdge(NodeImpl source, NodeImpl target) {
+        int i = slotOf(source, target);
+        if (i < 0) {
+            return null;
+        }
+        Object bucket = buckets[i];
+        return bucket instanceof EdgeImpl ? (EdgeImpl)bucket : ((EdgeImpl[])bucket)[0];
+    }
+
+    /**
+     * Appends to the list the edges from source to target.
+     */
+    void collect(NodeImpl source, NodeImpl target, List<Edge> edges) {
+        int i = slotOf(source, target);
+        if (i < 0) {
+            return;
+        }
+        Object bucket = buckets[i];
+        if (bucket instanceof EdgeImpl) {
+            edges.add((EdgeImpl)bucket);
+        } else {
+            for (EdgeImpl edge : (EdgeImpl[])bucket) {
+                edges.add(edge);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of distinct (ordered) pairs of adjacent nodes.
+     */
+    int pairCount() {
+        return size;
+    }
+
+    /**
+     * Returns the number of slots of the table.
+     */
+    int capacity() {
+        return sources.length;
+    }
+}
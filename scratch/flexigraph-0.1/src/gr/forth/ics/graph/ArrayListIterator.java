@@ -0,0 +1,61 @@
+package gr.forth.ics.graph;
+
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only list iterator over the positions [0, size), for graphs that keep their elements
+ * in (or can look them up by) array positions.
+ */
+abstract class ArrayListIterator<E> implements ListIterator<E> {
+    private final int size;
+    private int next;
+
+    ArrayListIterator(int size) {
+        this.size = size;
+    }
+
+    abstract E get(int i);
+
+    public boolean hasNext() {
+        return next < size;
+    }
+
+    public E next() {
+        if (next >= size) {
+            throw new NoSuchElementException();
+        }
+        return get(next++);
+    }
+
+    public boolean hasPrevious() {
+        return next > 0;
+    }
+
+    public E previous() {
+        if (next <= 0) {
+            throw new NoSuchElementException();
+        }
+        return get(--next);
+    }
+
+    public int nextIndex() {
+        return next;
+    }
+
+    public int previousIndex() {
+        return next - 1;
+    }
+
+    public void remove() {
+        throw new UnsupportedOperationException("Immutable graph");
+    }
+
+    public void set(E e) {
+        throw new UnsupportedOperationException("Immutable graph");
+    }
+
+    public void add(E e) {
+        throw new UnsupportedOperationException("Immutable graph");
+    }
+}
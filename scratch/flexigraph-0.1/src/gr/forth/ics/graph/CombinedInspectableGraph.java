@@ -0,0 +1,183 @@
+package gr.forth.ics.graph;
+
+import gr.forth.ics.util.Args;
+import gr.forth.ics.util.CompoundListIterator;
+import gr.forth.ics.util.ExtendedListIterable;
+import gr.forth.ics.util.Filter;
+import gr.forth.ics.util.FilteringListIterator;
+import java.util.ListIterator;
+
+/**
+ * A view of the union, intersection, subtraction or symmetric difference of two graphs. No element is
+ * copied and no listener is attached: every query consults both operands, so the view always reflects
+ * their current contents. An edge belongs to the view if the operation accepts it and both its
+ * endpoints belong to the view. Counting the nodes or edges of the view traverses the operands.
+ * <p>
+ * The view does not fire events; listeners should be attached to the operands instead.
+ *
+ * @see Graphs#unionView(InspectableGraph, InspectableGraph)
+ * @author Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
+ */
+class CombinedInspectableGraph extends AbstractInspectableGraph {
+    enum Operation {
+        UNION {
+            boolean accept(boolean in1, boolean in2) {
+                return in1 || in2;
+            }
+        }, INTERSECTION {
+            boolean accept(boolean in1, boolean in2) {
+                return in1 && in2;
+            }
+        }, SUBTRACTION {
+            boolean accept(boolean in1, boolean in2) {
+                return in1 && !in2;
+            }
+        }, XOR {
+            boolean accept(boolean in1, boolean in2) {
+                return in1 ^ in2;
+            }
+        };
+
+        abstract boolean accept(boolean in1, boolean in2);
+    }
+
+    private final InspectableGraph g1;
+    private final InspectableGraph g2;
+    private final Operation operation;
+    //whether elements found only in the second operand belong to the view, so that operand must be scanned too
+    private final boolean scansSecond;
+
+    CombinedInspectableGraph(InspectableGraph g1, InspectableGraph g2, Operation operation) {
+        Args.notNull(g1, g2, operation);
+        this.g1 = g1;
+        this.g2 = g2;
+        this.operation = operation;
+        this.scansSecond = operation.accept(false, true);
+    }
+
+    public boolean containsNode(Node node) {
+        return operation.accept(g1.containsNode(node), g2.containsNode(node));
+    }
+
+    public boolean containsEdge(Edge edge) {
+        return operation.accept(g1.containsEdge(edge), g2.containsEdge(edge))
+                && containsNode(edge.n1()) && containsNode(edge.n2());
+    }
+
+    private Node checkContained(Node node) {
+        if (!containsNode(node)) {
+            throw new IllegalArgumentException("Node " + node + " not contained in graph");
+        }
+        return node;
+    }
+
+    public int nodeCount() {
+        return nodes().size();
+    }
+
+    public int edgeCount() {
+        return edges().size();
+    }
+
+    @Override
+    public long modCount() {
+        return g1.modCount() + g2.modCount();
+    }
+
+    public int inDegree(Node node) {
+        return edges(node, Direction.IN).size();
+    }
+
+    public int outDegree(Node node) {
+        return edges(node, Direction.OUT).size();
+    }
+
+    public ExtendedListIterable<Node> nodes() {
+        return new ExtendedListIterable<Node>() {
+            protected ListIterator<Node> listIteratorImpl() {
+                return new CompoundListIterator<Node>(
+                        new FilteringListIterator<Node>(g1.nodes().listIterator(), new NodeFilter(true)),
+                        scansSecond ? new FilteringListIterator<Node>(g2.nodes().listIterator(), new NodeFilter(false)) : null);
+            }
+        };
+    }
+
+    public ExtendedListIterable<Edge> edges() {
+        return new ExtendedListIterable<Edge>() {
+            protected ListIterator<Edge> listIteratorImpl() {
+                return new CompoundListIterator<Edge>(
+                        new FilteringListIterator<Edge>(g1.edges().listIterator(), new EdgeFilter(true)),
+                        scansSecond ? new FilteringListIterator<Edge>(g2.edges().listIterator(), new EdgeFilter(false)) : null);
+            }
+        };
+    }
+
+    public ExtendedListIterable<Edge> edges(final Node node, final Direction direction) {
+        Args.notNull(direction);
+        checkContained(node);
+        return new ExtendedListIterable<Edge>() {
+            protected ListIterator<Edge> listIteratorImpl() {
+                return new CompoundListIterator<Edge>(
+                        g1.containsNode(node) ? scan(g1.edges(node, direction), true) : null,
+                        scansSecond && g2.containsNode(node) ? scan(g2.edges(node, direction), false) : null);
+            }
+        };
+    }
+
+    public ExtendedListIterable<Edge> edges(final Node n1, final Node n2, final Direction direction) {
+        Args.notNull(direction);
+        checkContained(n1);
+        checkContained(n2);
+        return new ExtendedListIterable<Edge>() {
+            protected ListIterator<Edge> listIteratorImpl() {
+                return new CompoundListIterator<Edge>(
+                        g1.containsNode(n1) && g1.containsNode(n2) ? scan(g1.edges(n1, n2, direction), true) : null,
+                        scansSecond && g2.containsNode(n1) && g2.containsNode(n2) ? scan(g2.edges(n1, n2, direction), false) : null);
+            }
+        };
+    }
+
+    private ListIterator<Edge> scan(ExtendedListIterable<Edge> edges, boolean first) {
+        return new FilteringListIterator<Edge>(edges.listIterator(), new EdgeFilter(first));
+    }
+
+    public ExtendedListIterable<Node> adjacentNodes(final Node node, Direction direction) {
+        final ExtendedListIterable<Edge> edges = edges(node, direction);
+        return new ExtendedListIterable<Node>() {
+            protected ListIterator<Node> listIteratorImpl() {
+                return new OppositeIterator(edges.listIterator(), node);
+            }
+        };
+    }
+
+    /**
+     * Accepts the nodes of the view that are found while scanning one of the operands. When scanning the
+     * second operand, nodes of the first are skipped, since they have already been reported.
+     */
+    private class NodeFilter implements Filter<Node> {
+        private final boolean first;
+
+        NodeFilter(boolean first) {
+            this.first = first;
+        }
+
+        public boolean accept(Node node) {
+            return first ? operation.accept(true, g2.containsNode(node))
+                    : !g1.containsNode(node) && operation.accept(false, true);
+        }
+    }
+
+    private class EdgeFilter implements Filter<Edge> {
+        private final boolean first;
+
+        EdgeFilter(boolean first) {
+            this.first = first;
+        }
+
+        public boolean accept(Edge edge) {
+            boolean in = first ? operation.accept(true, g2.containsEdge(edge))
+                    : !g1.containsEdge(edge) && operation.accept(false, true);
+            return in && containsNode(edge.n1()) && containsNode(edge.n2());
+        }
+    }
+}
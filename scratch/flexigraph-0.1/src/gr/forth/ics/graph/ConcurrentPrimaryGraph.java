@@ -0,0 +1,650 @@
+package gr.forth.ics.graph;
+
+import gr.forth.ics.graph.event.GraphEvent;
+import gr.forth.ics.util.Accessor;
+import gr.forth.ics.util.Args;
+import gr.forth.ics.util.ExtendedListIterable;
+import gr.forth.ics.util.FastLinkedList;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A primary graph that can be modified by many threads at once, e.g. to ingest edges from several
+ * parsers in parallel. Nodes and edges can be created and removed concurrently; each operation locks
+ * only the (striped) locks of the nodes it touches, so operations on unrelated nodes proceed in parallel.
+ * Node and edge counts are kept in {@link LongAdder}s, so they do not become a point of contention.
+ * <p>
+ * Queries are thread-safe too, but those that return many elements ({@link #nodes()}, {@link #edges()},
+ * {@link #edges(Node, Direction)}) copy them first, and only reflect a consistent state of the whole graph
+ * when there are no concurrent modifications; iterating them never throws {@link java.util.ConcurrentModificationException}.
+ * Nodes are iterated in insertion order, as in {@link PrimaryGraph}. The {@link #getOrderManager() order manager}
+ * is not supported.
+ * <p>
+ * Listeners are notified in the threads that modify the graph, one event at a time: while the graph has
+ * listeners, modifications are applied one after the other, and are checked before any listener is notified.
+ * Listeners should be registered before the graph is shared among threads.
+ *
+ * @author Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
+ */
+public final class ConcurrentPrimaryGraph extends AbstractGraph {
+    private static final long serialVersionUID = 1L;
+
+    //marks the nodes of this graph as contained in a primary graph, so other primary graphs reject them
+    private static final Accessor<NodeImpl> OWNED = new FastLinkedList<NodeImpl>().addLast(null);
+
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+    //nodes by index, in chunks; indexes are never reused, so this also keeps the nodes in insertion order
+    private volatile Chunk[] directory = new Chunk[0];
+    private final LongAdder nodeCounter = new LongAdder();
+    private final LongAdder edgeCounter = new LongAdder();
+    private final LongAdder modifications = new LongAdder();
+    private final AtomicInteger ids = new AtomicInteger();
+    private transient Object[] locks;
+
+    /**
+     * Creates a graph with a number of locks suitable for the available processors.
+     */
+    public ConcurrentPrimaryGraph() {
+        this(16 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a graph with (at least) the specified number of locks. Each node is guarded by one of them.
+     */
+    public ConcurrentPrimaryGraph(int concurrencyLevel) {
+        Args.gte(concurrencyLevel, 1);
+        int stripes = 1;
+        while (stripes < concurrencyLevel) {
+            stripes <<= 1;
+        }
+        createLocks(stripes);
+    }
+
+    private void createLocks(int stripes) {
+        locks = new Object[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(locks.length);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        createLocks(in.readInt());
+    }
+
+    //a named (non-generic) chunk type, so the directory can be created as a plain array
+    private static final class Chunk extends AtomicReferenceArray<NodeImpl> {
+        private static final long serialVersionUID = 1L;
+
+        Chunk() {
+            super(CHUNK_MASK + 1);
+        }
+    }
+
+    private Chunk chunkOf(int index) {
+        Chunk[] dir = directory;
+        int chunk = index >>> CHUNK_SHIFT;
+        return chunk < dir.length ? dir[chunk] : null;
+    }
+
+    private synchronized Chunk growDirectory(int index) {
+        Chunk[] dir = directory;
+        int chunk = index >>> CHUNK_SHIFT;
+        if (chunk < dir.length) {
+            return dir[chunk];
+        }
+        Chunk[] grown = Arrays.copyOf(dir, Math.max(chunk + 1, 2 * dir.length));
+        for (int i = dir.length; i < grown.length; i++) {
+            grown[i] = new Chunk();
+        }
+        directory = grown;
+        return grown[chunk];
+    }
+
+    private Object lockOf(NodeImpl node) {
+        return locks[node.index & (locks.length - 1)];
+    }
+
+    @Override public Node[] newNodes(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException();
+        }
+        Node[] created = new Node[count];
+        for (int i = 0; i < count; i++) {
+            created[i] = new NodeImpl(null);
+        }
+        addNodes(created);
+        return created;
+    }
+
+    @Override public Node[] newNodes(Object... values) {
+        Node[] created = new Node[values.length];
+        for (int i = 0; i < created.length; i++) {
+            created[i] = new NodeImpl(values[i]);
+        }
+        addNodes(created);
+        return created;
+    }
+
+    private void addNodes(final Node[] created) {
+        if (created.length == 0) {
+            return;
+        }
+        apply(new GraphEvent(this, GraphEvent.Type.NODES_ADDED,
+                Collections.unmodifiableList(Arrays.asList(created))), new Modification() {
+            public void run() {
+                for (Node n : created) {
+                    insertNode((NodeImpl)n);
+                }
+            }
+        });
+    }
+
+    public Node newNode(Object value) {
+        final NodeImpl node = new NodeImpl(value);
+        apply(new GraphEvent(this, GraphEvent.Type.NODE_ADDED, node), new Modification() {
+            public void run() {
+                insertNode(node);
+            }
+        });
+        return node;
+    }
+
+    private void insertNode(NodeImpl node) {
+        int index = ids.getAndIncrement();
+        Chunk chunk = chunkOf(index);
+        if (chunk == null) {
+            chunk = growDirectory(index);
+        }
+        node.index = index;
+        synchronized (lockOf(node)) {
+            node.reference = OWNED;
+            chunk.set(index & CHUNK_MASK, node);
+        }
+        nodeCounter.increment();
+        modifications.increment();
+    }
+
+    public Edge newEdge(Node n1, Node n2, Object value) {
+        Args.notNull(n1, n2);
+        final EdgeImpl edge = new EdgeImpl(checkContainedAndCast(n1), checkContainedAndCast(n2), value);
+        apply(new GraphEvent(this, GraphEvent.Type.EDGE_ADDED, edge), new Modification() {
+            @Override boolean check() {
+                //the nodes might have been removed meanwhile
+                checkContainedAndCast(edge.n1);
+                checkContainedAndCast(edge.n2);
+                return true;
+            }
+
+            public void run() {
+                insertEdge(edge);
+            }
+        });
+        return edge;
+    }
+
+    @Override public Edge[] newEdges(Node[] sources, Node[] targets) {
+        Args.notNull(sources, targets);
+        if (sources.length != targets.length) {
+            throw new IllegalArgumentException("Sources and targets differ in length: " + sources.length +
+                    " != " + targets.length);
+        }
+        final Edge[] created = new Edge[sources.length];
+        for (int i = 0; i < created.length; i++) {
+            created[i] = new EdgeImpl(checkContainedAndCast(sources[i]), checkContainedAndCast(targets[i]), null);
+        }
+        if (created.length == 0) {
+            return created;
+        }
+        apply(new GraphEvent(this, GraphEvent.Type.EDGES_ADDED,
+                Collections.unmodifiableList(Arrays.asList(created))), new Modification() {
+            @Override boolean check() {
+                for (Edge e : created) {
+                    checkContainedAndCast(e.n1());
+                    checkContainedAndCast(e.n2());
+                }
+                return true;
+            }
+
+            public void run() {
+                for (Edge e : created) {
+                    insertEdge((EdgeImpl)e);
+                }
+            }
+        });
+        return created;
+    }
+
+    private void insertEdge(EdgeImpl edge) {
+        //locks are always taken in stripe order
+        int stripe1 = edge.n1.index & (locks.length - 1);
+        int stripe2 = edge.n2.index & (locks.length - 1);
+        synchronized (locks[Math.min(stripe1, stripe2)]) {
+            synchronized (locks[Math.max(stripe1, stripe2)]) {
+                //the nodes might have been removed meanwhile, if there are no listeners
+                checkContainedAndCast(edge.n1);
+                checkContainedAndCast(edge.n2);
+                edge.outReference = edge.n1.outEdges.addLast(edge);
+                edge.inReference = edge.n2.inEdges.addLast(edge);
+            }
+        }
+        edgeCounter.increment();
+        modifications.increment();
+    }
+
+    public boolean removeEdge(Edge edge) {
+        if (!containsEdge(edge)) {
+            return false;
+        }
+        final EdgeImpl e = (EdgeImpl)edge;
+        return apply(new GraphEvent(this, GraphEvent.Type.EDGE_REMOVED, edge), new Modification() {
+            @Override boolean check() {
+                //a concurrent removal may have won
+                return containsEdge(e);
+            }
+
+            public void run() {
+                applied = unlink(e);
+            }
+        });
+    }
+
+    /**
+     * Removes the edge from the adjacency lists of its nodes, unless another thread did so already.
+     */
+    private boolean unlink(EdgeImpl edge) {
+        //locks are always taken in stripe order
+        int stripe1 = edge.n1.index & (locks.length - 1);
+        int stripe2 = edge.n2.index & (locks.length - 1);
+        synchronized (locks[Math.min(stripe1, stripe2)]) {
+            synchronized (locks[Math.max(stripe1, stripe2)]) {
+                if (edge.outReference == null) {
+                    return false;
+                }
+                edge.outReference.remove();
+                edge.inReference.remove();
+                edge.outReference = null;
+                edge.inReference = null;
+            }
+        }
+        edgeCounter.decrement();
+        modifications.increment();
+        return true;
+    }
+
+    public boolean removeNode(Node node) {
+        if (!containsNode(node)) {
+            return false;
+        }
+        final NodeImpl n = (NodeImpl)node;
+        return apply(new GraphEvent(this, GraphEvent.Type.NODE_REMOVED, node), new Modification() {
+            @Override boolean check() {
+                //a concurrent removal may have won
+                return containsNode(n);
+            }
+
+            public void run() {
+                //edges are removed one by one (so listeners are notified), until the node is found isolated;
+                //from then on, no edges can be attached to it
+                while (true) {
+                    for (Edge e : incidentEdges(n, Direction.EITHER)) {
+                        removeEdge(e);
+                    }
+                    synchronized (lockOf(n)) {
+                        if (!containsNode(n)) {
+                            applied = false;
+                            return;
+                        }
+                        if (n.outEdges.isEmpty() && n.inEdges.isEmpty()) {
+                            chunkOf(n.index).set(n.index & CHUNK_MASK, null);
+                            break;
+                        }
+                    }
+                }
+                synchronized (n) {
+                    n.reference = null;
+                }
+                nodeCounter.decrement();
+                modifications.increment();
+            }
+        });
+    }
+
+    public boolean reinsertNode(Node n) {
+        final NodeImpl node = (NodeImpl)n;
+        return apply(new GraphEvent(this, GraphEvent.Type.NODE_REINSERTED, node), new Modification() {
+            @Override boolean check() {
+                //a reinsertion claims and inserts the node under its monitor, so this sees either both or neither
+                synchronized (node) {
+                    if (node.reference != null) {
+                        if (containsNode(node)) {
+                            return false;
+                        }
+                        throw new IllegalArgumentException("Node must not belong to any graph, to be reinserted to one");
+                    }
+                    return true;
+                }
+            }
+
+            public void run() {
+                //without listeners, racing reinsertions may all pass the check; only one claims the node
+                synchronized (node) {
+                    if (node.reference != null) {
+                        applied = false;
+                        return;
+                    }
+                    insertNode(node);
+                }
+            }
+        });
+    }
+
+    public boolean reinsertEdge(Edge e) {
+        final EdgeImpl edge = (EdgeImpl)e;
+        return apply(new GraphEvent(this, GraphEvent.Type.EDGE_REINSERTED, edge), new Modification() {
+            @Override boolean check() {
+                if (edge.inReference != null) {
+                    if (containsEdge(edge)) {
+                        return false;
+                    }
+                    throw new IllegalArgumentException("Edge must not belong to any graph, to be reinserted to one");
+                }
+                return true;
+            }
+
+            public void run() {
+                if (!containsNode(edge.n1)) {
+                    reinsertNode(edge.n1);
+                }
+                if (!containsNode(edge.n2)) {
+                    reinsertNode(edge.n2);
+                }
+                insertEdge(edge);
+            }
+        });
+    }
+
+    /**
+     * Checks and applies a modification, notifying the listeners, if any. The event support and the
+     * listeners keep state while an event is dispatched, so with listeners, modifications are applied
+     * one at a time. The check is made under the same lock, so a modification that passed it (e.g. a
+     * removal that won a race with another) is still valid when it is applied.
+     *
+     * @return whether the modification was applied
+     */
+    private boolean apply(GraphEvent e, Modification modification) {
+        if (graphEventSupport.isEmpty()) {
+            if (!modification.check()) {
+                return false;
+            }
+            modification.run();
+            return modification.applied;
+        }
+        synchronized (graphEventSupport) {
+            if (!modification.check()) {
+                return false;
+            }
+            graphEventSupport.fire(e, modification);
+            return modification.applied;
+        }
+    }
+
+    private static abstract class Modification implements Runnable {
+        //cleared by a modification that finds that a concurrent one preceded it
+        boolean applied = true;
+
+        //throws IllegalArgumentException for invalid arguments, or returns false if there is nothing to do
+        boolean check() {
+            return true;
+        }
+    }
+
+    @Override public boolean isPrimary() {
+        return true;
+    }
+
+    /**
+     * Not supported.
+     * @throws UnsupportedOperationException always
+     */
+    public OrderManager getOrderManager() {
+        throw new UnsupportedOperationException("Concurrent graphs cannot be reordered");
+    }
+
+    public int nodeCount() {
+        return (int)nodeCounter.sum();
+    }
+
+    public int edgeCount() {
+        return (int)edgeCounter.sum();
+    }
+
+    @Override public long modCount() {
+        return modifications.sum();
+    }
+
+    public boolean containsNode(Node node) {
+        if (!(node instanceof NodeImpl)) {
+            return false;
+        }
+        int index = ((NodeImpl)node).index;
+        if (index < 0) {
+            return false;
+        }
+        Chunk chunk = chunkOf(index);
+        return chunk != null && chunk.get(index & CHUNK_MASK) == node;
+    }
+
+    public boolean containsEdge(Edge edge) {
+        if (!(edge instanceof EdgeImpl)) {
+            return false;
+        }
+        EdgeImpl e = (EdgeImpl)edge;
+        if (!containsNode(e.n1)) {
+            return false;
+        }
+        synchronized (lockOf(e.n1)) {
+            return e.outReference != null && e.outReference.owner() == e.n1.outEdges;
+        }
+    }
+
+    private NodeImpl checkContainedAndCast(Node node) {
+        if (!containsNode(node)) {
+            throw new IllegalArgumentException("Node " + node + " not contained in graph");
+        }
+        return (NodeImpl)node;
+    }
+
+    @Override public int degree(Node node, Direction direction) {
+        Args.notNull(direction);
+        NodeImpl n = checkContainedAndCast(node);
+        synchronized (lockOf(n)) {
+            return (direction.isOut() ? n.outEdges.size() : 0) + (direction.isIn() ? n.inEdges.size() : 0);
+        }
+    }
+
+    public int outDegree(Node node) {
+        return degree(node, Direction.OUT);
+    }
+
+    public int inDegree(Node node) {
+        return degree(node, Direction.IN);
+    }
+
+    public ExtendedListIterable<Node> nodes() {
+        return iterableNodes(copyNodes());
+    }
+
+    private List<NodeImpl> copyNodes() {
+        List<NodeImpl> copy = new ArrayList<NodeImpl>(nodeCount());
+        int upper = ids.get();
+        for (int index = 0; index < upper; index++) {
+            Chunk chunk = chunkOf(index);
+            if (chunk == null) {
+                break;
+            }
+            NodeImpl n = chunk.get(index & CHUNK_MASK);
+            if (n != null) {
+                copy.add(n);
+            }
+        }
+        return copy;
+    }
+
+    public ExtendedListIterable<Edge> edges() {
+        List<Edge> edges = new ArrayList<Edge>(edgeCount());
+        for (NodeImpl n : copyNodes()) {
+            synchronized (lockOf(n)) {
+                edges.addAll(n.outEdges);
+            }
+        }
+        return iterableEdges(edges);
+    }
+
+    public ExtendedListIterable<Edge> edges(Node node, Direction direction) {
+        Args.notNull(direction);
+        return iterableEdges(incidentEdges(checkContainedAndCast(node), direction));
+    }
+
+    private List<Edge> incidentEdges(NodeImpl n, Direction direction) {
+        List<Edge> edges;
+        synchronized (lockOf(n)) {
+            edges = new ArrayList<Edge>((direction.isOut() ? n.outEdges.size() : 0) +
+                    (direction.isIn() ? n.inEdges.size() : 0));
+            if (direction.isOut()) {
+                edges.addAll(n.outEdges);
+            }
+            if (direction.isIn()) {
+                edges.addAll(n.inEdges);
+            }
+        }
+        return edges;
+    }
+
+    public ExtendedListIterable<Node> adjacentNodes(Node node, Direction direction) {
+        List<Node> adjacent = new ArrayList<Node>();
+        for (Edge e : edges(node, direction)) {
+            adjacent.add(e.opposite(node));
+        }
+        return iterableNodes(adjacent);
+    }
+
+    public ExtendedListIterable<Edge> edges(Node n1, Node n2, Direction direction) {
+        Args.notNull(direction);
+        checkContainedAndCast(n2);
+        List<Edge> found = new ArrayList<Edge>(2);
+        for (Edge e : edges(n1, direction)) {
+            if (e.opposite(n1) == n2) {
+                found.add(e);
+            }
+        }
+        return iterableEdges(found);
+    }
+
+    //iterables over copies, whose iterators remove elements from the graph
+    private ExtendedListIterable<Node> iterableNodes(final List<? extends Node> copy) {
+        return new ExtendedListIterable<Node>(copy.size()) {
+            protected ListIterator<Node> listIteratorImpl() {
+                return new RemovingIterator<Node>(copy.listIterator()) {
+                    boolean remove(Node node) {
+                        return removeNode(node);
+                    }
+                };
+            }
+
+            @Override
+            protected Spliterator<Node> spliteratorImpl() {
+                return Collections.<Node>unmodifiableList(copy).spliterator();
+            }
+        };
+    }
+
+    private ExtendedListIterable<Edge> iterableEdges(final List<Edge> copy) {
+        return new ExtendedListIterable<Edge>(copy.size()) {
+            protected ListIterator<Edge> listIteratorImpl() {
+                return new RemovingIterator<Edge>(copy.listIterator()) {
+                    boolean remove(Edge edge) {
+                        return removeEdge(edge);
+                    }
+                };
+            }
+
+            @Override
+            protected Spliterator<Edge> spliteratorImpl() {
+                return copy.spliterator();
+            }
+        };
+    }
+
+    private static abstract class RemovingIterator<E> implements ListIterator<E> {
+        private final ListIterator<? extends E> delegate;
+        private E last;
+
+        RemovingIterator(ListIterator<? extends E> delegate) {
+            this.delegate = delegate;
+        }
+
+        abstract boolean remove(E element);
+
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        public E next() {
+            return last = delegate.next();
+        }
+
+        public boolean hasPrevious() {
+            return delegate.hasPrevious();
+        }
+
+        public E previous() {
+            return last = delegate.previous();
+        }
+
+        public int nextIndex() {
+            return delegate.nextIndex();
+        }
+
+        public int previousIndex() {
+            return delegate.previousIndex();
+        }
+
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            E element = last;
+            last = null;
+            if (!remove(element)) {
+                throw new NoSuchElementException("Already removed: " + element);
+            }
+        }
+
+        public void set(E e) {
+            throw new UnsupportedOperationException();
+        }
+
+        public void add(E e) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,454 @@
+package gr.forth.ics.graph;
+
+import gr.forth.ics.util.Args;
+import gr.forth.ics.util.ExtendedListIterable;
+import gr.forth.ics.util.IdentityIntMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+
+/**
+ * An immutable snapshot of a graph, stored in compressed sparse row (CSR) form: nodes and edges
+ * are kept in plain arrays, and the adjacency of every node is a contiguous range of int arrays.
+ * This is much more compact than the linked structures of {@link PrimaryGraph} and gives
+ * cache-friendly traversals, so it is a good fit for running read-only algorithms over large graphs
+ * that are not going to change.
+ * <p>
+ * The snapshot contains the very same node and edge objects as the graph it was created from
+ * (so tuple entries of the elements are shared), but later modifications of that graph are
+ * not reflected. The snapshot itself cannot be modified; no events are ever fired by it.
+ * <p>
+ * Nodes are numbered from <code>0</code> to <code>nodeCount() - 1</code>, in the iteration order of
+ * the original graph. Edges are numbered from <code>0</code> to <code>edgeCount() - 1</code>,
+ * grouped by source node, so the outgoing edges of node <code>i</code> are exactly the edges numbered
+ * from <code>outOffsets()[i]</code> (inclusive) to <code>outOffsets()[i + 1]</code> (exclusive),
+ * and their targets are the respective entries of {@link #outTargets()}. The incoming edges of
+ * node <code>i</code> are found in the same range of {@link #inEdges()} (and their sources in
+ * {@link #inSources()}), delimited by {@link #inOffsets()}. Incoming edges are ordered by their
+ * source node.
+ * <p>
+ * Algorithms that want to avoid the iterator abstraction can use these raw arrays directly.
+ * They are returned without copying, and must <em>not</em> be modified.
+ *
+ * @see Graphs#freeze(InspectableGraph)
+ * @author Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
+ */
+public final class CsrGraph extends AbstractInspectableGraph implements IndexedInspectableGraph {
+    private static final long serialVersionUID = 1L;
+
+    private final Node[] nodes;
+    private final Edge[] edges;
+    private final IdentityIntMap<Node> nodeIndex;
+
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private final int[] inOffsets;
+    private final int[] inEdges;
+    private final int[] inSources;
+
+    /**
+     * Creates a snapshot of the specified graph.
+     */
+    public CsrGraph(InspectableGraph graph) {
+        Args.notNull(graph);
+        final int nodeCount = graph.nodeCount();
+        final int edgeCount = graph.edgeCount();
+        nodes = new Node[nodeCount];
+        nodeIndex = new IdentityIntMap<Node>(nodeCount);
+        int pos = 0;
+        for (Node n : graph.nodes()) {
+            nodes[pos] = n;
+            nodeIndex.put(n, pos++);
+        }
+
+        //collect edges in graph order, then counting-sort them by source (stable)
+        Edge[] unsorted = new Edge[edgeCount];
+        int[] sources = new int[edgeCount];
+        int[] targets = new int[edgeCount];
+        outOffsets = new int[nodeCount + 1];
+        inOffsets = new int[nodeCount + 1];
+        pos = 0;
+        for (Edge e : graph.edges()) {
+            int source = nodeIndex.get(e.n1());
+            int target = nodeIndex.get(e.n2());
+            if (source < 0 || target < 0) {
+                throw new IllegalArgumentException("Edge " + e + " connects nodes not contained in graph");
+            }
+            unsorted[pos] = e;
+            sources[pos] = source;
+            targets[pos] = target;
+            outOffsets[source + 1]++;
+            inOffsets[target + 1]++;
+            pos++;
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            outOffsets[i + 1] += outOffsets[i];
+            inOffsets[i + 1] += inOffsets[i];
+        }
+
+        edges = new Edge[edgeCount];
+        outTargets = new int[edgeCount];
+        int[] fill = new int[nodeCount];
+        System.arraycopy(outOffsets, 0, fill, 0, nodeCount);
+        for (int i = 0; i < edgeCount; i++) {
+            int slot = fill[sources[i]]++;
+            edges[slot] = unsorted[i];
+            outTargets[slot] = targets[i];
+        }
+
+        inEdges = new int[edgeCount];
+        inSources = new int[edgeCount];
+        System.arraycopy(inOffsets, 0, fill, 0, nodeCount);
+        for (int node = 0; node < nodeCount; node++) {
+            for (int edge = outOffsets[node]; edge < outOffsets[node + 1]; edge++) {
+                int slot = fill[outTargets[edge]]++;
+                inEdges[slot] = edge;
+                inSources[slot] = node;
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the specified node, or -1 if it is not contained in this graph.
+     */
+    public int indexOf(Node node) {
+        return nodeIndex.get(node);
+    }
+
+    /**
+     * Returns the index of the specified edge, or -1 if it is not contained in this graph.
+     * This takes time proportional to the out-degree of the source of the edge.
+     */
+    public int indexOf(Edge edge) {
+        if (edge == null) {
+            return -1;
+        }
+        int source = nodeIndex.get(edge.n1());
+        if (source < 0) {
+            return -1;
+        }
+        for (int i = outOffsets[source]; i < outOffsets[source + 1]; i++) {
+            if (edges[i] == edge) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the node with the specified index.
+     * @throws IndexOutOfBoundsException if index is not in [0, nodeCount())
+     */
+    public Node nodeAt(int index) {
+        return nodes[index];
+    }
+
+    /**
+     * Returns the edge with the specified index.
+     * @throws IndexOutOfBoundsException if index is not in [0, edgeCount())
+     */
+    public Edge edgeAt(int index) {
+        return edges[index];
+    }
+
+    public int nodeIndexCapacity() {
+        return nodes.length;
+    }
+
+    public int edgeIndexCapacity() {
+        return edges.length;
+    }
+
+    /**
+     * Returns the index of the source node of the specified edge index.
+     */
+    public int edgeSource(int edge) {
+        if (edge < 0 || edge >= edges.length) {
+            throw new IndexOutOfBoundsException("Edge index: " + edge);
+        }
+        //find the last node whose out-range starts at or before the edge
+        int low = 0;
+        int high = nodes.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (outOffsets[mid] <= edge) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the target node of the specified edge index.
+     */
+    public int edgeTarget(int edge) {
+        return outTargets[edge];
+    }
+
+    /**
+     * Returns the out-range delimiters, an array of length <code>nodeCount() + 1</code>.
+     * Must not be modified.
+     */
+    public int[] outOffsets() {
+        return outOffsets;
+    }
+
+    /**
+     * Returns the target node index of every edge index, an array of length <code>edgeCount()</code>.
+     * Must not be modified.
+     */
+    public int[] outTargets() {
+        return outTargets;
+    }
+
+    /**
+     * Returns the in-range delimiters, an array of length <code>nodeCount() + 1</code>.
+     * Must not be modified.
+     */
+    public int[] inOffsets() {
+        return inOffsets;
+    }
+
+    /**
+     * Returns the edge indexes of the incoming edges of all nodes, grouped by target node.
+     * Must not be modified.
+     */
+    public int[] inEdges() {
+        return inEdges;
+    }
+
+    /**
+     * Returns the source node indexes of the incoming edges of all nodes, parallel to {@link #inEdges()}.
+     * Must not be modified.
+     */
+    public int[] inSources() {
+        return inSources;
+    }
+
+    public int nodeCount() {
+        return nodes.length;
+    }
+
+    public int edgeCount() {
+        return edges.length;
+    }
+
+    public boolean containsNode(Node node) {
+        return nodeIndex.get(node) >= 0;
+    }
+
+    public boolean containsEdge(Edge edge) {
+        return indexOf(edge) >= 0;
+    }
+
+    private int checkContained(Node node) {
+        int index = nodeIndex.get(node);
+        if (index < 0) {
+            throw new IllegalArgumentException("Node " + node + " not contained in graph");
+        }
+        return index;
+    }
+
+    public int outDegree(Node node) {
+        int n = checkContained(node);
+        return outOffsets[n + 1] - outOffsets[n];
+    }
+
+    public int inDegree(Node node) {
+        int n = checkContained(node);
+        return inOffsets[n + 1] - inOffsets[n];
+    }
+
+    public int degree(Node node) {
+        int n = checkContained(node);
+        return outOffsets[n + 1] - outOffsets[n] + inOffsets[n + 1] - inOffsets[n];
+    }
+
+    public ExtendedListIterable<Node> nodes() {
+        return new ExtendedListIterable<Node>(nodes.length) {
+            protected ListIterator<Node> listIteratorImpl() {
+                return new ArrayListIterator<Node>(nodes.length) {
+                    Node get(int i) {
+                        return nodes[i];
+                    }
+                };
+            }
+
+            @Override
+            protected Spliterator<Node> spliteratorImpl() {
+                return Arrays.spliterator(nodes);
+            }
+        };
+    }
+
+    public ExtendedListIterable<Edge> edges() {
+        return new ExtendedListIterable<Edge>(edges.length) {
+            protected ListIterator<Edge> listIteratorImpl() {
+                return new ArrayListIterator<Edge>(edges.length) {
+                    Edge get(int i) {
+                        return edges[i];
+                    }
+                };
+            }
+
+            @Override
+            protected Spliterator<Edge> spliteratorImpl() {
+                return Arrays.spliterator(edges);
+            }
+        };
+    }
+
+    public ExtendedListIterable<Edge> edges(Node node, Direction direction) {
+        Args.notNull(direction);
+        int n = checkContained(node);
+        final int outStart = outOffsets[n];
+        final int outCount = direction.isOut() ? outOffsets[n + 1] - outStart : 0;
+        final int inStart = inOffsets[n];
+        final int inCount = direction.isIn() ? inOffsets[n + 1] - inStart : 0;
+        return new ExtendedListIterable<Edge>(outCount + inCount) {
+            protected ListIterator<Edge> listIteratorImpl() {
+                return new ArrayListIterator<Edge>(outCount + inCount) {
+                    Edge get(int i) {
+                        return i < outCount ? edges[outStart + i] : edges[inEdges[inStart + i - outCount]];
+                    }
+                };
+            }
+        };
+    }
+
+    public ExtendedListIterable<Node> adjacentNodes(Node node, Direction direction) {
+        Args.notNull(direction);
+        int n = checkContained(node);
+        final int outStart = outOffsets[n];
+        final int outCount = direction.isOut() ? outOffsets[n + 1] - outStart : 0;
+        final int inStart = inOffsets[n];
+        final int inCount = direction.isIn() ? inOffsets[n + 1] - inStart : 0;
+        return new ExtendedListIterable<Node>(outCount + inCount) {
+            protected ListIterator<Node> listIteratorImpl() {
+                return new ArrayListIterator<Node>(outCount + inCount) {
+                    Node get(int i) {
+                        return i < outCount ? nodes[outTargets[outStart + i]] : nodes[inSources[inStart + i - outCount]];
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public NodeCursor nodeCursor() {
+        return new CsrCursor();
+    }
+
+    private class CsrCursor implements NodeCursor {
+        //the current position in the out-range, then in the in-range
+        private int pos;
+        private int outEnd;
+        private int inStart;
+        private int inEnd;
+        private Edge edge;
+        private Node node;
+
+        public void reset(Node node, Direction direction) {
+            Args.notNull(direction);
+            int n = checkContained(node);
+            pos = outOffsets[n];
+            outEnd = direction.isOut() ? outOffsets[n + 1] : pos;
+            inStart = inOffsets[n];
+            inEnd = direction.isIn() ? inOffsets[n + 1] : inStart;
+            edge = null;
+            node = null;
+        }
+
+        public boolean next() {
+            if (pos < outEnd) {
+                edge = edges[pos];
+                node = nodes[outTargets[pos++]];
+                return true;
+            }
+            if (inStart < inEnd) {
+                edge = edges[inEdges[inStart]];
+                node = nodes[inSources[inStart++]];
+                return true;
+            }
+            edge = null;
+            node = null;
+            return false;
+        }
+
+        public Edge edge() {
+            if (edge == null) {
+                throw new NoSuchElementException();
+            }
+            return edge;
+        }
+
+        public Node node() {
+            if (node == null) {
+                throw new NoSuchElementException();
+            }
+            return node;
+        }
+    }
+
+    public ExtendedListIterable<Edge> edges(Node n1, Node n2, Direction direction) {
+        Args.notNull(direction);
+        int source = checkContained(n1);
+        int target = checkContained(n2);
+        final List<Edge> found = new ArrayList<Edge>(2);
+        if (direction.isOut()) {
+            for (int i = outOffsets[source]; i < outOffsets[source + 1]; i++) {
+                if (outTargets[i] == target) {
+                    found.add(edges[i]);
+                }
+            }
+        }
+        if (direction.isIn()) {
+            for (int i = inOffsets[source]; i < inOffsets[source + 1]; i++) {
+                if (inSources[i] == target) {
+                    found.add(edges[inEdges[i]]);
+                }
+            }
+        }
+        return new ExtendedListIterable<Edge>(found.size()) {
+            protected ListIterator<Edge> listIteratorImpl() {
+                return new ArrayListIterator<Edge>(found.size()) {
+                    Edge get(int i) {
+                        return found.get(i);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public boolean areAdjacent(Node n1, Node n2, Direction direction) {
+        Args.notNull(direction);
+        int source = checkContained(n1);
+        int target = checkContained(n2);
+        if (direction.isOut()) {
+            for (int i = outOffsets[source]; i < outOffsets[source + 1]; i++) {
+                if (outTargets[i] == target) {
+                    return true;
+                }
+            }
+        }
+        if (direction.isIn()) {
+            for (int i = inOffsets[source]; i < inOffsets[source + 1]; i++) {
+                if (inSources[i] == target) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean areAdjacent(Node n1, Node n2) {
+        return areAdjacent(n1, n2, Direction.EITHER);
+    }
+}
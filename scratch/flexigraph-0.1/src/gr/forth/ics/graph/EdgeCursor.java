@@ -0,0 +1,45 @@
+package gr.forth.ics.graph;
+
+/**
+ * A reusable cursor over the edges incident to a node, which is an alternative to
+ * {@link InspectableGraph#edges(Node, Direction)} for inner loops: a cursor is obtained once
+ * from the graph, and can then be {@link #reset(Node, Direction) reset} to any node without
+ * allocating anything.
+ * <pre>
+ * EdgeCursor cursor = graph.edgeCursor();
+ * for (Node n : graph.nodes()) {
+ *     cursor.reset(n, Direction.OUT);
+ *     while (cursor.next()) {
+ *         Edge e = cursor.edge();
+ *         ...
+ *     }
+ * }
+ * </pre>
+ * A cursor reports the same edges, in the same order, as <code>edges(node, direction)</code>, and
+ * tolerates modifications of the graph the same way its iterators do. Cursors are not thread-safe;
+ * use one per thread.
+ *
+ * @see InspectableGraph#edgeCursor()
+ * @author Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
+ */
+public interface EdgeCursor {
+    /**
+     * Positions this cursor before the first edge incident to the specified node at the specified direction.
+     *
+     * @throws IllegalArgumentException when the graph does not contain node
+     * @throws gr.forth.ics.util.NullArgumentException when direction is null
+     */
+    void reset(Node node, Direction direction);
+
+    /**
+     * Advances this cursor to the next edge, and returns whether there was one.
+     */
+    boolean next();
+
+    /**
+     * Returns the edge that the last call to {@link #next()} advanced to.
+     *
+     * @throws java.util.NoSuchElementException if next() has not returned true since the last reset
+     */
+    Edge edge();
+}
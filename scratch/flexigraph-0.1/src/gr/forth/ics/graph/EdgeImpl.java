@@ -11,6 +11,9 @@ import static gr.forth.ics.graph.Edge.Orientation.*;
 final class EdgeImpl extends TupleImpl implements Edge {
     final NodeImpl n1, n2;
     Accessor<EdgeImpl> outReference, inReference;
+    int index = -1;
+    //records of the secondary graphs containing this element, see Memberships
+    transient Object[] memberships;
     
     EdgeImpl(NodeImpl n1, NodeImpl n2, Object value) {
         super(value);
@@ -82,16 +85,23 @@ final class EdgeImpl extends TupleImpl implements Edge {
     }
     
     public Path asPath(final Node head) {
-        Args.isTrue("Node not contained in edge", isIncident(head));
+        return pathOf(this, head);
+    }
+    
+    /**
+     * Returns the path of length one that consists of the specified edge, starting from the specified node.
+     */
+    static Path pathOf(final Edge edge, final Node head) {
+        Args.isTrue("Node not contained in edge", edge.isIncident(head));
         return new AbstractPath() {
-            final Node tail = EdgeImpl.this.opposite(head);
+            final Node tail = edge.opposite(head);
 
             public Node headNode() {
                 return head;
             }
 
             public Edge headEdge() {
-                return EdgeImpl.this;
+                return edge;
             }
 
             public int size() {
@@ -103,7 +113,7 @@ final class EdgeImpl extends TupleImpl implements Edge {
             }
 
             public Edge tailEdge() {
-                return EdgeImpl.this;
+                return edge;
             }
 
             public ExtendedIterable<Path> steps() {
@@ -124,7 +134,7 @@ final class EdgeImpl extends TupleImpl implements Edge {
                 if (index != 0) {
                     throw new IllegalArgumentException("Illegal index specified" + index);
                 }
-                return EdgeImpl.this;
+                return edge;
             }
 
             public Path slice(int start, int end) {
@@ -166,7 +176,7 @@ final class EdgeImpl extends TupleImpl implements Edge {
             }
 
             public Path reverse() {
-                return EdgeImpl.this.asPath(tail);
+                return edge.asPath(tail);
             }
         };
     }
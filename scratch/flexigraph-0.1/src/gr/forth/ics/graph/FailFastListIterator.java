@@ -0,0 +1,72 @@
+package gr.forth.ics.graph;
+
+import java.util.ConcurrentModificationException;
+import java.util.ListIterator;
+
+/**
+ * A list iterator that throws a {@link ConcurrentModificationException} once the modification count of
+ * a graph changes, unless the change was made through the iterator itself.
+ *
+ * @see Hint#FAIL_FAST_ITERATION
+ */
+final class FailFastListIterator<E> implements ListIterator<E> {
+    private final InspectableGraph graph;
+    private final ListIterator<E> delegate;
+    private long expectedModCount;
+
+    FailFastListIterator(InspectableGraph graph, ListIterator<E> delegate) {
+        this.graph = graph;
+        this.delegate = delegate;
+        this.expectedModCount = graph.modCount();
+    }
+
+    private void check() {
+        if (graph.modCount() != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    public boolean hasNext() {
+        return delegate.hasNext();
+    }
+
+    public E next() {
+        check();
+        return delegate.next();
+    }
+
+    public boolean hasPrevious() {
+        return delegate.hasPrevious();
+    }
+
+    public E previous() {
+        check();
+        return delegate.previous();
+    }
+
+    public int nextIndex() {
+        return delegate.nextIndex();
+    }
+
+    public int previousIndex() {
+        return delegate.previousIndex();
+    }
+
+    public void remove() {
+        check();
+        delegate.remove();
+        expectedModCount = graph.modCount();
+    }
+
+    public void set(E e) {
+        check();
+        delegate.set(e);
+        expectedModCount = graph.modCount();
+    }
+
+    public void add(E e) {
+        check();
+        delegate.add(e);
+        expectedModCount = graph.modCount();
+    }
+}
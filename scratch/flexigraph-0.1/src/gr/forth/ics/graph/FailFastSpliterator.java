@@ -0,0 +1,65 @@
+package gr.forth.ics.graph;
+
+import java.util.ConcurrentModificationException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A spliterator that throws a {@link ConcurrentModificationException} once the modification count of
+ * a graph changes, checked before each element and after a bulk traversal, like the spliterators of
+ * the collections of {@code java.util}.
+ *
+ * @see Hint#FAIL_FAST_ITERATION
+ * @see FailFastListIterator
+ */
+final class FailFastSpliterator<E> implements Spliterator<E> {
+    private final InspectableGraph graph;
+    private final Spliterator<E> delegate;
+    private final long expectedModCount;
+
+    FailFastSpliterator(InspectableGraph graph, Spliterator<E> delegate) {
+        this(graph, delegate, graph.modCount());
+    }
+
+    private FailFastSpliterator(InspectableGraph graph, Spliterator<E> delegate, long expectedModCount) {
+        this.graph = graph;
+        this.delegate = delegate;
+        this.expectedModCount = expectedModCount;
+    }
+
+    private void check() {
+        if (graph.modCount() != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    public boolean tryAdvance(Consumer<? super E> action) {
+        check();
+        return delegate.tryAdvance(action);
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super E> action) {
+        check();
+        delegate.forEachRemaining(action);
+        check();
+    }
+
+    public Spliterator<E> trySplit() {
+        Spliterator<E> prefix = delegate.trySplit();
+        return prefix == null ? null : new FailFastSpliterator<E>(graph, prefix, expectedModCount);
+    }
+
+    public long estimateSize() {
+        return delegate.estimateSize();
+    }
+
+    @Override
+    public long getExactSizeIfKnown() {
+        return delegate.getExactSizeIfKnown();
+    }
+
+    public int characteristics() {
+        return delegate.characteristics();
+    }
+}
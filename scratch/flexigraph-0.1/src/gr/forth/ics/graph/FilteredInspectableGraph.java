@@ -0,0 +1,242 @@
+package gr.forth.ics.graph;
+
+import gr.forth.ics.graph.event.EmptyGraphListener;
+import gr.forth.ics.graph.event.GraphEvent;
+import gr.forth.ics.util.Args;
+import gr.forth.ics.util.ExtendedListIterable;
+import gr.forth.ics.util.Filter;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.lang.ref.WeakReference;
+import java.util.ListIterator;
+
+/**
+ * A view of the nodes and edges of a graph that are accepted by a node and an edge filter. An edge
+ * belongs to the view only if it is accepted and both its endpoints are accepted too. Nothing is
+ * copied: the filters are evaluated whenever the view is queried, so they should give the same answer
+ * for an element for as long as the underlying graph is not modified. Node and edge counts are cached,
+ * and recomputed after the underlying graph is modified.
+ *
+ * @see Graphs#filter(InspectableGraph, Filter, Filter)
+ * @author Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
+ */
+class FilteredInspectableGraph extends InspectableGraphForwarder {
+    private final Filter<? super Node> nodeFilter;
+    private final Filter<? super Edge> edgeFilter;
+    private final Filter<Edge> acceptedEdge;
+
+    //-1 when not known
+    private transient int cachedNodeCount = -1;
+    private transient int cachedEdgeCount = -1;
+
+    FilteredInspectableGraph(InspectableGraph graph, Filter<? super Node> nodeFilter, Filter<? super Edge> edgeFilter) {
+        super(graph);
+        Args.notNull(nodeFilter, edgeFilter);
+        this.nodeFilter = nodeFilter;
+        this.edgeFilter = edgeFilter;
+        this.acceptedEdge = new AcceptedEdge(nodeFilter, edgeFilter);
+        graph.addGraphListener(new CountInvalidator(this, graph));
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        cachedNodeCount = cachedEdgeCount = -1;
+        inspectableGraph.addGraphListener(new CountInvalidator(this, inspectableGraph));
+    }
+
+    private Node checkContained(Node node) {
+        if (!containsNode(node)) {
+            throw new IllegalArgumentException("Node " + node + " not contained in graph");
+        }
+        return node;
+    }
+
+    @Override
+    public boolean containsNode(Node node) {
+        return inspectableGraph.containsNode(node) && nodeFilter.accept(node);
+    }
+
+    @Override
+    public boolean containsEdge(Edge edge) {
+        return inspectableGraph.containsEdge(edge) && acceptedEdge.accept(edge);
+    }
+
+    @Override
+    public int nodeCount() {
+        if (cachedNodeCount < 0) {
+            int count = 0;
+            for (Node n : inspectableGraph.nodes()) {
+                if (nodeFilter.accept(n)) {
+                    count++;
+                }
+            }
+            cachedNodeCount = count;
+        }
+        return cachedNodeCount;
+    }
+
+    @Override
+    public int edgeCount() {
+        if (cachedEdgeCount < 0) {
+            int count = 0;
+            for (Edge e : inspectableGraph.edges()) {
+                if (acceptedEdge.accept(e)) {
+                    count++;
+                }
+            }
+            cachedEdgeCount = count;
+        }
+        return cachedEdgeCount;
+    }
+
+    @Override
+    public ExtendedListIterable<Node> nodes() {
+        ExtendedListIterable<Node> nodes = inspectableGraph.nodes();
+        nodes.filter(nodeFilter);
+        return nodes;
+    }
+
+    @Override
+    public ExtendedListIterable<Edge> edges() {
+        ExtendedListIterable<Edge> edges = inspectableGraph.edges();
+        edges.filter(acceptedEdge);
+        return edges;
+    }
+
+    @Override
+    public ExtendedListIterable<Edge> edges(Node node, Direction direction) {
+        ExtendedListIterable<Edge> edges = inspectableGraph.edges(checkContained(node), direction);
+        edges.filter(acceptedEdge);
+        return edges;
+    }
+
+    @Override
+    public ExtendedListIterable<Edge> edges(Node n1, Node n2, Direction direction) {
+        ExtendedListIterable<Edge> edges = inspectableGraph.edges(checkContained(n1), checkContained(n2), direction);
+        edges.filter(edgeFilter);
+        return edges;
+    }
+
+    @Override
+    public ExtendedListIterable<Node> adjacentNodes(final Node node, Direction direction) {
+        final ExtendedListIterable<Edge> edges = edges(node, direction);
+        return new ExtendedListIterable<Node>() {
+            protected ListIterator<Node> listIteratorImpl() {
+                return new OppositeIterator(edges.listIterator(), node);
+            }
+        };
+    }
+
+    @Override
+    public int degree(Node node, Direction direction) {
+        Args.notNull(direction);
+        int degree = 0;
+        NodeCursor cursor = nodeCursor();
+        cursor.reset(node, direction);
+        while (cursor.next()) {
+            degree++;
+        }
+        return degree;
+    }
+
+    @Override
+    public int degree(Node node) {
+        return degree(node, Direction.EITHER);
+    }
+
+    @Override
+    public int inDegree(Node node) {
+        return degree(node, Direction.IN);
+    }
+
+    @Override
+    public int outDegree(Node node) {
+        return degree(node, Direction.OUT);
+    }
+
+    @Override
+    public NodeCursor nodeCursor() {
+        final NodeCursor cursor = inspectableGraph.nodeCursor();
+        return new NodeCursor() {
+            public void reset(Node node, Direction direction) {
+                cursor.reset(checkContained(node), direction);
+            }
+
+            public boolean next() {
+                while (cursor.next()) {
+                    if (acceptedEdge.accept(cursor.edge())) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            public Edge edge() {
+                return cursor.edge();
+            }
+
+            public Node node() {
+                return cursor.node();
+            }
+        };
+    }
+
+    @Override
+    protected boolean forwards(GraphEvent e) {
+        Object data = e.getData();
+        if (data instanceof Node) {
+            return nodeFilter.accept((Node)data);
+        }
+        if (data instanceof Edge) {
+            return acceptedEdge.accept((Edge)data);
+        }
+        return true;
+    }
+
+    private static class AcceptedEdge implements Filter<Edge>, java.io.Serializable {
+        private final Filter<? super Node> nodeFilter;
+        private final Filter<? super Edge> edgeFilter;
+
+        AcceptedEdge(Filter<? super Node> nodeFilter, Filter<? super Edge> edgeFilter) {
+            this.nodeFilter = nodeFilter;
+            this.edgeFilter = edgeFilter;
+        }
+
+        public boolean accept(Edge e) {
+            return edgeFilter.accept(e) && nodeFilter.accept(e.n1()) && nodeFilter.accept(e.n2());
+        }
+    }
+
+    /**
+     * Drops the cached counts of the view whenever the underlying graph changes. Refers to the view
+     * weakly, so the view can be collected while the underlying graph is still in use.
+     */
+    private static class CountInvalidator extends EmptyGraphListener {
+        private final WeakReference<FilteredInspectableGraph> ref;
+        private final InspectableGraph target;
+
+        CountInvalidator(FilteredInspectableGraph view, InspectableGraph target) {
+            this.ref = new WeakReference<FilteredInspectableGraph>(view);
+            this.target = target;
+        }
+
+        @Override
+        public void preEvent() {
+            invalidate();
+        }
+
+        @Override
+        public void postEvent() {
+            invalidate();
+        }
+
+        private void invalidate() {
+            FilteredInspectableGraph view = ref.get();
+            if (view == null) {
+                target.removeGraphListener(this);
+                return;
+            }
+            view.cachedNodeCount = view.cachedEdgeCount = -1;
+        }
+    }
+}
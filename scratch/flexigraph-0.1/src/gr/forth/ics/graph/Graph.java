@@ -39,6 +39,19 @@ public interface Graph extends InspectableGraph {
      */
     Edge newEdge(Node node1, Node node2, Object value);
     
+    /**
+     * Creates and returns new edges, the i-th of which starts at <code>sources[i]</code> and ends at
+     * <code>targets[i]</code>, with null values. Either all edges are created or none.
+     * <p>
+     * Implementations may add the edges as a batch, firing a single {@link gr.forth.ics.graph.event.GraphEvent.Type#EDGES_ADDED}
+     * event; listeners that are not {@link gr.forth.ics.graph.event.BulkEdgeListener}s are notified of each edge separately.
+     * This only saves work per listener and per edge; each edge is still linked to its nodes on its own, so without
+     * listeners, creating the edges in a batch is not faster than creating them one at a time.
+     *
+     * @throws IllegalArgumentException if the arrays differ in length, or if some node is not contained in this graph
+     */
+    Edge[] newEdges(Node[] sources, Node[] targets);
+    
     /**
      * Removes the specified edge, if it is currently contained to this graph. If the edge is null,
      * nothing happens.
@@ -70,6 +83,10 @@ public interface Graph extends InspectableGraph {
     
     /**
      * Creates the specified number of nodes, and return them as an array.
+     * <p>
+     * Implementations may add the nodes as a batch, firing a single {@link gr.forth.ics.graph.event.GraphEvent.Type#NODES_ADDED}
+     * event; listeners that are not {@link gr.forth.ics.graph.event.BulkNodeListener}s are notified of each node separately.
+     * As with {@link #newEdges(Node[], Node[])}, this only pays off when there are listeners.
      * @throws IllegalArgumentException if count is less than zero
      */
     Node[] newNodes(int count);
@@ -161,6 +178,16 @@ public interface Graph extends InspectableGraph {
      */
     boolean reinsertEdge(Edge e);
     
+    /**
+     * Returns an immutable view of the current state of this graph, containing the very same node and
+     * edge objects. Later modifications of this graph are not reflected in the returned graph, which can be
+     * safely traversed by other threads while this graph is being modified.
+     * <p>
+     * {@link PrimaryGraph} takes snapshots in constant (amortized) time, by versioning its adjacency; other
+     * implementations may copy the whole graph.
+     */
+    InspectableGraph snapshot();
+    
     /**
      * Provides methods for reordering (in terms of iteration) the elements of a graph.
      */
@@ -2,8 +2,8 @@ package gr.forth.ics.graph;
 
 import gr.forth.ics.graph.algo.Biconnectivity;
 import gr.forth.ics.graph.algo.Clusterers;
-import gr.forth.ics.graph.path.Path;
 import gr.forth.ics.graph.algo.Dfs;
+import gr.forth.ics.graph.algo.LeanDfs;
 import gr.forth.ics.util.FastLinkedList;
 import java.util.HashMap;
 import java.util.Map;
@@ -59,7 +59,7 @@ public class GraphChecker {
         return CycleChecker.checkCycle(g).hasCycle == false;
     }
     
-    private static class CycleChecker extends Dfs {
+    private static class CycleChecker extends LeanDfs {
         private boolean hasCycle;
 
         private CycleChecker(InspectableGraph g) {
@@ -72,7 +72,7 @@ public class GraphChecker {
             return checker;
         }
 
-        @Override protected boolean visitBackEdge(Path path) {
+        @Override protected boolean visitBackEdge(Edge edge, Node from, Node to) {
             hasCycle = true;
             return true;
         }
@@ -1,11 +1,18 @@
 package gr.forth.ics.graph;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import gr.forth.ics.util.Args;
+import gr.forth.ics.util.IdentityIntMap;
 
 //TODO: Create tests, for directions etc
-import java.util.Collections;
 
 /**
  * This class provides a simple utility to create copies of graphs. Also provides, upon request,
@@ -53,43 +60,118 @@ public class GraphCloner {
      * @return the graph copy (same as second parameter)
      */
     public Graph copy(InspectableGraph source, Graph copy) {
-        Args.notNull(source, copy);
-        if (edgeMapDirection != null) {
-            edgeMap = new HashMap<Edge, Edge>();
-        } else {
-            edgeMap = null;
+        GraphMapper mapper = copyMapped(source, copy);
+        nodeMap = nodeMapDirection != null ? new HashMap<Node, Node>() : null;
+        edgeMap = edgeMapDirection != null ? new HashMap<Edge, Edge>() : null;
+        for (int i = 0; nodeMap != null && i < mapper.nodeCount(); i++) {
+            if (nodeMapDirection.isOut()) {
+                nodeMap.put(mapper.sourceNode(i), mapper.copyNode(i));
+            }
+            if (nodeMapDirection.isIn()) {
+                nodeMap.put(mapper.copyNode(i), mapper.sourceNode(i));
+            }
         }
-        nodeMap = new HashMap<Node, Node>();
-        for (Node n : source.nodes()) {
-            Node cn = copy.newNode();
-            if (copyData) {
-                n.copyInto(cn);
+        for (int i = 0; edgeMap != null && i < mapper.edgeCount(); i++) {
+            if (edgeMapDirection.isOut()) {
+                edgeMap.put(mapper.sourceEdge(i), mapper.copyEdge(i));
             }
-            nodeMap.put(n, cn);
-            if (nodeMapDirection != null && nodeMapDirection.isIn()) {
-                nodeMap.put(cn, n);
+            if (edgeMapDirection.isIn()) {
+                edgeMap.put(mapper.copyEdge(i), mapper.sourceEdge(i));
             }
         }
+        return copy;
+    }
+    
+    /**
+     * Copies the specified graph into the supplied graph instance, and returns the correspondence
+     * between the source and the copied elements. The nodes and then the edges are created in bulk
+     * (see {@link Graph#newNodes(Object...)} and {@link Graph#newEdges(Node[], Node[])}), and the
+     * correspondence is kept in arrays, so no hash map is filled. The maps of {@link #getNodeMap()} and
+     * {@link #getEdgeMap()} are not affected.
+     *
+     * @param source the graph to be copied (must be non-null)
+     * @param copy the graph into which to create the copy (must be non-null)
+     */
+    public GraphMapper copyMapped(InspectableGraph source, Graph copy) {
+        return copyMapped(source, copy, false);
+    }
+    
+    /**
+     * Like {@link #copyMapped(InspectableGraph, Graph)}, but if <code>parallel</code> is true, node and edge
+     * data are copied by the threads of the common {@link ForkJoinPool}. This is safe as long as neither
+     * graph is concurrently modified, and the tuples of the source are not modified while copying.
+     */
+    public GraphMapper copyMapped(InspectableGraph source, Graph copy, boolean parallel) {
+        Args.notNull(source, copy);
+        Node[] sourceNodes = new Node[source.nodeCount()];
+        int count = 0;
+        for (Node n : source.nodes()) {
+            sourceNodes[count++] = n;
+        }
+        Edge[] sourceEdges = new Edge[source.edgeCount()];
+        count = 0;
         for (Edge e : source.edges()) {
-            Node cn1 = nodeMap.get(e.n1());
-            Node cn2 = nodeMap.get(e.n2());
-            Edge ce = copy.newEdge(cn1, cn2);
-            if (copyData) {
-                e.copyInto(ce);
+            sourceEdges[count++] = e;
+        }
+        Node[] copyNodes;
+        if (copyData) {
+            Object[] values = new Object[sourceNodes.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = sourceNodes[i].getValue();
             }
-            if (edgeMapDirection != null) {
-                if (edgeMapDirection.isOut()) {
-                    edgeMap.put(e, ce);
-                }
-                if (edgeMapDirection.isIn()) {
-                    edgeMap.put(ce, e);
-                }
+            copyNodes = copy.newNodes(values);
+        } else {
+            copyNodes = copy.newNodes(sourceNodes.length);
+        }
+        GraphMapper mapper = new GraphMapper(source, sourceNodes, copyNodes, sourceEdges);
+        Node[] n1 = new Node[sourceEdges.length];
+        Node[] n2 = new Node[sourceEdges.length];
+        for (int i = 0; i < sourceEdges.length; i++) {
+            n1[i] = copyNodes[mapper.nodeId(sourceEdges[i].n1())];
+            n2[i] = copyNodes[mapper.nodeId(sourceEdges[i].n2())];
+        }
+        mapper.copyEdges = copy.newEdges(n1, n2);
+        if (copyData) {
+            copyTuples(sourceNodes, copyNodes, parallel);
+            copyTuples(sourceEdges, mapper.copyEdges, parallel);
+        }
+        return mapper;
+    }
+    
+    private static void copyTuples(Tuple[] from, Tuple[] to, boolean parallel) {
+        if (parallel) {
+            ForkJoinPool.commonPool().invoke(new TupleCopier(from, to, 0, from.length));
+        } else {
+            for (int i = 0; i < from.length; i++) {
+                from[i].copyInto(to[i]);
             }
         }
-        if (nodeMapDirection == null) {
-            nodeMap = null;
+    }
+    
+    private static class TupleCopier extends RecursiveAction {
+        private static final int THRESHOLD = 4096;
+        private final Tuple[] from;
+        private final Tuple[] to;
+        private final int lo, hi;
+        
+        TupleCopier(Tuple[] from, Tuple[] to, int lo, int hi) {
+            this.from = from;
+            this.to = to;
+            this.lo = lo;
+            this.hi = hi;
+        }
+        
+        @Override
+        protected void compute() {
+            if (hi - lo <= THRESHOLD) {
+                for (int i = lo; i < hi; i++) {
+                    from[i].copyInto(to[i]);
+                }
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new TupleCopier(from, to, lo, mid), new TupleCopier(from, to, mid, hi));
         }
-        return copy;
     }
     
     /**
@@ -108,22 +190,213 @@ public class GraphCloner {
         return edgeMap;
     }
     
+    /**
+     * The correspondence between the elements of a graph and those of its copy, created by
+     * {@link GraphCloner#copyMapped(InspectableGraph, Graph)}. Each copied element is given a dense id,
+     * in the iteration order of the source graph, and the source and copied elements are kept in arrays
+     * by that id. Looking up the id of a source element costs an array access if the source graph is an
+     * {@link IndexedInspectableGraph}, and an identity hash lookup otherwise.
+     */
     public static class GraphMapper {
-        private final Map<Node, Node> nodeMap;
-        private final Map<Edge, Edge> edgeMap;
+        private final Node[] sourceNodes;
+        private final Node[] copyNodes;
+        private final Edge[] sourceEdges;
+        private Edge[] copyEdges;
+        
+        //ids by source index, if the source is indexed
+        private final IndexedInspectableGraph indexed;
+        private final int[] nodeIds;
+        private final int[] edgeIds;
+        //otherwise
+        private final IdentityIntMap<Node> nodeIdMap;
+        private final IdentityIntMap<Edge> edgeIdMap;
+        
+        private Map<Node, Node> nodeMap;
+        private Map<Edge, Edge> edgeMap;
+        
+        private GraphMapper(InspectableGraph source, Node[] sourceNodes, Node[] copyNodes, Edge[] sourceEdges) {
+            this.sourceNodes = sourceNodes;
+            this.copyNodes = copyNodes;
+            this.sourceEdges = sourceEdges;
+            if (source instanceof IndexedInspectableGraph) {
+                indexed = (IndexedInspectableGraph)source;
+                nodeIds = new int[indexed.nodeIndexCapacity()];
+                for (int i = 0; i < sourceNodes.length; i++) {
+                    nodeIds[indexed.indexOf(sourceNodes[i])] = i;
+                }
+                edgeIds = new int[indexed.edgeIndexCapacity()];
+                for (int i = 0; i < sourceEdges.length; i++) {
+                    edgeIds[indexed.indexOf(sourceEdges[i])] = i;
+                }
+                nodeIdMap = null;
+                edgeIdMap = null;
+            } else {
+                indexed = null;
+                nodeIds = edgeIds = null;
+                nodeIdMap = new IdentityIntMap<Node>(sourceNodes.length);
+                for (int i = 0; i < sourceNodes.length; i++) {
+                    nodeIdMap.put(sourceNodes[i], i);
+                }
+                edgeIdMap = new IdentityIntMap<Edge>(sourceEdges.length);
+                for (int i = 0; i < sourceEdges.length; i++) {
+                    edgeIdMap.put(sourceEdges[i], i);
+                }
+            }
+        }
+        
+        public int nodeCount() {
+            return sourceNodes.length;
+        }
+        
+        public int edgeCount() {
+            return sourceEdges.length;
+        }
+        
+        /**
+         * Returns the id of the specified source node, or -1 if it was not copied.
+         */
+        public int nodeId(Node source) {
+            int id;
+            if (indexed != null) {
+                int index = indexed.indexOf(source);
+                id = index >= 0 && index < nodeIds.length ? nodeIds[index] : -1;
+            } else {
+                id = nodeIdMap.get(source);
+            }
+            return id >= 0 && sourceNodes[id] == source ? id : -1;
+        }
+        
+        /**
+         * Returns the id of the specified source edge, or -1 if it was not copied.
+         */
+        public int edgeId(Edge source) {
+            int id;
+            if (indexed != null) {
+                int index = indexed.indexOf(source);
+                id = index >= 0 && index < edgeIds.length ? edgeIds[index] : -1;
+            } else {
+                id = edgeIdMap.get(source);
+            }
+            return id >= 0 && sourceEdges[id] == source ? id : -1;
+        }
+        
+        public Node sourceNode(int id) {
+            return sourceNodes[id];
+        }
+        
+        public Node copyNode(int id) {
+            return copyNodes[id];
+        }
+        
+        public Edge sourceEdge(int id) {
+            return sourceEdges[id];
+        }
         
-        private GraphMapper(Map<Node, Node> nodeMap,
-                Map<Edge, Edge> edgeMap) {
-            this.nodeMap = Collections.unmodifiableMap(nodeMap);
-            this.edgeMap = Collections.unmodifiableMap(edgeMap);
+        public Edge copyEdge(int id) {
+            return copyEdges[id];
         }
         
+        /**
+         * Returns the copy of the specified source node, or null if it was not copied.
+         */
+        public Node copyOf(Node source) {
+            int id = nodeId(source);
+            return id < 0 ? null : copyNodes[id];
+        }
+        
+        /**
+         * Returns the copy of the specified source edge, or null if it was not copied.
+         */
+        public Edge copyOf(Edge source) {
+            int id = edgeId(source);
+            return id < 0 ? null : copyEdges[id];
+        }
+        
+        /**
+         * Returns an unmodifiable map from each source node to its copy, backed by this mapper.
+         */
         public Map<Node, Node> getNodeMap() {
+            if (nodeMap == null) {
+                nodeMap = new ArrayMap<Node>(sourceNodes, copyNodes) {
+                    int id(Object key) {
+                        return key instanceof Node ? nodeId((Node)key) : -1;
+                    }
+                };
+            }
             return nodeMap;
         }
         
+        /**
+         * Returns an unmodifiable map from each source edge to its copy, backed by this mapper.
+         */
         public Map<Edge, Edge> getEdgeMap() {
+            if (edgeMap == null) {
+                edgeMap = new ArrayMap<Edge>(sourceEdges, copyEdges) {
+                    int id(Object key) {
+                        return key instanceof Edge ? edgeId((Edge)key) : -1;
+                    }
+                };
+            }
             return edgeMap;
         }
     }
+    
+    private static abstract class ArrayMap<E> extends AbstractMap<E, E> {
+        private final E[] keys;
+        private final E[] values;
+        
+        ArrayMap(E[] keys, E[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+        
+        abstract int id(Object key);
+        
+        @Override
+        public E get(Object key) {
+            int id = id(key);
+            return id < 0 ? null : values[id];
+        }
+        
+        @Override
+        public boolean containsKey(Object key) {
+            return id(key) >= 0;
+        }
+        
+        @Override
+        public int size() {
+            return keys.length;
+        }
+        
+        @Override
+        public Set<Map.Entry<E, E>> entrySet() {
+            return new AbstractSet<Map.Entry<E, E>>() {
+                public Iterator<Map.Entry<E, E>> iterator() {
+                    return new Iterator<Map.Entry<E, E>>() {
+                        private int next;
+                        
+                        public boolean hasNext() {
+                            return next < keys.length;
+                        }
+                        
+                        public Map.Entry<E, E> next() {
+                            if (next >= keys.length) {
+                                throw new NoSuchElementException();
+                            }
+                            int id = next++;
+                            return new AbstractMap.SimpleImmutableEntry<E, E>(keys[id], values[id]);
+                        }
+                        
+                        public void remove() {
+                            throw new UnsupportedOperationException();
+                        }
+                    };
+                }
+                
+                public int size() {
+                    return keys.length;
+                }
+            };
+        }
+    }
 }
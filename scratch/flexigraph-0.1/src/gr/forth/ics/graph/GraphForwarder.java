@@ -26,6 +26,10 @@ public class GraphForwarder extends InspectableGraphForwarder implements Graph,
         return graph.newEdge(node1, node2, value);
     }
     
+    public Edge[] newEdges(Node[] sources, Node[] targets) {
+        return graph.newEdges(sources, targets);
+    }
+    
     public boolean removeEdge(Edge edge) {
         return graph.removeEdge(edge);
     }
@@ -105,6 +109,10 @@ public class GraphForwarder extends InspectableGraphForwarder implements Graph,
         return graph.reinsertEdge(e);
     }
     
+    public InspectableGraph snapshot() {
+        return graph.snapshot();
+    }
+    
     public void importGraph(Graph g) {
         graph.importGraph(g);
     }
@@ -7,6 +7,7 @@ import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
 import gr.forth.ics.util.Args;
+import gr.forth.ics.util.Filter;
 import java.util.LinkedList;
 
 public class Graphs {
@@ -107,6 +108,33 @@ public class Graphs {
         return new InvertedInspectableGraph(graph);
     }
     
+    /**
+     * Returns an immutable, compact snapshot of the specified graph, containing the same nodes
+     * and edges. If the graph is already a {@link CsrGraph}, it is returned as is.
+     *
+     * @see CsrGraph
+     */
+    public static CsrGraph freeze(InspectableGraph graph) {
+        Args.notNull(graph);
+        if (graph instanceof CsrGraph) {
+            return (CsrGraph)graph;
+        }
+        return new CsrGraph(graph);
+    }
+    
+    /**
+     * Returns a view of the nodes of the specified graph that are accepted by the node filter, and
+     * the edges that are accepted by the edge filter and connect accepted nodes. Nothing is copied;
+     * the view reflects later modifications of the graph, and fires events only for the elements it
+     * contains. The filters should give the same answer for an element while the graph is not modified.
+     * Iterating the view still scans the elements of the underlying graph, skipping the rejected ones;
+     * node and edge counts are cached until the next modification.
+     */
+    public static InspectableGraph filter(InspectableGraph graph, Filter<? super Node> nodeFilter, Filter<? super Edge> edgeFilter) {
+        Args.notNull(graph, nodeFilter, edgeFilter);
+        return new FilteredInspectableGraph(graph, nodeFilter, edgeFilter);
+    }
+    
     /**
      * Returns the max node degree found in the specified graph, with the
      * given direction.
@@ -219,6 +247,43 @@ public class Graphs {
         return sg;
     }
     
+    /**
+     * Returns a view of the union of two graphs. Unlike {@link #union(InspectableGraph, InspectableGraph)},
+     * nothing is copied and no listeners are attached to the graphs: each query consults both graphs, so
+     * containment and adjacency queries cost a lookup in each, while counting the nodes or edges of the view
+     * traverses the graphs. Prefer the copying version if the result is to be iterated repeatedly.
+     * The view does not fire events.
+     */
+    public static InspectableGraph unionView(InspectableGraph g1, InspectableGraph g2) {
+        return new CombinedInspectableGraph(g1, g2, CombinedInspectableGraph.Operation.UNION);
+    }
+    
+    /**
+     * Returns a view of the intersection of two graphs, which queries both graphs instead of copying them.
+     * @see #unionView(InspectableGraph, InspectableGraph)
+     */
+    public static InspectableGraph intersectionView(InspectableGraph g1, InspectableGraph g2) {
+        return new CombinedInspectableGraph(g1, g2, CombinedInspectableGraph.Operation.INTERSECTION);
+    }
+    
+    /**
+     * Returns a view of the elements of the first graph that are not contained in the second, which
+     * queries both graphs instead of copying them. Edges touching a subtracted node are excluded too.
+     * @see #unionView(InspectableGraph, InspectableGraph)
+     */
+    public static InspectableGraph subtractionView(InspectableGraph g1, InspectableGraph g2) {
+        return new CombinedInspectableGraph(g1, g2, CombinedInspectableGraph.Operation.SUBTRACTION);
+    }
+    
+    /**
+     * Returns a view of the elements contained in exactly one of two graphs, which queries both graphs
+     * instead of copying them. Edges touching a node contained in both graphs are excluded too.
+     * @see #unionView(InspectableGraph, InspectableGraph)
+     */
+    public static InspectableGraph xorView(InspectableGraph g1, InspectableGraph g2) {
+        return new CombinedInspectableGraph(g1, g2, CombinedInspectableGraph.Operation.XOR);
+    }
+    
     /**
      * Returns true for graphs g1 and g2 have identical elements. More specifically, returns true
      * if and only if:<BR>
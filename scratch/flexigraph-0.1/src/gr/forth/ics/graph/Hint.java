@@ -14,5 +14,26 @@ public enum Hint {
     /**
      * Hint that fast edge iteration is desired.
      */
-    FAST_EDGE_ITERATION
+    FAST_EDGE_ITERATION,
+    
+    /**
+     * Hint that fast tests of adjacency between two given nodes are desired, i.e. {@code areAdjacent(n1, n2)},
+     * {@code anEdge(n1, n2)} and {@code edges(n1, n2)}. Graphs that support it keep a hash index of their edges
+     * keyed by the pair of their endpoints, which answers these in expected constant time, instead of
+     * scanning the smaller of the two incidence lists. The index is built when first needed, and from then
+     * on it is updated as edges are added and removed.
+     * <p>
+     * The memory overhead is between 6 and 12 references (24 to 48 bytes with compressed references, 48 to 96 without)
+     * per distinct ordered pair of adjacent nodes, plus an array per pair that is connected by parallel edges.
+     */
+    FAST_ADJACENCY_TEST,
+    
+    /**
+     * Hint that the iterators of nodes and edges should fail fast: once the graph is modified other than
+     * through the iterator itself, the iterator throws a {@link java.util.ConcurrentModificationException}
+     * instead of continuing with the current state of the graph. Intended for catching accidental modifications
+     * while debugging; each step of the iterator costs a comparison of {@link InspectableGraph#modCount()}
+     * values. Cursors are not affected.
+     */
+    FAIL_FAST_ITERATION
 }
@@ -0,0 +1,69 @@
+package gr.forth.ics.graph;
+
+import java.io.Serializable;
+
+/**
+ * Assigns dense, recyclable integer indexes to elements. Freed indexes are handed out again
+ * before the table grows.
+ */
+final class IndexTable implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final Object[] NO_ELEMENTS = new Object[0];
+    private static final int[] NO_INDEXES = new int[0];
+
+    private Object[] elements = NO_ELEMENTS;
+    private int capacity;
+    private int[] free = NO_INDEXES;
+    private int freeCount;
+
+    int add(Object element) {
+        int index;
+        if (freeCount > 0) {
+            index = free[--freeCount];
+        } else {
+            index = capacity;
+            ensureCapacity(capacity + 1);
+            capacity++;
+        }
+        elements[index] = element;
+        return index;
+    }
+
+    void remove(int index) {
+        elements[index] = null;
+        if (index == capacity - 1) {
+            //all recycled indexes are below this one, so the capacity can simply shrink
+            capacity--;
+        } else {
+            if (freeCount == free.length) {
+                int[] newFree = new int[Math.max(4, free.length * 2)];
+                System.arraycopy(free, 0, newFree, 0, freeCount);
+                free = newFree;
+            }
+            free[freeCount++] = index;
+        }
+    }
+
+    Object get(int index) {
+        if (index < 0 || index >= capacity) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", capacity: " + capacity);
+        }
+        return elements[index];
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Makes room for the specified number of indexes without further reallocations.
+     */
+    void ensureCapacity(int minCapacity) {
+        if (minCapacity > elements.length) {
+            Object[] newElements = new Object[Math.max(minCapacity, Math.max(16, elements.length * 3 / 2))];
+            System.arraycopy(elements, 0, newElements, 0, capacity);
+            elements = newElements;
+        }
+    }
+}
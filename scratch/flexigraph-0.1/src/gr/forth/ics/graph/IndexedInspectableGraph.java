@@ -0,0 +1,49 @@
+package gr.forth.ics.graph;
+
+/**
+ * A graph that assigns a small integer index to each of its nodes and edges, so that algorithms
+ * can keep per-element state in plain arrays (of length {@link #nodeIndexCapacity()} or
+ * {@link #edgeIndexCapacity()}) instead of decorating the elements themselves.
+ * <p>
+ * Indexes are local to a graph: the same node may have different indexes in different graphs.
+ * The index of an element does not change for as long as the element is contained in the graph.
+ * The index of a removed element is recycled, and may be given to an element added later, so
+ * indexes stay dense: every index is in <code>[0, nodeIndexCapacity())</code> (respectively,
+ * <code>[0, edgeIndexCapacity())</code>), and the capacity never exceeds the maximum number of
+ * elements that the graph has simultaneously contained.
+ *
+ * @author Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
+ */
+public interface IndexedInspectableGraph extends InspectableGraph {
+    /**
+     * Returns the index of the specified node, or -1 if !containsNode(node).
+     */
+    int indexOf(Node node);
+
+    /**
+     * Returns the index of the specified edge, or -1 if !containsEdge(edge).
+     */
+    int indexOf(Edge edge);
+
+    /**
+     * Returns the node with the specified index, or null if no node currently has this index.
+     * @throws IndexOutOfBoundsException if index is not in [0, nodeIndexCapacity())
+     */
+    Node nodeAt(int index);
+
+    /**
+     * Returns the edge with the specified index, or null if no edge currently has this index.
+     * @throws IndexOutOfBoundsException if index is not in [0, edgeIndexCapacity())
+     */
+    Edge edgeAt(int index);
+
+    /**
+     * Returns an upper bound (exclusive) of the indexes of the nodes of this graph.
+     */
+    int nodeIndexCapacity();
+
+    /**
+     * Returns an upper bound (exclusive) of the indexes of the edges of this graph.
+     */
+    int edgeIndexCapacity();
+}
@@ -52,6 +52,17 @@ public interface InspectableGraph {
      */
     int edgeCount();
     
+    /**
+     * Returns the modification count of this graph: a number that grows every time nodes or edges are added,
+     * removed, reinserted or reordered, and stays the same otherwise. Equal counts, read at different times,
+     * mean that the graph was not modified in between, so the count can be kept along with results computed
+     * from the graph, to tell whether they are still valid. Graphs that cannot be modified always return the
+     * same count, and views return a count derived from those of the graphs they are backed by.
+     *
+     * @see Hint#FAIL_FAST_ITERATION
+     */
+    long modCount();
+    
     /**
      * Returns an {@link gr.forth.ics.util.ExtendedListIterable ExtendedListIterable} over all edges of this graph.
      */
@@ -140,6 +151,23 @@ public interface InspectableGraph {
      */
     ExtendedListIterable<Node> adjacentNodes(Node node, Direction direction);
     
+    /**
+     * Returns a new, reusable cursor over the edges incident to a node. Unlike
+     * {@link #edges(Node, Direction)}, resetting the cursor to another node allocates nothing, so
+     * a cursor obtained once before an inner loop can replace many calls to that method.
+     *
+     * @see EdgeCursor
+     */
+    EdgeCursor edgeCursor();
+    
+    /**
+     * Returns a new, reusable cursor over the neighbors of a node (and the connecting edges).
+     * Unlike {@link #adjacentNodes(Node, Direction)}, resetting the cursor to another node allocates nothing.
+     *
+     * @see NodeCursor
+     */
+    NodeCursor nodeCursor();
+    
     /**
      * Returns whether there exists an edge connecting the specified nodes. This is equivalent to
      * <code>areAdjacent(n1, n2, Direction.EITHER)</code>
@@ -77,6 +77,15 @@ public class InspectableGraphForwarder extends AbstractInspectableGraph implemen
         return eventSupport.getEdgeListeners();
     }
     
+    /**
+     * Returns the cursor of the delegate graph. Subclasses that override {@link #edges(Node, Direction)}
+     * should override this method as well.
+     */
+    @Override
+    public NodeCursor nodeCursor() {
+        return inspectableGraph.nodeCursor();
+    }
+    
     public ExtendedListIterable<Node> adjacentNodes(Node node, Direction direction) {
         return inspectableGraph.adjacentNodes(node, direction);
     }
@@ -89,6 +98,11 @@ public class InspectableGraphForwarder extends AbstractInspectableGraph implemen
         return inspectableGraph.edgeCount();
     }
     
+    @Override
+    public long modCount() {
+        return inspectableGraph.modCount();
+    }
+    
     public ExtendedListIterable<Node> nodes() {
         return inspectableGraph.nodes();
     }
@@ -121,10 +135,18 @@ public class InspectableGraphForwarder extends AbstractInspectableGraph implemen
         return inspectableGraph.edges();
     }
     
+    /**
+     * Returns whether an event of the delegate graph concerns this graph, so that it is forwarded to the
+     * listeners of this graph. All events are forwarded by default.
+     */
+    protected boolean forwards(GraphEvent e) {
+        return true;
+    }
+    
     private static abstract class Detached {
         private final WeakReference<InspectableGraphForwarder> ref;
         private final InspectableGraph target;
-        private InspectableGraphForwarder gd;
+        InspectableGraphForwarder gd;
         protected GraphEventSupport eventSupport;
         
         private int depth = 0;
@@ -169,19 +191,27 @@ public class InspectableGraphForwarder extends AbstractInspectableGraph implemen
         }
         
         public void nodeToBeRemoved(GraphEvent e) {
-            eventSupport.fireNodeToBeRemoved(deriveEvent(e));
+            if (gd.forwards(e)) {
+                eventSupport.fireNodeToBeRemoved(deriveEvent(e));
+            }
         }
         
         public void nodeToBeAdded(GraphEvent e) {
-            eventSupport.fireNodeToBeAdded(deriveEvent(e));
+            if (gd.forwards(e)) {
+                eventSupport.fireNodeToBeAdded(deriveEvent(e));
+            }
         }
         
         public void nodeRemoved(GraphEvent e) {
-            eventSupport.fireNodeRemoved(deriveEvent(e));
+            if (gd.forwards(e)) {
+                eventSupport.fireNodeRemoved(deriveEvent(e));
+            }
         }
         
         public void nodeAdded(GraphEvent e) {
-            eventSupport.fireNodeAdded(deriveEvent(e));
+            if (gd.forwards(e)) {
+                eventSupport.fireNodeAdded(deriveEvent(e));
+            }
         }
         
         public void nodeReordered(GraphEvent e) {
@@ -207,7 +237,9 @@ public class InspectableGraphForwarder extends AbstractInspectableGraph implemen
         }
         
         public void edgeToBeAdded(GraphEvent e) {
-            eventSupport.fireEdgeToBeAdded(deriveEvent(e));
+            if (gd.forwards(e)) {
+                eventSupport.fireEdgeToBeAdded(deriveEvent(e));
+            }
         }
         
         public void edgeReordered(GraphEvent e) {
@@ -215,15 +247,21 @@ public class InspectableGraphForwarder extends AbstractInspectableGraph implemen
         }
         
         public void edgeRemoved(GraphEvent e) {
-            eventSupport.fireEdgeRemoved(deriveEvent(e));
+            if (gd.forwards(e)) {
+                eventSupport.fireEdgeRemoved(deriveEvent(e));
+            }
         }
         
         public void edgeAdded(GraphEvent e) {
-            eventSupport.fireEdgeAdded(deriveEvent(e));
+            if (gd.forwards(e)) {
+                eventSupport.fireEdgeAdded(deriveEvent(e));
+            }
         }
         
         public void edgeToBeRemoved(GraphEvent e) {
-            eventSupport.fireEdgeToBeRemoved(deriveEvent(e));
+            if (gd.forwards(e)) {
+                eventSupport.fireEdgeToBeRemoved(deriveEvent(e));
+            }
         }
         
         protected void removeSelf(InspectableGraph target) {
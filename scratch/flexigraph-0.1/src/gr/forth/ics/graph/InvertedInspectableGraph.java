@@ -30,4 +30,25 @@ class InvertedInspectableGraph extends InspectableGraphForwarder {
     public ExtendedListIterable<Node> adjacentNodes(Node node, Direction direction) {
         return inspectableGraph.adjacentNodes(node, direction.flip());
     }
+    
+    public NodeCursor nodeCursor() {
+        final NodeCursor cursor = inspectableGraph.nodeCursor();
+        return new NodeCursor() {
+            public void reset(Node node, Direction direction) {
+                cursor.reset(node, direction.flip());
+            }
+            
+            public boolean next() {
+                return cursor.next();
+            }
+            
+            public Edge edge() {
+                return cursor.edge();
+            }
+            
+            public Node node() {
+                return cursor.node();
+            }
+        };
+    }
 }
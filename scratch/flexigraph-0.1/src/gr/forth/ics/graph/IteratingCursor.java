@@ -0,0 +1,45 @@
+package gr.forth.ics.graph;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A cursor over the edges returned by {@link InspectableGraph#edges(Node, Direction)}, for
+ * graphs that do not provide a cursor of their own.
+ */
+class IteratingCursor implements NodeCursor {
+    private final InspectableGraph graph;
+    private Node node;
+    private Iterator<Edge> edges;
+    private Edge edge;
+
+    IteratingCursor(InspectableGraph graph) {
+        this.graph = graph;
+    }
+
+    public void reset(Node node, Direction direction) {
+        edges = graph.edges(node, direction).iterator();
+        this.node = node;
+        edge = null;
+    }
+
+    public boolean next() {
+        if (edges != null && edges.hasNext()) {
+            edge = edges.next();
+            return true;
+        }
+        edge = null;
+        return false;
+    }
+
+    public Edge edge() {
+        if (edge == null) {
+            throw new NoSuchElementException();
+        }
+        return edge;
+    }
+
+    public Node node() {
+        return edge().opposite(node);
+    }
+}
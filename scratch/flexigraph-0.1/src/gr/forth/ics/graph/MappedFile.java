@@ -0,0 +1,86 @@
+package gr.forth.ics.graph;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * An array of ints or doubles, memory-mapped from a file. Files larger than what a single
+ * {@link java.nio.MappedByteBuffer} can address are mapped in several segments. Existing files are
+ * mapped read-only; files created by {@link #create(File, long)} are writable.
+ */
+final class MappedFile {
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final ByteBuffer[] segments;
+    private final long length;
+
+    MappedFile(File file) throws IOException {
+        this(file, -1);
+    }
+
+    //a negative length maps the existing file read-only
+    private MappedFile(File file, long newLength) throws IOException {
+        boolean writable = newLength >= 0;
+        RandomAccessFile raf = new RandomAccessFile(file, writable ? "rw" : "r");
+        try {
+            if (writable) {
+                raf.setLength(newLength);
+            }
+            FileChannel channel = raf.getChannel();
+            length = channel.size();
+            segments = new ByteBuffer[(int)((length + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+            FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+            for (int i = 0; i < segments.length; i++) {
+                long start = (long)i << SEGMENT_SHIFT;
+                //the mapping stays valid after the channel is closed
+                segments[i] = channel.map(mode, start, Math.min(length - start, SEGMENT_MASK + 1));
+            }
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Creates (or truncates) the specified file, with the specified number of (zero) bytes, and maps it for writing.
+     */
+    static MappedFile create(File file, long length) throws IOException {
+        return new MappedFile(file, length);
+    }
+
+    /**
+     * Returns the number of bytes of the file.
+     */
+    long length() {
+        return length;
+    }
+
+    //segment sizes are multiples of 8, so no element spans two segments
+    int getInt(int index) {
+        long offset = (long)index << 2;
+        return segments[(int)(offset >>> SEGMENT_SHIFT)].getInt((int)(offset & SEGMENT_MASK));
+    }
+
+    void putInt(int index, int value) {
+        long offset = (long)index << 2;
+        segments[(int)(offset >>> SEGMENT_SHIFT)].putInt((int)(offset & SEGMENT_MASK), value);
+    }
+
+    /**
+     * Writes the changes of a writable file to the storage device.
+     */
+    void force() {
+        for (ByteBuffer segment : segments) {
+            ((MappedByteBuffer)segment).force();
+        }
+    }
+
+    double getDouble(int index) {
+        long offset = (long)index << 3;
+        return segments[(int)(offset >>> SEGMENT_SHIFT)].getDouble((int)(offset & SEGMENT_MASK));
+    }
+}
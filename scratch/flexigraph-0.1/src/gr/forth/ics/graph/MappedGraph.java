@@ -0,0 +1,832 @@
+package gr.forth.ics.graph;
+
+import gr.forth.ics.graph.metrics.EdgeMetric;
+import gr.forth.ics.graph.metrics.NodeMetric;
+import gr.forth.ics.graph.path.Path;
+import gr.forth.ics.util.Args;
+import gr.forth.ics.util.ExtendedListIterable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * A read-only graph whose structure lives in memory-mapped files (see {@link MappedGraphWriter}), for graphs
+ * that are too large to be kept on the heap as regular node and edge objects. The layout is the one of
+ * {@link CsrGraph}: nodes and edges are numbered densely (the numbers are also their indexes, see
+ * {@link IndexedInspectableGraph}), edges are grouped by source node, and the adjacency of each node is a
+ * contiguous range of the mapped int arrays.
+ * <p>
+ * Nodes and edges are flyweights, created on demand when they are returned by some method of the graph.
+ * For as long as a node (or edge) object is referenced, the graph returns that same object for it,
+ * so elements can be compared by identity as usual. Unreferenced elements are reclaimed, unless
+ * they (or any other element created at the same time, i.e. of the same page) hold an attribute,
+ * in which case they are retained by the graph, so that the attribute is not lost: elements with a value or
+ * a (strongly keyed) tuple entry are retained until these are removed, and elements with weakly keyed entries
+ * (see {@link Tuple#putWeakly(Object, Object)}) until the keys are reclaimed. Thus traversals only need heap
+ * space for the elements they hold on to; algorithms that put (even weak) attributes on the elements need
+ * heap space for the pages of those elements while the algorithms (i.e. their keys) are alive. Pages of
+ * reclaimed keys are released lazily, the next time the graph creates an element.
+ * <p>
+ * The attribute columns written along with the graph are accessible through {@link #nodeColumn(String)}
+ * and {@link #edgeColumn(String)}, and also as read-only tuple entries of the elements, with the name of
+ * the column as key: <code>node.getDouble("weight")</code>. Column entries do not appear in
+ * {@link Tuple#keySet()} and {@link Tuple#asMap()}.
+ * <p>
+ * Serializing a mapped graph only records the directory it is mapped from.
+ *
+ * @see MappedGraphWriter
+ * @author Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
+ */
+public final class MappedGraph extends AbstractInspectableGraph implements IndexedInspectableGraph {
+    private static final long serialVersionUID = 1L;
+
+    static final int MAGIC = 0x46474d47;
+    static final int VERSION = 1;
+    static final String HEADER = "header";
+    static final String OUT_OFFSETS = "out-offsets";
+    static final String OUT_TARGETS = "out-targets";
+    static final String EDGE_SOURCES = "edge-sources";
+    static final String IN_OFFSETS = "in-offsets";
+    static final String IN_EDGES = "in-edges";
+    static final String NODE_COLUMN_PREFIX = "node-";
+    static final String EDGE_COLUMN_PREFIX = "edge-";
+    static final String COLUMN_SUFFIX = ".double";
+
+    private static final int PAGE_SHIFT = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private final File directory;
+
+    private transient int nodeCount;
+    private transient MappedFile outOffsets;
+    private transient MappedFile outTargets;
+    private transient MappedFile edgeSources;
+    private transient MappedFile inOffsets;
+    private transient MappedFile inEdges;
+    private transient Map<String, NodeColumn> nodeColumns;
+    private transient Map<String, EdgeColumn> edgeColumns;
+
+    //each page is either an Object[] of elements (while pinned), or a weak reference to one
+    private transient Object[] nodePages;
+    private transient Object[] edgePages;
+    //the number of elements of each page that hold a value or strongly keyed entries; positive while pinned
+    private transient int[] nodePins;
+    private transient int[] edgePins;
+    //the pages of the elements with weakly keyed entries, by key, so they live as long as the key
+    private transient Map<Object, Set<Object[]>> weakPins;
+
+    /**
+     * Maps the graph that is stored in the specified directory.
+     *
+     * @throws IOException if the directory does not contain a graph written by {@link MappedGraphWriter},
+     * or if an I/O error occurs
+     */
+    public MappedGraph(File directory) throws IOException {
+        Args.notNull(directory);
+        this.directory = directory;
+        open();
+    }
+
+    private void open() throws IOException {
+        DataInputStream header = new DataInputStream(new FileInputStream(new File(directory, HEADER)));
+        int edgeCount;
+        try {
+            if (header.readInt() != MAGIC) {
+                throw new IOException("Not a mapped graph: " + directory);
+            }
+            int version = header.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported mapped graph version: " + version);
+            }
+            nodeCount = header.readInt();
+            edgeCount = header.readInt();
+        } finally {
+            header.close();
+        }
+        this.edgeCount = edgeCount;
+        outOffsets = map(OUT_OFFSETS, 4L * (nodeCount + 1));
+        outTargets = map(OUT_TARGETS, 4L * edgeCount);
+        edgeSources = map(EDGE_SOURCES, 4L * edgeCount);
+        inOffsets = map(IN_OFFSETS, 4L * (nodeCount + 1));
+        inEdges = map(IN_EDGES, 4L * edgeCount);
+
+        nodeColumns = new HashMap<String, NodeColumn>();
+        edgeColumns = new HashMap<String, EdgeColumn>();
+        String[] files = directory.list();
+        for (String file : files) {
+            if (!file.endsWith(COLUMN_SUFFIX)) {
+                continue;
+            }
+            String name = file.substring(0, file.length() - COLUMN_SUFFIX.length());
+            if (name.startsWith(NODE_COLUMN_PREFIX)) {
+                name = name.substring(NODE_COLUMN_PREFIX.length());
+                nodeColumns.put(name, new NodeColumn(this, name, map(file, 8L * nodeCount)));
+            } else if (name.startsWith(EDGE_COLUMN_PREFIX)) {
+                name = name.substring(EDGE_COLUMN_PREFIX.length());
+                edgeColumns.put(name, new EdgeColumn(this, name, map(file, 8L * edgeCount)));
+            }
+        }
+
+        nodePages = new Object[(nodeCount + PAGE_MASK) >>> PAGE_SHIFT];
+        edgePages = new Object[(edgeCount + PAGE_MASK) >>> PAGE_SHIFT];
+        nodePins = new int[nodePages.length];
+        edgePins = new int[edgePages.length];
+        weakPins = new WeakHashMap<Object, Set<Object[]>>();
+    }
+
+    private MappedFile map(String name, long expectedLength) throws IOException {
+        MappedFile file = new MappedFile(new File(directory, name));
+        if (file.length() != expectedLength) {
+            throw new IOException("Corrupted mapped graph, " + name + " has " + file.length() +
+                    " bytes instead of " + expectedLength);
+        }
+        return file;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        open();
+    }
+
+    /**
+     * Returns the directory this graph is mapped from.
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Returns the names of the node columns.
+     */
+    public Set<String> nodeColumnNames() {
+        return Collections.unmodifiableSet(nodeColumns.keySet());
+    }
+
+    /**
+     * Returns the names of the edge columns.
+     */
+    public Set<String> edgeColumnNames() {
+        return Collections.unmodifiableSet(edgeColumns.keySet());
+    }
+
+    /**
+     * Returns the node column with the specified name.
+     * @throws IllegalArgumentException if there is no such column
+     */
+    public NodeColumn nodeColumn(String name) {
+        NodeColumn column = nodeColumns.get(name);
+        if (column == null) {
+            throw new IllegalArgumentException("No node column named: " + name);
+        }
+        return column;
+    }
+
+    /**
+     * Returns the edge column with the specified name.
+     * @throws IllegalArgumentException if there is no such column
+     */
+    public EdgeColumn edgeColumn(String name) {
+        EdgeColumn column = edgeColumns.get(name);
+        if (column == null) {
+            throw new IllegalArgumentException("No edge column named: " + name);
+        }
+        return column;
+    }
+
+    private static Object[] livePage(Object slot) {
+        if (slot instanceof WeakReference) {
+            return (Object[])((WeakReference<?>)slot).get();
+        }
+        return (Object[])slot;
+    }
+
+    private MappedNode node(int id) {
+        Object[] page = livePage(nodePages[id >>> PAGE_SHIFT]);
+        if (page != null) {
+            Object node = page[id & PAGE_MASK];
+            if (node != null) {
+                return (MappedNode)node;
+            }
+        }
+        return materializeNode(id);
+    }
+
+    private synchronized MappedNode materializeNode(int id) {
+        expungeWeakPins();
+        int p = id >>> PAGE_SHIFT;
+        Object[] page = livePage(nodePages[p]);
+        if (page == null) {
+            page = new Object[Math.min(PAGE_SIZE, nodeCount - (p << PAGE_SHIFT))];
+            nodePages[p] = new WeakReference<Object[]>(page);
+        }
+        MappedNode node = (MappedNode)page[id & PAGE_MASK];
+        if (node == null) {
+            node = new MappedNode(this, page, id);
+            page[id & PAGE_MASK] = node;
+        }
+        return node;
+    }
+
+    private MappedEdge edge(int id) {
+        Object[] page = livePage(edgePages[id >>> PAGE_SHIFT]);
+        if (page != null) {
+            Object edge = page[id & PAGE_MASK];
+            if (edge != null) {
+                return (MappedEdge)edge;
+            }
+        }
+        return materializeEdge(id);
+    }
+
+    private synchronized MappedEdge materializeEdge(int id) {
+        expungeWeakPins();
+        int p = id >>> PAGE_SHIFT;
+        Object[] page = livePage(edgePages[p]);
+        if (page == null) {
+            page = new Object[Math.min(PAGE_SIZE, edgeCount - (p << PAGE_SHIFT))];
+            edgePages[p] = new WeakReference<Object[]>(page);
+        }
+        MappedEdge edge = (MappedEdge)page[id & PAGE_MASK];
+        if (edge == null) {
+            edge = new MappedEdge(this, page, id, edgeSources.getInt(id), outTargets.getInt(id));
+            page[id & PAGE_MASK] = edge;
+        }
+        return edge;
+    }
+
+    /**
+     * Counts an element of the specified page as holding (or no longer holding) a value or strongly keyed
+     * entries. The graph strongly references a page while it has such elements, so they are not reclaimed.
+     * Called while holding the lock of this graph.
+     */
+    private void pin(int[] pins, Object[] pages, Object[] page, int id, boolean pin) {
+        int p = id >>> PAGE_SHIFT;
+        if (pin) {
+            if (pins[p]++ == 0) {
+                pages[p] = page;
+            }
+        } else if (--pins[p] == 0) {
+            pages[p] = new WeakReference<Object[]>(page);
+        }
+    }
+
+    /**
+     * Keeps the specified page (of an element that was given a weakly keyed entry) alive as long as the key.
+     */
+    private synchronized void pinWeakly(Object key, Object[] page) {
+        Set<Object[]> pages = weakPins.get(key);
+        if (pages == null) {
+            pages = Collections.newSetFromMap(new IdentityHashMap<Object[], Boolean>());
+            weakPins.put(key, pages);
+        }
+        pages.add(page);
+    }
+
+    //the pages of reclaimed keys are only dropped when the map is accessed
+    private void expungeWeakPins() {
+        weakPins.size();
+    }
+
+    public int indexOf(Node node) {
+        return containsNode(node) ? ((MappedNode)node).id : -1;
+    }
+
+    public int indexOf(Edge edge) {
+        return containsEdge(edge) ? ((MappedEdge)edge).id : -1;
+    }
+
+    /**
+     * Returns the node with the specified index.
+     * @throws IndexOutOfBoundsException if index is not in [0, nodeCount())
+     */
+    public Node nodeAt(int index) {
+        if (index < 0 || index >= nodeCount) {
+            throw new IndexOutOfBoundsException("Node index: " + index);
+        }
+        return node(index);
+    }
+
+    /**
+     * Returns the edge with the specified index.
+     * @throws IndexOutOfBoundsException if index is not in [0, edgeCount())
+     */
+    public Edge edgeAt(int index) {
+        if (index < 0 || index >= edgeCount) {
+            throw new IndexOutOfBoundsException("Edge index: " + index);
+        }
+        return edge(index);
+    }
+
+    public int nodeIndexCapacity() {
+        return nodeCount;
+    }
+
+    public int edgeIndexCapacity() {
+        return edgeCount;
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    public boolean containsNode(Node node) {
+        return node instanceof MappedNode && ((MappedNode)node).graph == this;
+    }
+
+    public boolean containsEdge(Edge edge) {
+        return edge instanceof MappedEdge && ((MappedEdge)edge).graph == this;
+    }
+
+    private int checkContained(Node node) {
+        if (!containsNode(node)) {
+            throw new IllegalArgumentException("Node " + node + " not contained in graph");
+        }
+        return ((MappedNode)node).id;
+    }
+
+    public int outDegree(Node node) {
+        int n = checkContained(node);
+        return outOffsets.getInt(n + 1) - outOffsets.getInt(n);
+    }
+
+    public int inDegree(Node node) {
+        int n = checkContained(node);
+        return inOffsets.getInt(n + 1) - inOffsets.getInt(n);
+    }
+
+    public int degree(Node node) {
+        int n = checkContained(node);
+        return outOffsets.getInt(n + 1) - outOffsets.getInt(n) + inOffsets.getInt(n + 1) - inOffsets.getInt(n);
+    }
+
+    public ExtendedListIterable<Node> nodes() {
+        return new ExtendedListIterable<Node>(nodeCount) {
+            protected ListIterator<Node> listIteratorImpl() {
+                return new ArrayListIterator<Node>(nodeCount) {
+                    Node get(int i) {
+                        return node(i);
+                    }
+                };
+            }
+        };
+    }
+
+    public ExtendedListIterable<Edge> edges() {
+        return new ExtendedListIterable<Edge>(edgeCount) {
+            protected ListIterator<Edge> listIteratorImpl() {
+                return new ArrayListIterator<Edge>(edgeCount) {
+                    Edge get(int i) {
+                        return edge(i);
+                    }
+                };
+            }
+        };
+    }
+
+    public ExtendedListIterable<Edge> edges(Node node, Direction direction) {
+        Args.notNull(direction);
+        int n = checkContained(node);
+        final int outStart = outOffsets.getInt(n);
+        final int outCount = direction.isOut() ? outOffsets.getInt(n + 1) - outStart : 0;
+        final int inStart = inOffsets.getInt(n);
+        final int inCount = direction.isIn() ? inOffsets.getInt(n + 1) - inStart : 0;
+        return new ExtendedListIterable<Edge>(outCount + inCount) {
+            protected ListIterator<Edge> listIteratorImpl() {
+                return new ArrayListIterator<Edge>(outCount + inCount) {
+                    Edge get(int i) {
+                        return i < outCount ? edge(outStart + i) : edge(inEdges.getInt(inStart + i - outCount));
+                    }
+                };
+            }
+        };
+    }
+
+    public ExtendedListIterable<Node> adjacentNodes(Node node, Direction direction) {
+        Args.notNull(direction);
+        int n = checkContained(node);
+        final int outStart = outOffsets.getInt(n);
+        final int outCount = direction.isOut() ? outOffsets.getInt(n + 1) - outStart : 0;
+        final int inStart = inOffsets.getInt(n);
+        final int inCount = direction.isIn() ? inOffsets.getInt(n + 1) - inStart : 0;
+        return new ExtendedListIterable<Node>(outCount + inCount) {
+            protected ListIterator<Node> listIteratorImpl() {
+                return new ArrayListIterator<Node>(outCount + inCount) {
+                    Node get(int i) {
+                        return i < outCount ? node(outTargets.getInt(outStart + i)) :
+                            node(edgeSources.getInt(inEdges.getInt(inStart + i - outCount)));
+                    }
+                };
+            }
+        };
+    }
+
+    public ExtendedListIterable<Edge> edges(Node n1, Node n2, Direction direction) {
+        Args.notNull(direction);
+        int source = checkContained(n1);
+        int target = checkContained(n2);
+        final List<Edge> found = new ArrayList<Edge>(2);
+        if (direction.isOut()) {
+            for (int i = outOffsets.getInt(source), end = outOffsets.getInt(source + 1); i < end; i++) {
+                if (outTargets.getInt(i) == target) {
+                    found.add(edge(i));
+                }
+            }
+        }
+        if (direction.isIn()) {
+            for (int i = inOffsets.getInt(source), end = inOffsets.getInt(source + 1); i < end; i++) {
+                int edge = inEdges.getInt(i);
+                if (edgeSources.getInt(edge) == target) {
+                    found.add(edge(edge));
+                }
+            }
+        }
+        return new ExtendedListIterable<Edge>(found.size()) {
+            protected ListIterator<Edge> listIteratorImpl() {
+                return new ArrayListIterator<Edge>(found.size()) {
+                    Edge get(int i) {
+                        return found.get(i);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public boolean areAdjacent(Node n1, Node n2, Direction direction) {
+        Args.notNull(direction);
+        int source = checkContained(n1);
+        int target = checkContained(n2);
+        if (direction.isOut()) {
+            for (int i = outOffsets.getInt(source), end = outOffsets.getInt(source + 1); i < end; i++) {
+                if (outTargets.getInt(i) == target) {
+                    return true;
+                }
+            }
+        }
+        if (direction.isIn()) {
+            for (int i = inOffsets.getInt(source), end = inOffsets.getInt(source + 1); i < end; i++) {
+                if (edgeSources.getInt(inEdges.getInt(i)) == target) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A column of doubles, one per node, mapped from the directory of a {@link MappedGraph}.
+     */
+    public static final class NodeColumn implements NodeMetric {
+        private final MappedGraph graph;
+        private final String name;
+        private final MappedFile values;
+
+        private NodeColumn(MappedGraph graph, String name, MappedFile values) {
+            this.graph = graph;
+            this.name = name;
+            this.values = values;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the value of the specified node.
+         * @throws IllegalArgumentException if the node is not contained in the graph of this column
+         */
+        public double get(Node node) {
+            return values.getDouble(graph.checkContained(node));
+        }
+
+        /**
+         * Returns the value of the node with the specified index.
+         * @throws IndexOutOfBoundsException if index is not in [0, nodeCount())
+         */
+        public double getAt(int index) {
+            if (index < 0 || index >= graph.nodeCount) {
+                throw new IndexOutOfBoundsException("Node index: " + index);
+            }
+            return values.getDouble(index);
+        }
+
+        public double getValue(Node node) {
+            return get(node);
+        }
+    }
+
+    /**
+     * A column of doubles, one per edge, mapped from the directory of a {@link MappedGraph}.
+     */
+    public static final class EdgeColumn implements EdgeMetric {
+        private final MappedGraph graph;
+        private final String name;
+        private final MappedFile values;
+
+        private EdgeColumn(MappedGraph graph, String name, MappedFile values) {
+            this.graph = graph;
+            this.name = name;
+            this.values = values;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the value of the specified edge.
+         * @throws IllegalArgumentException if the edge is not contained in the graph of this column
+         */
+        public double get(Edge edge) {
+            if (!graph.containsEdge(edge)) {
+                throw new IllegalArgumentException("Edge " + edge + " not contained in graph");
+            }
+            return values.getDouble(((MappedEdge)edge).id);
+        }
+
+        /**
+         * Returns the value of the edge with the specified index.
+         * @throws IndexOutOfBoundsException if index is not in [0, edgeCount())
+         */
+        public double getAt(int index) {
+            if (index < 0 || index >= graph.edgeCount) {
+                throw new IndexOutOfBoundsException("Edge index: " + index);
+            }
+            return values.getDouble(index);
+        }
+
+        public double getValue(Edge edge) {
+            return get(edge);
+        }
+    }
+
+    private static final class MappedNode extends TupleImpl implements Node {
+        private static final long serialVersionUID = 1L;
+
+        final MappedGraph graph;
+        final int id;
+        //keeps the page alive while this node is referenced, so the node stays canonical
+        private final Object[] page;
+        //whether this node is counted in the pins of its page; guarded by the lock of the graph
+        private boolean pinned;
+
+        MappedNode(MappedGraph graph, Object[] page, int id) {
+            this.graph = graph;
+            this.page = page;
+            this.id = id;
+        }
+
+        private NodeColumn column(Object key) {
+            return key instanceof String ? graph.nodeColumns.get(key) : null;
+        }
+
+        @Override protected Object getLocally(Object key) {
+            NodeColumn column = column(key);
+            return column != null ? column.getAt(id) : super.getLocally(key);
+        }
+
+        @Override protected boolean hasLocally(Object key) {
+            return column(key) != null || super.hasLocally(key);
+        }
+
+        @Override public Object put(Object key, Object value) {
+            checkNotColumn(key);
+            Object old = super.put(key, value);
+            updatePin();
+            return old;
+        }
+
+        @Override public Object putWeakly(Object key, Object value) {
+            checkNotColumn(key);
+            Object old = super.putWeakly(key, value);
+            graph.pinWeakly(key, page);
+            updatePin();
+            return old;
+        }
+
+        @Override public Object setValue(Object value) {
+            Object old = super.setValue(value);
+            updatePin();
+            return old;
+        }
+
+        @Override public Object remove(Object key) {
+            checkNotColumn(key);
+            Object old = super.remove(key);
+            updatePin();
+            return old;
+        }
+
+        private void updatePin() {
+            boolean holds = getValue() != null || hasStrongEntries();
+            synchronized (graph) {
+                if (holds != pinned) {
+                    pinned = holds;
+                    graph.pin(graph.nodePins, graph.nodePages, page, id, holds);
+                }
+            }
+        }
+
+        private void checkNotColumn(Object key) {
+            if (column(key) != null) {
+                throw new UnsupportedOperationException("Column attribute " + key + " is read-only");
+            }
+        }
+
+        public Path asPath() {
+            return NodeImpl.pathOf(this);
+        }
+
+        @Override public String toString() {
+            return getValue() != null ? getValue().toString() : String.valueOf(id);
+        }
+    }
+
+    private static final class MappedEdge extends TupleImpl implements Edge {
+        private static final long serialVersionUID = 1L;
+
+        final MappedGraph graph;
+        final int id;
+        private final int source;
+        private final int target;
+        //keeps the page alive while this edge is referenced, so the edge stays canonical
+        private final Object[] page;
+        //whether this edge is counted in the pins of its page; guarded by the lock of the graph
+        private boolean pinned;
+
+        MappedEdge(MappedGraph graph, Object[] page, int id, int source, int target) {
+            this.graph = graph;
+            this.page = page;
+            this.id = id;
+            this.source = source;
+            this.target = target;
+        }
+
+        private EdgeColumn column(Object key) {
+            return key instanceof String ? graph.edgeColumns.get(key) : null;
+        }
+
+        @Override protected Object getLocally(Object key) {
+            EdgeColumn column = column(key);
+            return column != null ? column.getAt(id) : super.getLocally(key);
+        }
+
+        @Override protected boolean hasLocally(Object key) {
+            return column(key) != null || super.hasLocally(key);
+        }
+
+        @Override public Object put(Object key, Object value) {
+            checkNotColumn(key);
+            Object old = super.put(key, value);
+            updatePin();
+            return old;
+        }
+
+        @Override public Object putWeakly(Object key, Object value) {
+            checkNotColumn(key);
+            Object old = super.putWeakly(key, value);
+            graph.pinWeakly(key, page);
+            updatePin();
+            return old;
+        }
+
+        @Override public Object setValue(Object value) {
+            Object old = super.setValue(value);
+            updatePin();
+            return old;
+        }
+
+        @Override public Object remove(Object key) {
+            checkNotColumn(key);
+            Object old = super.remove(key);
+            updatePin();
+            return old;
+        }
+
+        private void updatePin() {
+            boolean holds = getValue() != null || hasStrongEntries();
+            synchronized (graph) {
+                if (holds != pinned) {
+                    pinned = holds;
+                    graph.pin(graph.edgePins, graph.edgePages, page, id, holds);
+                }
+            }
+        }
+
+        private void checkNotColumn(Object key) {
+            if (column(key) != null) {
+                throw new UnsupportedOperationException("Column attribute " + key + " is read-only");
+            }
+        }
+
+        public Node n1() {
+            return graph.node(source);
+        }
+
+        public Node n2() {
+            return graph.node(target);
+        }
+
+        private int idOf(Node node) {
+            return graph.containsNode(node) ? ((MappedNode)node).id : -1;
+        }
+
+        public boolean isIncident(Node node) {
+            int n = idOf(node);
+            return n >= 0 && (n == source || n == target);
+        }
+
+        public Node opposite(Node node) {
+            int n = idOf(node);
+            if (n == source) {
+                return n2();
+            } else if (n >= 0 && n == target) {
+                return n1();
+            }
+            throw new RuntimeException("Edge: " + this + " does not contain node: " + node);
+        }
+
+        public boolean isSelfLoop() {
+            return source == target;
+        }
+
+        public boolean isIncident(Edge other) {
+            Args.notNull(other);
+            return isIncident(other.n1()) || isIncident(other.n2());
+        }
+
+        public Node getIntersection(Edge other) {
+            return getIntersection(true, other);
+        }
+
+        public Node getIntersection(boolean startFromN1, Edge other) {
+            Args.notNull(other);
+            Node first = startFromN1 ? n1() : n2();
+            Node second = startFromN1 ? n2() : n1();
+            if (other.isIncident(first)) {
+                return first;
+            }
+            if (other.isIncident(second)) {
+                return second;
+            }
+            return null;
+        }
+
+        public boolean areParallel(Edge other) {
+            Args.notNull(other);
+            Node n1 = n1();
+            Node n2 = n2();
+            if (n1 == other.n1()) {
+                return n2 == other.n2();
+            } else if (n1 == other.n2()) {
+                return n2 == other.n1();
+            }
+            return false;
+        }
+
+        public Orientation testOrientation(Edge other) {
+            Args.notNull(other);
+            Node n = getIntersection(other);
+            if (n == null || isSelfLoop() || other.isSelfLoop()) {
+                return Orientation.UNDEFINED;
+            }
+            int x = 0;
+            if (n == n2()) {
+                x++;
+            }
+            if (n == other.n2()) {
+                x++;
+            }
+            return x % 2 == 1 ? Orientation.SAME : Orientation.OPPOSITE;
+        }
+
+        public Path asPath() {
+            return asPath(n1());
+        }
+
+        public Path asPath(Node head) {
+            return EdgeImpl.pathOf(this, head);
+        }
+
+        @Override public String toString() {
+            return "{" + n1() + "->" + n2() + (getValue() == null ? "" : ", (" + getValue().toString() + ")") + "}";
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package gr.forth.ics.graph;
+
+import gr.forth.ics.graph.metrics.EdgeMetric;
+import gr.forth.ics.graph.metrics.NodeMetric;
+import gr.forth.ics.util.Args;
+import gr.forth.ics.util.IdentityIntMap;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Writes a graph in the directory format of {@link MappedGraph}. Besides the structure of the graph,
+ * any number of node and edge metrics can be stored as columns of doubles, so that they can be
+ * read back without keeping them on the heap. Example:
+ * <pre>
+ * new MappedGraphWriter(graph)
+ *     .edgeColumn("weight", weights)
+ *     .write(directory);
+ * MappedGraph mapped = new MappedGraph(directory);
+ * </pre>
+ * Tuple entries and values of the elements are not written.
+ * <p>
+ * The arrays are streamed from the graph to the files, so writing only needs heap space proportional to
+ * the number of nodes; the in-edges are scattered directly into their (mapped) file. Nodes are numbered in
+ * the iteration order of the graph, and edges by source node, in the order of {@link InspectableGraph#edges(Node, Direction)}.
+ * The graph must not be modified while it is written.
+ *
+ * @see MappedGraph
+ * @author Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
+ */
+public class MappedGraphWriter {
+    private static final Pattern COLUMN_NAME = Pattern.compile("[A-Za-z0-9_.\\-]+");
+
+    private final InspectableGraph graph;
+    private final Map<String, NodeMetric> nodeColumns = new LinkedHashMap<String, NodeMetric>();
+    private final Map<String, EdgeMetric> edgeColumns = new LinkedHashMap<String, EdgeMetric>();
+
+    /**
+     * Creates a writer of the specified graph.
+     */
+    public MappedGraphWriter(InspectableGraph graph) {
+        Args.notNull(graph);
+        this.graph = graph;
+    }
+
+    /**
+     * Adds a node column with the specified name, whose values are given by the specified metric.
+     * @param name the name of the column; letters, digits, '_', '.' and '-' are allowed
+     * @return this writer
+     */
+    public MappedGraphWriter nodeColumn(String name, NodeMetric metric) {
+        checkName(name);
+        Args.notNull(metric);
+        nodeColumns.put(name, metric);
+        return this;
+    }
+
+    /**
+     * Adds an edge column with the specified name, whose values are given by the specified metric.
+     * @param name the name of the column; letters, digits, '_', '.' and '-' are allowed
+     * @return this writer
+     */
+    public MappedGraphWriter edgeColumn(String name, EdgeMetric metric) {
+        checkName(name);
+        Args.notNull(metric);
+        edgeColumns.put(name, metric);
+        return this;
+    }
+
+    private static void checkName(String name) {
+        Args.notNull(name);
+        if (!COLUMN_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Illegal column name: " + name);
+        }
+    }
+
+    /**
+     * Writes the graph and its columns to the specified directory, creating it if needed.
+     * Existing files of a previously written graph are overwritten.
+     */
+    public void write(File directory) throws IOException {
+        Args.notNull(directory);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create directory: " + directory);
+        }
+        final int nodeCount = graph.nodeCount();
+        IdentityIntMap<Node> ids = new IdentityIntMap<Node>(nodeCount);
+        int[] inOffsets = new int[nodeCount + 1];
+        int edgeCount = 0;
+        DataOutputStream outOffsets = open(directory, MappedGraph.OUT_OFFSETS);
+        try {
+            outOffsets.writeInt(0);
+            int id = 0;
+            for (Node n : graph.nodes()) {
+                ids.put(n, id);
+                inOffsets[++id] = graph.inDegree(n);
+                edgeCount += graph.outDegree(n);
+                outOffsets.writeInt(edgeCount);
+            }
+        } finally {
+            outOffsets.close();
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            inOffsets[i + 1] += inOffsets[i];
+        }
+        writeInts(directory, MappedGraph.IN_OFFSETS, inOffsets);
+
+        DataOutputStream header = open(directory, MappedGraph.HEADER);
+        try {
+            header.writeInt(MappedGraph.MAGIC);
+            header.writeInt(MappedGraph.VERSION);
+            header.writeInt(nodeCount);
+            header.writeInt(edgeCount);
+        } finally {
+            header.close();
+        }
+
+        //in-edges are grouped by target, each group in edge order; fill[t] is the next slot of the group of t
+        int[] fill = inOffsets;
+        MappedFile inEdges = MappedFile.create(new File(directory, MappedGraph.IN_EDGES), 4L * edgeCount);
+        DataOutputStream outTargets = open(directory, MappedGraph.OUT_TARGETS);
+        DataOutputStream edgeSources = open(directory, MappedGraph.EDGE_SOURCES);
+        try {
+            int source = 0;
+            int edge = 0;
+            for (Node n : graph.nodes()) {
+                for (Edge e : graph.edges(n, Direction.OUT)) {
+                    int target = ids.get(e.n2());
+                    if (target < 0) {
+                        throw new IllegalArgumentException("Edge " + e + " connects nodes not contained in graph");
+                    }
+                    outTargets.writeInt(target);
+                    edgeSources.writeInt(source);
+                    inEdges.putInt(fill[target]++, edge++);
+                }
+                source++;
+            }
+        } finally {
+            outTargets.close();
+            edgeSources.close();
+        }
+        inEdges.force();
+
+        for (Map.Entry<String, NodeMetric> column : nodeColumns.entrySet()) {
+            DataOutputStream out = open(directory,
+                    MappedGraph.NODE_COLUMN_PREFIX + column.getKey() + MappedGraph.COLUMN_SUFFIX);
+            try {
+                NodeMetric metric = column.getValue();
+                for (Node n : graph.nodes()) {
+                    out.writeDouble(metric.getValue(n));
+                }
+            } finally {
+                out.close();
+            }
+        }
+        for (Map.Entry<String, EdgeMetric> column : edgeColumns.entrySet()) {
+            DataOutputStream out = open(directory,
+                    MappedGraph.EDGE_COLUMN_PREFIX + column.getKey() + MappedGraph.COLUMN_SUFFIX);
+            try {
+                EdgeMetric metric = column.getValue();
+                for (Node n : graph.nodes()) {
+                    for (Edge e : graph.edges(n, Direction.OUT)) {
+                        out.writeDouble(metric.getValue(e));
+                    }
+                }
+            } finally {
+                out.close();
+            }
+        }
+    }
+
+    private static DataOutputStream open(File directory, String name) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(new File(directory, name)), 1 << 16));
+    }
+
+    private static void writeInts(File directory, String name, int[] values) throws IOException {
+        DataOutputStream out = open(directory, name);
+        try {
+            for (int value : values) {
+                out.writeInt(value);
+            }
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package gr.forth.ics.graph;
+
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+
+/**
+ * Manages the records that {@link SecondaryGraph}s keep in the <code>memberships</code> array of each
+ * {@link NodeImpl} and {@link EdgeImpl} they contain, so reaching them costs a scan of a very short array
+ * instead of a hash lookup in the tuple of the element.
+ * <p>
+ * Each record is tagged with the {@link Owner} of its graph, which refers to the graph only weakly. The array
+ * of an element holds one record per graph containing the element, so its length does not depend on
+ * unrelated graphs. No state is kept statically: records left behind by a graph that has been garbage
+ * collected are only reachable from its former elements, and are dropped the next time the array of such an
+ * element is updated; an array that is left empty is released.
+ */
+final class Memberships {
+    private Memberships() { }
+
+    /**
+     * Identifies the records of a particular graph, which is only weakly referenced from here.
+     */
+    static final class Owner extends WeakReference<SecondaryGraph> {
+        Owner(SecondaryGraph graph) {
+            super(graph);
+        }
+    }
+
+    /**
+     * A record of a graph, kept in one of its elements.
+     */
+    static abstract class Record implements Serializable {
+        private static final long serialVersionUID = 1L;
+        transient Owner owner;
+    }
+
+    /**
+     * Returns the record of the specified owner in the specified array (which may be null), or null.
+     */
+    static Record get(Object[] memberships, Owner owner) {
+        if (memberships != null) {
+            for (Object o : memberships) {
+                if (o != null && ((Record)o).owner == owner) {
+                    return (Record)o;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stores the specified record, replacing the one of the same owner, if any, and dropping the records
+     * of collected graphs. Returns the array that the element should keep.
+     */
+    static Object[] put(Object[] memberships, Record record) {
+        int free = -1;
+        if (memberships != null) {
+            for (int i = 0; i < memberships.length; i++) {
+                Record current = (Record)memberships[i];
+                if (current != null && current.owner == record.owner) {
+                    memberships[i] = record;
+                    return memberships;
+                }
+                if (current == null || current.owner.get() == null) {
+                    memberships[i] = null;
+                    if (free < 0) {
+                        free = i;
+                    }
+                }
+            }
+        }
+        if (free < 0) {
+            int length = memberships == null ? 0 : memberships.length;
+            Object[] newMemberships = new Object[length < 4 ? length + 1 : length * 3 / 2];
+            if (memberships != null) {
+                System.arraycopy(memberships, 0, newMemberships, 0, length);
+            }
+            memberships = newMemberships;
+            free = length;
+        }
+        memberships[free] = record;
+        return memberships;
+    }
+
+    /**
+     * Removes the record of the specified owner, if any, and drops the records of collected graphs.
+     * Returns the array that the element should keep, which is null if no record is left.
+     */
+    static Object[] remove(Object[] memberships, Owner owner) {
+        if (memberships == null) {
+            return null;
+        }
+        boolean empty = true;
+        for (int i = 0; i < memberships.length; i++) {
+            Record current = (Record)memberships[i];
+            if (current == null) {
+                continue;
+            }
+            if (current.owner == owner || current.owner.get() == null) {
+                memberships[i] = null;
+            } else {
+                empty = false;
+            }
+        }
+        return empty ? null : memberships;
+    }
+}
@@ -0,0 +1,26 @@
+package gr.forth.ics.graph;
+
+/**
+ * An {@link EdgeCursor} that also reports the neighbors of the node it is reset to, i.e. the
+ * opposite endpoint of each edge. Like {@link InspectableGraph#adjacentNodes(Node, Direction)},
+ * a neighbor is reported once per connecting edge.
+ * <pre>
+ * NodeCursor cursor = graph.nodeCursor();
+ * cursor.reset(node, Direction.EITHER);
+ * while (cursor.next()) {
+ *     Node neighbor = cursor.node();
+ *     ...
+ * }
+ * </pre>
+ *
+ * @see InspectableGraph#nodeCursor()
+ * @author Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
+ */
+public interface NodeCursor extends EdgeCursor {
+    /**
+     * Returns the neighbor reached through the current {@link #edge() edge}.
+     *
+     * @throws java.util.NoSuchElementException if next() has not returned true since the last reset
+     */
+    Node node();
+}
@@ -11,6 +11,9 @@ final class NodeImpl extends TupleImpl implements Node {
     FastLinkedList<EdgeImpl> outEdges = new FastLinkedList<EdgeImpl>();
     FastLinkedList<EdgeImpl> inEdges = new FastLinkedList<EdgeImpl>();
     Accessor<NodeImpl> reference;
+    int index = -1;
+    //records of the secondary graphs containing this element, see Memberships
+    transient Object[] memberships;
     
     NodeImpl(Object value) {
         super(value);
@@ -21,9 +24,16 @@ final class NodeImpl extends TupleImpl implements Node {
     }
 
     public Path asPath() {
+        return pathOf(this);
+    }
+
+    /**
+     * Returns the path of zero length that consists of just the specified node.
+     */
+    static Path pathOf(final Node node) {
         return new AbstractPath() {
             public Node headNode() {
-                return NodeImpl.this;
+                return node;
             }
 
             public Edge headEdge() {
@@ -35,7 +45,7 @@ final class NodeImpl extends TupleImpl implements Node {
             }
 
             public Node tailNode() {
-                return NodeImpl.this;
+                return node;
             }
 
             public Edge tailEdge() {
@@ -48,7 +58,7 @@ final class NodeImpl extends TupleImpl implements Node {
 
             public Node getNode(int index) {
                 if (index == 0) {
-                    return NodeImpl.this;
+                    return node;
                 }
                 throw new IllegalArgumentException("Illegal index specified");
             }
@@ -0,0 +1,52 @@
+package gr.forth.ics.graph;
+
+import java.util.ListIterator;
+
+/**
+ * A read-only list iterator over the opposite nodes of some edges.
+ */
+final class OppositeIterator implements ListIterator<Node> {
+    private final ListIterator<Edge> edges;
+    private final Node node;
+
+    OppositeIterator(ListIterator<Edge> edges, Node node) {
+        this.edges = edges;
+        this.node = node;
+    }
+
+    public boolean hasNext() {
+        return edges.hasNext();
+    }
+
+    public Node next() {
+        return edges.next().opposite(node);
+    }
+
+    public boolean hasPrevious() {
+        return edges.hasPrevious();
+    }
+
+    public Node previous() {
+        return edges.previous().opposite(node);
+    }
+
+    public int nextIndex() {
+        return edges.nextIndex();
+    }
+
+    public int previousIndex() {
+        return edges.previousIndex();
+    }
+
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    public void set(Node n) {
+        throw new UnsupportedOperationException();
+    }
+
+    public void add(Node n) {
+        throw new UnsupportedOperationException();
+    }
+}
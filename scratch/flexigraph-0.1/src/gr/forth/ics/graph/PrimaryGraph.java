@@ -58,10 +58,63 @@ public final class PrimaryGraph extends AbstractListGraph {
 
     @Override final void initNode(NodeImpl node) { }
 
+    @Override final int getNodeIndex(NodeImpl node) {
+        return node.index;
+    }
+
+    @Override final int getEdgeIndex(EdgeImpl edge) {
+        return edge.index;
+    }
+
+    @Override final void setNodeIndex(NodeImpl node, int index) {
+        node.index = index;
+    }
+
+    @Override final void setEdgeIndex(EdgeImpl edge, int index) {
+        edge.index = index;
+    }
+
     @Override public final boolean isPrimary() {
         return true;
     }
 
+    /**
+     * Returns an immutable view of the current state of this graph, in constant time. The graph
+     * maintains a versioned copy of its adjacency, created by the first call of this method (which scans the
+     * graph, and so must not run concurrently with modifications of it); after that, every modification
+     * copies only the small pieces of that copy that it touches, and only once per snapshot. Snapshots
+     * can be taken and traversed by any thread, concurrently with modifications by the thread that owns the
+     * graph; neither side waits for the other, except for the (constant time) creation of a snapshot.
+     * <p>
+     * Once every snapshot has been garbage collected, the next modification drops the copy, so a graph
+     * that is no longer snapshotted stops paying for it; the next call of this method then creates the copy
+     * again, by scanning the graph like the first call. So, a thread that takes snapshots concurrently with
+     * modifications should keep its last snapshot strongly reachable (e.g. in a field) until it has
+     * taken the next one.
+     * <p>
+     * The iteration order of a snapshot is not necessarily the iteration order of the graph, and changes of
+     * the latter through the {@link #getOrderManager() order manager} are not reflected in snapshots. Degrees
+     * and incident edges of nodes are found in constant time, but {@code containsEdge} has to look through
+     * the outgoing edges of the source node.
+     */
+    @Override public InspectableGraph snapshot() {
+        while (true) {
+            SnapshotStore store = snapshots;
+            if (store == null) {
+                //published only after its first snapshot, so that it is not found unused meanwhile
+                store = new SnapshotStore(this);
+                InspectableGraph snapshot = store.snapshot();
+                snapshots = store;
+                return snapshot;
+            }
+            InspectableGraph snapshot = store.snapshot();
+            if (snapshot != null) {
+                return snapshot;
+            }
+            detach(store);
+        }
+    }
+
     public boolean reinsertEdge(Edge e) {
         final EdgeImpl edge = (EdgeImpl)e;
         if (getEdgeInRef(edge) != null) {
@@ -80,6 +133,8 @@ public final class PrimaryGraph extends AbstractListGraph {
                 }
                 setEdgeOutRef(edge, edge.n1.outEdges.addLast(edge));
                 setEdgeInRef(edge, edge.n2.inEdges.addLast(edge));
+                setEdgeIndex(edge, edgeIndexes.add(edge));
+                edgeInserted(edge);
                 edgeCount++;
             }
         });
@@ -97,6 +152,8 @@ public final class PrimaryGraph extends AbstractListGraph {
         graphEventSupport.fire(new GraphEvent(this, GraphEvent.Type.NODE_REINSERTED, node), new Runnable() {
             public void run() {
                 setNodeRef(node, nodes.addLast(node));
+                setNodeIndex(node, nodeIndexes.add(node));
+                nodeInserted(node);
             }
         });
         return true;
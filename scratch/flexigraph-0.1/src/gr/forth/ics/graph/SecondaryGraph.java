@@ -6,22 +6,23 @@ import gr.forth.ics.graph.path.Path;
 import gr.forth.ics.util.Args;
 import gr.forth.ics.util.Accessor;
 import gr.forth.ics.util.FastLinkedList;
-import gr.forth.ics.util.SerializableObject;
-import java.io.Serializable;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 
 /**
  * Flexible {@link Graph} implementation, which can contain (adopt) nodes and edges from any other graph.
- * This is a bit slower than {@link PrimaryGraph}, since the adjacency lists of the nodes are not stored
- * in directly accessible fields but a hashtable lookup (still O(1)) is required for them.
+ * The adjacency lists of the nodes are not stored in fields of the nodes, as in {@link PrimaryGraph}, but in
+ * per-graph records that each node and edge keeps in a small array, with one entry per secondary graph that
+ * contains the element (see {@link Memberships}). Finding the record of a graph is a scan of that array,
+ * which is cheaper than a hashtable lookup as long as an element belongs to few secondary graphs.
  *
  * @author Andreou Dimitris, email: jim.andreou (at) gmail.com
  */
 public final class SecondaryGraph extends AbstractListGraph {
     private static final long serialVersionUID = 2348144112946233116L;
 
-    private final Object nodeDataKey = new SerializableObject();
-    private final Object edgeOutRefKey = new SerializableObject();
-    private final Object edgeInRefKey = new SerializableObject();
+    private transient Memberships.Owner owner = new Memberships.Owner(this);
 
     public SecondaryGraph() { }
 
@@ -57,50 +58,130 @@ public final class SecondaryGraph extends AbstractListGraph {
     }
 
     @Override FastLinkedList<EdgeImpl> getOutEdges(NodeImpl node) {
-        return ((NodeData)node.get(nodeDataKey)).outEdges;
+        return nodeData(node).outEdges;
     }
 
     @Override FastLinkedList<EdgeImpl> getInEdges(NodeImpl node) {
-        return ((NodeData)node.get(nodeDataKey)).inEdges;
+        return nodeData(node).inEdges;
     }
 
     @Override final Accessor<NodeImpl> getNodeRef(NodeImpl node) {
-        return ((NodeData)node.get(nodeDataKey)).ref;
+        NodeData nodeData = nodeData(node);
+        return nodeData != null ? nodeData.ref : null;
     }
 
-    @SuppressWarnings("unchecked")
     @Override final Accessor<EdgeImpl> getEdgeOutRef(EdgeImpl edge) {
-        return (Accessor<EdgeImpl>)edge.get(edgeOutRefKey);
+        EdgeData edgeData = edgeData(edge);
+        return edgeData != null ? edgeData.outRef : null;
     }
 
-    @SuppressWarnings("unchecked")
     @Override final Accessor<EdgeImpl> getEdgeInRef(EdgeImpl edge) {
-        return (Accessor<EdgeImpl>)edge.get(edgeInRefKey);
+        EdgeData edgeData = edgeData(edge);
+        return edgeData != null ? edgeData.inRef : null;
     }
 
     @Override final void removeEdgeRefs(EdgeImpl edge) {
-        edge.remove(edgeInRefKey);
-        edge.remove(edgeOutRefKey);
+        setEdgeData(edge, null);
     }
 
     @Override final void setNodeRef(NodeImpl node, Accessor<NodeImpl> ref) {
-        ((NodeData)node.get(nodeDataKey)).ref = ref;
+        nodeData(node).ref = ref;
     }
 
     @Override final void setEdgeOutRef(EdgeImpl edge, Accessor<EdgeImpl> ref) {
-        edge.putWeakly(edgeOutRefKey, ref);
+        createdEdgeData(edge).outRef = ref;
     }
 
     @Override final void setEdgeInRef(EdgeImpl edge, Accessor<EdgeImpl> ref) {
-        edge.putWeakly(edgeInRefKey, ref);
+        createdEdgeData(edge).inRef = ref;
     }
 
     @Override final void removeNodeRef(NodeImpl node) {
-        ((NodeData)node.get(nodeDataKey)).ref = null;
+        setNodeData(node, null);
     }
 
     @Override final void initNode(NodeImpl node) {
-        node.putWeakly(nodeDataKey, new NodeData());
+        setNodeData(node, new NodeData());
+    }
+
+    @Override final int getNodeIndex(NodeImpl node) {
+        return nodeData(node).index;
+    }
+
+    @Override final int getEdgeIndex(EdgeImpl edge) {
+        return edgeData(edge).index;
+    }
+
+    @Override final void setNodeIndex(NodeImpl node, int index) {
+        nodeData(node).index = index;
+    }
+
+    @Override final void setEdgeIndex(EdgeImpl edge, int index) {
+        createdEdgeData(edge).index = index;
+    }
+
+    private NodeData nodeData(NodeImpl node) {
+        return (NodeData)Memberships.get(node.memberships, owner);
+    }
+
+    private EdgeData edgeData(EdgeImpl edge) {
+        return (EdgeData)Memberships.get(edge.memberships, owner);
+    }
+
+    private EdgeData createdEdgeData(EdgeImpl edge) {
+        EdgeData edgeData = edgeData(edge);
+        if (edgeData == null) {
+            edgeData = new EdgeData();
+            setEdgeData(edge, edgeData);
+        }
+        return edgeData;
+    }
+
+    private void setNodeData(NodeImpl node, NodeData nodeData) {
+        if (nodeData != null) {
+            nodeData.owner = owner;
+            node.memberships = Memberships.put(node.memberships, nodeData);
+        } else {
+            node.memberships = Memberships.remove(node.memberships, owner);
+        }
+    }
+
+    private void setEdgeData(EdgeImpl edge, EdgeData edgeData) {
+        if (edgeData != null) {
+            edgeData.owner = owner;
+            edge.memberships = Memberships.put(edge.memberships, edgeData);
+        } else {
+            edge.memberships = Memberships.remove(edge.memberships, owner);
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        //the memberships of the elements are transient, so the records are written here
+        out.writeInt(nodeCount());
+        for (NodeImpl node : nodes) {
+            out.writeObject(node);
+            out.writeObject(nodeData(node));
+            for (EdgeImpl edge : getOutEdges(node)) {
+                out.writeObject(edge);
+                out.writeObject(edgeData(edge));
+            }
+            out.writeObject(null);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        owner = new Memberships.Owner(this);
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            NodeImpl node = (NodeImpl)in.readObject();
+            setNodeData(node, (NodeData)in.readObject());
+            EdgeImpl edge;
+            while ((edge = (EdgeImpl)in.readObject()) != null) {
+                setEdgeData(edge, (EdgeData)in.readObject());
+            }
+        }
     }
 
     @Override public final boolean isPrimary() {
@@ -126,7 +207,9 @@ public final class SecondaryGraph extends AbstractListGraph {
             public void run() {
                 NodeData nodeData = new NodeData();
                 nodeData.ref = nodes.addLast(nodeImpl);
-                nodeImpl.putWeakly(nodeDataKey, nodeData);
+                nodeData.index = nodeIndexes.add(nodeImpl);
+                setNodeData(nodeImpl, nodeData);
+                nodeInserted(nodeImpl);
             }
         });
         return true;
@@ -145,6 +228,8 @@ public final class SecondaryGraph extends AbstractListGraph {
                 edgeCount++;
                 setEdgeOutRef(edgeImpl, getOutEdges(edgeImpl.n1).addLast(edgeImpl));
                 setEdgeInRef(edgeImpl, getInEdges(edgeImpl.n2).addLast(edgeImpl));
+                setEdgeIndex(edgeImpl, edgeIndexes.add(edgeImpl));
+                edgeInserted(edgeImpl);
             }
         });
         return true;
@@ -211,10 +296,18 @@ public final class SecondaryGraph extends AbstractListGraph {
         return adoptEdge(e);
     }
 
-    private static class NodeData implements Serializable {
+    private static class NodeData extends Memberships.Record {
         private static final long serialVersionUID = 1L;
         Accessor<NodeImpl> ref;
+        int index = -1;
         final FastLinkedList<EdgeImpl> inEdges = new FastLinkedList<EdgeImpl>();
         final FastLinkedList<EdgeImpl> outEdges = new FastLinkedList<EdgeImpl>();
     }
+
+    private static class EdgeData extends Memberships.Record {
+        private static final long serialVersionUID = 1L;
+        Accessor<EdgeImpl> outRef;
+        Accessor<EdgeImpl> inRef;
+        int index = -1;
+    }
 }
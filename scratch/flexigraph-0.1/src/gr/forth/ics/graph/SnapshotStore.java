@@ -0,0 +1,606 @@
+package gr.forth.ics.graph;
+
+import gr.forth.ics.util.Args;
+import gr.forth.ics.util.CompoundListIterator;
+import gr.forth.ics.util.ExtendedListIterable;
+import gr.forth.ics.util.IdentityIntMap;
+import java.io.ObjectStreamException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Keeps a versioned copy of the adjacency of a {@link PrimaryGraph}, from which immutable snapshots
+ * can be taken in constant time (see {@link Graph#snapshot()}).
+ * <p>
+ * Node records are kept by node index, in a two-level tree of chunks of {@value #CHUNK_SIZE} slots under a
+ * top-level array; the incident edges of every node are kept in segments of up to {@value #SEGMENT_SIZE} edges. Each of these pieces is stamped with the
+ * version it was created in, and is modified in place only while its stamp is the current version, i.e.
+ * while no snapshot can see it; otherwise it is copied on its first modification. Taking a snapshot just
+ * captures the current top-level array and advances the version, so the writer copies each piece it
+ * touches at most once per snapshot, and never copies the pieces it does not touch.
+ * <p>
+ * Modifications and snapshot creation synchronize on the store. Snapshots themselves are never modified,
+ * so traversing them needs no synchronization.
+ * <p>
+ * The snapshots taken are tracked by weak references. Once all of them have been garbage collected, the next
+ * modification finds the store unused and detaches it (the update methods return false), so that the graph
+ * stops maintaining it; a detached store takes no more snapshots. The order of the graph, as changed through
+ * its {@link OrderManager}, is not tracked: snapshots iterate in an order of their own.
+ */
+final class SnapshotStore {
+    private static final int CHUNK_SHIFT = 5;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int SEGMENT_SIZE = 32;
+
+    private int version;
+    private Directory directory;
+    //the snapshot of the current state, or null if the state changed since the last snapshot
+    private Snapshot last;
+
+    //weak references to the snapshots that may still be reachable
+    private final Set<Reference<Snapshot>> live = new HashSet<Reference<Snapshot>>();
+    private final ReferenceQueue<Snapshot> collected = new ReferenceQueue<Snapshot>();
+    private boolean detached;
+
+    SnapshotStore(PrimaryGraph graph) {
+        directory = new Directory(version, new Chunk[(graph.nodeIndexCapacity() >>> (2 * CHUNK_SHIFT)) + 1]);
+        for (NodeImpl n : graph.nodes) {
+            addNode(n);
+        }
+        for (NodeImpl n : graph.nodes) {
+            for (EdgeImpl e : n.outEdges) {
+                addEdge(e);
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the current state, or null if the store has been detached.
+     */
+    synchronized Snapshot snapshot() {
+        if (detached) {
+            return null;
+        }
+        if (last == null) {
+            last = new Snapshot(directory);
+            live.add(new WeakReference<Snapshot>(last, collected));
+            version++;
+        }
+        return last;
+    }
+
+    //detaches the store if every snapshot has been collected; the last snapshot is kept by the store itself
+    //until the next modification, so it is only found collected after that
+    private boolean detach() {
+        Reference<? extends Snapshot> ref;
+        while ((ref = collected.poll()) != null) {
+            live.remove(ref);
+        }
+        if (live.isEmpty()) {
+            detached = true;
+        }
+        return detached;
+    }
+
+    synchronized boolean nodeAdded(NodeImpl node) {
+        if (detach()) {
+            return false;
+        }
+        addNode(node);
+        return true;
+    }
+
+    private void addNode(NodeImpl node) {
+        Directory d = directory();
+        leaf(d, node.index).slots[node.index & CHUNK_MASK] = new Record(version, node);
+        d.nodeCount++;
+        last = null;
+    }
+
+    //the incident edges of the node have already been removed
+    synchronized boolean nodeRemoved(NodeImpl node) {
+        if (detach()) {
+            return false;
+        }
+        Directory d = directory();
+        leaf(d, node.index).slots[node.index & CHUNK_MASK] = null;
+        d.nodeCount--;
+        last = null;
+        return true;
+    }
+
+    synchronized boolean edgeAdded(EdgeImpl edge) {
+        if (detach()) {
+            return false;
+        }
+        addEdge(edge);
+        return true;
+    }
+
+    private void addEdge(EdgeImpl edge) {
+        Record source = record(edge.n1);
+        source.out = append(writable(source.out), edge);
+        Record target = record(edge.n2);
+        target.in = append(writable(target.in), edge);
+        directory.edgeCount++;
+        last = null;
+    }
+
+    synchronized boolean edgeRemoved(EdgeImpl edge) {
+        if (detach()) {
+            return false;
+        }
+        Record source = record(edge.n1);
+        source.out = remove(writable(source.out), edge);
+        Record target = record(edge.n2);
+        target.in = remove(writable(target.in), edge);
+        directory.edgeCount--;
+        last = null;
+        return true;
+    }
+
+    private Directory directory() {
+        Directory d = directory;
+        if (d.version != version) {
+            directory = new Directory(version, d.chunks.clone());
+            directory.nodeCount = d.nodeCount;
+            directory.edgeCount = d.edgeCount;
+            d = directory;
+        }
+        return d;
+    }
+
+    private Chunk leaf(Directory d, int index) {
+        int top = index >>> (2 * CHUNK_SHIFT);
+        if (top >= d.chunks.length) {
+            d.chunks = Arrays.copyOf(d.chunks, Math.max(top + 1, d.chunks.length * 2));
+        }
+        Chunk middle = writable(d.chunks, top);
+        return writable(middle.slots, (index >>> CHUNK_SHIFT) & CHUNK_MASK);
+    }
+
+    private Chunk writable(Object[] parent, int i) {
+        Chunk chunk = (Chunk)parent[i];
+        if (chunk == null) {
+            chunk = new Chunk(version, new Object[CHUNK_SIZE]);
+        } else if (chunk.version != version) {
+            chunk = new Chunk(version, chunk.slots.clone());
+        } else {
+            return chunk;
+        }
+        parent[i] = chunk;
+        return chunk;
+    }
+
+    private Record record(NodeImpl node) {
+        Chunk leaf = leaf(directory(), node.index);
+        int i = node.index & CHUNK_MASK;
+        Record record = (Record)leaf.slots[i];
+        if (record.version != version) {
+            record = new Record(version, record);
+            leaf.slots[i] = record;
+        }
+        return record;
+    }
+
+    private Adjacency writable(Adjacency adjacency) {
+        if (adjacency == null) {
+            return new Adjacency(version, new Segment[1], 0, 0);
+        }
+        if (adjacency.version != version) {
+            return new Adjacency(version, adjacency.segments.clone(), adjacency.segmentCount, adjacency.size);
+        }
+        return adjacency;
+    }
+
+    private Adjacency append(Adjacency adjacency, EdgeImpl edge) {
+        int s = adjacency.segmentCount - 1;
+        Segment segment = s < 0 ? null : adjacency.segments[s];
+        if (segment == null || segment.size == SEGMENT_SIZE) {
+            if (++s == adjacency.segments.length) {
+                adjacency.segments = Arrays.copyOf(adjacency.segments, s * 2);
+            }
+            segment = adjacency.segments[s] = new Segment(version, new EdgeImpl[adjacency.size < SEGMENT_SIZE ? 2 : SEGMENT_SIZE], 0);
+            adjacency.segmentCount++;
+        } else if (segment.version != version || segment.size == segment.edges.length) {
+            //small segments grow by copying, so they can be treated as shared ones
+            EdgeImpl[] edges = Arrays.copyOf(segment.edges,
+                    segment.size < segment.edges.length ? segment.edges.length : Math.min(SEGMENT_SIZE, segment.size * 2));
+            segment = adjacency.segments[s] = new Segment(version, edges, segment.size);
+        }
+        segment.edges[segment.size++] = edge;
+        adjacency.size++;
+        return adjacency;
+    }
+
+    private Adjacency remove(Adjacency adjacency, EdgeImpl edge) {
+        for (int s = 0; s < adjacency.segmentCount; s++) {
+            Segment segment = adjacency.segments[s];
+            for (int i = 0; i < segment.size; i++) {
+                if (segment.edges[i] != edge) {
+                    continue;
+                }
+                if (segment.size == 1) {
+                    System.arraycopy(adjacency.segments, s + 1, adjacency.segments, s, adjacency.segmentCount - s - 1);
+                    adjacency.segments[--adjacency.segmentCount] = null;
+                } else {
+                    if (segment.version != version) {
+                        segment = adjacency.segments[s] = new Segment(version, segment.edges.clone(), segment.size);
+                    }
+                    System.arraycopy(segment.edges, i + 1, segment.edges, i, segment.size - i - 1);
+                    segment.edges[--segment.size] = null;
+                }
+                adjacency.size--;
+                return adjacency.size == 0 ? null : adjacency;
+            }
+        }
+        throw new AssertionError("Edge " + edge + " not found");
+    }
+
+    private static final class Directory {
+        final int version;
+        Chunk[] chunks;
+        int nodeCount;
+        int edgeCount;
+
+        Directory(int version, Chunk[] chunks) {
+            this.version = version;
+            this.chunks = chunks;
+        }
+    }
+
+    //the slots of a top-level chunk are chunks, the slots of those are records
+    private static final class Chunk {
+        final int version;
+        final Object[] slots;
+
+        Chunk(int version, Object[] slots) {
+            this.version = version;
+            this.slots = slots;
+        }
+    }
+
+    private static final class Record {
+        final int version;
+        final NodeImpl node;
+        //null when empty
+        Adjacency out;
+        Adjacency in;
+
+        Record(int version, NodeImpl node) {
+            this.version = version;
+            this.node = node;
+        }
+
+        Record(int version, Record record) {
+            this(version, record.node);
+            this.out = record.out;
+            this.in = record.in;
+        }
+    }
+
+    private static final class Adjacency {
+        final int version;
+        Segment[] segments;
+        int segmentCount;
+        int size;
+
+        Adjacency(int version, Segment[] segments, int segmentCount, int size) {
+            this.version = version;
+            this.segments = segments;
+            this.segmentCount = segmentCount;
+            this.size = size;
+        }
+    }
+
+    private static final class Segment {
+        final int version;
+        final EdgeImpl[] edges;
+        int size;
+
+        Segment(int version, EdgeImpl[] edges, int size) {
+            this.version = version;
+            this.edges = edges;
+            this.size = size;
+        }
+    }
+
+    private static int size(Adjacency adjacency) {
+        return adjacency == null ? 0 : adjacency.size;
+    }
+
+    /**
+     * A read-only list iterator over the edges of an adjacency.
+     */
+    private static final class AdjacencyIterator implements ListIterator<Edge> {
+        private final Segment[] segments;
+        private final int size;
+        private int segment;
+        private int offset;
+        private int index;
+
+        AdjacencyIterator(Adjacency adjacency) {
+            this.segments = adjacency == null ? null : adjacency.segments;
+            this.size = size(adjacency);
+        }
+
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        public Edge next() {
+            if (index >= size) {
+                throw new NoSuchElementException();
+            }
+            while (offset == segments[segment].size) {
+                segment++;
+                offset = 0;
+            }
+            index++;
+            return segments[segment].edges[offset++];
+        }
+
+        public boolean hasPrevious() {
+            return index > 0;
+        }
+
+        public Edge previous() {
+            if (index <= 0) {
+                throw new NoSuchElementException();
+            }
+            while (offset == 0) {
+                offset = segments[--segment].size;
+            }
+            index--;
+            return segments[segment].edges[--offset];
+        }
+
+        public int nextIndex() {
+            return index;
+        }
+
+        public int previousIndex() {
+            return index - 1;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        public void set(Edge e) {
+            throw new UnsupportedOperationException();
+        }
+
+        public void add(Edge e) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * An immutable view of the graph at the time it was taken. Contains the very same node and
+     * edge objects as the graph.
+     */
+    static final class Snapshot extends AbstractInspectableGraph {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Chunk[] chunks;
+        private final int nodeCount;
+
+        //built lazily by readers
+        private transient volatile Node[] nodeArray;
+        private transient volatile Edge[] edgeArray;
+        private transient volatile IdentityIntMap<Node> slots;
+
+        private Snapshot(Directory directory) {
+            this.chunks = directory.chunks;
+            this.nodeCount = directory.nodeCount;
+            this.edgeCount = directory.edgeCount;
+        }
+
+        //snapshots are serialized as compact copies
+        private Object writeReplace() throws ObjectStreamException {
+            return new CsrGraph(this);
+        }
+
+        private Record recordAt(int slot) {
+            int top = slot >>> (2 * CHUNK_SHIFT);
+            if (slot < 0 || top >= chunks.length || chunks[top] == null) {
+                return null;
+            }
+            Chunk leaf = (Chunk)chunks[top].slots[(slot >>> CHUNK_SHIFT) & CHUNK_MASK];
+            return leaf == null ? null : (Record)leaf.slots[slot & CHUNK_MASK];
+        }
+
+        private int slotCount() {
+            return chunks.length << (2 * CHUNK_SHIFT);
+        }
+
+        private Record record(Node node) {
+            if (!(node instanceof NodeImpl)) {
+                return null;
+            }
+            //a node's index only changes if it is removed and reinserted in some graph, so check the
+            //node itself, and fall back to a full map of the snapshot's nodes otherwise
+            Record record = recordAt(((NodeImpl)node).index);
+            if (record != null && record.node == node) {
+                return record;
+            }
+            return recordAt(slots().get(node));
+        }
+
+        private IdentityIntMap<Node> slots() {
+            IdentityIntMap<Node> map = slots;
+            if (map == null) {
+                map = new IdentityIntMap<Node>(nodeCount);
+                for (int slot = 0; slot < slotCount(); slot++) {
+                    Record record = recordAt(slot);
+                    if (record != null) {
+                        map.put(record.node, slot);
+                    }
+                }
+                slots = map;
+            }
+            return map;
+        }
+
+        private Record checkContained(Node node) {
+            Record record = record(node);
+            if (record == null) {
+                throw new IllegalArgumentException("Node " + node + " not contained in graph");
+            }
+            return record;
+        }
+
+        public int nodeCount() {
+            return nodeCount;
+        }
+
+        public int edgeCount() {
+            return edgeCount;
+        }
+
+        public boolean containsNode(Node node) {
+            return record(node) != null;
+        }
+
+        public boolean containsEdge(Edge edge) {
+            if (!(edge instanceof EdgeImpl)) {
+                return false;
+            }
+            Record record = record(edge.n1());
+            if (record == null) {
+                return false;
+            }
+            for (ListIterator<Edge> i = new AdjacencyIterator(record.out); i.hasNext(); ) {
+                if (i.next() == edge) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public int outDegree(Node node) {
+            return size(checkContained(node).out);
+        }
+
+        public int inDegree(Node node) {
+            return size(checkContained(node).in);
+        }
+
+        public int degree(Node node) {
+            Record record = checkContained(node);
+            return size(record.out) + size(record.in);
+        }
+
+        private Node[] nodeArray() {
+            Node[] array = nodeArray;
+            if (array == null) {
+                array = new Node[nodeCount];
+                int pos = 0;
+                for (int slot = 0; slot < slotCount(); slot++) {
+                    Record record = recordAt(slot);
+                    if (record != null) {
+                        array[pos++] = record.node;
+                    }
+                }
+                nodeArray = array;
+            }
+            return array;
+        }
+
+        private Edge[] edgeArray() {
+            Edge[] array = edgeArray;
+            if (array == null) {
+                array = new Edge[edgeCount];
+                int pos = 0;
+                for (int slot = 0; slot < slotCount(); slot++) {
+                    Record record = recordAt(slot);
+                    if (record != null) {
+                        for (ListIterator<Edge> i = new AdjacencyIterator(record.out); i.hasNext(); ) {
+                            array[pos++] = i.next();
+                        }
+                    }
+                }
+                edgeArray = array;
+            }
+            return array;
+        }
+
+        public ExtendedListIterable<Node> nodes() {
+            final Node[] array = nodeArray();
+            return new ExtendedListIterable<Node>(array.length) {
+                protected ListIterator<Node> listIteratorImpl() {
+                    return new ArrayListIterator<Node>(array.length) {
+                        Node get(int i) {
+                            return array[i];
+                        }
+                    };
+                }
+            };
+        }
+
+        public ExtendedListIterable<Edge> edges() {
+            final Edge[] array = edgeArray();
+            return new ExtendedListIterable<Edge>(array.length) {
+                protected ListIterator<Edge> listIteratorImpl() {
+                    return new ArrayListIterator<Edge>(array.length) {
+                        Edge get(int i) {
+                            return array[i];
+                        }
+                    };
+                }
+            };
+        }
+
+        public ExtendedListIterable<Edge> edges(Node node, final Direction direction) {
+            Args.notNull(direction);
+            final Record record = checkContained(node);
+            int size = (direction.isOut() ? size(record.out) : 0) + (direction.isIn() ? size(record.in) : 0);
+            return new ExtendedListIterable<Edge>(size) {
+                protected ListIterator<Edge> listIteratorImpl() {
+                    return new CompoundListIterator<Edge>(
+                            direction.isOut() ? new AdjacencyIterator(record.out) : null,
+                            direction.isIn() ? new AdjacencyIterator(record.in) : null);
+                }
+            };
+        }
+
+        public ExtendedListIterable<Node> adjacentNodes(final Node node, final Direction direction) {
+            final ExtendedListIterable<Edge> edges = edges(node, direction);
+            return new ExtendedListIterable<Node>(edges.size()) {
+                protected ListIterator<Node> listIteratorImpl() {
+                    return new OppositeIterator(edges.listIterator(), node);
+                }
+            };
+        }
+
+        public ExtendedListIterable<Edge> edges(Node n1, Node n2, Direction direction) {
+            Args.notNull(direction);
+            checkContained(n2);
+            final List<Edge> found = new ArrayList<Edge>(2);
+            for (Edge e : edges(n1, direction)) {
+                if (e.opposite(n1) == n2) {
+                    found.add(e);
+                }
+            }
+            return new ExtendedListIterable<Edge>(found.size()) {
+                protected ListIterator<Edge> listIteratorImpl() {
+                    return new ArrayListIterator<Edge>(found.size()) {
+                        Edge get(int i) {
+                            return found.get(i);
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
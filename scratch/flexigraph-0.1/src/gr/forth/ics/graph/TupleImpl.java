@@ -2,128 +2,407 @@ package gr.forth.ics.graph;
 
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.io.Serializable;
+import java.lang.ref.WeakReference;
 import java.util.*;
 import java.util.Map.Entry;
 import gr.forth.ics.util.Args;
 
-//TODO: don't serialize weak entries. Test to serialize a graph with a BfsLayerer (which creates weak entries)
+/**
+ * Stores its entries in a small map tuned for the common case of very few keys: the first two
+ * entries are kept inline in fields of the tuple, and only further entries go to an open-addressing
+ * array (keys and values interleaved, linear probing). Keys are compared by equals().
+ * <p>
+ * Keys of entries added by {@link #putWeakly(Object, Object)} are held through a weak reference;
+ * the keys of the other entries are held strongly. Entries of reclaimed weak keys are purged
+ * lazily, whenever they are encountered by an operation of this tuple.
+ * <p>
+ * Serialization writes the live entries, each with a flag telling whether its key is weakly held, so
+ * weak entries are deserialized as weak entries again (their keys must be serializable too).
+ */
 class TupleImpl extends AbstractTuple {
-    private transient Map<Object, Object> values;
-    
+    //stands for the null key, which is always held strongly
+    private static final Object NULL_KEY = new Object();
+    //marks a removed entry of the table, so probe sequences are not broken
+    private static final Object REMOVED = new Object();
+    private static final int MIN_TABLE_CAPACITY = 4;
+
+    private transient Object k0, v0, k1, v1;
+    //keys at even positions, values at the following odd positions
+    private transient Object[] table;
+    //non-null keys of the table, including REMOVED markers
+    private transient int tableUsed;
+
     public TupleImpl() { }
-    
+
     public TupleImpl(Object value) {
         super(value);
     }
-    
+
     public TupleImpl(Map<?, ?> values) {
         Args.notNull(values);
-        if (values.isEmpty()) {
-            return;
-        }
-        lazyInit();
         for (Entry<?, ?> entry : values.entrySet()) {
-            this.values.put(entry.getKey(), entry.getValue());
+            put(entry.getKey(), entry.getValue());
         }
     }
-    
+
     public TupleImpl(Tuple copy) {
         this(copy.asMap());
         setValue(copy.getValue());
     }
-    
-    private void lazyInit() {
-        if (values == null) {
-            values = new WeakHashMap<Object, Object>(1);
+
+    private static Object maskNull(Object key) {
+        return key == null ? NULL_KEY : key;
+    }
+
+    private static Object unmaskNull(Object key) {
+        return key == NULL_KEY ? null : key;
+    }
+
+    private static int hash(Object maskedKey) {
+        int h = maskedKey == NULL_KEY ? 0 : maskedKey.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the (masked) key that is stored in the specified slot key, or null if the slot is empty,
+     * removed, or holds a reclaimed weak key.
+     */
+    private static Object keyOf(Object slotKey) {
+        if (slotKey instanceof WeakKey) {
+            return ((WeakKey)slotKey).get();
+        }
+        return slotKey == REMOVED ? null : slotKey;
+    }
+
+    private static boolean isStale(Object slotKey) {
+        return slotKey instanceof WeakKey && ((WeakKey)slotKey).get() == null;
+    }
+
+    private static boolean matches(Object slotKey, Object maskedKey, int hash) {
+        if (slotKey == maskedKey) {
+            return true;
+        }
+        if (slotKey == null || slotKey == REMOVED || slotKey == NULL_KEY || maskedKey == NULL_KEY) {
+            return false;
+        }
+        if (slotKey instanceof WeakKey) {
+            WeakKey weakKey = (WeakKey)slotKey;
+            if (weakKey.hash != hash) {
+                return false;
+            }
+            Object referent = weakKey.get();
+            return referent != null && (referent == maskedKey || maskedKey.equals(referent));
+        }
+        return maskedKey.equals(slotKey);
+    }
+
+    /**
+     * Returns the position in the table of the specified key, or -1.
+     */
+    private int tableIndexOf(Object maskedKey, int hash) {
+        final Object[] table = this.table;
+        if (table == null) {
+            return -1;
+        }
+        int mask = (table.length >> 1) - 1;
+        int i = hash & mask;
+        Object slotKey;
+        while ((slotKey = table[i << 1]) != null) {
+            if (matches(slotKey, maskedKey, hash)) {
+                return i << 1;
+            }
+            if (isStale(slotKey)) {
+                //purge while passing by
+                table[i << 1] = REMOVED;
+                table[(i << 1) + 1] = null;
+            }
+            i = (i + 1) & mask;
         }
+        return -1;
     }
-    
+
     protected Object getLocally(Object key) {
-        if (values == null) {
-            return null;
+        Object maskedKey = maskNull(key);
+        int hash = hash(maskedKey);
+        if (k0 != null) {
+            if (matches(k0, maskedKey, hash)) {
+                return v0;
+            }
+            if (isStale(k0)) {
+                k0 = v0 = null;
+            }
+        }
+        if (k1 != null) {
+            if (matches(k1, maskedKey, hash)) {
+                return v1;
+            }
+            if (isStale(k1)) {
+                k1 = v1 = null;
+            }
+        }
+        int index = tableIndexOf(maskedKey, hash);
+        return index >= 0 ? table[index + 1] : null;
+    }
+
+    protected boolean hasLocally(Object key) {
+        Object maskedKey = maskNull(key);
+        int hash = hash(maskedKey);
+        if (k0 != null && matches(k0, maskedKey, hash)) {
+            return true;
         }
-        return unmask(values.get(key));
+        if (k1 != null && matches(k1, maskedKey, hash)) {
+            return true;
+        }
+        return tableIndexOf(maskedKey, hash) >= 0;
     }
-    
+
     public Object remove(Object key) {
-        if (values == null) {
-            return null;
+        Object maskedKey = maskNull(key);
+        int hash = hash(maskedKey);
+        Object old;
+        if (k0 != null && matches(k0, maskedKey, hash)) {
+            old = v0;
+            k0 = v0 = null;
+            return old;
+        }
+        if (k1 != null && matches(k1, maskedKey, hash)) {
+            old = v1;
+            k1 = v1 = null;
+            return old;
         }
-        Object old = values.remove(key);
-        if (values.size() == 0) {
-            values = null;
+        int index = tableIndexOf(maskedKey, hash);
+        if (index < 0) {
+            return null;
         }
-        return unmask(old);
+        old = table[index + 1];
+        table[index] = REMOVED;
+        table[index + 1] = null;
+        return old;
     }
-    
+
     public Object put(Object key, Object value) {
-        lazyInit();
-        return unmask(values.put(key, mask(key, value)));
+        return store(maskNull(key), value, false);
     }
-    
+
     public Object putWeakly(Object key, Object value) {
-        lazyInit();
         Args.notNull("Null cannot be put weakly - use normal put instead", key);
-        return values.put(key, value);
+        return store(key, value, true);
     }
-    
-    private StrongValue mask(Object key, Object value) {
-        return new StrongValue(key, value);
+
+    private Object store(Object maskedKey, Object value, boolean weakly) {
+        int hash = hash(maskedKey);
+        Object old;
+        if (k0 != null && matches(k0, maskedKey, hash)) {
+            old = v0;
+            k0 = slotKey(k0, maskedKey, hash, weakly);
+            v0 = value;
+            return old;
+        }
+        if (k1 != null && matches(k1, maskedKey, hash)) {
+            old = v1;
+            k1 = slotKey(k1, maskedKey, hash, weakly);
+            v1 = value;
+            return old;
+        }
+        int index = tableIndexOf(maskedKey, hash);
+        if (index >= 0) {
+            old = table[index + 1];
+            table[index] = slotKey(table[index], maskedKey, hash, weakly);
+            table[index + 1] = value;
+            return old;
+        }
+        Object newKey = slotKey(null, maskedKey, hash, weakly);
+        if (k0 == null || isStale(k0)) {
+            k0 = newKey;
+            v0 = value;
+        } else if (k1 == null || isStale(k1)) {
+            k1 = newKey;
+            v1 = value;
+        } else {
+            insertIntoTable(newKey, value, hash);
+        }
+        return null;
     }
-    
-    private Object unmask(Object value) {
-        if (value instanceof StrongValue) {
-            return ((StrongValue)value).value;
+
+    /**
+     * Returns what should be stored as key, reusing the current slot key if it already
+     * has the right strength.
+     */
+    private static Object slotKey(Object current, Object maskedKey, int hash, boolean weakly) {
+        if (weakly) {
+            if (current instanceof WeakKey) {
+                return current;
+            }
+            return new WeakKey(current != null ? current : maskedKey, hash);
         }
-        return value;
+        return current != null && !(current instanceof WeakKey) ? current : maskedKey;
     }
-    
-    protected boolean hasLocally(Object key) {
-        if (values == null) {
-            return false;
+
+    //assumes the key is not already contained
+    private void insertIntoTable(Object slotKey, Object value, int hash) {
+        if (table == null) {
+            table = new Object[MIN_TABLE_CAPACITY << 1];
+        } else if ((tableUsed + 1) * 3 > (table.length >> 1) * 2) {
+            rehash();
+        }
+        int mask = (table.length >> 1) - 1;
+        int i = hash & mask;
+        while (true) {
+            Object k = table[i << 1];
+            if (k == null || k == REMOVED) {
+                if (k == null) {
+                    tableUsed++;
+                }
+                table[i << 1] = slotKey;
+                table[(i << 1) + 1] = value;
+                return;
+            }
+            i = (i + 1) & mask;
         }
-        return values.containsKey(key);
     }
-    
+
+    //drops removed markers and reclaimed entries, growing the table if it is still too full
+    private void rehash() {
+        Object[] old = table;
+        int live = 0;
+        for (int i = 0; i < old.length; i += 2) {
+            Object k = old[i];
+            if (k != null && k != REMOVED && !isStale(k)) {
+                live++;
+            }
+        }
+        int capacity = MIN_TABLE_CAPACITY;
+        while ((live + 1) * 3 > capacity * 2) {
+            capacity <<= 1;
+        }
+        table = new Object[capacity << 1];
+        tableUsed = 0;
+        int mask = capacity - 1;
+        for (int i = 0; i < old.length; i += 2) {
+            Object k = old[i];
+            if (k != null && k != REMOVED && !isStale(k)) {
+                int j = (k instanceof WeakKey ? ((WeakKey)k).hash : hash(k)) & mask;
+                while (table[j << 1] != null) {
+                    j = (j + 1) & mask;
+                }
+                table[j << 1] = k;
+                table[(j << 1) + 1] = old[i + 1];
+                tableUsed++;
+            }
+        }
+    }
+
+    /**
+     * Purges reclaimed entries and returns the (masked) keys of the live entries, in order:
+     * inline slots first, then the table. If weakOnes is not null, it receives whether
+     * each key is weakly held.
+     */
+    private List<Object> liveKeys(List<Boolean> weakOnes) {
+        List<Object> keys = new ArrayList<Object>(4);
+        Object key;
+        if (k0 != null) {
+            if ((key = keyOf(k0)) == null) {
+                k0 = v0 = null;
+            } else {
+                addLive(keys, key, weakOnes, k0);
+            }
+        }
+        if (k1 != null) {
+            if ((key = keyOf(k1)) == null) {
+                k1 = v1 = null;
+            } else {
+                addLive(keys, key, weakOnes, k1);
+            }
+        }
+        if (table != null) {
+            boolean empty = true;
+            for (int i = 0; i < table.length; i += 2) {
+                Object k = table[i];
+                if (k == null || k == REMOVED) {
+                    continue;
+                }
+                if ((key = keyOf(k)) == null) {
+                    table[i] = REMOVED;
+                    table[i + 1] = null;
+                } else {
+                    addLive(keys, key, weakOnes, k);
+                    empty = false;
+                }
+            }
+            if (empty) {
+                table = null;
+                tableUsed = 0;
+            }
+        }
+        return keys;
+    }
+
+    private static void addLive(List<Object> keys, Object key, List<Boolean> weakOnes, Object slotKey) {
+        keys.add(key);
+        if (weakOnes != null) {
+            weakOnes.add(slotKey instanceof WeakKey);
+        }
+    }
+
+    private int liveCount() {
+        return liveKeys(null).size();
+    }
+
+    /**
+     * Returns whether this tuple has an entry whose key is held strongly (i.e. not added by
+     * {@link #putWeakly(Object, Object)}).
+     */
+    boolean hasStrongEntries() {
+        if ((k0 != null && !(k0 instanceof WeakKey)) || (k1 != null && !(k1 instanceof WeakKey))) {
+            return true;
+        }
+        if (table != null) {
+            for (int i = 0; i < table.length; i += 2) {
+                Object slotKey = table[i];
+                if (slotKey != null && slotKey != REMOVED && !(slotKey instanceof WeakKey)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     public Set<Object> keySet() {
-        if (values == null) {
+        if (k0 == null && k1 == null && table == null) {
             return Collections.emptySet();
         }
         Set<Object> keys = new HashSet<Object>();
-        for (Entry<Object, Object> entry : values.entrySet()) {
-            if (entry.getValue() instanceof StrongValue) {
-                keys.add(entry.getKey());
+        List<Boolean> weakOnes = new ArrayList<Boolean>(4);
+        List<Object> liveKeys = liveKeys(weakOnes);
+        for (int i = 0; i < liveKeys.size(); i++) {
+            if (!weakOnes.get(i)) {
+                keys.add(unmaskNull(liveKeys.get(i)));
             }
         }
         return keys;
     }
-    
+
     public Map<Object, Object> asMap() {
         return new AbstractMap<Object, Object>() {
             public Object remove(Object key) {
                 return TupleImpl.this.remove(key);
             }
-            
+
             public Object get(Object key) {
                 return TupleImpl.this.get(key);
             }
-            
+
             public boolean containsKey(Object key) {
                 return TupleImpl.this.has(key);
             }
-            
+
             public Object put(Object key, Object value) {
                 return TupleImpl.this.put(key, value);
             }
-            
+
             public Set<Map.Entry<Object, Object>> entrySet() {
-                if (values == null) {
-                    return Collections.emptySet();
-                }
-                final Set<Map.Entry<Object, Object>> delegate = values.entrySet();
-                return new Set<Map.Entry<Object, Object>>() {
-                    public boolean add(Map.Entry<Object, Object> o) {
+                return new AbstractSet<Map.Entry<Object, Object>>() {
+                    @Override public boolean add(Map.Entry<Object, Object> o) {
                         Object oldValue = TupleImpl.this.get(o.getKey());
                         boolean existed;
                         if (oldValue != null) {
@@ -137,90 +416,68 @@ class TupleImpl extends AbstractTuple {
                         }
                         return !existed;
                     }
-                    
-                    public boolean addAll(Collection<? extends Entry<Object, Object>> c) {
-                        boolean changed = false;
-                        for (Entry<Object, Object> entry : c) {
-                            changed |= add(entry);
-                        }
-                        return changed;
-                    }
-                    
-                    public boolean contains(Object o) {
-                        return delegate.contains(o);
-                    }
-                    
-                    public boolean remove(Object o) {
-                        return delegate.remove(o);
-                    }
-                    
-                    public <T> T[] toArray(T[] a) {
-                        return delegate.toArray(a);
-                    }
-                    
-                    public boolean containsAll(Collection<?> c) {
-                        return delegate.containsAll(c);
-                    }
-                    
-                    public boolean removeAll(Collection<?> c) {
-                        return delegate.removeAll(c);
-                    }
-                    
-                    public boolean retainAll(Collection<?> c) {
-                        return delegate.retainAll(c);
-                    }
-                    
-                    public void clear() {
-                        delegate.clear();
-                    }
-                    
-                    public boolean isEmpty() {
-                        return delegate.isEmpty();
-                    }
-                    
+
                     public Iterator<Entry<Object, Object>> iterator() {
-                        final Iterator<Entry<Object, Object>> iDelegate = delegate.iterator();
+                        final List<Boolean> weakOnes = new ArrayList<Boolean>(4);
+                        //the iterator strongly references the keys, so they cannot be reclaimed meanwhile
+                        final List<Object> keys = liveKeys(weakOnes);
                         return new Iterator<Entry<Object, Object>>() {
+                            int next;
+                            Object lastKey;
+                            boolean hasLast;
+
                             public boolean hasNext() {
-                                return iDelegate.hasNext();
+                                return next < keys.size();
                             }
-                            
+
                             public Entry<Object, Object> next() {
-                                Entry<Object, Object> e = iDelegate.next();
-                                e.setValue(unmask(e.getValue()));
-                                return e;
+                                if (!hasNext()) {
+                                    throw new NoSuchElementException();
+                                }
+                                final boolean weak = weakOnes.get(next);
+                                final Object key = unmaskNull(keys.get(next++));
+                                lastKey = key;
+                                hasLast = true;
+                                return new AbstractMap.SimpleEntry<Object, Object>(key, getLocally(key)) {
+                                    @Override public Object setValue(Object value) {
+                                        super.setValue(value);
+                                        if (weak) {
+                                            return TupleImpl.this.putWeakly(key, value);
+                                        }
+                                        return TupleImpl.this.put(key, value);
+                                    }
+                                };
                             }
-                            
+
                             public void remove() {
-                                iDelegate.remove();
+                                if (!hasLast) {
+                                    throw new IllegalStateException();
+                                }
+                                TupleImpl.this.remove(lastKey);
+                                hasLast = false;
                             }
                         };
                     }
-                    
+
                     public int size() {
-                        return delegate.size();
-                    }
-                    
-                    public Object[] toArray() {
-                        return delegate.toArray();
+                        return liveCount();
                     }
                 };
             }
-            
+
             public int size() {
-                if (values == null) {
-                    return 0;
-                }
-                return values.size();
+                return liveCount();
             }
-            
+
             public String toString() {
-                if (values == null || values.isEmpty()) {
+                List<Object> keys = liveKeys(null);
+                if (keys.isEmpty()) {
                     return "{}";
                 }
                 StringBuilder sb = new StringBuilder();
                 sb.append("{");
-                for (Object key : values.keySet()) {
+                for (Object maskedKey : keys) {
+                    Object key = unmaskNull(maskedKey);
                     sb.append(key);
                     sb.append("=");
                     sb.append(get(key));
@@ -232,63 +489,49 @@ class TupleImpl extends AbstractTuple {
             }
         };
     }
-    
-    private final class StrongValue implements Serializable {
-        final Object key;
-        final Object value;
-        
-        StrongValue(Object key, Object value) {
-            this.key = key;
-            this.value = value;
-        }
-        
-        public boolean equals(Object o) {
-            if (!(o instanceof StrongValue)) {
-                return false;
-            }
-            
-            StrongValue sv = (StrongValue)o;
-            return value.equals(sv.value) && key.equals(sv.key);
-        }
-        
-        public int hashCode() {
-            int hash = 0;
-            if (key != null) { hash += key.hashCode(); }
-            if (value != null) { hash += value.hashCode(); }
-            return hash;
-        }
-        
-        public String toString() {
-            
-            return "[StrongValue: " + value + "]";
+
+    private static final class WeakKey extends WeakReference<Object> {
+        final int hash;
+
+        WeakKey(Object key, int hash) {
+            super(key);
+            this.hash = hash;
         }
     }
-    
+
     private void writeObject(ObjectOutputStream out) throws Exception {
         out.defaultWriteObject();
-        Map<Object, Object> map = new HashMap<Object, Object>();
-        if (values != null) {
-            map.putAll(values);
+        List<Boolean> weakOnes = new ArrayList<Boolean>(4);
+        List<Object> keys = liveKeys(weakOnes);
+        out.writeInt(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            Object key = unmaskNull(keys.get(i));
+            out.writeObject(key);
+            out.writeObject(getLocally(key));
+            out.writeBoolean(weakOnes.get(i));
         }
-        out.writeObject(map);
     }
-    
-    @SuppressWarnings("unchecked")
+
     private void readObject(ObjectInputStream in) throws Exception {
         in.defaultReadObject();
-        Map<Object, Object> map = (Map<Object, Object>)in.readObject();
-        if (!map.isEmpty()) {
-            values = new WeakHashMap<Object, Object>(map);
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            Object key = in.readObject();
+            Object value = in.readObject();
+            boolean weak = in.readBoolean();
+            store(maskNull(key), value, weak && key != null);
         }
     }
-    
+
     public String toString() {
-        if (values == null || values.isEmpty()) {
+        List<Object> keys = liveKeys(null);
+        if (keys.isEmpty()) {
             return "[]";
         }
         StringBuilder sb = new StringBuilder();
         sb.append("[");
-        for (Object key : values.keySet()) {
+        for (Object maskedKey : keys) {
+            Object key = unmaskNull(maskedKey);
             sb.append(key);
             sb.append("->");
             sb.append(get(key));
@@ -299,5 +542,5 @@ class TupleImpl extends AbstractTuple {
         sb.append("]");
         return sb.toString();
     }
-    
+
 }
@@ -47,4 +47,28 @@ class UndirectedInspectableGraph extends InspectableGraphForwarder {
     public ExtendedListIterable<Edge> edges(Node n1, Node n2, Direction direction) {
         return inspectableGraph.edges(n1, n2, Direction.EITHER);
     }
+    
+    /*
+     * Ignores direction! Resets the delegate cursor by Direction.EITHER
+     */
+    public NodeCursor nodeCursor() {
+        final NodeCursor cursor = inspectableGraph.nodeCursor();
+        return new NodeCursor() {
+            public void reset(Node node, Direction direction) {
+                cursor.reset(node, Direction.EITHER);
+            }
+            
+            public boolean next() {
+                return cursor.next();
+            }
+            
+            public Edge edge() {
+                return cursor.edge();
+            }
+            
+            public Node node() {
+                return cursor.node();
+            }
+        };
+    }
 }
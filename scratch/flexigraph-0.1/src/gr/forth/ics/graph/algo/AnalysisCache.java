@@ -0,0 +1,211 @@
+package gr.forth.ics.graph.algo;
+
+import gr.forth.ics.graph.InspectableGraph;
+import gr.forth.ics.graph.metrics.BrandesMetrics;
+import gr.forth.ics.graph.metrics.ClusteringMetrics;
+import gr.forth.ics.util.Args;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Memoizes the results of analyses of a graph, such as {@link BrandesMetrics} or {@link KCoreDecomposition},
+ * so that repeated requests for the same analysis are answered without recomputing it while the graph
+ * is unchanged. Results are keyed by {@link Analysis} (i.e. by algorithm and parameters), and are stamped
+ * with the {@link InspectableGraph#modCount() modification count} of the graph they were computed from;
+ * once the graph is structurally modified, all results are discarded on the next request. Changes to
+ * node or edge values are not structural modifications, so analyses that depend on them should not be cached.
+ * <p>
+ * At most a fixed number of results are kept; when more are added, the least recently used one is evicted.
+ * The cache is thread-safe. Concurrent requests for an absent result may compute it more than once; the
+ * computation runs outside the lock of the cache, so hits are not delayed by misses.
+ *
+ * @author Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
+ */
+public class AnalysisCache {
+    /**
+     * An analysis of a graph. Two analyses that are equal (by <code>equals()</code>) must compute equal results
+     * on the same graph, so implementations with parameters should define <code>equals()</code> and
+     * <code>hashCode()</code> in terms of them.
+     */
+    public interface Analysis<R> {
+        R compute(InspectableGraph graph);
+    }
+
+    private final InspectableGraph graph;
+    private final Map<Analysis<?>, Object> results;
+    private long modCount;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates a cache of analyses of the specified graph.
+     *
+     * @param graph the analyzed graph
+     * @param maxEntries the maximum number of results to keep
+     */
+    public AnalysisCache(InspectableGraph graph, final int maxEntries) {
+        Args.notNull(graph);
+        Args.gte(maxEntries, 1);
+        this.graph = graph;
+        this.modCount = graph.modCount();
+        this.results = new LinkedHashMap<Analysis<?>, Object>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Analysis<?>, Object> eldest) {
+                if (size() > maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public InspectableGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the result of the specified analysis of the graph, computing it if there is no result
+     * computed since the last modification of the graph.
+     */
+    @SuppressWarnings("unchecked")
+    public <R> R get(Analysis<R> analysis) {
+        Args.notNull(analysis);
+        long current = graph.modCount();
+        synchronized (this) {
+            if (current != modCount) {
+                results.clear();
+                modCount = current;
+            }
+            Object result = results.get(analysis);
+            if (result != null) {
+                hits++;
+                return (R)result;
+            }
+            misses++;
+        }
+        R result = analysis.compute(graph);
+        synchronized (this) {
+            //not kept if the graph was modified meanwhile, or a newer stamp has been seen
+            if (result != null && graph.modCount() == current && modCount == current) {
+                results.put(analysis, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Discards all results.
+     */
+    public synchronized void clear() {
+        results.clear();
+    }
+
+    /**
+     * Returns the number of results currently kept.
+     */
+    public synchronized int size() {
+        return results.size();
+    }
+
+    /**
+     * Returns the number of requests that were answered by a kept result.
+     */
+    public synchronized long hits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of requests that had to compute the analysis.
+     */
+    public synchronized long misses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of results that were discarded to make room for others. Results discarded because
+     * the graph was modified are not counted.
+     */
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    /**
+     * The analysis of {@link BrandesMetrics#execute(InspectableGraph, boolean)}.
+     */
+    public static Analysis<BrandesMetrics> brandesMetrics(boolean directed) {
+        return new NamedAnalysis<BrandesMetrics>("brandesMetrics", directed) {
+            public BrandesMetrics compute(InspectableGraph graph) {
+                return BrandesMetrics.execute(graph, (Boolean)parameter);
+            }
+        };
+    }
+
+    /**
+     * The analysis of {@link ClusteringMetrics#execute(InspectableGraph, boolean)}.
+     */
+    public static Analysis<ClusteringMetrics> clusteringMetrics(boolean directed) {
+        return new NamedAnalysis<ClusteringMetrics>("clusteringMetrics", directed) {
+            public ClusteringMetrics compute(InspectableGraph graph) {
+                return ClusteringMetrics.execute(graph, (Boolean)parameter);
+            }
+        };
+    }
+
+    /**
+     * The analysis of {@link KCoreDecomposition#execute(InspectableGraph)}.
+     */
+    public static Analysis<KCoreDecomposition> kCoreDecomposition() {
+        return new NamedAnalysis<KCoreDecomposition>("kCoreDecomposition", null) {
+            public KCoreDecomposition compute(InspectableGraph graph) {
+                return KCoreDecomposition.execute(graph);
+            }
+        };
+    }
+
+    /**
+     * The analysis of {@link Clusterers#connectedComponents(InspectableGraph)}.
+     */
+    public static Analysis<Clusterer> connectedComponents() {
+        return new NamedAnalysis<Clusterer>("connectedComponents", null) {
+            public Clusterer compute(InspectableGraph graph) {
+                return Clusterers.connectedComponents(graph);
+            }
+        };
+    }
+
+    /**
+     * An analysis identified by a name and a parameter.
+     */
+    private static abstract class NamedAnalysis<R> implements Analysis<R> {
+        final String name;
+        final Object parameter;
+
+        NamedAnalysis(String name, Object parameter) {
+            this.name = name;
+            this.parameter = parameter;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof NamedAnalysis)) {
+                return false;
+            }
+            NamedAnalysis<?> that = (NamedAnalysis<?>)o;
+            return name.equals(that.name) &&
+                    (parameter == null ? that.parameter == null : parameter.equals(that.parameter));
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode() * 31 + (parameter == null ? 0 : parameter.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return parameter == null ? name : name + "(" + parameter + ")";
+        }
+    }
+}
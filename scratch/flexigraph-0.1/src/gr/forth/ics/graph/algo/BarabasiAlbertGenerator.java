@@ -92,10 +92,11 @@ public class BarabasiAlbertGenerator {
             Set<List<Node>> addedPairs) {
         Node attachNode;
         boolean created_edge = false;
-        List<Node> endpoints = new ArrayList<Node>(2);
+        List<Node> endpoints;
         do {
             attachNode = (Node)nodeList.get(random.nextInt(nodeList.size()));
             
+            endpoints = new ArrayList<Node>(2);
             endpoints.add(newNode);
             endpoints.add(attachNode);
             // if parallel edges are not allowed, skip attachNode if <newNode, attachNode>
@@ -5,6 +5,7 @@ import gr.forth.ics.graph.Graph;
 import gr.forth.ics.graph.Graphs;
 import gr.forth.ics.graph.InspectableGraph;
 import gr.forth.ics.util.Args;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  *
@@ -23,11 +24,40 @@ public class Clusterers {
     public static Clusterer connectedComponents(InspectableGraph g) {
         return ConnectedComponents.execute(g);
     }
+
+    /**
+     * Returns the connected components of a graph, like {@link #connectedComponents(InspectableGraph)}, but
+     * computed in parallel on the common {@link ForkJoinPool}, by merging the endpoints of the edges
+     * in a {@link gr.forth.ics.util.ConcurrentIntUnionFind}. This is fastest on a
+     * {@link gr.forth.ics.graph.CsrGraph}. Components are numbered from 0. The graph must not be
+     * modified during the computation.
+     *
+     * @param g a graph
+     * @return a Clusterer representing the connected components of the graph
+     */
+    public static Clusterer parallelConnectedComponents(InspectableGraph g) {
+        return parallelConnectedComponents(g, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns the connected components of a graph, computed in parallel on the specified pool.
+     *
+     * @param g a graph
+     * @param pool the pool to compute the components on
+     * @return a Clusterer representing the connected components of the graph
+     * @see #parallelConnectedComponents(InspectableGraph)
+     */
+    public static Clusterer parallelConnectedComponents(InspectableGraph g, ForkJoinPool pool) {
+        return ParallelConnectedComponents.execute(g, pool);
+    }
     
     /**
      * Finds the strongly connected components of a graph, using Tarjan's algorithm. A
      * strongly connected component is the maximal set of nodes where there is a directed path
-     * connecting every pair of them.
+     * connecting every pair of them. The search is iterative, so arbitrarily long paths are supported,
+     * and runs over a {@link Graphs#freeze(InspectableGraph) frozen} copy of the graph, unless it is
+     * already a {@link gr.forth.ics.graph.CsrGraph}. Components are numbered from 0, in reverse
+     * topological order.
      * 
      * @param g the graph of which to find the strongly connected components
      * @return a clusterer representing the strongly connected components
@@ -0,0 +1,560 @@
+package gr.forth.ics.graph.algo;
+
+import gr.forth.ics.graph.CsrGraph;
+import gr.forth.ics.graph.Direction;
+import gr.forth.ics.graph.Edge;
+import gr.forth.ics.graph.IndexedInspectableGraph;
+import gr.forth.ics.graph.InspectableGraph;
+import gr.forth.ics.graph.Node;
+import gr.forth.ics.graph.NodeCursor;
+import gr.forth.ics.graph.path.Path;
+import gr.forth.ics.util.Args;
+import gr.forth.ics.util.IdentityIntMap;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A breadth-first search that switches between top-down and bottom-up steps, depending on the size of
+ * the frontier (Beamer, Asanovic and Patterson, "Direction-optimizing breadth-first search", 2012).
+ * A top-down step scans the edges of every frontier node, looking for unvisited nodes. A bottom-up step scans
+ * the edges (in the reverse direction) of every unvisited node, stopping at the first one that reaches
+ * the frontier. On graphs of low diameter, the middle levels contain most nodes, so bottom-up steps
+ * examine far fewer edges there.
+ * <p>
+ * Levels and parents are kept in int arrays indexed by node (the indexes of an {@link IndexedInspectableGraph},
+ * or indexes assigned at the start of the search otherwise). The frontier is a queue of node indexes in
+ * top-down steps and a bitset in bottom-up steps. A {@link CsrGraph} searched in the {@link Direction#OUT OUT}
+ * or {@link Direction#IN IN} direction is scanned through its raw arrays. For other graphs, the reverse
+ * adjacency is copied into arrays on the first bottom-up step.
+ * <p>
+ * The result is a {@link Layerer}, with the same layers as a {@link Bfs}: the whole graph is searched, first
+ * from the start node, then from each unvisited node in the iteration order of the graph. It also answers the
+ * queries of a {@link Bfs} about levels, parents, tree and cross edges and components. There are no
+ * <code>visitXXX</code> methods: to visit each edge, extend {@link Bfs} instead. Since a bottom-up step adopts
+ * the first frontier node found as a parent, the tree may differ from the tree of a {@link Bfs}.
+ *
+ * @see Layerers#bfs(InspectableGraph, Direction)
+ * @author Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
+ */
+public class DirectionOptimizingBfs implements Layerer {
+    //switch to bottom-up once the frontier has more than 1/ALPHA of the unexplored edges,
+    //and back to top-down once it has less than 1/BETA of the nodes (the values of the paper)
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+
+    private final InspectableGraph graph;
+    private final Direction direction;
+
+    //null if the graph is not indexed, in which case the following are used
+    private final IndexedInspectableGraph indexed;
+    private IdentityIntMap<Node> nodeIds;
+    private Node[] nodes;
+    //non-null if the raw arrays of a CsrGraph are scanned
+    private final CsrGraph csr;
+
+    private int nodeCount;
+    private int[] levels;
+    private int[] parents;
+    private Edge[] parentEdges;
+    private int[] trees;
+    private int maxLevel;
+    private int treeCount;
+    private long unexploredEdges;
+
+    //node indexes grouped by level; the members of layer i are in [layerOffsets[i], layerOffsets[i + 1])
+    private int[] members;
+    private int[] layerOffsets;
+
+    //the reverse adjacency, for bottom-up steps
+    private int[] backOffsets;
+    private int[] backSources;
+    private Edge[] backEdges;
+
+    private int[] queue;
+    private int[] nextQueue;
+    private long[] frontier;
+    private long[] nextFrontier;
+    private NodeCursor cursor;
+
+    private int topDownSteps;
+    private int bottomUpSteps;
+
+    private DirectionOptimizingBfs(InspectableGraph graph, Direction direction) {
+        Args.notNull(graph, direction);
+        this.graph = graph;
+        this.direction = direction;
+        this.indexed = graph instanceof IndexedInspectableGraph ? (IndexedInspectableGraph)graph : null;
+        this.csr = graph instanceof CsrGraph && direction != Direction.EITHER ? (CsrGraph)graph : null;
+    }
+
+    /**
+     * Searches the whole graph.
+     */
+    public static DirectionOptimizingBfs execute(InspectableGraph graph, Direction direction) {
+        DirectionOptimizingBfs bfs = new DirectionOptimizingBfs(graph, direction);
+        bfs.execute(graph.isEmpty() ? null : graph.aNode());
+        return bfs;
+    }
+
+    /**
+     * Searches the whole graph, starting from the specified node.
+     */
+    public static DirectionOptimizingBfs execute(InspectableGraph graph, Node startNode, Direction direction) {
+        Args.isTrue("Start node not contained in graph", graph.containsNode(startNode));
+        DirectionOptimizingBfs bfs = new DirectionOptimizingBfs(graph, direction);
+        bfs.execute(startNode);
+        return bfs;
+    }
+
+    /**
+     * Searches the graph from the specified node, until the target node is found, and returns a shortest path
+     * from the start node to the target node, or null if there is none.
+     */
+    public static Path findPath(InspectableGraph graph, Node start, Node target, Direction direction) {
+        Args.isTrue("Start node not contained in graph", graph.containsNode(start));
+        Args.isTrue("Target node not contained in graph", graph.containsNode(target));
+        DirectionOptimizingBfs bfs = new DirectionOptimizingBfs(graph, direction);
+        bfs.init();
+        int t = bfs.nodeId(target);
+        bfs.bfs(bfs.nodeId(start), t, 0);
+        if (bfs.levels[t] < 0) {
+            return null;
+        }
+        return bfs.getPath(target);
+    }
+
+    private void execute(Node startNode) {
+        init();
+        if (startNode != null) {
+            bfs(nodeId(startNode), -1, treeCount);
+        }
+        for (Node n : graph.nodes()) {
+            int id = nodeId(n);
+            if (levels[id] < 0) {
+                bfs(id, -1, treeCount);
+            }
+        }
+        layers();
+    }
+
+    private void init() {
+        int capacity;
+        if (indexed != null) {
+            capacity = indexed.nodeIndexCapacity();
+        } else {
+            capacity = graph.nodeCount();
+            nodeIds = new IdentityIntMap<Node>(capacity);
+            nodes = new Node[capacity];
+            int id = 0;
+            for (Node n : graph.nodes()) {
+                nodes[id] = n;
+                nodeIds.put(n, id++);
+            }
+        }
+        nodeCount = graph.nodeCount();
+        levels = new int[capacity];
+        Arrays.fill(levels, -1);
+        parents = new int[capacity];
+        parentEdges = new Edge[capacity];
+        trees = new int[capacity];
+        maxLevel = 0;
+        treeCount = 0;
+        unexploredEdges = direction == Direction.EITHER ? 2L * graph.edgeCount() : graph.edgeCount();
+        queue = new int[16];
+        nextQueue = new int[16];
+        frontier = null;
+        nextFrontier = null;
+        cursor = csr == null ? graph.nodeCursor() : null;
+        topDownSteps = 0;
+        bottomUpSteps = 0;
+    }
+
+    private int nodeId(Node node) {
+        return indexed != null ? indexed.indexOf(node) : nodeIds.get(node);
+    }
+
+    private Node nodeAt(int id) {
+        return indexed != null ? indexed.nodeAt(id) : nodes[id];
+    }
+
+    private int forwardDegree(int id) {
+        if (csr != null) {
+            int[] offsets = direction == Direction.OUT ? csr.outOffsets() : csr.inOffsets();
+            return offsets[id + 1] - offsets[id];
+        }
+        return graph.degree(nodeAt(id), direction);
+    }
+
+    private void visit(int node, int parent, Edge parentEdge, int level, int tree) {
+        levels[node] = level;
+        parents[node] = parent;
+        parentEdges[node] = parentEdge;
+        trees[node] = tree;
+        maxLevel = Math.max(maxLevel, level);
+    }
+
+    //target < 0 means none
+    private void bfs(int root, int target, int tree) {
+        treeCount++;
+        visit(root, -1, null, 0, tree);
+        queue[0] = root;
+        int frontierSize = 1;
+        long frontierEdges = forwardDegree(root);
+        unexploredEdges -= frontierEdges;
+        boolean bottomUp = false;
+        int level = 0;
+        while (frontierSize > 0 && (target < 0 || levels[target] < 0)) {
+            //a bottom-up step also scans all node indexes, which the frontier must be large enough to pay for
+            if (!bottomUp && frontierEdges > unexploredEdges / ALPHA && frontierEdges > levels.length / ALPHA) {
+                toBitset(frontierSize);
+                bottomUp = true;
+            } else if (bottomUp && frontierSize < nodeCount / BETA) {
+                toQueue();
+                bottomUp = false;
+            }
+            level++;
+            long result = bottomUp ? bottomUpStep(level, tree) : topDownStep(frontierSize, level, tree);
+            frontierSize = (int)(result >>> 40);
+            frontierEdges = result & ((1L << 40) - 1);
+            unexploredEdges -= frontierEdges;
+        }
+    }
+
+    //the results of the steps pack the size of the next frontier and its number of edges
+    private static long result(int frontierSize, long frontierEdges) {
+        return ((long)frontierSize << 40) | frontierEdges;
+    }
+
+    private long topDownStep(int frontierSize, int level, int tree) {
+        topDownSteps++;
+        int nextSize = 0;
+        long nextEdges = 0;
+        for (int i = 0; i < frontierSize; i++) {
+            final int v = queue[i];
+            if (csr != null) {
+                final boolean out = direction == Direction.OUT;
+                final int[] offsets = out ? csr.outOffsets() : csr.inOffsets();
+                final int[] targets = out ? csr.outTargets() : csr.inSources();
+                for (int slot = offsets[v]; slot < offsets[v + 1]; slot++) {
+                    int w = targets[slot];
+                    if (levels[w] < 0) {
+                        visit(w, v, csr.edgeAt(out ? slot : csr.inEdges()[slot]), level, tree);
+                        nextQueue = append(nextQueue, nextSize++, w);
+                        nextEdges += offsets[w + 1] - offsets[w];
+                    }
+                }
+            } else {
+                cursor.reset(nodeAt(v), direction);
+                while (cursor.next()) {
+                    Node wNode = cursor.node();
+                    int w = nodeId(wNode);
+                    if (levels[w] < 0) {
+                        visit(w, v, cursor.edge(), level, tree);
+                        nextQueue = append(nextQueue, nextSize++, w);
+                        nextEdges += graph.degree(wNode, direction);
+                    }
+                }
+            }
+        }
+        int[] swap = queue;
+        queue = nextQueue;
+        nextQueue = swap;
+        return result(nextSize, nextEdges);
+    }
+
+    private static int[] append(int[] array, int size, int value) {
+        if (size == array.length) {
+            array = Arrays.copyOf(array, size * 2);
+        }
+        array[size] = value;
+        return array;
+    }
+
+    private long bottomUpStep(int level, int tree) {
+        bottomUpSteps++;
+        if (backOffsets == null) {
+            initBackwardAdjacency();
+        }
+        Arrays.fill(nextFrontier, 0L);
+        int nextSize = 0;
+        long nextEdges = 0;
+        final int capacity = levels.length;
+        for (int w = 0; w < capacity; w++) {
+            if (levels[w] >= 0) {
+                continue;
+            }
+            for (int slot = backOffsets[w]; slot < backOffsets[w + 1]; slot++) {
+                int v = backSources[slot];
+                if ((frontier[v >>> 6] & (1L << v)) != 0) {
+                    visit(w, v, backEdge(slot), level, tree);
+                    nextFrontier[w >>> 6] |= 1L << w;
+                    nextSize++;
+                    nextEdges += forwardDegree(w);
+                    break;
+                }
+            }
+        }
+        long[] swap = frontier;
+        frontier = nextFrontier;
+        nextFrontier = swap;
+        return result(nextSize, nextEdges);
+    }
+
+    private void toBitset(int frontierSize) {
+        if (frontier == null) {
+            frontier = new long[(levels.length + 63) >>> 6];
+            nextFrontier = new long[frontier.length];
+        } else {
+            Arrays.fill(frontier, 0L);
+        }
+        for (int i = 0; i < frontierSize; i++) {
+            int v = queue[i];
+            frontier[v >>> 6] |= 1L << v;
+        }
+    }
+
+    private void toQueue() {
+        int size = 0;
+        for (int word = 0; word < frontier.length; word++) {
+            long bits = frontier[word];
+            while (bits != 0) {
+                queue = append(queue, size++, (word << 6) + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    private void initBackwardAdjacency() {
+        if (csr != null) {
+            boolean out = direction == Direction.OUT;
+            backOffsets = out ? csr.inOffsets() : csr.outOffsets();
+            backSources = out ? csr.inSources() : csr.outTargets();
+            return;
+        }
+        final int capacity = levels.length;
+        final Direction back = direction.flip();
+        backOffsets = new int[capacity + 1];
+        for (Node n : graph.nodes()) {
+            backOffsets[nodeId(n) + 1] = graph.degree(n, back);
+        }
+        for (int i = 0; i < capacity; i++) {
+            backOffsets[i + 1] += backOffsets[i];
+        }
+        backSources = new int[backOffsets[capacity]];
+        backEdges = new Edge[backSources.length];
+        for (Node n : graph.nodes()) {
+            int slot = backOffsets[nodeId(n)];
+            cursor.reset(n, back);
+            while (cursor.next()) {
+                backSources[slot] = nodeId(cursor.node());
+                backEdges[slot++] = cursor.edge();
+            }
+        }
+    }
+
+    private Edge backEdge(int slot) {
+        if (backEdges != null) {
+            return backEdges[slot];
+        }
+        return csr.edgeAt(direction == Direction.OUT ? csr.inEdges()[slot] : slot);
+    }
+
+    private void layers() {
+        layerOffsets = new int[maxLevel + 2];
+        for (int level : levels) {
+            if (level >= 0) {
+                layerOffsets[level + 1]++;
+            }
+        }
+        for (int i = 0; i <= maxLevel; i++) {
+            layerOffsets[i + 1] += layerOffsets[i];
+        }
+        members = new int[layerOffsets[maxLevel + 1]];
+        int[] fill = layerOffsets.clone();
+        for (int id = 0; id < levels.length; id++) {
+            if (levels[id] >= 0) {
+                members[fill[levels[id]]++] = id;
+            }
+        }
+    }
+
+    private int visitedId(Node node) {
+        Args.notNull(node);
+        if (levels == null) {
+            return -1;
+        }
+        int id = nodeId(node);
+        return id >= 0 && levels[id] >= 0 ? id : -1;
+    }
+
+    private int checkVisited(Node node) {
+        int id = visitedId(node);
+        if (id < 0) {
+            throw new RuntimeException("Node has not been visited by this bfs (has bfs been executed?)");
+        }
+        return id;
+    }
+
+    public InspectableGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns whether the specified node was reached by the search.
+     */
+    public boolean isVisited(Node node) {
+        return visitedId(node) >= 0;
+    }
+
+    public int getLevel(Node node) {
+        return levels[checkVisited(node)];
+    }
+
+    public Node getParent(Node node) {
+        Edge parent = getParentEdge(node);
+        if (parent == null) {
+            return null;
+        }
+        return parent.opposite(node);
+    }
+
+    public Edge getParentEdge(Node node) {
+        return parentEdges[checkVisited(node)];
+    }
+
+    /**
+     * Returns the greatest level of a visited node (like {@link Bfs#getLayerCount()}).
+     */
+    public int getLayerCount() {
+        return maxLevel;
+    }
+
+    /**
+     * Returns the number of trees of the search (like {@link Bfs#getComponentCount()}).
+     */
+    public int getComponentCount() {
+        return treeCount;
+    }
+
+    public Object getComponentIdentifier(Node node) {
+        int id = visitedId(node);
+        return id < 0 ? null : Integer.valueOf(trees[id]);
+    }
+
+    public boolean isTreeEdge(Edge e) {
+        int id1 = visitedId(e.n1());
+        int id2 = visitedId(e.n2());
+        return (id1 >= 0 && parentEdges[id1] == e) || (id2 >= 0 && parentEdges[id2] == e);
+    }
+
+    public boolean isCrossEdge(Edge e) {
+        if (!graph.containsEdge(e) || isTreeEdge(e)) {
+            return false;
+        }
+        boolean explored1 = direction.isOut() && isVisited(e.n1());
+        boolean explored2 = direction.isIn() && isVisited(e.n2());
+        return explored1 || explored2;
+    }
+
+    /**
+     * Returns the path of tree edges from the root of the tree of the specified (visited) node to that node.
+     */
+    public Path getPath(Node node) {
+        int id = checkVisited(node);
+        int[] ids = new int[levels[id] + 1];
+        for (int i = ids.length - 1; i >= 0; i--) {
+            ids[i] = id;
+            id = parents[id];
+        }
+        Path path = nodeAt(ids[0]).asPath();
+        for (int i = 1; i < ids.length; i++) {
+            path = path.append(parentEdges[ids[i]].asPath(path.tailNode()));
+        }
+        return path;
+    }
+
+    public Collection<Node> getLayer(final int level) {
+        Args.gte(level, 0);
+        if (level > maxLevel || members.length == 0) {
+            return Collections.<Node>emptySet();
+        }
+        return new AbstractList<Node>() {
+            @Override
+            public Node get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException("Invalid index: " + index + ", size: " + size());
+                }
+                return nodeAt(members[layerOffsets[level] + index]);
+            }
+
+            @Override
+            public int size() {
+                return layerOffsets[level + 1] - layerOffsets[level];
+            }
+        };
+    }
+
+    public int findLayerOf(Node node) {
+        return getLevel(node);
+    }
+
+    public Object findClusterOf(Node node) {
+        return isVisited(node) ? Integer.valueOf(getLevel(node)) : null;
+    }
+
+    public Collection<Node> getCluster(Object key) {
+        if (!(key instanceof Integer) || (Integer)key < 0) {
+            return Collections.<Node>emptySet();
+        }
+        return getLayer((Integer)key);
+    }
+
+    public Set<Object> getClusters() {
+        Set<Object> keys = new HashSet<Object>();
+        for (int i = 0; i <= maxLevel && members.length > 0; i++) {
+            keys.add(i);
+        }
+        return Collections.unmodifiableSet(keys);
+    }
+
+    public Iterator<Collection<Node>> iterator() {
+        return new Iterator<Collection<Node>>() {
+            private int next = 0;
+
+            public boolean hasNext() {
+                return next <= maxLevel && members.length > 0;
+            }
+
+            public Collection<Node> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return getLayer(next++);
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Returns the number of levels that were expanded top-down by the search.
+     */
+    public int getTopDownSteps() {
+        return topDownSteps;
+    }
+
+    /**
+     * Returns the number of levels that were expanded bottom-up by the search.
+     */
+    public int getBottomUpSteps() {
+        return bottomUpSteps;
+    }
+}
@@ -220,7 +220,7 @@ public class Generators {
      * @see "Small Worlds:The Dynamics of Networks between Order and Randomness by D.J. Watts"
      */
     public static void createSmallWorld_Watts(Graph g, Random random, int nodes, int k, double p) {
-        new WattsStrogatzGenerator(random, nodes, p, k);
+        new WattsStrogatzGenerator(random, nodes, p, k).generate(g);
     }
     
     /**
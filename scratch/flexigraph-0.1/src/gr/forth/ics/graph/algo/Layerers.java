@@ -3,6 +3,7 @@ package gr.forth.ics.graph.algo;
 import gr.forth.ics.graph.Direction;
 import gr.forth.ics.graph.InspectableGraph;
 import gr.forth.ics.graph.Node;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  *
@@ -12,10 +13,28 @@ public class Layerers {
     private Layerers() { }
     
     public static Layerer bfs(InspectableGraph g, Direction direction) {
-        return BfsLayerer.execute(g, direction);
+        return DirectionOptimizingBfs.execute(g, direction);
     }
     
     public static Layerer bfs(InspectableGraph g, Node n, Direction direction) {
-        return BfsLayerer.execute(g, n, direction);
+        return DirectionOptimizingBfs.execute(g, n, direction);
+    }
+    
+    /**
+     * Like {@link #bfs(InspectableGraph, Direction)}, but expands each level in parallel on the common
+     * {@link ForkJoinPool}.
+     * @see ParallelBfs
+     */
+    public static Layerer parallelBfs(InspectableGraph g, Direction direction) {
+        return ParallelBfs.execute(g, direction, ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Like {@link #bfs(InspectableGraph, Node, Direction)}, but expands each level in parallel on the common
+     * {@link ForkJoinPool}.
+     * @see ParallelBfs
+     */
+    public static Layerer parallelBfs(InspectableGraph g, Node n, Direction direction) {
+        return ParallelBfs.execute(g, n, direction, ForkJoinPool.commonPool());
     }
 }
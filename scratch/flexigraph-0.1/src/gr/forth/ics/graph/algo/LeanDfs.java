@@ -0,0 +1,344 @@
+package gr.forth.ics.graph.algo;
+
+import gr.forth.ics.graph.Direction;
+import gr.forth.ics.graph.Edge;
+import gr.forth.ics.graph.IndexedInspectableGraph;
+import gr.forth.ics.graph.InspectableGraph;
+import gr.forth.ics.graph.Node;
+import gr.forth.ics.graph.NodeCursor;
+import gr.forth.ics.graph.path.Path;
+import gr.forth.ics.util.Args;
+import gr.forth.ics.util.IdentityIntMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A depth-first search with the same traversal order, times and edge classification as {@link Dfs}, but
+ * which neither builds a {@link Path} per explored edge nor decorates the elements of the graph. State is
+ * kept in arrays indexed by node and edge (the indexes of an {@link IndexedInspectableGraph}, or indexes
+ * assigned at the start of the search otherwise), and the search stack is an int array of nodes, along with
+ * a {@link NodeCursor} over the adjacency of each; cursors are reused by later nodes at the same depth.
+ * Visitors receive the visited elements; a path is only created when {@link #getPath(Node)} or
+ * {@link #getCycle(Edge, Node)} is called.
+ * <p>
+ * Subclasses override the <code>visitXXX</code> methods; returning true from any of them stops the search.
+ *
+ * @author Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
+ */
+public class LeanDfs {
+    private static final byte TREE_EDGE = 1;
+    private static final byte FORWARD_EDGE = 2;
+    private static final byte BACK_EDGE = 3;
+    private static final byte CROSS_EDGE = 4;
+
+    protected final InspectableGraph graph;
+    private final Direction direction;
+
+    //null if the graph is not indexed, in which case the following are used
+    private final IndexedInspectableGraph indexed;
+    private IdentityIntMap<Node> nodeIds;
+    private Node[] nodes;
+    private IdentityIntMap<Edge> edgeIds;
+
+    private int[] discovery;
+    private int[] finish;
+    private Edge[] parentEdges;
+    private byte[] edgeTypes;
+    private int time;
+    private int treeCount;
+
+    public LeanDfs(InspectableGraph graph, Direction direction) {
+        Args.notNull(graph, direction);
+        this.graph = graph;
+        this.direction = direction;
+        this.indexed = graph instanceof IndexedInspectableGraph ? (IndexedInspectableGraph)graph : null;
+    }
+
+    public InspectableGraph getGraph() {
+        return graph;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    /**
+     * Searches the whole graph, starting new trees from unexplored nodes in the iteration order of the graph.
+     */
+    public final void execute() {
+        execute(null);
+    }
+
+    /**
+     * Searches the whole graph, starting from the specified node (if not null), then starting new trees
+     * from unexplored nodes in the iteration order of the graph.
+     */
+    public final void execute(Node startNode) {
+        init();
+        if (startNode != null) {
+            Args.isTrue("Start node not contained in graph", graph.containsNode(startNode));
+            if (dfs(startNode)) {
+                return;
+            }
+        }
+        for (Node n : graph.nodes()) {
+            if (discovery[nodeId(n)] < 0 && dfs(n)) {
+                return;
+            }
+        }
+    }
+
+    private void init() {
+        int nodeCapacity;
+        int edgeCapacity;
+        if (indexed != null) {
+            nodeCapacity = indexed.nodeIndexCapacity();
+            edgeCapacity = indexed.edgeIndexCapacity();
+        } else {
+            nodeCapacity = graph.nodeCount();
+            edgeCapacity = graph.edgeCount();
+            nodeIds = new IdentityIntMap<Node>(nodeCapacity);
+            nodes = new Node[nodeCapacity];
+            int id = 0;
+            for (Node n : graph.nodes()) {
+                nodes[id] = n;
+                nodeIds.put(n, id++);
+            }
+            edgeIds = new IdentityIntMap<Edge>(edgeCapacity);
+            id = 0;
+            for (Edge e : graph.edges()) {
+                edgeIds.put(e, id++);
+            }
+        }
+        discovery = new int[nodeCapacity];
+        finish = new int[nodeCapacity];
+        Arrays.fill(discovery, -1);
+        Arrays.fill(finish, -1);
+        parentEdges = new Edge[nodeCapacity];
+        edgeTypes = new byte[edgeCapacity];
+        time = 0;
+        treeCount = 0;
+    }
+
+    private int nodeId(Node node) {
+        return indexed != null ? indexed.indexOf(node) : nodeIds.get(node);
+    }
+
+    private Node nodeAt(int id) {
+        return indexed != null ? indexed.nodeAt(id) : nodes[id];
+    }
+
+    private int edgeId(Edge edge) {
+        return indexed != null ? indexed.indexOf(edge) : edgeIds.get(edge);
+    }
+
+    private boolean dfs(Node root) {
+        treeCount++;
+        if (visitNewTree(root)) {
+            return true;
+        }
+        int r = nodeId(root);
+        discovery[r] = time++;
+        if (visitPre(root)) {
+            return true;
+        }
+        int[] stack = new int[8];
+        NodeCursor[] cursors = new NodeCursor[8];
+        stack[0] = r;
+        cursors[0] = graph.nodeCursor();
+        cursors[0].reset(root, direction);
+        int size = 1;
+        outLoop:
+            while (size > 0) {
+                final int v = stack[size - 1];
+                final Node vNode = nodeAt(v);
+                final NodeCursor cursor = cursors[size - 1];
+                while (cursor.next()) {
+                    Edge e = cursor.edge();
+                    int edge = edgeId(e);
+                    if (edgeTypes[edge] != 0) { //prevents loop-backs for undirected graphs
+                        continue;
+                    }
+                    Node wNode = cursor.node();
+                    int w = nodeId(wNode);
+                    if (discovery[w] < 0) { //unexplored
+                        edgeTypes[edge] = TREE_EDGE;
+                        parentEdges[w] = e;
+                        if (visitTreeEdge(e, vNode, wNode)) {
+                            return true;
+                        }
+                        discovery[w] = time++;
+                        if (visitPre(wNode)) {
+                            return true;
+                        }
+                        if (size == stack.length) {
+                            stack = Arrays.copyOf(stack, size * 2);
+                            cursors = Arrays.copyOf(cursors, size * 2);
+                        }
+                        if (cursors[size] == null) {
+                            cursors[size] = graph.nodeCursor();
+                        }
+                        cursors[size].reset(wNode, direction);
+                        stack[size++] = w;
+                        continue outLoop;
+                    } else if (finish[w] < 0) {
+                        edgeTypes[edge] = BACK_EDGE;
+                        if (visitBackEdge(e, vNode, wNode)) {
+                            return true;
+                        }
+                    } else if (finish[w] < discovery[v]) {
+                        edgeTypes[edge] = CROSS_EDGE;
+                        if (visitCrossEdge(e, vNode, wNode)) {
+                            return true;
+                        }
+                    } else {
+                        edgeTypes[edge] = FORWARD_EDGE;
+                        if (visitForwardEdge(e, vNode, wNode)) {
+                            return true;
+                        }
+                    }
+                }
+                size--;
+                finish[v] = time++;
+                if (visitPost(vNode)) {
+                    return true;
+                }
+            }
+        return false;
+    }
+
+    /** Return true to break */
+    protected boolean visitNewTree(Node root) { return false; }
+
+    /** Return true to break */
+    protected boolean visitPre(Node node) { return false; }
+
+    /** Return true to break */
+    protected boolean visitPost(Node node) { return false; }
+
+    /** Return true to break */
+    protected boolean visitTreeEdge(Edge edge, Node from, Node to) { return false; }
+
+    /** Return true to break */
+    protected boolean visitForwardEdge(Edge edge, Node from, Node to) { return false; }
+
+    /** Return true to break */
+    protected boolean visitBackEdge(Edge edge, Node from, Node to) { return false; }
+
+    /** Return true to break */
+    protected boolean visitCrossEdge(Edge edge, Node from, Node to) { return false; }
+
+    private int checkedNodeId(Node node) {
+        int id = node == null ? -1 : nodeId(node);
+        Args.isTrue("Node " + node + " not contained in graph", id >= 0);
+        return id;
+    }
+
+    private byte edgeType(Edge edge) {
+        int id = edge == null ? -1 : edgeId(edge);
+        return id < 0 ? 0 : edgeTypes[id];
+    }
+
+    public boolean isTreeEdge(Edge e) {
+        return edgeType(e) == TREE_EDGE;
+    }
+
+    public boolean isCrossEdge(Edge e) {
+        return edgeType(e) == CROSS_EDGE;
+    }
+
+    public boolean isForwardEdge(Edge e) {
+        return edgeType(e) == FORWARD_EDGE;
+    }
+
+    public boolean isBackEdge(Edge e) {
+        return edgeType(e) == BACK_EDGE;
+    }
+
+    public boolean isUnexplored(Node node) {
+        return discovery[checkedNodeId(node)] < 0;
+    }
+
+    public boolean isVisiting(Node node) {
+        int id = checkedNodeId(node);
+        return discovery[id] >= 0 && finish[id] < 0;
+    }
+
+    public boolean isVisited(Node node) {
+        return finish[checkedNodeId(node)] >= 0;
+    }
+
+    /**
+     * Returns the time the specified node was discovered, or -1 if it is unexplored.
+     */
+    public int getDiscoveryTime(Node node) {
+        return discovery[checkedNodeId(node)];
+    }
+
+    /**
+     * Returns the time the specified node was finished, or -1 if it is not yet visited.
+     */
+    public int getFinishTime(Node node) {
+        return finish[checkedNodeId(node)];
+    }
+
+    public Edge getParentEdge(Node node) {
+        return parentEdges[checkedNodeId(node)];
+    }
+
+    public Node getParent(Node node) {
+        Edge parent = getParentEdge(node);
+        if (parent == null) {
+            return null;
+        }
+        return parent.opposite(node);
+    }
+
+    /**
+     * Returns the number of trees of the search, so far.
+     */
+    public int getComponentCount() {
+        return treeCount;
+    }
+
+    /**
+     * Returns the path of tree edges from the root of the tree of the specified (explored) node to that node.
+     */
+    public Path getPath(Node node) {
+        Args.isTrue("Node " + node + " is unexplored", !isUnexplored(node));
+        return treePath(null, node);
+    }
+
+    /**
+     * Returns the cycle closed by the specified back edge, which is explored from the specified node: the path
+     * of tree edges from the other endpoint of the edge to the specified node, followed by the edge. This
+     * is meant to be called from {@link #visitBackEdge(Edge, Node, Node)}.
+     */
+    public Path getCycle(Edge backEdge, Node from) {
+        Args.isTrue("Not a back edge: " + backEdge, isBackEdge(backEdge));
+        Node to = backEdge.opposite(from);
+        return treePath(to, from).append(backEdge.asPath(from));
+    }
+
+    //ancestor == null means the root of the tree
+    private Path treePath(Node ancestor, Node node) {
+        List<Edge> edges = new ArrayList<Edge>();
+        Node current = node;
+        while (current != ancestor) {
+            Edge parent = parentEdges[nodeId(current)];
+            if (parent == null) {
+                Args.isTrue("Node " + ancestor + " is not an ancestor of " + node, ancestor == null);
+                break;
+            }
+            edges.add(parent);
+            current = parent.opposite(current);
+        }
+        Path path = current.asPath();
+        for (int i = edges.size() - 1; i >= 0; i--) {
+            Edge e = edges.get(i);
+            path = path.append(e.asPath(path.tailNode()));
+        }
+        return path;
+    }
+}
@@ -1,11 +1,10 @@
 package gr.forth.ics.graph.algo;
 
 import gr.forth.ics.graph.Direction;
+import gr.forth.ics.graph.Edge;
 import gr.forth.ics.graph.GraphException;
-import gr.forth.ics.graph.Graphs;
 import gr.forth.ics.graph.InspectableGraph;
 import gr.forth.ics.graph.Node;
-import gr.forth.ics.graph.path.Path;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -23,7 +22,7 @@ public class Orders {
      * @return a list representing the topological order
      */
     public static List<Node> topological(InspectableGraph g) {
-        return topological0(Graphs.inverted(g));
+        return topological0(g, Direction.IN);
     }
 
     /**
@@ -33,22 +32,22 @@ public class Orders {
      * @return a list representing the topological order
      */
     public static List<Node> reverseTopological(InspectableGraph g) {
-        return topological0(g);
+        return topological0(g, Direction.OUT);
     }
 
-    private static List<Node> topological0(InspectableGraph g) {
+    //a node is finished after every node reachable from it in the specified direction
+    private static List<Node> topological0(InspectableGraph g, Direction direction) {
         final List<Node> list = new ArrayList<Node>(g.nodeCount());
-        new Dfs(g, Direction.OUT) {
+        new LeanDfs(g, direction) {
             @Override
-            protected boolean visitPost(Path path) {
-                list.add(path.tailNode());
+            protected boolean visitPost(Node node) {
+                list.add(node);
                 return false;
             }
 
             @Override
-            protected boolean visitBackEdge(Path path) {
-                Path cycle = path.tailPath(path.size() - path.find(path.tailNode().asPath()));
-                throw new GraphException("Cycle detected while doing topological sort: " + cycle);
+            protected boolean visitBackEdge(Edge edge, Node from, Node to) {
+                throw new GraphException("Cycle detected while doing topological sort: " + getCycle(edge, from));
             }
         }.execute();
 
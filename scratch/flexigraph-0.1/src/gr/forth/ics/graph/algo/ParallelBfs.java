@@ -0,0 +1,352 @@
+package gr.forth.ics.graph.algo;
+
+import gr.forth.ics.graph.CsrGraph;
+import gr.forth.ics.graph.Direction;
+import gr.forth.ics.graph.InspectableGraph;
+import gr.forth.ics.graph.Node;
+import gr.forth.ics.graph.NodeCursor;
+import gr.forth.ics.util.Args;
+import gr.forth.ics.util.IdentityIntMap;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A level-synchronous breadth-first search, which expands each level of the frontier in parallel on a
+ * {@link ForkJoinPool}. The frontier is split into chunks; each task claims the unvisited neighbors of the nodes
+ * of its chunk by an atomic compare-and-set on a visited bitset, and collects them in a buffer of its own.
+ * The buffers are concatenated into the next frontier once the level is complete.
+ * <p>
+ * The adjacency is read from int arrays: the raw arrays of a {@link CsrGraph} searched in the
+ * {@link Direction#OUT OUT} or {@link Direction#IN IN} direction, or otherwise arrays copied from the graph
+ * at the start of the search. The graph must not be modified during the search.
+ * <p>
+ * The result has the same layers as {@link Layerers#bfs(InspectableGraph, Node, Direction)}: the whole graph
+ * is searched, first from the start node, then from each unvisited node in the iteration order of the graph,
+ * and every node belongs to the layer of its distance from the root of its tree.
+ *
+ * @see Layerers#parallelBfs(InspectableGraph, Direction)
+ * @author Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
+ */
+public class ParallelBfs implements Layerer {
+    //frontier nodes per task
+    private static final int CHUNK = 512;
+
+    private final InspectableGraph graph;
+    private final ForkJoinPool pool;
+
+    //null if the indexes of a CsrGraph are used
+    private IdentityIntMap<Node> nodeIds;
+    private Node[] nodes;
+    private CsrGraph csr;
+    private int[] offsets;
+    private int[] targets;
+
+    private AtomicLongArray visited;
+    private int[] levels;
+    private int maxLevel;
+
+    //node indexes grouped by level; the members of layer i are in [layerOffsets[i], layerOffsets[i + 1])
+    private int[] members;
+    private int[] layerOffsets;
+
+    private ParallelBfs(InspectableGraph graph, Direction direction, ForkJoinPool pool) {
+        Args.notNull(graph, direction, pool);
+        this.graph = graph;
+        this.pool = pool;
+        initAdjacency(direction);
+    }
+
+    /**
+     * Searches the whole graph on the specified pool.
+     */
+    public static ParallelBfs execute(InspectableGraph graph, Direction direction, ForkJoinPool pool) {
+        ParallelBfs bfs = new ParallelBfs(graph, direction, pool);
+        bfs.execute(graph.isEmpty() ? null : graph.aNode());
+        return bfs;
+    }
+
+    /**
+     * Searches the whole graph on the specified pool, starting from the specified node.
+     */
+    public static ParallelBfs execute(InspectableGraph graph, Node startNode, Direction direction, ForkJoinPool pool) {
+        Args.isTrue("Start node not contained in graph", graph.containsNode(startNode));
+        ParallelBfs bfs = new ParallelBfs(graph, direction, pool);
+        bfs.execute(startNode);
+        return bfs;
+    }
+
+    private void initAdjacency(Direction direction) {
+        if (graph instanceof CsrGraph && direction != Direction.EITHER) {
+            csr = (CsrGraph)graph;
+            offsets = direction == Direction.OUT ? csr.outOffsets() : csr.inOffsets();
+            targets = direction == Direction.OUT ? csr.outTargets() : csr.inSources();
+            return;
+        }
+        final int n = graph.nodeCount();
+        nodes = new Node[n];
+        nodeIds = new IdentityIntMap<Node>(n);
+        offsets = new int[n + 1];
+        int id = 0;
+        for (Node node : graph.nodes()) {
+            nodes[id] = node;
+            nodeIds.put(node, id++);
+            offsets[id] = offsets[id - 1] + graph.degree(node, direction);
+        }
+        targets = new int[offsets[n]];
+        NodeCursor cursor = graph.nodeCursor();
+        int slot = 0;
+        for (int i = 0; i < n; i++) {
+            cursor.reset(nodes[i], direction);
+            while (cursor.next()) {
+                targets[slot++] = nodeIds.get(cursor.node());
+            }
+        }
+    }
+
+    private int nodeId(Node node) {
+        return csr != null ? csr.indexOf(node) : nodeIds.get(node);
+    }
+
+    private Node nodeAt(int id) {
+        return csr != null ? csr.nodeAt(id) : nodes[id];
+    }
+
+    private void execute(Node startNode) {
+        final int n = offsets.length - 1;
+        visited = new AtomicLongArray((n + 63) >>> 6);
+        levels = new int[n];
+        Arrays.fill(levels, -1);
+        maxLevel = 0;
+        if (startNode != null) {
+            bfs(nodeId(startNode));
+        }
+        for (Node node : graph.nodes()) {
+            int id = nodeId(node);
+            if (levels[id] < 0) {
+                bfs(id);
+            }
+        }
+        layers();
+    }
+
+    private boolean tryVisit(int node) {
+        final int word = node >>> 6;
+        final long bit = 1L << node;
+        while (true) {
+            long old = visited.get(word);
+            if ((old & bit) != 0) {
+                return false;
+            }
+            if (visited.compareAndSet(word, old, old | bit)) {
+                return true;
+            }
+        }
+    }
+
+    private void bfs(int root) {
+        tryVisit(root);
+        levels[root] = 0;
+        int[] frontier = { root };
+        int size = 1;
+        int level = 0;
+        while (size > 0) {
+            level++;
+            int chunks = (size + CHUNK - 1) / CHUNK;
+            int[][] buffers = new int[chunks][];
+            int[] sizes = new int[chunks];
+            Expansion expansion = new Expansion(frontier, size, level, buffers, sizes, 0, chunks);
+            if (chunks == 1) {
+                expansion.expand(0);
+            } else {
+                pool.invoke(expansion);
+            }
+            int nextSize = 0;
+            for (int s : sizes) {
+                nextSize += s;
+            }
+            int[] next = new int[nextSize];
+            int pos = 0;
+            for (int c = 0; c < chunks; c++) {
+                System.arraycopy(buffers[c], 0, next, pos, sizes[c]);
+                pos += sizes[c];
+            }
+            if (nextSize > 0) {
+                maxLevel = Math.max(maxLevel, level);
+            }
+            frontier = next;
+            size = nextSize;
+        }
+    }
+
+    /**
+     * Expands the chunks [fromChunk, toChunk) of a frontier.
+     */
+    private class Expansion extends RecursiveAction {
+        private final int[] frontier;
+        private final int size;
+        private final int level;
+        private final int[][] buffers;
+        private final int[] sizes;
+        private final int fromChunk, toChunk;
+
+        Expansion(int[] frontier, int size, int level, int[][] buffers, int[] sizes, int fromChunk, int toChunk) {
+            this.frontier = frontier;
+            this.size = size;
+            this.level = level;
+            this.buffers = buffers;
+            this.sizes = sizes;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (toChunk - fromChunk == 1) {
+                expand(fromChunk);
+                return;
+            }
+            int mid = (fromChunk + toChunk) >>> 1;
+            invokeAll(new Expansion(frontier, size, level, buffers, sizes, fromChunk, mid),
+                    new Expansion(frontier, size, level, buffers, sizes, mid, toChunk));
+        }
+
+        void expand(int chunk) {
+            final int lo = chunk * CHUNK;
+            final int hi = Math.min(lo + CHUNK, size);
+            int edges = 0;
+            for (int i = lo; i < hi; i++) {
+                edges += offsets[frontier[i] + 1] - offsets[frontier[i]];
+            }
+            int[] buffer = new int[edges];
+            int count = 0;
+            for (int i = lo; i < hi; i++) {
+                final int v = frontier[i];
+                for (int slot = offsets[v]; slot < offsets[v + 1]; slot++) {
+                    int w = targets[slot];
+                    if (tryVisit(w)) {
+                        levels[w] = level;
+                        buffer[count++] = w;
+                    }
+                }
+            }
+            buffers[chunk] = buffer;
+            sizes[chunk] = count;
+        }
+    }
+
+    private void layers() {
+        layerOffsets = new int[maxLevel + 2];
+        for (int level : levels) {
+            if (level >= 0) {
+                layerOffsets[level + 1]++;
+            }
+        }
+        for (int i = 0; i <= maxLevel; i++) {
+            layerOffsets[i + 1] += layerOffsets[i];
+        }
+        members = new int[layerOffsets[maxLevel + 1]];
+        int[] fill = layerOffsets.clone();
+        for (int id = 0; id < levels.length; id++) {
+            if (levels[id] >= 0) {
+                members[fill[levels[id]]++] = id;
+            }
+        }
+    }
+
+    public InspectableGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns whether the specified node was reached by the search.
+     */
+    public boolean isVisited(Node node) {
+        int id = nodeId(node);
+        return id >= 0 && levels[id] >= 0;
+    }
+
+    /**
+     * Returns the greatest level of a visited node (like {@link Bfs#getLayerCount()}).
+     */
+    public int getLayerCount() {
+        return maxLevel;
+    }
+
+    public Collection<Node> getLayer(final int level) {
+        Args.gte(level, 0);
+        if (level > maxLevel || members.length == 0) {
+            return Collections.<Node>emptySet();
+        }
+        return new AbstractList<Node>() {
+            @Override
+            public Node get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException("Invalid index: " + index + ", size: " + size());
+                }
+                return nodeAt(members[layerOffsets[level] + index]);
+            }
+
+            @Override
+            public int size() {
+                return layerOffsets[level + 1] - layerOffsets[level];
+            }
+        };
+    }
+
+    public int findLayerOf(Node node) {
+        int id = nodeId(node);
+        if (id < 0 || levels[id] < 0) {
+            throw new RuntimeException("Node has not been visited by this bfs");
+        }
+        return levels[id];
+    }
+
+    public Object findClusterOf(Node node) {
+        return isVisited(node) ? Integer.valueOf(findLayerOf(node)) : null;
+    }
+
+    public Collection<Node> getCluster(Object key) {
+        if (!(key instanceof Integer) || (Integer)key < 0) {
+            return Collections.<Node>emptySet();
+        }
+        return getLayer((Integer)key);
+    }
+
+    public Set<Object> getClusters() {
+        Set<Object> keys = new HashSet<Object>();
+        for (int i = 0; i <= maxLevel && members.length > 0; i++) {
+            keys.add(i);
+        }
+        return Collections.unmodifiableSet(keys);
+    }
+
+    public Iterator<Collection<Node>> iterator() {
+        return new Iterator<Collection<Node>>() {
+            private int next = 0;
+
+            public boolean hasNext() {
+                return next <= maxLevel && members.length > 0;
+            }
+
+            public Collection<Node> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return getLayer(next++);
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
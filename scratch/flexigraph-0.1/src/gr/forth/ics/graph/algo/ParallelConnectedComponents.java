@@ -0,0 +1,355 @@
+package gr.forth.ics.graph.algo;
+
+import gr.forth.ics.graph.CsrGraph;
+import gr.forth.ics.graph.Edge;
+import gr.forth.ics.graph.IndexedInspectableGraph;
+import gr.forth.ics.graph.InspectableGraph;
+import gr.forth.ics.graph.Node;
+import gr.forth.ics.util.Args;
+import gr.forth.ics.util.ConcurrentIntUnionFind;
+import gr.forth.ics.util.IdentityIntMap;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Finds the connected components of a graph (using undirected semantics) in parallel, by merging the
+ * endpoints of the edges in a {@link ConcurrentIntUnionFind}, with the edges split among the tasks of a
+ * {@link ForkJoinPool}.
+ * <p>
+ * On a {@link CsrGraph}, this follows Afforest (Sutton et al.): first, every node is merged with its first
+ * {@value #NEIGHBOR_ROUNDS} out-neighbors, which typically forms most of the largest component. That component
+ * is then found by sampling, and the remaining edges are only examined from nodes outside it (both out-edges
+ * and in-edges, so edges towards the largest component are not missed). On other
+ * {@link IndexedInspectableGraph indexed graphs}, the edges are split by index; on any other graph, their
+ * endpoints are first copied to int arrays.
+ * <p>
+ * Components are numbered from 0, in the order of their first node (by node index, or by the iteration
+ * order of a graph that is not indexed).
+ *
+ * @author  Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
+ */
+class ParallelConnectedComponents implements Clusterer {
+    //nodes or edges per task
+    private static final int THRESHOLD = 4096;
+    private static final int NEIGHBOR_ROUNDS = 2;
+    private static final int SAMPLES = 1024;
+
+    private final InspectableGraph graph;
+    private final ForkJoinPool pool;
+
+    //null if the graph is not indexed, in which case the following are used
+    private final IndexedInspectableGraph indexed;
+    private IdentityIntMap<Node> nodeIds;
+    private Node[] nodes;
+
+    //component of every node index, or -1 for unused indexes
+    private int[] componentOf;
+    //node indexes grouped by component; the members of component i are in [offsets[i], offsets[i + 1])
+    private int[] members;
+    private int[] offsets;
+    private int componentCount;
+
+    private ParallelConnectedComponents(InspectableGraph graph, ForkJoinPool pool) {
+        Args.notNull(graph, pool);
+        this.graph = graph;
+        this.pool = pool;
+        this.indexed = graph instanceof IndexedInspectableGraph ? (IndexedInspectableGraph)graph : null;
+    }
+
+    static ParallelConnectedComponents execute(InspectableGraph g, ForkJoinPool pool) {
+        return new ParallelConnectedComponents(g, pool).execute();
+    }
+
+    private ParallelConnectedComponents execute() {
+        final int n;
+        if (indexed != null) {
+            n = indexed.nodeIndexCapacity();
+        } else {
+            n = graph.nodeCount();
+            nodeIds = new IdentityIntMap<Node>(n);
+            nodes = new Node[n];
+            int id = 0;
+            for (Node node : graph.nodes()) {
+                nodes[id] = node;
+                nodeIds.put(node, id++);
+            }
+        }
+        final ConcurrentIntUnionFind components = new ConcurrentIntUnionFind(n);
+        if (graph instanceof CsrGraph) {
+            afforest((CsrGraph)graph, components);
+        } else if (indexed != null) {
+            forEach(indexed.edgeIndexCapacity(), new Body() {
+                @Override
+                void process(int from, int to) {
+                    for (int i = from; i < to; i++) {
+                        Edge e = indexed.edgeAt(i);
+                        if (e != null) {
+                            components.union(indexed.indexOf(e.n1()), indexed.indexOf(e.n2()));
+                        }
+                    }
+                }
+            });
+        } else {
+            final int[] sources = new int[graph.edgeCount()];
+            final int[] targets = new int[sources.length];
+            int i = 0;
+            for (Edge e : graph.edges()) {
+                sources[i] = nodeIds.get(e.n1());
+                targets[i++] = nodeIds.get(e.n2());
+            }
+            forEach(sources.length, new Body() {
+                @Override
+                void process(int from, int to) {
+                    for (int i = from; i < to; i++) {
+                        components.union(sources[i], targets[i]);
+                    }
+                }
+            });
+        }
+        componentOf = new int[n];
+        forEach(n, new Body() {
+            @Override
+            void process(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    componentOf[i] = indexed == null || indexed.nodeAt(i) != null ? components.find(i) : -1;
+                }
+            }
+        });
+        group();
+        return this;
+    }
+
+    private void afforest(CsrGraph csr, final ConcurrentIntUnionFind components) {
+        final int n = csr.nodeCount();
+        final int[] outOffsets = csr.outOffsets();
+        final int[] outTargets = csr.outTargets();
+        final int[] inOffsets = csr.inOffsets();
+        final int[] inSources = csr.inSources();
+        for (int r = 0; r < NEIGHBOR_ROUNDS; r++) {
+            final int round = r;
+            forEach(n, new Body() {
+                @Override
+                void process(int from, int to) {
+                    for (int v = from; v < to; v++) {
+                        int slot = outOffsets[v] + round;
+                        if (slot < outOffsets[v + 1]) {
+                            components.union(v, outTargets[slot]);
+                        }
+                    }
+                }
+            });
+        }
+        final int largest = sampleLargest(components, n);
+        forEach(n, new Body() {
+            @Override
+            void process(int from, int to) {
+                for (int v = from; v < to; v++) {
+                    if (components.find(v) == largest) {
+                        continue;
+                    }
+                    for (int slot = outOffsets[v] + NEIGHBOR_ROUNDS; slot < outOffsets[v + 1]; slot++) {
+                        components.union(v, outTargets[slot]);
+                    }
+                    for (int slot = inOffsets[v]; slot < inOffsets[v + 1]; slot++) {
+                        components.union(v, inSources[slot]);
+                    }
+                }
+            }
+        });
+    }
+
+    //the most frequent representative among some random nodes, or -1 if there are no nodes
+    private static int sampleLargest(ConcurrentIntUnionFind components, int n) {
+        if (n == 0) {
+            return -1;
+        }
+        Random random = new Random(0);
+        int[] roots = new int[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            roots[i] = components.find(random.nextInt(n));
+        }
+        Arrays.sort(roots);
+        int largest = roots[0];
+        int largestCount = 0;
+        for (int i = 0, count = 0; i < SAMPLES; i++) {
+            count = i > 0 && roots[i] == roots[i - 1] ? count + 1 : 1;
+            if (count > largestCount) {
+                largest = roots[i];
+                largestCount = count;
+            }
+        }
+        return largest;
+    }
+
+    //renumbers the representatives to 0..componentCount-1 and groups the nodes by component
+    private void group() {
+        final int n = componentOf.length;
+        int[] numbers = new int[n];
+        Arrays.fill(numbers, -1);
+        int[] sizes = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            int root = componentOf[i];
+            if (root < 0) {
+                continue;
+            }
+            if (numbers[root] < 0) {
+                numbers[root] = componentCount++;
+            }
+            componentOf[i] = numbers[root];
+            sizes[componentOf[i] + 1]++;
+        }
+        offsets = new int[componentCount + 1];
+        for (int c = 0; c < componentCount; c++) {
+            offsets[c + 1] = offsets[c] + sizes[c + 1];
+        }
+        members = new int[offsets[componentCount]];
+        int[] fill = Arrays.copyOf(offsets, componentCount);
+        for (int i = 0; i < n; i++) {
+            if (componentOf[i] >= 0) {
+                members[fill[componentOf[i]]++] = i;
+            }
+        }
+    }
+
+    //processes [0, size) on the pool, in ranges of at most THRESHOLD
+    private void forEach(int size, Body body) {
+        if (size <= THRESHOLD) {
+            body.process(0, size);
+        } else {
+            pool.invoke(new Range(body, 0, size));
+        }
+    }
+
+    private static abstract class Body {
+        abstract void process(int from, int to);
+    }
+
+    private static class Range extends RecursiveAction {
+        private final Body body;
+        private final int from, to;
+
+        Range(Body body, int from, int to) {
+            this.body = body;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= THRESHOLD) {
+                body.process(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Range(body, from, mid), new Range(body, mid, to));
+        }
+    }
+
+    private int nodeId(Node node) {
+        if (node == null) {
+            return -1;
+        }
+        return indexed != null ? indexed.indexOf(node) : nodeIds.get(node);
+    }
+
+    private Node nodeAt(int id) {
+        return indexed != null ? indexed.nodeAt(id) : nodes[id];
+    }
+
+    public Collection<Object> getClusters() {
+        return new AbstractList<Object>() {
+            @Override
+            public Object get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException("Invalid index: " + index + ", size: " + size());
+                }
+                return Integer.valueOf(index);
+            }
+
+            @Override
+            public int size() {
+                return componentCount;
+            }
+        };
+    }
+
+    public Object findClusterOf(Node node) {
+        int id = nodeId(node);
+        if (id < 0) {
+            return null;
+        }
+        return componentOf[id];
+    }
+
+    public Collection<Node> getCluster(Object key) {
+        if (!(key instanceof Integer)) {
+            return Collections.<Node>emptySet();
+        }
+        int componentId = (Integer)key;
+        if (componentId < 0 || componentId >= componentCount) {
+            return Collections.<Node>emptySet();
+        }
+        return component(componentId);
+    }
+
+    private Collection<Node> component(final int componentId) {
+        return new AbstractList<Node>() {
+            @Override
+            public Node get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException("Invalid index: " + index + ", size: " + size());
+                }
+                return nodeAt(members[offsets[componentId] + index]);
+            }
+
+            @Override
+            public int size() {
+                return offsets[componentId + 1] - offsets[componentId];
+            }
+        };
+    }
+
+    public InspectableGraph getGraph() {
+        return graph;
+    }
+
+    public Iterator<Collection<Node>> iterator() {
+        return new Iterator<Collection<Node>>() {
+            private int next = 0;
+
+            public boolean hasNext() {
+                return next < componentCount;
+            }
+
+            public Collection<Node> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return component(next++);
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[Components: [");
+        for (int i = 0; i < componentCount; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(component(i));
+        }
+        return sb.append("]]").toString();
+    }
+}
@@ -1,82 +1,137 @@
 package gr.forth.ics.graph.algo;
 
-import gr.forth.ics.graph.Direction;
-import gr.forth.ics.graph.Edge;
-import gr.forth.ics.graph.FoldingGraph;
-import gr.forth.ics.graph.Graph;
+import gr.forth.ics.graph.CsrGraph;
+import gr.forth.ics.graph.Graphs;
 import gr.forth.ics.graph.InspectableGraph;
 import gr.forth.ics.graph.Node;
 import gr.forth.ics.util.Args;
 import java.util.AbstractList;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
+ * Finds the strongly connected components of a graph with Pearce's space-efficient variant of Tarjan's
+ * algorithm. The search is iterative (with explicit int stacks instead of recursion), so it is not bounded by
+ * the depth of the call stack, and runs over a {@link CsrGraph} snapshot of the graph, keeping its state in
+ * int arrays indexed by node instead of decorating the nodes.
+ * <p>
+ * Components are numbered in the order they are completed, i.e. in reverse topological order of the
+ * condensation of the graph.
  *
- * @author  Andreou Dimitris, email: jim.andreou (at) gmail (dot) com 
+ * @author  Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
  */
 class StronglyConnectedComponents implements Clusterer {
-    private final LinkedList<Node> stack = new LinkedList<Node>();
-    private final List<Collection<Node>> components = new ArrayList<Collection<Node>>();
-    private int indexCounter = 0;
-    private int componentCounter = 0;
-    
     private final InspectableGraph graph;
-    
+    private final CsrGraph csr;
+
+    //component of every node index
+    private final int[] componentOf;
+    //node indexes grouped by component; the members of component i are in [offsets[i], offsets[i + 1])
+    private final int[] members;
+    private final int[] offsets;
+    private int componentCount;
+
     private StronglyConnectedComponents(InspectableGraph graph) {
         Args.notNull(graph);
         this.graph = graph;
+        this.csr = Graphs.freeze(graph);
+        final int n = csr.nodeCount();
+        this.componentOf = new int[n];
+        this.members = new int[n];
+        this.offsets = new int[n + 1];
     }
-    
-    private final Object DATA = new Object();
 
     static StronglyConnectedComponents execute(InspectableGraph g) {
         return new StronglyConnectedComponents(g).execute();
     }
-    
+
+    /**
+     * Pearce's algorithm: <code>rindex[v]</code> is 0 for unvisited nodes, the smallest visit index reachable
+     * from v while v is being visited, and <code>n - 1 - component</code> once v has been assigned to a component.
+     * Visit indexes stay below the assigned values (the visit counter is decremented as nodes are assigned),
+     * so an edge towards an assigned node never lowers the rindex of its source, and no on-stack flag is needed.
+     */
     private StronglyConnectedComponents execute() {
-        for (Node n : graph.nodes()) {
-            if (!n.has(DATA)) {
-                visit(n);
-            }
-        }
-        return this;
-    }
+        final int n = csr.nodeCount();
+        final int[] outOffsets = csr.outOffsets();
+        final int[] outTargets = csr.outTargets();
+
+        final int[] rindex = componentOf; //reused; converted to component ids at the end
+        final boolean[] root = new boolean[n];
+        //the depth-first search path, and the next out-edge to examine for each node on it
+        final int[] path = new int[n];
+        final int[] nextEdge = new int[n];
+        //visited nodes not yet assigned to a component
+        final int[] stack = new int[n];
+        int pathSize = 0;
+        int stackSize = 0;
+        int index = 1;
+        int c = n - 1;
+        int memberCount = 0;
 
-    private void visit(Node u) {
-        NodeData uData = new NodeData();
-        u.putWeakly(DATA, uData);
-        uData.root = indexCounter;
-        uData.index = indexCounter;
-        indexCounter++;
-        stack.addLast(u);
-        for (Edge e : graph.edges(u, Direction.OUT)) {
-            if (e.has(DATA)) continue;
-            e.putWeakly(DATA, null);
-            Node w = e.opposite(u);
-            if (!w.has(DATA)) {
-                visit(w);
+        for (int start = 0; start < n; start++) {
+            if (rindex[start] != 0) {
+                continue;
             }
-            NodeData wData = (NodeData)w.get(DATA);
-            if (wData.component == null) {
-                uData.root = Math.min(uData.root, wData.root);
+            path[pathSize++] = start;
+            nextEdge[start] = outOffsets[start];
+            root[start] = true;
+            rindex[start] = index++;
+            while (pathSize > 0) {
+                final int v = path[pathSize - 1];
+                int e = nextEdge[v];
+                final int end = outOffsets[v + 1];
+                boolean descended = false;
+                while (e < end) {
+                    final int w = outTargets[e++];
+                    if (rindex[w] == 0) {
+                        nextEdge[v] = e;
+                        path[pathSize++] = w;
+                        nextEdge[w] = outOffsets[w];
+                        root[w] = true;
+                        rindex[w] = index++;
+                        descended = true;
+                        break;
+                    }
+                    if (rindex[w] < rindex[v]) {
+                        rindex[v] = rindex[w];
+                        root[v] = false;
+                    }
+                }
+                if (descended) {
+                    continue;
+                }
+                pathSize--;
+                if (pathSize > 0) {
+                    //the edge from the parent to v is finished
+                    final int parent = path[pathSize - 1];
+                    if (rindex[v] < rindex[parent]) {
+                        rindex[parent] = rindex[v];
+                        root[parent] = false;
+                    }
+                }
+                if (root[v]) {
+                    index--;
+                    while (stackSize > 0 && rindex[v] <= rindex[stack[stackSize - 1]]) {
+                        final int w = stack[--stackSize];
+                        rindex[w] = c;
+                        members[memberCount++] = w;
+                        index--;
+                    }
+                    rindex[v] = c--;
+                    members[memberCount++] = v;
+                    offsets[++componentCount] = memberCount;
+                } else {
+                    stack[stackSize++] = v;
+                }
             }
         }
-        if (uData.root == uData.index) {
-            Object componentId = componentCounter++;
-            Collection<Node> component = new ArrayList<Node>();
-            Node w;
-            do {
-                w = stack.removeLast();
-                ((NodeData)w.get(DATA)).component = componentId;
-                component.add(w);
-            } while (w != u);
-            components.add(component);
+        for (int i = 0; i < n; i++) {
+            componentOf[i] = n - 1 - rindex[i];
         }
+        return this;
     }
 
     public Collection<Object> getClusters() {
@@ -91,17 +146,17 @@ class StronglyConnectedComponents implements Clusterer {
 
             @Override
             public int size() {
-                return componentCounter;
+                return componentCount;
             }
         };
     }
-    
+
     public Object findClusterOf(Node node) {
-        NodeData data = (NodeData)node.get(DATA);
-        if (data == null) {
+        int index = csr.indexOf(node);
+        if (index < 0) {
             return null;
         }
-        return data.component;
+        return componentOf[index];
     }
 
     public Collection<Node> getCluster(Object key) {
@@ -109,10 +164,27 @@ class StronglyConnectedComponents implements Clusterer {
             return Collections.<Node>emptySet();
         }
         int componentId = (Integer)key;
-        if (componentId < 0 || componentId >= components.size()) {
+        if (componentId < 0 || componentId >= componentCount) {
             return Collections.<Node>emptySet();
         }
-        return components.get(componentId);
+        return component(componentId);
+    }
+
+    private Collection<Node> component(final int componentId) {
+        return new AbstractList<Node>() {
+            @Override
+            public Node get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException("Invalid index: " + index + ", size: " + size());
+                }
+                return csr.nodeAt(members[offsets[componentId] + index]);
+            }
+
+            @Override
+            public int size() {
+                return offsets[componentId + 1] - offsets[componentId];
+            }
+        };
     }
 
     public InspectableGraph getGraph() {
@@ -120,17 +192,35 @@ class StronglyConnectedComponents implements Clusterer {
     }
 
     public Iterator<Collection<Node>> iterator() {
-        return Collections.unmodifiableList(components).iterator();
+        return new Iterator<Collection<Node>>() {
+            private int next = 0;
+
+            public boolean hasNext() {
+                return next < componentCount;
+            }
+
+            public Collection<Node> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return component(next++);
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
     }
-    
+
     @Override
     public String toString() {
-        return "[Components: " + components + "]";
-    }
-    
-    private static class NodeData {
-        int root;
-        int index;
-        Object component;
+        StringBuilder sb = new StringBuilder("[Components: [");
+        for (int i = 0; i < componentCount; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(component(i));
+        }
+        return sb.append("]]").toString();
     }
 }
@@ -0,0 +1,172 @@
+package gr.forth.ics.graph.column;
+
+import gr.forth.ics.graph.Edge;
+import gr.forth.ics.graph.IndexedInspectableGraph;
+import gr.forth.ics.graph.Node;
+import gr.forth.ics.graph.event.BulkEdgeListener;
+import gr.forth.ics.graph.event.BulkNodeListener;
+import gr.forth.ics.graph.event.EmptyGraphListener;
+import gr.forth.ics.graph.event.GraphEvent;
+import gr.forth.ics.graph.event.GraphListener;
+import gr.forth.ics.graph.event.WeakListener;
+import gr.forth.ics.util.Args;
+import java.util.List;
+
+/**
+ * Base class of primitive columns. Owns the backing array of a column and keeps it in sync with
+ * the index capacity of the graph, by listening to its events; subclasses only add the accessors
+ * of their element and primitive type. The listener is attached through a
+ * {@link WeakListener}, so an unreachable column does not outlive its usefulness because
+ * of the graph referencing it.
+ *
+ * @param <A> the type of the backing array, e.g. <code>double[]</code>
+ * @author Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
+ */
+abstract class AbstractColumn<A> {
+    private static final int MIN_LENGTH = 16;
+
+    final IndexedInspectableGraph graph;
+    private final boolean ofNodes;
+
+    //the backing array, and its length
+    A values;
+    private int length;
+
+    //strongly referenced only from here, see WeakListener
+    private final GraphListener listener = new ColumnListener();
+
+    AbstractColumn(IndexedInspectableGraph graph, boolean ofNodes) {
+        Args.notNull(graph);
+        this.graph = graph;
+        this.ofNodes = ofNodes;
+        WeakListener.createAndAttach(graph, listener);
+    }
+
+    /**
+     * Returns the graph this column is attached to.
+     */
+    public IndexedInspectableGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Allocates the backing array; called by the constructors of subclasses, once they can create arrays.
+     */
+    final void allocate() {
+        length = Math.max(MIN_LENGTH, ofNodes ? graph.nodeIndexCapacity() : graph.edgeIndexCapacity());
+        values = newArray(length);
+    }
+
+    //replaces the backing array with one of the specified length, keeping the common prefix
+    private void resize(int newLength) {
+        A newValues = newArray(newLength);
+        System.arraycopy(values, 0, newValues, 0, Math.min(length, newLength));
+        values = newValues;
+        length = newLength;
+    }
+
+    final int index(Node node) {
+        int index = graph.indexOf(node);
+        if (index < 0) {
+            throw new IllegalArgumentException("Node " + node + " not contained in graph");
+        }
+        return index;
+    }
+
+    final int index(Edge edge) {
+        int index = graph.indexOf(edge);
+        if (index < 0) {
+            throw new IllegalArgumentException("Edge " + edge + " not contained in graph");
+        }
+        return index;
+    }
+
+    private void added(int index) {
+        if (index >= length) {
+            resize(Math.max(index + 1, length * 3 / 2));
+        }
+        //the index may be recycled, forget what its previous owner had stored
+        reset(index);
+    }
+
+    private void addedAll(int[] indexes) {
+        int max = -1;
+        for (int index : indexes) {
+            max = Math.max(max, index);
+        }
+        if (max >= length) {
+            resize(Math.max(max + 1, length * 3 / 2));
+        }
+        for (int index : indexes) {
+            reset(index);
+        }
+    }
+
+    private void removed(int capacity) {
+        if (length > MIN_LENGTH && capacity < length / 4) {
+            resize(Math.max(MIN_LENGTH, capacity * 2));
+        }
+    }
+
+    private class ColumnListener extends EmptyGraphListener implements BulkNodeListener, BulkEdgeListener {
+        @Override public void nodeAdded(GraphEvent e) {
+            if (ofNodes) {
+                added(graph.indexOf(e.getNode()));
+            }
+        }
+
+        public void nodesToBeAdded(GraphEvent e) { }
+
+        public void nodesAdded(GraphEvent e) {
+            if (ofNodes) {
+                List<Node> nodes = e.getNodes();
+                int[] indexes = new int[nodes.size()];
+                for (int i = 0; i < indexes.length; i++) {
+                    indexes[i] = graph.indexOf(nodes.get(i));
+                }
+                addedAll(indexes);
+            }
+        }
+
+        @Override public void nodeRemoved(GraphEvent e) {
+            if (ofNodes) {
+                removed(graph.nodeIndexCapacity());
+            }
+        }
+
+        @Override public void edgeAdded(GraphEvent e) {
+            if (!ofNodes) {
+                added(graph.indexOf(e.getEdge()));
+            }
+        }
+
+        public void edgesToBeAdded(GraphEvent e) { }
+
+        public void edgesAdded(GraphEvent e) {
+            if (!ofNodes) {
+                List<Edge> edges = e.getEdges();
+                int[] indexes = new int[edges.size()];
+                for (int i = 0; i < indexes.length; i++) {
+                    indexes[i] = graph.indexOf(edges.get(i));
+                }
+                addedAll(indexes);
+            }
+        }
+
+        @Override public void edgeRemoved(GraphEvent e) {
+            if (!ofNodes) {
+                removed(graph.edgeIndexCapacity());
+            }
+        }
+    }
+
+    /**
+     * Creates an array of the specified length, filled with the default value of the column.
+     */
+    abstract A newArray(int length);
+
+    /**
+     * Sets the default value at the specified index.
+     */
+    abstract void reset(int index);
+}
@@ -0,0 +1,91 @@
+package gr.forth.ics.graph.column;
+
+import gr.forth.ics.graph.Edge;
+import gr.forth.ics.graph.IndexedInspectableGraph;
+import gr.forth.ics.graph.metrics.EdgeMetric;
+import java.util.Arrays;
+
+/**
+ * A column of <code>double</code> values, one per edge of a graph, stored in a primitive array
+ * indexed by edge index (see {@link IndexedInspectableGraph}). The column follows the graph
+ * as edges are added or removed; a newly added edge has the default value of the column.
+ * Unlike storing values in edge tuples, no boxing takes place.
+ *
+ * @author Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
+ */
+public class EdgeDoubleColumn extends AbstractColumn<double[]> implements EdgeMetric {
+    private final double defaultValue;
+
+    /**
+     * Creates a column attached to the specified graph, with a default value of zero.
+     */
+    public EdgeDoubleColumn(IndexedInspectableGraph graph) {
+        this(graph, 0.0);
+    }
+
+    /**
+     * Creates a column attached to the specified graph, with the specified default value.
+     */
+    public EdgeDoubleColumn(IndexedInspectableGraph graph, double defaultValue) {
+        super(graph, false);
+        this.defaultValue = defaultValue;
+        allocate();
+    }
+
+    /**
+     * Returns the value of the specified edge.
+     * @throws IllegalArgumentException if the edge is not contained in the graph
+     */
+    public double get(Edge edge) {
+        return values[index(edge)];
+    }
+
+    /**
+     * Sets the value of the specified edge.
+     * @throws IllegalArgumentException if the edge is not contained in the graph
+     */
+    public void set(Edge edge, double value) {
+        values[index(edge)] = value;
+    }
+
+    /**
+     * Returns the value of the edge with the specified index. No checks are performed.
+     */
+    public double getAt(int index) {
+        return values[index];
+    }
+
+    /**
+     * Sets the value of the edge with the specified index. No checks are performed.
+     */
+    public void setAt(int index, double value) {
+        values[index] = value;
+    }
+
+    /**
+     * Sets the value of all edges.
+     */
+    public void fill(double value) {
+        Arrays.fill(values, value);
+    }
+
+    public double getDefaultValue() {
+        return defaultValue;
+    }
+
+    public double getValue(Edge edge) {
+        return get(edge);
+    }
+
+    double[] newArray(int length) {
+        double[] array = new double[length];
+        if (defaultValue != 0.0) {
+            Arrays.fill(array, defaultValue);
+        }
+        return array;
+    }
+
+    void reset(int index) {
+        values[index] = defaultValue;
+    }
+}
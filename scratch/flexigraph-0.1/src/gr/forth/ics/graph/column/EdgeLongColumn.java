@@ -0,0 +1,91 @@
+package gr.forth.ics.graph.column;
+
+import gr.forth.ics.graph.Edge;
+import gr.forth.ics.graph.IndexedInspectableGraph;
+import gr.forth.ics.graph.metrics.EdgeMetric;
+import java.util.Arrays;
+
+/**
+ * A column of <code>long</code> values, one per edge of a graph, stored in a primitive array
+ * indexed by edge index (see {@link IndexedInspectableGraph}). The column follows the graph
+ * as edges are added or removed; a newly added edge has the default value of the column.
+ * Unlike storing values in edge tuples, no boxing takes place.
+ *
+ * @author Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
+ */
+public class EdgeLongColumn extends AbstractColumn<long[]> implements EdgeMetric {
+    private final long defaultValue;
+
+    /**
+     * Creates a column attached to the specified graph, with a default value of zero.
+     */
+    public EdgeLongColumn(IndexedInspectableGraph graph) {
+        this(graph, 0L);
+    }
+
+    /**
+     * Creates a column attached to the specified graph, with the specified default value.
+     */
+    public EdgeLongColumn(IndexedInspectableGraph graph, long defaultValue) {
+        super(graph, false);
+        this.defaultValue = defaultValue;
+        allocate();
+    }
+
+    /**
+     * Returns the value of the specified edge.
+     * @throws IllegalArgumentException if the edge is not contained in the graph
+     */
+    public long get(Edge edge) {
+        return values[index(edge)];
+    }
+
+    /**
+     * Sets the value of the specified edge.
+     * @throws IllegalArgumentException if the edge is not contained in the graph
+     */
+    public void set(Edge edge, long value) {
+        values[index(edge)] = value;
+    }
+
+    /**
+     * Returns the value of the edge with the specified index. No checks are performed.
+     */
+    public long getAt(int index) {
+        return values[index];
+    }
+
+    /**
+     * Sets the value of the edge with the specified index. No checks are performed.
+     */
+    public void setAt(int index, long value) {
+        values[index] = value;
+    }
+
+    /**
+     * Sets the value of all edges.
+     */
+    public void fill(long value) {
+        Arrays.fill(values, value);
+    }
+
+    public long getDefaultValue() {
+        return defaultValue;
+    }
+
+    public double getValue(Edge edge) {
+        return get(edge);
+    }
+
+    long[] newArray(int length) {
+        long[] array = new long[length];
+        if (defaultValue != 0L) {
+            Arrays.fill(array, defaultValue);
+        }
+        return array;
+    }
+
+    void reset(int index) {
+        values[index] = defaultValue;
+    }
+}
@@ -0,0 +1,91 @@
+package gr.forth.ics.graph.column;
+
+import gr.forth.ics.graph.Node;
+import gr.forth.ics.graph.IndexedInspectableGraph;
+import gr.forth.ics.graph.metrics.NodeMetric;
+import java.util.Arrays;
+
+/**
+ * A column of <code>double</code> values, one per node of a graph, stored in a primitive array
+ * indexed by node index (see {@link IndexedInspectableGraph}). The column follows the graph
+ * as nodes are added or removed; a newly added node has the default value of the column.
+ * Unlike storing values in node tuples, no boxing takes place.
+ *
+ * @author Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
+ */
+public class NodeDoubleColumn extends AbstractColumn<double[]> implements NodeMetric {
+    private final double defaultValue;
+
+    /**
+     * Creates a column attached to the specified graph, with a default value of zero.
+     */
+    public NodeDoubleColumn(IndexedInspectableGraph graph) {
+        this(graph, 0.0);
+    }
+
+    /**
+     * Creates a column attached to the specified graph, with the specified default value.
+     */
+    public NodeDoubleColumn(IndexedInspectableGraph graph, double defaultValue) {
+        super(graph, true);
+        this.defaultValue = defaultValue;
+        allocate();
+    }
+
+    /**
+     * Returns the value of the specified node.
+     * @throws IllegalArgumentException if the node is not contained in the graph
+     */
+    public double get(Node node) {
+        return values[index(node)];
+    }
+
+    /**
+     * Sets the value of the specified node.
+     * @throws IllegalArgumentException if the node is not contained in the graph
+     */
+    public void set(Node node, double value) {
+        values[index(node)] = value;
+    }
+
+    /**
+     * Returns the value of the node with the specified index. No checks are performed.
+     */
+    public double getAt(int index) {
+        return values[index];
+    }
+
+    /**
+     * Sets the value of the node with the specified index. No checks are performed.
+     */
+    public void setAt(int index, double value) {
+        values[index] = value;
+    }
+
+    /**
+     * Sets the value of all nodes.
+     */
+    public void fill(double value) {
+        Arrays.fill(values, value);
+    }
+
+    public double getDefaultValue() {
+        return defaultValue;
+    }
+
+    public double getValue(Node node) {
+        return get(node);
+    }
+
+    double[] newArray(int length) {
+        double[] array = new double[length];
+        if (defaultValue != 0.0) {
+            Arrays.fill(array, defaultValue);
+        }
+        return array;
+    }
+
+    void reset(int index) {
+        values[index] = defaultValue;
+    }
+}
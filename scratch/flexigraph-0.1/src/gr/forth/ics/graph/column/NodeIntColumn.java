@@ -0,0 +1,91 @@
+package gr.forth.ics.graph.column;
+
+import gr.forth.ics.graph.Node;
+import gr.forth.ics.graph.IndexedInspectableGraph;
+import gr.forth.ics.graph.metrics.NodeMetric;
+import java.util.Arrays;
+
+/**
+ * A column of <code>int</code> values, one per node of a graph, stored in a primitive array
+ * indexed by node index (see {@link IndexedInspectableGraph}). The column follows the graph
+ * as nodes are added or removed; a newly added node has the default value of the column.
+ * Unlike storing values in node tuples, no boxing takes place.
+ *
+ * @author Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
+ */
+public class NodeIntColumn extends AbstractColumn<int[]> implements NodeMetric {
+    private final int defaultValue;
+
+    /**
+     * Creates a column attached to the specified graph, with a default value of zero.
+     */
+    public NodeIntColumn(IndexedInspectableGraph graph) {
+        this(graph, 0);
+    }
+
+    /**
+     * Creates a column attached to the specified graph, with the specified default value.
+     */
+    public NodeIntColumn(IndexedInspectableGraph graph, int defaultValue) {
+        super(graph, true);
+        this.defaultValue = defaultValue;
+        allocate();
+    }
+
+    /**
+     * Returns the value of the specified node.
+     * @throws IllegalArgumentException if the node is not contained in the graph
+     */
+    public int get(Node node) {
+        return values[index(node)];
+    }
+
+    /**
+     * Sets the value of the specified node.
+     * @throws IllegalArgumentException if the node is not contained in the graph
+     */
+    public void set(Node node, int value) {
+        values[index(node)] = value;
+    }
+
+    /**
+     * Returns the value of the node with the specified index. No checks are performed.
+     */
+    public int getAt(int index) {
+        return values[index];
+    }
+
+    /**
+     * Sets the value of the node with the specified index. No checks are performed.
+     */
+    public void setAt(int index, int value) {
+        values[index] = value;
+    }
+
+    /**
+     * Sets the value of all nodes.
+     */
+    public void fill(int value) {
+        Arrays.fill(values, value);
+    }
+
+    public int getDefaultValue() {
+        return defaultValue;
+    }
+
+    public double getValue(Node node) {
+        return get(node);
+    }
+
+    int[] newArray(int length) {
+        int[] array = new int[length];
+        if (defaultValue != 0) {
+            Arrays.fill(array, defaultValue);
+        }
+        return array;
+    }
+
+    void reset(int index) {
+        values[index] = defaultValue;
+    }
+}
@@ -0,0 +1,19 @@
+package gr.forth.ics.graph.event;
+
+/**
+ * An edge listener that can handle several edges added at once, through a single
+ * {@link GraphEvent.Type#EDGES_ADDED} event. Edge listeners that do not implement this interface
+ * are given an {@link GraphEvent.Type#EDGE_ADDED} event per added edge instead (see {@link GraphEvent#elementEvents()}).
+ * The whole batch is bracketed by a single pair of {@link #preEvent()}/{@link #postEvent()} calls.
+ */
+public interface BulkEdgeListener extends EdgeListener {
+    /**
+     * Called before the edges of the event are added. Throwing an exception vetoes the addition of all of them.
+     */
+    void edgesToBeAdded(GraphEvent e);
+    
+    /**
+     * Called after the edges of the event are added.
+     */
+    void edgesAdded(GraphEvent e);
+}
@@ -0,0 +1,19 @@
+package gr.forth.ics.graph.event;
+
+/**
+ * A node listener that can handle several nodes added at once, through a single
+ * {@link GraphEvent.Type#NODES_ADDED} event. Node listeners that do not implement this interface
+ * are given a {@link GraphEvent.Type#NODE_ADDED} event per added node instead (see {@link GraphEvent#elementEvents()}).
+ * The whole batch is bracketed by a single pair of {@link #preEvent()}/{@link #postEvent()} calls.
+ */
+public interface BulkNodeListener extends NodeListener {
+    /**
+     * Called before the nodes of the event are added. Throwing an exception vetoes the addition of all of them.
+     */
+    void nodesToBeAdded(GraphEvent e);
+    
+    /**
+     * Called after the nodes of the event are added.
+     */
+    void nodesAdded(GraphEvent e);
+}
@@ -3,7 +3,10 @@ package gr.forth.ics.graph.event;
 import gr.forth.ics.graph.Edge;
 import gr.forth.ics.graph.InspectableGraph;
 import gr.forth.ics.graph.Node;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EventObject;
+import java.util.List;
 
 public class GraphEvent extends EventObject {
     public static enum Type {
@@ -16,7 +19,18 @@ public class GraphEvent extends EventObject {
         EDGE_REINSERTED(Edge.class),
         
         NODE_REORDERED(Node.class),
-        EDGE_REORDERED(Edge.class)
+        EDGE_REORDERED(Edge.class),
+        
+        /**
+         * Several nodes added at once; the data is the list of the nodes.
+         * @see BulkNodeListener
+         */
+        NODES_ADDED(List.class),
+        /**
+         * Several edges added at once; the data is the list of the edges.
+         * @see BulkEdgeListener
+         */
+        EDGES_ADDED(List.class)
         ;
         
         private final Class clazz;
@@ -62,6 +76,42 @@ public class GraphEvent extends EventObject {
         return (Edge)data;
     }
     
+    /**
+     * Returns the nodes of a {@link Type#NODES_ADDED} event.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Node> getNodes() {
+        return (List<Node>)data;
+    }
+    
+    /**
+     * Returns the edges of an {@link Type#EDGES_ADDED} event.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Edge> getEdges() {
+        return (List<Edge>)data;
+    }
+    
+    /**
+     * Returns the events that describe, one element at a time, what a {@link Type#NODES_ADDED} or
+     * {@link Type#EDGES_ADDED} event describes: a {@link Type#NODE_ADDED} (respectively, {@link Type#EDGE_ADDED})
+     * event for each added element, in order. For other event types, returns a list with just this event.
+     */
+    public List<GraphEvent> elementEvents() {
+        Type elementType;
+        switch (eventType) {
+            case NODES_ADDED: elementType = Type.NODE_ADDED; break;
+            case EDGES_ADDED: elementType = Type.EDGE_ADDED; break;
+            default: return Collections.singletonList(this);
+        }
+        List<?> elements = (List<?>)data;
+        List<GraphEvent> events = new ArrayList<GraphEvent>(elements.size());
+        for (Object element : elements) {
+            events.add(new GraphEvent(source, elementType, element));
+        }
+        return events;
+    }
+    
     public int hashCode() {
         return 17 + source.hashCode() + eventType.hashCode() * 11 + data.hashCode() * 37;
     }
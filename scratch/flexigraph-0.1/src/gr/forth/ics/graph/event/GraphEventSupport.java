@@ -75,6 +75,10 @@ public class GraphEventSupport {
                 fireAddEdge(e, commandIfNoVeto); break;
             case EDGE_REMOVED:
                 fireRemoveEdge(e, commandIfNoVeto); break;
+            case NODES_ADDED:
+                fireAddNodes(e, commandIfNoVeto); break;
+            case EDGES_ADDED:
+                fireAddEdges(e, commandIfNoVeto); break;
             case NODE_REORDERED:
                 fireNodeReordered(e); break;
             case EDGE_REORDERED:
@@ -141,6 +145,41 @@ public class GraphEventSupport {
         }
     }
     
+    private void fireAddNodes(GraphEvent e, Runnable commandIfNoVeto) {
+        firePreNode();
+        try {
+            Iterable<NodeListener> listeners = nodeSupport.getListeners();
+            List<GraphEvent> elementEvents = null;
+            for (NodeListener listener : listeners) {
+                if (listener instanceof BulkNodeListener) {
+                    ((BulkNodeListener)listener).nodesToBeAdded(e);
+                } else {
+                    if (elementEvents == null) {
+                        elementEvents = e.elementEvents();
+                    }
+                    for (GraphEvent elementEvent : elementEvents) {
+                        listener.nodeToBeAdded(elementEvent);
+                    }
+                }
+            }
+            commandIfNoVeto.run();
+            for (NodeListener listener : listeners) {
+                if (listener instanceof BulkNodeListener) {
+                    ((BulkNodeListener)listener).nodesAdded(e);
+                } else {
+                    if (elementEvents == null) {
+                        elementEvents = e.elementEvents();
+                    }
+                    for (GraphEvent elementEvent : elementEvents) {
+                        listener.nodeAdded(elementEvent);
+                    }
+                }
+            }
+        } finally {
+            firePostNode();
+        }
+    }
+    
     public void fireNodeAdded(GraphEvent e) {
         GraphEvent.Type eventType = e.getEventType();
         Args.isTrue(eventType == GraphEvent.Type.NODE_ADDED || eventType == GraphEvent.Type.NODE_REINSERTED);
@@ -215,6 +254,41 @@ public class GraphEventSupport {
         }
     }
     
+    private void fireAddEdges(GraphEvent e, Runnable commandIfNoVeto) {
+        firePreEdge();
+        try {
+            Iterable<EdgeListener> listeners = edgeSupport.getListeners();
+            List<GraphEvent> elementEvents = null;
+            for (EdgeListener listener : listeners) {
+                if (listener instanceof BulkEdgeListener) {
+                    ((BulkEdgeListener)listener).edgesToBeAdded(e);
+                } else {
+                    if (elementEvents == null) {
+                        elementEvents = e.elementEvents();
+                    }
+                    for (GraphEvent elementEvent : elementEvents) {
+                        listener.edgeToBeAdded(elementEvent);
+                    }
+                }
+            }
+            commandIfNoVeto.run();
+            for (EdgeListener listener : listeners) {
+                if (listener instanceof BulkEdgeListener) {
+                    ((BulkEdgeListener)listener).edgesAdded(e);
+                } else {
+                    if (elementEvents == null) {
+                        elementEvents = e.elementEvents();
+                    }
+                    for (GraphEvent elementEvent : elementEvents) {
+                        listener.edgeAdded(elementEvent);
+                    }
+                }
+            }
+        } finally {
+            firePostEdge();
+        }
+    }
+    
     public void fireEdgeAdded(GraphEvent e) {
         GraphEvent.Type eventType = e.getEventType();
         Args.isTrue(eventType == GraphEvent.Type.EDGE_ADDED || eventType == GraphEvent.Type.EDGE_REINSERTED);
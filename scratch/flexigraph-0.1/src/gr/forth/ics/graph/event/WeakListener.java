@@ -17,7 +17,7 @@ import java.lang.ref.WeakReference;
  *
  * @author Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
  */
-public final class WeakListener implements GraphListener {
+public final class WeakListener implements GraphListener, BulkNodeListener, BulkEdgeListener {
     private final InspectableGraph targetGraph;
     private final WeakReference<GraphListener> delegateListenerRef;
     private GraphListener delegateListener;
@@ -95,8 +95,32 @@ public final class WeakListener implements GraphListener {
         delegateListener.nodeToBeRemoved(e);
     }
 
+    public void nodesAdded(GraphEvent e) {
+        if (delegateListener instanceof BulkNodeListener) {
+            ((BulkNodeListener)delegateListener).nodesAdded(e);
+        } else {
+            for (GraphEvent elementEvent : e.elementEvents()) {
+                delegateListener.nodeAdded(elementEvent);
+            }
+        }
+    }
+
+    public void nodesToBeAdded(GraphEvent e) {
+        if (delegateListener instanceof BulkNodeListener) {
+            ((BulkNodeListener)delegateListener).nodesToBeAdded(e);
+        } else {
+            for (GraphEvent elementEvent : e.elementEvents()) {
+                delegateListener.nodeToBeAdded(elementEvent);
+            }
+        }
+    }
+
     public void nodeReordered(GraphEvent e) {
-        delegateListener.nodeReordered(e);
+        //reorderings are not bracketed by preEvent()/postEvent()
+        GraphListener delegate = delegateListener != null ? delegateListener : delegateListenerRef.get();
+        if (delegate != null) {
+            delegate.nodeReordered(e);
+        }
     }
 
     public void edgeAdded(GraphEvent e) {
@@ -115,7 +139,31 @@ public final class WeakListener implements GraphListener {
         delegateListener.edgeToBeRemoved(e);
     }
 
+    public void edgesAdded(GraphEvent e) {
+        if (delegateListener instanceof BulkEdgeListener) {
+            ((BulkEdgeListener)delegateListener).edgesAdded(e);
+        } else {
+            for (GraphEvent elementEvent : e.elementEvents()) {
+                delegateListener.edgeAdded(elementEvent);
+            }
+        }
+    }
+
+    public void edgesToBeAdded(GraphEvent e) {
+        if (delegateListener instanceof BulkEdgeListener) {
+            ((BulkEdgeListener)delegateListener).edgesToBeAdded(e);
+        } else {
+            for (GraphEvent elementEvent : e.elementEvents()) {
+                delegateListener.edgeToBeAdded(elementEvent);
+            }
+        }
+    }
+
     public void edgeReordered(GraphEvent e) {
-        delegateListener.edgeReordered(e);
+        //reorderings are not bracketed by preEvent()/postEvent()
+        GraphListener delegate = delegateListener != null ? delegateListener : delegateListenerRef.get();
+        if (delegate != null) {
+            delegate.edgeReordered(e);
+        }
     }
 }
@@ -0,0 +1,26 @@
+package gr.forth.ics.graph.io;
+
+import gr.forth.ics.graph.Tuple;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Encodes the attributes (the value, and possibly the key-value pairs) of nodes or edges, for
+ * the {@link GraphSerializer}. Implementations must read exactly what they wrote.
+ *
+ * @author Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
+ * @see AttributeCodecs
+ */
+public interface AttributeCodec {
+    /**
+     * Writes the attributes of the specified node or edge.
+     */
+    void write(Tuple tuple, DataOutput out) throws IOException;
+
+    /**
+     * Reads attributes written by {@link #write(Tuple, DataOutput)}, and stores them into the
+     * specified (newly created) node or edge.
+     */
+    void read(Tuple tuple, DataInput in) throws IOException;
+}
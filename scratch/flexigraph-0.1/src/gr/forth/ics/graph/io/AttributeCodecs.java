@@ -0,0 +1,179 @@
+package gr.forth.ics.graph.io;
+
+import gr.forth.ics.graph.Tuple;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.StreamCorruptedException;
+import java.nio.charset.Charset;
+import java.util.Set;
+
+/**
+ * Standard {@link AttributeCodec}s. They encode values of the following types (or null):
+ * {@code String, Integer, Long, Short, Byte, Double, Float, Boolean, Character}. Other values
+ * cause a {@link NotSerializableException} when written.
+ *
+ * @author Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
+ */
+public class AttributeCodecs {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final int NULL = 0;
+    private static final int STRING = 1;
+    private static final int INTEGER = 2;
+    private static final int LONG = 3;
+    private static final int SHORT = 4;
+    private static final int BYTE = 5;
+    private static final int DOUBLE = 6;
+    private static final int FLOAT = 7;
+    private static final int TRUE = 8;
+    private static final int FALSE = 9;
+    private static final int CHARACTER = 10;
+
+    private AttributeCodecs() { }
+
+    private static final AttributeCodec none = new AttributeCodec() {
+        public void write(Tuple tuple, DataOutput out) { }
+
+        public void read(Tuple tuple, DataInput in) { }
+    };
+
+    private static final AttributeCodec values = new AttributeCodec() {
+        public void write(Tuple tuple, DataOutput out) throws IOException {
+            writeObject(tuple.getValue(), out);
+        }
+
+        public void read(Tuple tuple, DataInput in) throws IOException {
+            tuple.setValue(readObject(in));
+        }
+    };
+
+    private static final AttributeCodec tuples = new AttributeCodec() {
+        public void write(Tuple tuple, DataOutput out) throws IOException {
+            writeObject(tuple.getValue(), out);
+            Set<Object> keys = tuple.keySet();
+            GraphSerializer.writeVarInt(keys.size(), out);
+            for (Object key : keys) {
+                writeObject(key, out);
+                writeObject(tuple.get(key), out);
+            }
+        }
+
+        public void read(Tuple tuple, DataInput in) throws IOException {
+            tuple.setValue(readObject(in));
+            for (int size = GraphSerializer.readVarInt(in); size > 0; size--) {
+                Object key = readObject(in);
+                tuple.put(key, readObject(in));
+            }
+        }
+    };
+
+    /**
+     * Returns a codec that writes nothing; nodes and edges are read with null values.
+     */
+    public static AttributeCodec none() {
+        return none;
+    }
+
+    /**
+     * Returns a codec that writes only the {@link Tuple#getValue() value} of each node or edge.
+     */
+    public static AttributeCodec values() {
+        return values;
+    }
+
+    /**
+     * Returns a codec that writes the {@link Tuple#getValue() value} and the key-value pairs of each node
+     * or edge. Pairs added by {@link Tuple#putWeakly(Object, Object)} are not written.
+     */
+    public static AttributeCodec tuples() {
+        return tuples;
+    }
+
+    /**
+     * Writes a value of one of the supported types, preceded by a tag denoting its type.
+     *
+     * @throws NotSerializableException if the value is not of a supported type
+     */
+    public static void writeObject(Object value, DataOutput out) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            byte[] bytes = ((String)value).getBytes(UTF8);
+            out.writeByte(STRING);
+            GraphSerializer.writeVarInt(bytes.length, out);
+            out.write(bytes);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            GraphSerializer.writeVarInt(zigZag((Integer)value), out);
+        } else if (value instanceof Long) {
+            long v = (Long)value;
+            out.writeByte(LONG);
+            GraphSerializer.writeVarLong((v << 1) ^ (v >> 63), out);
+        } else if (value instanceof Short) {
+            out.writeByte(SHORT);
+            out.writeShort((Short)value);
+        } else if (value instanceof Byte) {
+            out.writeByte(BYTE);
+            out.writeByte((Byte)value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double)value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float)value);
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean)value ? TRUE : FALSE);
+        } else if (value instanceof Character) {
+            out.writeByte(CHARACTER);
+            out.writeChar((Character)value);
+        } else {
+            throw new NotSerializableException(value.getClass().getName());
+        }
+    }
+
+    /**
+     * Reads a value written by {@link #writeObject(Object, DataOutput)}.
+     */
+    public static Object readObject(DataInput in) throws IOException {
+        int tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING: {
+                byte[] bytes = new byte[GraphSerializer.readVarInt(in)];
+                in.readFully(bytes);
+                return new String(bytes, UTF8);
+            }
+            case INTEGER: {
+                int v = GraphSerializer.readVarInt(in);
+                return (v >>> 1) ^ -(v & 1);
+            }
+            case LONG: {
+                long v = GraphSerializer.readVarLong(in);
+                return (v >>> 1) ^ -(v & 1);
+            }
+            case SHORT:
+                return in.readShort();
+            case BYTE:
+                return in.readByte();
+            case DOUBLE:
+                return in.readDouble();
+            case FLOAT:
+                return in.readFloat();
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case CHARACTER:
+                return in.readChar();
+            default:
+                throw new StreamCorruptedException("Unknown value tag: " + tag);
+        }
+    }
+
+    private static int zigZag(int v) {
+        return (v << 1) ^ (v >> 31);
+    }
+}
@@ -0,0 +1,60 @@
+package gr.forth.ics.graph.io;
+
+import gr.forth.ics.graph.Graph;
+import gr.forth.ics.graph.PrimaryGraph;
+import gr.forth.ics.util.Args;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * A serializable holder of a graph, that writes it through the {@link GraphSerializer} instead of
+ * default Java serialization, e.g. to checkpoint a large graph, or to send it over RMI. Wrap a graph
+ * with this class to serialize it compactly:
+ * <pre>
+ * out.writeObject(new ExternalizableGraph(graph));
+ * ...
+ * Graph restored = ((ExternalizableGraph)in.readObject()).getGraph();
+ * </pre>
+ * Only the nodes, the edges and their {@linkplain AttributeCodecs#values() values} are written.
+ * The graph is always restored as a {@link PrimaryGraph} (even if a {@code SecondaryGraph} was written),
+ * without listeners.
+ *
+ * @author Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
+ */
+public final class ExternalizableGraph implements Externalizable {
+    private static final long serialVersionUID = 1L;
+
+    private Graph graph;
+
+    /**
+     * Used by deserialization only.
+     */
+    public ExternalizableGraph() {
+    }
+
+    /**
+     * Creates a holder for the specified graph.
+     */
+    public ExternalizableGraph(Graph graph) {
+        Args.notNull(graph);
+        this.graph = graph;
+    }
+
+    /**
+     * Returns the held graph.
+     */
+    public Graph getGraph() {
+        return graph;
+    }
+
+    public void writeExternal(ObjectOutput out) throws IOException {
+        GraphSerializer.instance().write(graph, out);
+    }
+
+    public void readExternal(ObjectInput in) throws IOException {
+        graph = new PrimaryGraph();
+        GraphSerializer.instance().read(graph, in);
+    }
+}
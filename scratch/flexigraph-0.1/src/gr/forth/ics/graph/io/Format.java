@@ -45,6 +45,24 @@ public enum Format {
             return PajekReader.instance();
         }
 
+        public boolean supportsLayout() {
+            return false;
+        }
+    },
+    /**
+     * A compact binary format, that preserves node and edge values of simple types.
+     *
+     * @see GraphSerializer
+     */
+    BINARY() {
+        @Override GraphWriter writer() {
+            return GraphSerializer.instance();
+        }
+
+        @Override GraphReader reader() {
+            return GraphSerializer.instance();
+        }
+
         public boolean supportsLayout() {
             return false;
         }
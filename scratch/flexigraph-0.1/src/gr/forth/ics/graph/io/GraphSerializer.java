@@ -0,0 +1,272 @@
+package gr.forth.ics.graph.io;
+
+import gr.forth.ics.graph.Edge;
+import gr.forth.ics.graph.Graph;
+import gr.forth.ics.graph.IndexedInspectableGraph;
+import gr.forth.ics.graph.InspectableGraph;
+import gr.forth.ics.graph.Node;
+import gr.forth.ics.graph.layout.Locator;
+import gr.forth.ics.util.Args;
+import gr.forth.ics.util.IdentityIntMap;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.util.Arrays;
+
+/**
+ * A compact binary codec for graphs, much faster than Java serialization of the graph objects and
+ * producing much smaller streams. Nodes are identified by their position in {@link InspectableGraph#nodes()},
+ * and edges are written as pairs of such positions, varint-encoded as differences (consecutive
+ * edges tend to share or have nearby sources). The attributes of nodes and edges are written by
+ * pluggable {@link AttributeCodec}s.
+ * <p>
+ * Both writing and reading stream the elements in batches; no intermediate object graph is created,
+ * and reading creates the elements with the {@linkplain Graph#newNodes(int) bulk} operations of the target graph.
+ * Node order and the order of {@link InspectableGraph#edges()} are preserved. Listeners of the
+ * written graph are not written.
+ * <p>
+ * The format is also available as {@link Format#BINARY}. To serialize graphs among other objects,
+ * see {@link ExternalizableGraph}.
+ *
+ * @author Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
+ */
+public final class GraphSerializer implements GraphWriter, GraphReader {
+    private static final int MAGIC = 0x46474253;
+    private static final int VERSION = 1;
+    private static final int BATCH = 4096;
+
+    private static final GraphSerializer instance = new GraphSerializer(AttributeCodecs.values(), AttributeCodecs.values());
+
+    private final AttributeCodec nodeCodec;
+    private final AttributeCodec edgeCodec;
+
+    /**
+     * Creates a serializer that uses the specified codecs for the attributes of nodes and edges respectively.
+     */
+    public GraphSerializer(AttributeCodec nodeCodec, AttributeCodec edgeCodec) {
+        Args.notNull(nodeCodec, edgeCodec);
+        this.nodeCodec = nodeCodec;
+        this.edgeCodec = edgeCodec;
+    }
+
+    /**
+     * Returns a serializer that writes the {@linkplain AttributeCodecs#values() values} of nodes and edges.
+     */
+    public static GraphSerializer instance() {
+        return instance;
+    }
+
+    /**
+     * Writes the graph to the output stream, ignoring the locator. The stream is flushed, but not closed.
+     */
+    public void write(InspectableGraph graph, Locator locator, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        write(graph, data);
+        data.flush();
+    }
+
+    /**
+     * Reads a graph from the input stream into the specified graph, ignoring the locator. Since the
+     * stream is read in a buffered fashion, bytes following the graph may be consumed too; to read a graph
+     * followed by other data, use {@link #read(Graph, DataInput)}.
+     */
+    public void read(Graph graph, Locator locator, InputStream in) throws IOException {
+        read(graph, new DataInputStream(new BufferedInputStream(in, 1 << 16)));
+    }
+
+    /**
+     * Writes the graph.
+     */
+    public void write(InspectableGraph graph, DataOutput out) throws IOException {
+        Args.notNull(graph, out);
+        int nodeCount = graph.nodeCount();
+        int edgeCount = graph.edgeCount();
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        writeVarInt(nodeCount, out);
+        writeVarInt(edgeCount, out);
+
+        NodeIds ids = nodeIds(graph);
+        int id = 0;
+        for (Node node : graph.nodes()) {
+            ids.put(node, id++);
+            nodeCodec.write(node, out);
+        }
+        if (id != nodeCount) {
+            throw new IllegalStateException("Graph modified while being written");
+        }
+
+        Edge[] batch = new Edge[Math.min(BATCH, edgeCount)];
+        int batched = 0;
+        int written = 0;
+        int previous = 0;
+        for (Edge edge : graph.edges()) {
+            batch[batched++] = edge;
+            if (batched == batch.length) {
+                previous = writeEdges(batch, batched, ids, previous, out);
+                written += batched;
+                batched = 0;
+            }
+        }
+        writeEdges(batch, batched, ids, previous, out);
+        if (written + batched != edgeCount) {
+            throw new IllegalStateException("Graph modified while being written");
+        }
+    }
+
+    //each batch is written as edge ids, followed by edge attributes
+    private int writeEdges(Edge[] batch, int count, NodeIds ids, int previous, DataOutput out) throws IOException {
+        for (int i = 0; i < count; i++) {
+            int source = ids.get(batch[i].n1());
+            int target = ids.get(batch[i].n2());
+            writeVarInt(zigZag(source - previous), out);
+            writeVarInt(zigZag(target - source), out);
+            previous = source;
+        }
+        for (int i = 0; i < count; i++) {
+            edgeCodec.write(batch[i], out);
+        }
+        return previous;
+    }
+
+    /**
+     * Reads a graph written by {@link #write(InspectableGraph, DataOutput)}, adding its nodes and
+     * edges to the specified graph. Exactly the bytes of the written graph are consumed.
+     *
+     * @throws StreamCorruptedException if the input does not contain a graph written by this class
+     */
+    public void read(Graph graph, DataInput in) throws IOException {
+        Args.notNull(graph, in);
+        if (in.readInt() != MAGIC) {
+            throw new StreamCorruptedException("Not a serialized graph");
+        }
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new StreamCorruptedException("Unsupported version: " + version);
+        }
+        int nodeCount = readVarInt(in);
+        int edgeCount = readVarInt(in);
+        if (nodeCount < 0 || edgeCount < 0) {
+            throw new StreamCorruptedException("Negative element count");
+        }
+
+        Node[] nodes = new Node[nodeCount];
+        for (int offset = 0; offset < nodeCount; offset += BATCH) {
+            Node[] created = graph.newNodes(Math.min(BATCH, nodeCount - offset));
+            System.arraycopy(created, 0, nodes, offset, created.length);
+            for (Node node : created) {
+                nodeCodec.read(node, in);
+            }
+        }
+
+        Node[] sources = new Node[Math.min(BATCH, edgeCount)];
+        Node[] targets = new Node[sources.length];
+        int previous = 0;
+        for (int offset = 0; offset < edgeCount; offset += BATCH) {
+            int count = Math.min(BATCH, edgeCount - offset);
+            if (count < sources.length) {
+                sources = Arrays.copyOf(sources, count);
+                targets = Arrays.copyOf(targets, count);
+            }
+            for (int i = 0; i < count; i++) {
+                int source = previous + unZigZag(readVarInt(in));
+                int target = source + unZigZag(readVarInt(in));
+                if (source < 0 || source >= nodeCount || target < 0 || target >= nodeCount) {
+                    throw new StreamCorruptedException("Edge refers to an unknown node");
+                }
+                sources[i] = nodes[source];
+                targets[i] = nodes[target];
+                previous = source;
+            }
+            for (Edge edge : graph.newEdges(sources, targets)) {
+                edgeCodec.read(edge, in);
+            }
+        }
+    }
+
+    private static NodeIds nodeIds(InspectableGraph graph) {
+        if (graph instanceof IndexedInspectableGraph) {
+            final IndexedInspectableGraph indexed = (IndexedInspectableGraph)graph;
+            final int[] ids = new int[indexed.nodeIndexCapacity()];
+            return new NodeIds() {
+                void put(Node node, int id) {
+                    ids[indexed.indexOf(node)] = id;
+                }
+
+                int get(Node node) {
+                    return ids[indexed.indexOf(node)];
+                }
+            };
+        }
+        final IdentityIntMap<Node> ids = new IdentityIntMap<Node>(graph.nodeCount());
+        return new NodeIds() {
+            void put(Node node, int id) {
+                ids.put(node, id);
+            }
+
+            int get(Node node) {
+                return ids.get(node);
+            }
+        };
+    }
+
+    private static abstract class NodeIds {
+        abstract void put(Node node, int id);
+        abstract int get(Node node);
+    }
+
+    private static int zigZag(int v) {
+        return (v << 1) ^ (v >> 31);
+    }
+
+    private static int unZigZag(int v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    static void writeVarInt(int value, DataOutput out) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("Malformed varint");
+    }
+
+    static void writeVarLong(long value, DataOutput out) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int)(value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int)value);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = in.readByte();
+            value |= (long)(b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("Malformed varint");
+    }
+}
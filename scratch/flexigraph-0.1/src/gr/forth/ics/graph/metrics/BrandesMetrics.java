@@ -4,6 +4,7 @@ import gr.forth.ics.graph.Direction;
 import gr.forth.ics.graph.Edge;
 import gr.forth.ics.graph.InspectableGraph;
 import gr.forth.ics.graph.Node;
+import gr.forth.ics.graph.NodeCursor;
 import gr.forth.ics.graph.Filters;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -52,6 +53,7 @@ public class BrandesMetrics {
         final Object ecc = new Object();
         
         final Direction dir = isDirected ? Direction.OUT : Direction.EITHER;
+        final NodeCursor cursor = graph.nodeCursor();
         for (Node n : graph.nodes()) {
             n.putWeakly(cC, 0.0);
             n.putWeakly(cCIn, 0.0);
@@ -79,7 +81,9 @@ public class BrandesMetrics {
             while (!Q.isEmpty()) {
                 Node u = Q.removeFirst();
                 S.addFirst(u);
-                for (Node w : graph.adjacentNodes(u, dir)) {
+                cursor.reset(u, dir);
+                while (cursor.next()) {
+                    Node w = cursor.node();
                     //w found for the first time?
                     int dw = w.getInt(d);
                     int du = u.getInt(d);
@@ -199,8 +203,9 @@ public class BrandesMetrics {
         
         for (Node u : graph.nodes()) {
             double denom = 0.0;
-            for(Node n : graph.adjacentNodes(u)){
-                denom += 1.0 / graph.degree(n);
+            cursor.reset(u, Direction.EITHER);
+            while (cursor.next()) {
+                denom += 1.0 / graph.degree(cursor.node());
             }
             double BC = (1.0 / graph.degree(u)) / denom;
             u.putWeakly(cR, normalizedNodeBetweeness.getValue(u) * BC);
@@ -3,6 +3,8 @@ package gr.forth.ics.graph.metrics;
 import gr.forth.ics.graph.Direction;
 import gr.forth.ics.graph.InspectableGraph;
 import gr.forth.ics.graph.Node;
+import gr.forth.ics.graph.NodeCursor;
+import java.util.ArrayList;
 import java.util.List;
 import gr.forth.ics.util.Args;
 
@@ -24,8 +26,14 @@ public class ClusteringMetrics {
         final Object cc = new Object();
         double temporaryGraphClustering = 0.0;
         final Direction dir = isDirected ? Direction.OUT : Direction.EITHER;
+        final NodeCursor cursor = graph.nodeCursor();
+        final List<Node> neighbors = new ArrayList<Node>();
         for (Node n : graph.nodes()) {
-            List<Node> neighbors = graph.adjacentNodes(n, dir).drainToList();
+            neighbors.clear();
+            cursor.reset(n, dir);
+            while (cursor.next()) {
+                neighbors.add(cursor.node());
+            }
             final int size = neighbors.size();
             final double value;
             if (size > 1) {
@@ -1,9 +1,11 @@
 package gr.forth.ics.graph.path;
 
 import gr.forth.ics.graph.Direction;
+import gr.forth.ics.graph.Edge;
 import gr.forth.ics.graph.Graphs;
 import gr.forth.ics.graph.InspectableGraph;
-import gr.forth.ics.graph.algo.Dfs;
+import gr.forth.ics.graph.Node;
+import gr.forth.ics.graph.algo.LeanDfs;
 
 /**
  * Utility that finds graph cycles.
@@ -30,7 +32,7 @@ public class Cycles {
         return dfs.getCycle();
     }
     
-    private static class CycleFinderDfs extends Dfs {
+    private static class CycleFinderDfs extends LeanDfs {
         private Path cycle;
 
         CycleFinderDfs(InspectableGraph g) {
@@ -45,8 +47,8 @@ public class Cycles {
             return cycle != null;
         }
 
-        @Override public boolean visitBackEdge(Path path) {
-            cycle = path.tailPath(path.size() - path.find(path.tailNode().asPath()));
+        @Override public boolean visitBackEdge(Edge edge, Node from, Node to) {
+            cycle = getCycle(edge, from);
             return true;
         }
     }
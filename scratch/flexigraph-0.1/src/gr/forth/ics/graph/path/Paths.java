@@ -3,6 +3,7 @@ package gr.forth.ics.graph.path;
 import gr.forth.ics.graph.Direction;
 import gr.forth.ics.graph.InspectableGraph;
 import gr.forth.ics.graph.Node;
+import gr.forth.ics.graph.algo.DirectionOptimizingBfs;
 import java.util.LinkedList;
 import java.util.ListIterator;
 
@@ -61,4 +62,21 @@ public class Paths {
         }
         return null;
     }
+
+    /**
+     * Finds a shortest directed path from a node to another, in a given graph. Unlike
+     * {@link #findPath(InspectableGraph, Node, Node, Direction)}, which stops as soon as a depth-first traversal
+     * reaches the target, this allocates state for every node of the graph before searching.
+     * 
+     * @param graph the graph into which the path is to be searched
+     * @param start the node to start from
+     * @param target the node to find
+     * @param the allowable direction of edges to follow while searching for a path
+     * @return a path with the fewest edges from {@literal start} node to {@literal target} node, or {@literal null}
+     *              if no such path exists
+     * @see DirectionOptimizingBfs#findPath(InspectableGraph, Node, Node, Direction)
+     */
+    public static Path findShortestPath(InspectableGraph graph, Node start, Node target, Direction direction) {
+        return DirectionOptimizingBfs.findPath(graph, start, target, direction);
+    }
 }
@@ -0,0 +1,147 @@
+package gr.forth.ics.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free disjoint-set data structure over the integers {@code 0..size()-1}, which can be shared by
+ * threads, e.g. to merge the endpoints of the edges of a graph in parallel. It follows Anderson and Woll:
+ * the parent and the rank of each element are packed into a single {@code long}, updated by
+ * compare-and-set. {@link #find(int)} halves paths as it goes and is wait-free; a failed
+ * compare-and-set there only means that another thread already shortened the path.
+ * {@link #union(int, int)} links a root below another root with a compare-and-set that expects the
+ * former to still be a root of the same rank, and retries otherwise. Roots are ordered by (rank, element),
+ * and only ever linked below greater roots, so concurrent unions never form a cycle.
+ *
+ * <p>Every operation is linearizable. In particular, once a {@code union(a, b)} returns, {@code a} and
+ * {@code b} are in the same set for every thread. The number of elements is fixed.
+ *
+ * @author Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
+ * @see IntUnionFind
+ * @see <a href="http://en.wikipedia.org/wiki/Disjoint-set_data_structure">
+ * Disjoint-set data structure article on Wikipedia</a>
+ */
+public class ConcurrentIntUnionFind {
+    private static final long PARENT_MASK = 0xFFFFFFFFL;
+
+    //high 32 bits: rank, low 32 bits: parent
+    private final AtomicLongArray entries;
+
+    /**
+     * Creates a union-find of the specified number of singleton sets.
+     *
+     * @param size the number of elements
+     */
+    public ConcurrentIntUnionFind(int size) {
+        Args.gte(size, 0);
+        entries = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            entries.set(i, i);
+        }
+    }
+
+    private static int parent(long entry) {
+        return (int)(entry & PARENT_MASK);
+    }
+
+    private static int rank(long entry) {
+        return (int)(entry >>> 32);
+    }
+
+    private static long entry(int rank, int parent) {
+        return ((long)rank << 32) | (parent & PARENT_MASK);
+    }
+
+    /**
+     * Returns the number of elements.
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return entries.length();
+    }
+
+    /**
+     * Returns the current representative of the set that contains the specified element. The
+     * representative of a set only changes when the set is merged with another.
+     *
+     * @param element an element
+     * @return the representative of the set of the element
+     * @throws IllegalArgumentException if the element is not in {@code 0..size()-1}
+     */
+    public int find(int element) {
+        Args.inRangeIE(element, 0, entries.length());
+        while (true) {
+            long entry = entries.get(element);
+            int parent = parent(entry);
+            if (parent == element) {
+                return element;
+            }
+            int grandParent = parent(entries.get(parent));
+            if (grandParent != parent) {
+                //path halving; the rank of a non-root does not matter any more
+                entries.compareAndSet(element, entry, entry(rank(entry), grandParent));
+            }
+            element = grandParent;
+        }
+    }
+
+    /**
+     * Merges the sets of the specified elements.
+     *
+     * @param element1 the first element
+     * @param element2 the second element
+     * @return whether this call merged two different sets, i.e. false if the elements were already in the
+     *      same set
+     * @throws IllegalArgumentException if an element is not in {@code 0..size()-1}
+     */
+    public boolean union(int element1, int element2) {
+        while (true) {
+            int root1 = find(element1);
+            int root2 = find(element2);
+            if (root1 == root2) {
+                return false;
+            }
+            long entry1 = entries.get(root1);
+            long entry2 = entries.get(root2);
+            if (parent(entry1) != root1 || parent(entry2) != root2) {
+                continue; //one of them was linked meanwhile
+            }
+            int rank1 = rank(entry1);
+            int rank2 = rank(entry2);
+            if (rank1 > rank2 || (rank1 == rank2 && root1 > root2)) {
+                int swap = root1; root1 = root2; root2 = swap;
+                long swapEntry = entry1; entry1 = entry2; entry2 = swapEntry;
+                swap = rank1; rank1 = rank2; rank2 = swap;
+            }
+            //(rank1, root1) < (rank2, root2): link root1 below root2
+            if (entries.compareAndSet(root1, entry1, entry(rank1, root2))) {
+                if (rank1 == rank2) {
+                    //may fail if root2 was linked or promoted meanwhile, which is harmless
+                    entries.compareAndSet(root2, entry2, entry(rank2 + 1, root2));
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Checks whether the specified elements belong to the same set.
+     *
+     * @param element1 the first element
+     * @param element2 the second element
+     * @return whether the two elements belong to the same set
+     */
+    public boolean areMerged(int element1, int element2) {
+        while (true) {
+            int root1 = find(element1);
+            int root2 = find(element2);
+            if (root1 == root2) {
+                return true;
+            }
+            //if root1 is still a root, the sets were disjoint when root2 was found
+            if (parent(entries.get(root1)) == root1) {
+                return false;
+            }
+        }
+    }
+}
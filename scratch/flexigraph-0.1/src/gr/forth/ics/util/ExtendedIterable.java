@@ -1,6 +1,8 @@
 package gr.forth.ics.util;
 
 import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class ExtendedIterable<E> implements Iterable<E> {
     private final Iterable<E> iter;
@@ -17,6 +19,11 @@ public class ExtendedIterable<E> implements Iterable<E> {
             public Iterator<E> iterator() {
                 return ExtendedIterable.this.iterator();
             }
+            
+            @Override
+            public Spliterator<E> spliterator() {
+                return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED);
+            }
         };
         this.expectedSize = expectedSize;
     }
@@ -57,6 +64,44 @@ public class ExtendedIterable<E> implements Iterable<E> {
         };
     }
     
+    /**
+     * Returns a spliterator over the elements of this ExtendedIterable. If no filters have been
+     * added, this is the spliterator of the underlying structure (see {@link #spliteratorImpl()}),
+     * otherwise it is of unknown size and splits by copying batches of the accepted elements.
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        if (filters == null || filters.isEmpty()) {
+            return spliteratorImpl();
+        }
+        return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED);
+    }
+    
+    /**
+     * Returns a spliterator over the (unfiltered) elements. Subclasses over structures that can be split
+     * and sized cheaply, such as arrays or linked chunks, should override this. By default, it is the
+     * spliterator of the wrapped Iterable, or if there is none, a spliterator built on the iterator,
+     * which is of unknown size and splits by copying batches of elements to arrays.
+     */
+    protected Spliterator<E> spliteratorImpl() {
+        return iter.spliterator();
+    }
+    
+    /**
+     * Returns a sequential stream over the elements of this ExtendedIterable.
+     */
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+    
+    /**
+     * Returns a parallel stream over the elements of this ExtendedIterable. The elements must not be
+     * added or removed while the stream is used.
+     */
+    public Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+    
     public Collection<E> drainTo(Collection<E> col) {
         Args.notNull(col);
         for (E e : this) {
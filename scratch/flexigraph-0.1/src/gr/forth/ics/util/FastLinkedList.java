@@ -2,11 +2,12 @@ package gr.forth.ics.util;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.function.Consumer;
 
 
 /**
  * A linked list that also provides pointers to list nodes, making it possible for
- * several operations to be of constant time instead of linear. 
+ * several operations to be of constant time instead of linear.
  * <p>
  * For example, consider a list containing arbitrary <tt>Node</tt>s:
  * <pre>
@@ -39,39 +40,52 @@ import java.util.*;
  * This implementation allows structural modifications while iterations are in progress, without
  * throwing <tt>ConcurrentModificationException</tt>.
  * <p>
- * 
+ * The list is unrolled: the elements and their accessors are kept in small arrays (chunks) that are
+ * linked together, and each element is represented by a single object, its accessor. Insertions and
+ * removals shift at most a chunk's worth of elements, so they still take constant time, while iterating
+ * and indexing skip along arrays instead of chasing a pointer per element.
+ *
  * @param <E> the type of the elements contained in the list
  * @see Accessor
  * @author Dimitris Andreou
  */
 public class FastLinkedList<E> extends AbstractSequentialList<E> implements Serializable {
-    private static final long serialVersionUID = -5460960741591122089L;
-    
+    private static final long serialVersionUID = -2870435315488622532L;
+
+    private static final int MIN_CHUNK = 2;
+    private static final int MAX_CHUNK = 32;
+
     /**
      * The number of this list's elements.
      */
     private int size;
-    
+
     /**
-     * The head of this list, or null if empty.
+     * The first chunk of this list, or null if empty. Chunks are never empty.
      */
-    private ListCell<E> head;
-    
+    private Chunk<E> head;
+
     /**
-     * The tail of this list, or null if empty.
+     * The last chunk of this list, or null if empty.
      */
-    private ListCell<E> tail;
-    
+    private Chunk<E> tail;
+
     /**
      * Represents whether this list is appended to another one
      */
     private boolean consumed;
-    
+
+    /**
+     * Identifies this list to its chunks. When this list is appended to another, its owner is
+     * forwarded to the owner of the other one, so chunks need not be updated.
+     */
+    private Owner<E> owner = new Owner<E>(this);
+
     /**
      * Creates a new FastLinkedList.
      */
     public FastLinkedList() { }
-    
+
     /**
      * Creates a new FastLinkedList by copying all provided elements to it.
      */
@@ -81,7 +95,7 @@ public class FastLinkedList<E> extends AbstractSequentialList<E> implements Seri
             addLast(e);
         }
     }
-    
+
     /**
      * Returns whether this list has been {@link #append(FastLinkedList) appended}
      * to another one. If this is the case, then this list will always be empty, and throw
@@ -91,7 +105,7 @@ public class FastLinkedList<E> extends AbstractSequentialList<E> implements Seri
     public boolean isConsumed() {
         return consumed;
     }
-    
+
     /**
      * {@inheritDoc}
      */
@@ -100,55 +114,55 @@ public class FastLinkedList<E> extends AbstractSequentialList<E> implements Seri
         addLast(element);
         return true;
     }
-    
+
     private void markConsumed() {
         consumed = true;
         size = 0;
         head = tail = null;
+        owner = new Owner<E>(this);
     }
-    
+
     /**
      * {@inheritDoc}
      */
     public int size() {
         return size;
     }
-    
+
     /**
      * Returns the first element in this list.
      * @throws NoSuchElementException if this list is empty
      */
     public E getFirst() {
         checkExisting(head);
-        return head.value;
+        return head.element(0);
     }
-    
+
     /**
      * Returns the last element in this list.
      * @throws NoSuchElementException if this list is empty
      */
     public E getLast() {
         checkExisting(tail);
-        return tail.value;
+        return tail.element(tail.used - 1);
     }
-    
-    private void checkExisting(ListCell<E> cell) {
-        if (cell == null) {
+
+    private void checkExisting(Chunk<E> chunk) {
+        if (chunk == null) {
             throw new NoSuchElementException();
         }
     }
-    
+
     private AccessorImpl<E> checkOwnedAccessor(Accessor<E> accessor) {
         if (accessor == null) {
             throw new IllegalArgumentException("Null accessor");
         }
-        AccessorImpl<E> accessorImpl = (AccessorImpl<E>)accessor;
-        if (!accessorImpl.belongsTo(this)) {
+        if (!ownsAccessor(accessor)) {
             throw new IllegalArgumentException("This accessor does not belong to this list");
         }
-        return accessorImpl;
+        return (AccessorImpl<E>)accessor;
     }
-    
+
     /**
      * Inserts the given element at the beginning of this list.
      * @param value the element to be inserted at the beginning of this list
@@ -156,19 +170,9 @@ public class FastLinkedList<E> extends AbstractSequentialList<E> implements Seri
      */
     public Accessor<E> addFirst(E value) {
         checkNotConsumed();
-        size++;
-        ListCell<E> cell = new ListCell<E>(value);
-        cell.next = head;
-        if (head != null) {
-            head.prev = cell;
-        }
-        head = cell;
-        if (tail == null) {
-            tail = cell;
-        }
-        return new AccessorImpl<E>(cell, this);
+        return linkFirst(new AccessorImpl<E>(), value);
     }
-    
+
     /**
      * Appends the given element to the end of this list.
      * @param value the element to be inserted at the beginning of this list
@@ -176,55 +180,161 @@ public class FastLinkedList<E> extends AbstractSequentialList<E> implements Seri
      */
     public Accessor<E> addLast(E value) {
         checkNotConsumed();
-        size++;
-        ListCell<E> newCell = new ListCell<E>(value);
-        newCell.prev = tail;
-        if (tail != null) {
-            tail.next = newCell;
-        }
-        tail = newCell;
+        return linkLast(new AccessorImpl<E>(), value);
+    }
+
+    private AccessorImpl<E> linkFirst(AccessorImpl<E> accessor, Object value) {
         if (head == null) {
-            head = newCell;
+            head = tail = new Chunk<E>(owner, MIN_CHUNK);
         }
-        return new AccessorImpl<E>(newCell, this);
+        insert(head, 0, accessor, value);
+        return accessor;
     }
-    
-    private Accessor<E> addAfter(AccessorImpl<E> previous, E value) {
-        checkNotConsumed();
-        size++;
-        ListCell<E> previousCell = previous.cell;
-        ListCell<E> nextCell = previousCell.next; //may be null
-        ListCell<E> newCell = new ListCell<E>(value);
-        
-        previousCell.next = newCell;
-        if (nextCell != null) {
-            nextCell.prev = newCell;
-        }
-        newCell.next = nextCell;
-        newCell.prev = previousCell;
-        if (tail == previousCell) {
-            tail = newCell;
-        }
-        return new AccessorImpl<E>(newCell, this);
-    }
-    
-    private Accessor<E> addBefore(AccessorImpl<E> next, E value) {
-        checkNotConsumed();
+
+    private AccessorImpl<E> linkLast(AccessorImpl<E> accessor, Object value) {
+        if (tail == null) {
+            head = tail = new Chunk<E>(owner, MIN_CHUNK);
+        }
+        insert(tail, tail.used, accessor, value);
+        return accessor;
+    }
+
+    /**
+     * Places the accessor and its element at the specified position of the chunk, shifting the
+     * following ones. A full chunk grows, or overflows to a neighbour, or is split in two.
+     */
+    private void insert(Chunk<E> chunk, int slot, AccessorImpl<E> accessor, Object value) {
+        if (chunk.used == chunk.accessors.length) {
+            if (chunk.accessors.length < MAX_CHUNK) {
+                chunk.grow(Math.min(MAX_CHUNK, 2 * chunk.accessors.length));
+            } else if (slot == chunk.used) {
+                if (chunk.next == null || chunk.next.used == chunk.next.accessors.length) {
+                    linkAfter(chunk, new Chunk<E>(owner, newChunkCapacity()));
+                }
+                chunk = chunk.next;
+                slot = 0;
+            } else if (slot == 0) {
+                if (chunk.prev == null || chunk.prev.used == chunk.prev.accessors.length) {
+                    linkBefore(chunk, new Chunk<E>(owner, newChunkCapacity()));
+                }
+                chunk = chunk.prev;
+                slot = chunk.used;
+            } else {
+                Chunk<E> upper = new Chunk<E>(owner, MAX_CHUNK);
+                linkAfter(chunk, upper);
+                int half = chunk.used / 2;
+                for (int i = half; i < chunk.used; i++) {
+                    upper.append(chunk.accessors[i], chunk.values[i]);
+                    chunk.accessors[i] = null;
+                    chunk.values[i] = null;
+                }
+                chunk.used = half;
+                if (slot > half) {
+                    chunk = upper;
+                    slot -= half;
+                }
+            }
+        }
+        AccessorImpl<E>[] accessors = chunk.accessors;
+        Object[] values = chunk.values;
+        for (int i = chunk.used; i > slot; i--) {
+            accessors[i] = accessors[i - 1];
+            accessors[i].slot = i;
+            values[i] = values[i - 1];
+        }
+        accessors[slot] = accessor;
+        values[slot] = value;
+        accessor.chunk = chunk;
+        accessor.slot = slot;
+        chunk.used++;
         size++;
-        ListCell<E> nextCell = next.cell;
-        ListCell<E> previousCell = nextCell.prev; //may be null
-        ListCell<E> newCell = new ListCell<E>(value);
-        
-        nextCell.prev = newCell;
-        if (previousCell != null) {
-            previousCell.next = newCell;
+    }
+
+    private int newChunkCapacity() {
+        return Math.min(MAX_CHUNK, Math.max(MIN_CHUNK, size));
+    }
+
+    /**
+     * Takes the accessor out of its chunk, without marking it as removed, and returns its element.
+     * Chunks left empty are unlinked, and sparse ones are merged with a neighbour.
+     */
+    private Object detach(AccessorImpl<E> accessor) {
+        Chunk<E> chunk = accessor.chunk;
+        AccessorImpl<E>[] accessors = chunk.accessors;
+        Object[] values = chunk.values;
+        Object value = values[accessor.slot];
+        chunk.used--;
+        for (int i = accessor.slot; i < chunk.used; i++) {
+            accessors[i] = accessors[i + 1];
+            accessors[i].slot = i;
+            values[i] = values[i + 1];
+        }
+        accessors[chunk.used] = null;
+        values[chunk.used] = null;
+        size--;
+        if (chunk.used == 0) {
+            unlink(chunk);
+        } else if (chunk.used <= accessors.length / 4) {
+            Chunk<E> prev = chunk.prev;
+            Chunk<E> next = chunk.next;
+            if (prev != null && prev.used + chunk.used <= prev.accessors.length) {
+                prev.appendAll(chunk);
+                unlink(chunk);
+            } else if (next != null && chunk.used + next.used <= accessors.length) {
+                chunk.appendAll(next);
+                unlink(next);
+            }
+        }
+        return value;
+    }
+
+    private void linkAfter(Chunk<E> chunk, Chunk<E> newChunk) {
+        newChunk.prev = chunk;
+        newChunk.next = chunk.next;
+        if (chunk.next != null) {
+            chunk.next.prev = newChunk;
+        } else {
+            tail = newChunk;
+        }
+        chunk.next = newChunk;
+    }
+
+    private void linkBefore(Chunk<E> chunk, Chunk<E> newChunk) {
+        newChunk.next = chunk;
+        newChunk.prev = chunk.prev;
+        if (chunk.prev != null) {
+            chunk.prev.next = newChunk;
+        } else {
+            head = newChunk;
+        }
+        chunk.prev = newChunk;
+    }
+
+    private void unlink(Chunk<E> chunk) {
+        if (chunk.prev != null) {
+            chunk.prev.next = chunk.next;
+        } else {
+            head = chunk.next;
         }
-        newCell.prev = previousCell;
-        newCell.next = nextCell;
-        if (head == nextCell) {
-            head = newCell;
+        if (chunk.next != null) {
+            chunk.next.prev = chunk.prev;
+        } else {
+            tail = chunk.prev;
         }
-        return new AccessorImpl<E>(newCell, this);
+        chunk.prev = chunk.next = null;
+    }
+
+    /**
+     * Removes the element of the accessor, and marks the accessor as removed. The accessor
+     * remembers the one that followed it, so iterators positioned at it can proceed.
+     */
+    @SuppressWarnings("unchecked")
+    private E remove(AccessorImpl<E> accessor) {
+        AccessorImpl<E> successor = successor(accessor);
+        Object element = detach(accessor);
+        accessor.chunk = null;
+        accessor.forward = successor;
+        return (E)element;
     }
 
     private void checkNotConsumed() {
@@ -232,69 +342,46 @@ public class FastLinkedList<E> extends AbstractSequentialList<E> implements Seri
             throwIllegalStateException();
         }
     }
-    
+
     private static void throwIllegalStateException() {
         throw new IllegalStateException("This list has been appended to " +
                 "another one, and thus has been marked as empty and unmodifiable, and should be thrown away");
     }
-    
+
     /**
      * Removes and returns the first element from this list.
      * @throws NoSuchElementException if this list is empty
      */
     public E removeFirst() {
         checkExisting(head);
-        size--;
-        if (head == tail) {
-            tail = null;
-            try {
-                return head.value;
-            } finally {
-                head = null;
-            }
-        }
-        try {
-            return head.value;
-        } finally {
-            head.next.prev = null;
-            head = head.next;
-        }
+        return remove(head.accessors[0]);
     }
-    
+
     /**
      * Removes and returns the last element from this list.
      * @throws NoSuchElementException if this list is empty
      */
     public E removeLast() {
         checkExisting(tail);
-        size--;
-        if (head == tail) {
-            head = null;
-            try {
-                return tail.value;
-            } finally {
-                tail = null;
-            }
-        }
-        try {
-            return tail.value;
-        } finally {
-            tail.prev.next = null;
-            tail = tail.prev;
-        }
+        return remove(tail.accessors[tail.used - 1]);
     }
-    
+
     /**
      * Appends the elements of a list to this one (in constant time). To preserve
      * consistency, the other list is turned to an empty immutable list, and its {@link #isConsumed()}
      * method will return true. The other list should be thrown away after this operation.
+     * Accessors of the other list are afterwards owned by this one.
      * @param list the list to be appended to this one
      */
     public void append(FastLinkedList<E> list) {
         checkNotConsumed();
+        if (list == this) {
+            throw new IllegalArgumentException("Cannot append a list to itself");
+        }
         if (list.isEmpty()) {
             return;
         }
+        list.owner.forward = owner;
         if (isEmpty()) { //just point to the other list's head and tail
             head = list.head;
             tail = list.tail;
@@ -306,7 +393,7 @@ public class FastLinkedList<E> extends AbstractSequentialList<E> implements Seri
         size += list.size();
         list.markConsumed();
     }
-    
+
     /**
      * Returns whether the given accessor is owned by this list. For this to be true, the
      * accessor must have been created by this list, and its respective element must not
@@ -317,50 +404,75 @@ public class FastLinkedList<E> extends AbstractSequentialList<E> implements Seri
             return false;
         }
         AccessorImpl<E> ref = (AccessorImpl<E>)accessor;
-        return ref.belongsTo(this);
-    }
-    
-    private void removeCell(ListCell<E> cell) {
-        if (cell.prev != null) {
-            cell.prev.next = cell.next;
-        }
-        if (cell.next != null) {
-            cell.next.prev = cell.prev;
-        }
-        if (head == cell) {
-            head = cell.next;
-        }
-        if (tail == cell) {
-            tail = cell.prev;
-        }
-        cell.isDeleted = true;
-        cell.value = null;
-        size--;
+        return ref.chunk != null && ref.chunk.list() == this;
     }
-    
+
     /**
-     * Creates a new {@link Accessor} object that will operate on an element which exists in this list,
-     * or null if the given element is not contained in it. 
+     * Returns the {@link Accessor} of an element which exists in this list,
+     * or null if the given element is not contained in it.
      * @return an Accessor object which will operate on the given element if it is contained
      * in this list, or null otherwise
      */
     public Accessor<E> accessorFor(E element) {
-        ListCell<E> curr = head;
-        while (curr != null) {
-            if (element == null) {
-                if (curr.value == null) {
-                    return new AccessorImpl<E>(curr, this);
-                }
-            } else {
-                if (element.equals(curr.value)) {
-                    return new AccessorImpl<E>(curr, this);
+        for (Chunk<E> chunk = head; chunk != null; chunk = chunk.next) {
+            for (int i = 0; i < chunk.used; i++) {
+                Object value = chunk.values[i];
+                if (element == null ? value == null : element.equals(value)) {
+                    return chunk.accessors[i];
                 }
             }
-            curr = curr.next;
         }
         return null;
     }
-    
+
+    private AccessorImpl<E> accessorAt(int index) {
+        if (index == size) {
+            return null;
+        }
+        if (index <= size / 2) {
+            for (Chunk<E> chunk = head; ; chunk = chunk.next) {
+                if (index < chunk.used) {
+                    return chunk.accessors[index];
+                }
+                index -= chunk.used;
+            }
+        }
+        index = size - index;
+        for (Chunk<E> chunk = tail; ; chunk = chunk.prev) {
+            if (index <= chunk.used) {
+                return chunk.accessors[chunk.used - index];
+            }
+            index -= chunk.used;
+        }
+    }
+
+    private int indexOf(AccessorImpl<E> accessor) {
+        if (accessor == null) {
+            return size;
+        }
+        int index = accessor.slot;
+        for (Chunk<E> chunk = head; chunk != accessor.chunk; chunk = chunk.next) {
+            index += chunk.used;
+        }
+        return index;
+    }
+
+    private static <E> AccessorImpl<E> successor(AccessorImpl<E> accessor) {
+        Chunk<E> chunk = accessor.chunk;
+        if (accessor.slot + 1 < chunk.used) {
+            return chunk.accessors[accessor.slot + 1];
+        }
+        return chunk.next != null ? chunk.next.accessors[0] : null;
+    }
+
+    private static <E> AccessorImpl<E> predecessor(AccessorImpl<E> accessor) {
+        Chunk<E> chunk = accessor.chunk;
+        if (accessor.slot > 0) {
+            return chunk.accessors[accessor.slot - 1];
+        }
+        return chunk.prev != null ? chunk.prev.accessors[chunk.prev.used - 1] : null;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -370,7 +482,165 @@ public class FastLinkedList<E> extends AbstractSequentialList<E> implements Seri
         }
         return new ListIteratorImpl(index);
     }
-    
+
+    /**
+     * Returns a spliterator over the elements of this list, which splits along the chunks of the
+     * list and reports exact sizes ({@code SIZED} and {@code SUBSIZED}). It is bound to the list
+     * when created, and the list must not be structurally modified while it is in use.
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new ChunkSpliterator<E>(head, 0, size);
+    }
+
+    private static class ChunkSpliterator<E> implements Spliterator<E> {
+        private Chunk<E> chunk;
+        private int slot;
+        private int remaining;
+
+        ChunkSpliterator(Chunk<E> chunk, int slot, int remaining) {
+            this.chunk = chunk;
+            this.slot = slot;
+            this.remaining = remaining;
+        }
+
+        public boolean tryAdvance(Consumer<? super E> action) {
+            Args.notNull(action);
+            if (remaining == 0) {
+                return false;
+            }
+            E element = chunk.element(slot);
+            skip(1);
+            action.accept(element);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            Args.notNull(action);
+            Chunk<E> c = chunk;
+            int s = slot;
+            int left = remaining;
+            chunk = null;
+            remaining = 0;
+            while (left > 0) {
+                int end = Math.min(c.used, s + left);
+                left -= end - s;
+                for (; s < end; s++) {
+                    action.accept(c.element(s));
+                }
+                c = c.next;
+                s = 0;
+            }
+        }
+
+        private void skip(int count) {
+            remaining -= count;
+            count += slot;
+            while (chunk != null && count >= chunk.used) {
+                count -= chunk.used;
+                chunk = chunk.next;
+            }
+            slot = count;
+        }
+
+        public Spliterator<E> trySplit() {
+            int half = remaining >>> 1;
+            if (half == 0) {
+                return null;
+            }
+            Spliterator<E> prefix = new ChunkSpliterator<E>(chunk, slot, half);
+            skip(half);
+            return prefix;
+        }
+
+        public long estimateSize() {
+            return remaining;
+        }
+
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED;
+        }
+    }
+
+    /**
+     * A forward-only cursor over the elements of a FastLinkedList, that can be {@link #reset(FastLinkedList) reset}
+     * to any list and reused, so iterating many lists allocates nothing per list. Like iterators, a cursor
+     * tolerates modifications of the list while in progress: removed elements that are not yet visited
+     * are skipped.
+     * <pre>
+     * cursor.reset(list);
+     * while (cursor.next()) {
+     *     E element = cursor.get();
+     * }
+     * </pre>
+     *
+     * @param <E> the type of the elements of the iterated lists
+     */
+    public static final class Cursor<E> {
+        //same scheme as ListIteratorImpl: next is the accessor after the cursor, last seen at chunk[slot]
+        private AccessorImpl<E> next;
+        private Chunk<E> chunk;
+        private int slot;
+        private E current;
+        private boolean positioned;
+
+        /**
+         * Creates a cursor that is positioned at no list; {@link #next()} returns false until it is reset.
+         */
+        public Cursor() { }
+
+        /**
+         * Positions this cursor before the first element of the specified list.
+         */
+        public void reset(FastLinkedList<E> list) {
+            Args.notNull(list);
+            chunk = list.head;
+            slot = 0;
+            next = chunk != null ? chunk.accessors[0] : null;
+            current = null;
+            positioned = false;
+        }
+
+        /**
+         * Advances this cursor to the next element, and returns whether there was one.
+         */
+        public boolean next() {
+            if (chunk == null || slot >= chunk.used || chunk.accessors[slot] != next) {
+                AccessorImpl<E> accessor = next;
+                while (accessor != null && accessor.chunk == null) {
+                    accessor = accessor.forward;
+                }
+                if (accessor == null) {
+                    next = null;
+                    chunk = null;
+                    current = null;
+                    return positioned = false;
+                }
+                chunk = accessor.chunk;
+                slot = accessor.slot;
+            }
+            current = chunk.element(slot);
+            if (++slot == chunk.used) {
+                chunk = chunk.next;
+                slot = 0;
+            }
+            next = chunk != null ? chunk.accessors[slot] : null;
+            return positioned = true;
+        }
+
+        /**
+         * Returns the element that the last call to {@link #next()} advanced to.
+         * @throws NoSuchElementException if the last call to next() returned false, or there was none
+         */
+        public E get() {
+            if (!positioned) {
+                throw new NoSuchElementException();
+            }
+            return current;
+        }
+    }
+
     private static class ConsumedIterator<E> implements ListIterator<E> {
         public void add(E e) {
             throwIllegalStateException();
@@ -408,312 +678,338 @@ public class FastLinkedList<E> extends AbstractSequentialList<E> implements Seri
             throw new NoSuchElementException();
         }
     }
-    
+
     private class ListIteratorImpl implements ListIterator<E> {
-        private ListCell<E> next;
-        private ListCell<E> prev;
-        private ListCell<E> last;
-        private final boolean isIndexValid;
+        //the accessor after the cursor, or null at the end of the list. If it is removed, the
+        //cursor is before the accessor that followed it
+        private AccessorImpl<E> next;
+        //where next was last seen; valid while nextChunk.accessors[nextSlot] == next, which lets
+        //iteration walk the chunk arrays without touching the accessors
+        private Chunk<E> nextChunk;
+        private int nextSlot;
+        private AccessorImpl<E> last;
+        private boolean lastByNext;
+        //-1 if not computed yet
         private int index;
-        
+
         ListIteratorImpl(int offset) {
             if (offset < 0 || offset > size) {
                 throw new NoSuchElementException();
             }
-            this.isIndexValid = true;
             index = offset;
-            if (offset <= size / 2) {
-                next = head;
-                while (offset > 0) {
-                    prev = next;
-                    next = next.next;
-                    offset--;
-                }
-            } else {
-                prev = tail;
-                offset = size - offset;
-                while (offset > 0) {
-                    next = prev;
-                    prev = prev.prev;
-                    offset--;
-                }
-            }
+            next = accessorAt(offset);
         }
-        
+
         ListIteratorImpl(Accessor<E> ref) {
             AccessorImpl<E> reference = checkOwnedAccessor(ref);
-            this.last = null;
-            this.prev = reference.cell;
-            this.next = prev.next;
-            isIndexValid = false;
+            next = successor(reference);
+            index = -1;
         }
-        
-        public void add(E obj) {
-            //add between prev and next, next is unaffected, next.previous is the newly added
-            last = null;
-            index++;
-            size++;
-            ListCell<E> newCell = new ListCell<E>(obj);
-            newCell.next = next;
-            newCell.prev = prev;
-            if (prev == null) {
-                head = newCell;
-            } else {
-                prev.next = newCell;
-            }
-            prev = newCell;
-            if (next == null) {
-                tail = newCell;
-            } else {
-                next.prev = newCell;
+
+        private AccessorImpl<E> resolveNext() {
+            AccessorImpl<E> accessor = next;
+            while (accessor != null && accessor.chunk == null) {
+                accessor = accessor.forward;
             }
+            return next = accessor;
         }
-        
-        private void proceedForward() {
-            while (next != null && next.isDeleted) {
-                prev = next;
-                next = next.next;
+
+        private AccessorImpl<E> resolvePrevious() {
+            AccessorImpl<E> accessor = resolveNext();
+            if (accessor == null) {
+                return tail == null ? null : tail.accessors[tail.used - 1];
             }
+            return predecessor(accessor);
         }
-        
-        private void proceedBackward() {
-            while (prev != null && prev.isDeleted) {
-                next = prev;
-                prev = prev.prev;
+
+        private boolean atNext() {
+            Chunk<E> chunk = nextChunk;
+            return chunk != null && nextSlot < chunk.used && chunk.accessors[nextSlot] == next;
+        }
+
+        public void add(E obj) {
+            //add between prev and next, next is unaffected, next.previous is the newly added
+            AccessorImpl<E> accessor = resolveNext();
+            AccessorImpl<E> added = new AccessorImpl<E>();
+            if (accessor == null) {
+                linkLast(added, obj);
+            } else {
+                insert(accessor.chunk, accessor.slot, added, obj);
+            }
+            last = null;
+            if (index >= 0) {
+                index++;
             }
         }
-        
+
         public boolean hasNext() {
-            proceedForward();
-            return next != null;
+            return atNext() || resolveNext() != null;
         }
-        
+
         public boolean hasPrevious() {
-            proceedBackward();
-            return prev != null;
+            return resolvePrevious() != null;
         }
-        
+
         public E next() {
-            if (!hasNext()) {
-                throw new NoSuchElementException();
+            AccessorImpl<E> accessor = next;
+            Chunk<E> chunk = nextChunk;
+            int slot = nextSlot;
+            if (!atNext()) {
+                accessor = resolveNext();
+                if (accessor == null) {
+                    throw new NoSuchElementException();
+                }
+                chunk = accessor.chunk;
+                slot = accessor.slot;
             }
-            try {
-                return next.value;
-            } finally {
+            E element = chunk.element(slot);
+            if (++slot == chunk.used) {
+                chunk = chunk.next;
+                slot = 0;
+            }
+            next = chunk != null ? chunk.accessors[slot] : null;
+            nextChunk = chunk;
+            nextSlot = slot;
+            last = accessor;
+            lastByNext = true;
+            if (index >= 0) {
                 index++;
-                last = next;
-                prev = next;
-                next = next.next;
             }
+            return element;
         }
-        
+
         public int nextIndex() {
+            if (index < 0) {
+                index = indexOf(resolveNext());
+            }
             return index;
         }
-        
+
         public E previous() {
-            if (!hasPrevious()) {
+            AccessorImpl<E> accessor = resolvePrevious();
+            if (accessor == null) {
                 throw new NoSuchElementException();
             }
-            try {
-                return prev.value;
-            } finally {
+            next = accessor;
+            nextChunk = accessor.chunk;
+            nextSlot = accessor.slot;
+            last = accessor;
+            lastByNext = false;
+            if (index >= 0) {
                 index--;
-                last = prev;
-                next = prev;
-                prev = prev.prev;
             }
+            return accessor.chunk.element(accessor.slot);
         }
-        
+
         public int previousIndex() {
-            return index - 1;
+            return nextIndex() - 1;
         }
-        
+
         public void remove() {
-            if (last == null || last.isDeleted) {
+            if (last == null || last.chunk == null) {
                 throw new IllegalStateException();
             }
-            index--;
-            size--;
-            last.isDeleted = true;
-            prev = last.prev;
-            next = last.next;
-            if (prev != null) {
-                prev.next = last.next;
-            } else {
-                head = next;
-            }
-            if (next != null) {
-                next.prev = last.prev;
-            } else {
-                tail = prev;
+            if (lastByNext && index >= 0) {
+                index--;
             }
+            FastLinkedList.this.remove(last);
             last = null;
         }
-        
+
         public void set(E element) {
-            if (last == null) {
+            if (last == null || last.chunk == null) {
                 throw new IllegalStateException();
             }
-            last.value = element;
+            last.chunk.values[last.slot] = element;
         }
     }
 
     private static class AccessorImpl<E> implements Accessor<E>, Serializable {
-        ListCell<E> cell; //not final, for facilitating reordering operations
-        FastLinkedList<E> owner;
+        private static final long serialVersionUID = 1L;
 
-        AccessorImpl(ListCell<E> cell, FastLinkedList<E> owner) {
-            this.cell = cell;
-            this.owner = owner;
-        }
-
-        boolean belongsTo(FastLinkedList seq) {
-            return owner == seq;
-        }
+        //null once removed
+        Chunk<E> chunk;
+        int slot;
+        //once removed, the accessor that followed it at the time (or null)
+        AccessorImpl<E> forward;
 
-        private void checkOwner() {
-            if (owner == null) {
+        private FastLinkedList<E> checkOwner() {
+            if (chunk == null) {
                 throw new NoSuchElementException("this element has been removed");
             }
-        }
-
-        void invalidate() {
-            owner = null;
+            return chunk.list();
         }
 
         @Override
         public String toString() {
-            return cell.toString() + "," + (owner != null ? "valid" : "invalid");
+            return chunk != null ? chunk.values[slot] + ",valid" : "invalid";
         }
 
         public boolean remove() {
-            if (cell.isDeleted) {
+            if (chunk == null) {
                 return false;
             }
-            owner.removeCell(cell);
-            invalidate();
+            chunk.list().remove(this);
             return true;
         }
 
         public E get() {
             checkOwner();
-            return cell.value;
+            return chunk.element(slot);
         }
 
         public FastLinkedList<E> owner() {
-            return owner;
+            return chunk != null ? chunk.list() : null;
         }
 
         public boolean isRemoved() {
-            return cell.isDeleted;
+            return chunk == null;
         }
 
         public E set(E newValue) {
+            checkOwner();
             try {
-                return cell.value;
+                return chunk.element(slot);
             } finally {
-                cell.value = newValue;
+                chunk.values[slot] = newValue;
             }
         }
 
         public Accessor<E> addAfter(E value) {
-            checkOwner();
-            return owner.addAfter(this, value);
+            FastLinkedList<E> owner = checkOwner();
+            AccessorImpl<E> added = new AccessorImpl<E>();
+            owner.insert(chunk, slot + 1, added, value);
+            return added;
         }
 
         public Accessor<E> addBefore(E value) {
-            checkOwner();
-            return owner.addBefore(this, value);
+            FastLinkedList<E> owner = checkOwner();
+            AccessorImpl<E> added = new AccessorImpl<E>();
+            owner.insert(chunk, slot, added, value);
+            return added;
         }
 
         public void moveAfter(Accessor<E> afterWhat) {
-            checkOwner();
+            FastLinkedList<E> owner = checkOwner();
             AccessorImpl<E> r = owner.checkOwnedAccessor(afterWhat);
-            if (r.cell == cell) {
+            if (r == this) {
                 return;
             }
-            E value = cell.value;
-            FastLinkedList<E> owner = this.owner;
-            this.remove();
-            update(r.addAfter(value), owner);
+            Object value = owner.detach(this);
+            owner.insert(r.chunk, r.slot + 1, this, value);
         }
 
         public void moveBefore(Accessor<E> beforeWhat) {
-            checkOwner();
+            FastLinkedList<E> owner = checkOwner();
             AccessorImpl<E> r = owner.checkOwnedAccessor(beforeWhat);
-            if (r.cell == cell) {
+            if (r == this) {
                 return;
             }
-            E value = cell.value;
-            FastLinkedList<E> owner = this.owner;
-            this.remove();
-            update(r.addBefore(value), owner);
+            Object value = owner.detach(this);
+            owner.insert(r.chunk, r.slot, this, value);
         }
 
         public void moveToBack() {
-            checkOwner();
-            E value = cell.value;
-            FastLinkedList<E> owner = this.owner;
-            this.remove();
-            update(owner.addLast(value), owner);
+            FastLinkedList<E> owner = checkOwner();
+            owner.linkLast(this, owner.detach(this));
         }
 
         public void moveToFront() {
-            checkOwner();
-            E value = cell.value;
-            FastLinkedList<E> owner = this.owner;
-            this.remove();
-            update(owner.addFirst(value), owner);
+            FastLinkedList<E> owner = checkOwner();
+            owner.linkFirst(this, owner.detach(this));
         }
-        
+
         public Accessor<E> next() {
             checkOwner();
-            if (cell.next == null) {
+            AccessorImpl<E> next = FastLinkedList.successor(this);
+            if (next == null) {
                 throw new NoSuchElementException();
             }
-            return new AccessorImpl<E>(cell.next, owner);
+            return next;
         }
 
         public Accessor<E> previous() {
             checkOwner();
-            if (cell.prev == null) {
+            AccessorImpl<E> previous = FastLinkedList.predecessor(this);
+            if (previous == null) {
                 throw new NoSuchElementException();
             }
-            return new AccessorImpl<E>(cell.prev, owner);
+            return previous;
         }
 
         public ListIterator<E> listIterator() {
-            checkOwner();
-            return owner.new ListIteratorImpl(this);
+            return checkOwner().new ListIteratorImpl(this);
         }
-        
-        private void update(Accessor<E> valid, FastLinkedList<E> owner) {
-            update((AccessorImpl<E>)valid, owner);
-        }
-        
-        private void update(AccessorImpl<E> copyFrom, FastLinkedList<E> owner) {
+    }
+
+    private static class Chunk<E> implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        //slots [0, used) are occupied; values[i] is the element of accessors[i]
+        AccessorImpl<E>[] accessors;
+        Object[] values;
+        int used;
+        Chunk<E> prev;
+        Chunk<E> next;
+        Owner<E> owner;
+
+        Chunk(Owner<E> owner, int capacity) {
             this.owner = owner;
-            this.cell = copyFrom.cell;
+            accessors = newAccessors(capacity);
+            values = new Object[capacity];
         }
-    }
 
-    private static class ListCell<E> implements Serializable {
-        boolean isDeleted;
-        ListCell<E> prev;
-        ListCell<E> next;
-        E value;
+        @SuppressWarnings("unchecked")
+        private static <E> AccessorImpl<E>[] newAccessors(int capacity) {
+            return (AccessorImpl<E>[])new AccessorImpl<?>[capacity];
+        }
 
-        ListCell(E value) {
-            this.value = value;
+        @SuppressWarnings("unchecked")
+        E element(int slot) {
+            return (E)values[slot];
         }
 
-        public String toString() {
-            return (prev == null ? "null" : prev.value.toString())
-            + "<--"
-                    + (value == null ? "null" : value.toString())
-                    + "-->"
-                    + (next == null ? "null" : next.value.toString());
+        void grow(int capacity) {
+            accessors = Arrays.copyOf(accessors, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        FastLinkedList<E> list() {
+            Owner<E> o = owner;
+            if (o.forward != null) {
+                do {
+                    o = o.forward;
+                } while (o.forward != null);
+                owner = o;
+            }
+            return o.list;
+        }
+
+        void append(AccessorImpl<E> accessor, Object value) {
+            accessors[used] = accessor;
+            values[used] = value;
+            accessor.chunk = this;
+            accessor.slot = used++;
+        }
+
+        void appendAll(Chunk<E> other) {
+            for (int i = 0; i < other.used; i++) {
+                append(other.accessors[i], other.values[i]);
+                other.accessors[i] = null;
+                other.values[i] = null;
+            }
+            other.used = 0;
+        }
+    }
+
+    private static class Owner<E> implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        final FastLinkedList<E> list;
+        Owner<E> forward;
+
+        Owner(FastLinkedList<E> list) {
+            this.list = list;
         }
     }
 }
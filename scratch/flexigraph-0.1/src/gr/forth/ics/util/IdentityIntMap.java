@@ -0,0 +1,148 @@
+package gr.forth.ics.util;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+/**
+ * A map from objects (compared by identity) to non-negative int values, implemented with
+ * open addressing over plain arrays, so that lookups neither box nor allocate. Intended
+ * for assigning dense indexes to elements, e.g. to map nodes to array positions.
+ *
+ * @author Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
+ */
+public class IdentityIntMap<K> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    //identity hash codes do not survive serialization, so the table is rebuilt on reading
+    private transient Object[] keys;
+    private transient int[] values;
+    private transient int size;
+    private transient int threshold;
+
+    public IdentityIntMap() {
+        this(16);
+    }
+
+    public IdentityIntMap(int expectedSize) {
+        Args.gte(expectedSize, 0);
+        int capacity = 4;
+        while (capacity * 2 < expectedSize * 3) {
+            capacity <<= 1;
+        }
+        init(capacity);
+    }
+
+    private void init(int capacity) {
+        keys = new Object[capacity];
+        values = new int[capacity];
+        threshold = capacity / 3 * 2;
+    }
+
+    private static int indexFor(Object key, int mask) {
+        int h = System.identityHashCode(key);
+        //spread the bits a little, identity hashes tend to be clustered
+        h ^= (h >>> 16);
+        h *= 0x85ebca6b;
+        h ^= (h >>> 13);
+        return h & mask;
+    }
+
+    /**
+     * Associates the specified (non-null) key with the specified non-negative value.
+     * @return the previous value, or -1 if the key was not mapped
+     */
+    public int put(K key, int value) {
+        Args.notNull(key);
+        Args.gte(value, 0);
+        int mask = keys.length - 1;
+        int i = indexFor(key, mask);
+        Object k;
+        while ((k = keys[i]) != null) {
+            if (k == key) {
+                int old = values[i];
+                values[i] = value;
+                return old;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > threshold) {
+            resize();
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the value mapped to the specified key, or -1 if there is no such mapping.
+     */
+    public int get(Object key) {
+        if (key == null) {
+            return -1;
+        }
+        final Object[] keys = this.keys;
+        int mask = keys.length - 1;
+        int i = indexFor(key, mask);
+        Object k;
+        while ((k = keys[i]) != null) {
+            if (k == key) {
+                return values[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    public boolean containsKey(Object key) {
+        return get(key) >= 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void resize() {
+        Object[] oldKeys = keys;
+        int[] oldValues = values;
+        init(oldKeys.length * 2);
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            Object key = oldKeys[j];
+            if (key != null) {
+                int i = indexFor(key, mask);
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                out.writeObject(keys[i]);
+                out.writeInt(values[i]);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int count = in.readInt();
+        int capacity = 4;
+        while (capacity * 2 < count * 3) {
+            capacity <<= 1;
+        }
+        init(capacity);
+        for (int i = 0; i < count; i++) {
+            put((K)in.readObject(), in.readInt());
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package gr.forth.ics.util;
+
+import java.util.Arrays;
+
+/**
+ * A disjoint-set data structure over the integers {@code 0..size()-1}, with union by rank and path
+ * compression. Unlike {@link Partition}, which allocates an object per element, the forest is kept in an
+ * {@code int[]} of parents and a {@code byte[]} of ranks, so the elements are meant to be the indexes of
+ * something else (e.g. the indexes of the nodes of an {@link gr.forth.ics.graph.IndexedInspectableGraph}).
+ *
+ * <p>Each element is initially a singleton set. New singletons can be appended by {@link #add()}.
+ *
+ * <p>This class is not thread-safe; see {@link ConcurrentIntUnionFind} for a variant that can be shared by
+ * threads.
+ *
+ * @author Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
+ * @see Partition
+ * @see <a href="http://en.wikipedia.org/wiki/Disjoint-set_data_structure">
+ * Disjoint-set data structure article on Wikipedia</a>
+ */
+public class IntUnionFind {
+    private int[] parents;
+    private byte[] ranks;
+    private int size;
+    private int setCount;
+
+    /**
+     * Creates a union-find of the specified number of singleton sets.
+     *
+     * @param size the number of elements
+     */
+    public IntUnionFind(int size) {
+        Args.gte(size, 0);
+        this.parents = new int[Math.max(size, 4)];
+        this.ranks = new byte[parents.length];
+        for (int i = 0; i < size; i++) {
+            parents[i] = i;
+        }
+        this.size = size;
+        this.setCount = size;
+    }
+
+    /**
+     * Returns the number of elements.
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of disjoint sets.
+     *
+     * @return the number of disjoint sets
+     */
+    public int setCount() {
+        return setCount;
+    }
+
+    /**
+     * Appends a new element, in a singleton set.
+     *
+     * @return the new element, which equals the previous {@link #size()}
+     */
+    public int add() {
+        if (size == parents.length) {
+            parents = Arrays.copyOf(parents, size * 2);
+            ranks = Arrays.copyOf(ranks, size * 2);
+        }
+        parents[size] = size;
+        setCount++;
+        return size++;
+    }
+
+    /**
+     * Returns the representative of the set that contains the specified element. Two elements belong
+     * to the same set if and only if they have the same representative.
+     *
+     * @param element an element
+     * @return the representative of the set of the element
+     * @throws IllegalArgumentException if the element is not in {@code 0..size()-1}
+     */
+    public int find(int element) {
+        Args.inRangeIE(element, 0, size);
+        int root = element;
+        while (parents[root] != root) {
+            root = parents[root];
+        }
+        while (element != root) {
+            int next = parents[element];
+            parents[element] = root;
+            element = next;
+        }
+        return root;
+    }
+
+    /**
+     * Merges the sets of the specified elements.
+     *
+     * @param element1 the first element
+     * @param element2 the second element
+     * @return the representative of the merged set; it is the former representative of one of the two sets
+     * @throws IllegalArgumentException if an element is not in {@code 0..size()-1}
+     */
+    public int union(int element1, int element2) {
+        int root1 = find(element1);
+        int root2 = find(element2);
+        if (root1 == root2) {
+            return root1;
+        }
+        setCount--;
+        if (ranks[root1] < ranks[root2]) {
+            parents[root1] = root2;
+            return root2;
+        } else if (ranks[root1] > ranks[root2]) {
+            parents[root2] = root1;
+            return root1;
+        } else {
+            parents[root2] = root1;
+            ranks[root1]++;
+            return root1;
+        }
+    }
+
+    /**
+     * Checks whether the specified elements belong to the same set.
+     *
+     * <p>Equivalent to {@code find(element1) == find(element2)}.
+     * @param element1 the first element
+     * @param element2 the second element
+     * @return whether the two elements belong to the same set
+     */
+    public boolean areMerged(int element1, int element2) {
+        return find(element1) == find(element2);
+    }
+}
@@ -30,6 +30,8 @@ package gr.forth.ics.util;
  *
  * @param <E> the type of the arbitrary (user-defined) element associated with a partition
  * @author Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
+ * @see IntUnionFind
+ * @see ConcurrentIntUnionFind
  * @see <a href="http://en.wikipedia.org/wiki/Disjoint-set_data_structure">
  * Disjoint-set data structure article on Wikipedia</a>
  */
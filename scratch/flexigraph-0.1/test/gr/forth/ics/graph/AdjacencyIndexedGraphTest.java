@@ -0,0 +1,85 @@
+package gr.forth.ics.graph;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import junit.framework.*;
+
+public class AdjacencyIndexedGraphTest extends GraphTest {
+    
+    public AdjacencyIndexedGraphTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        TestSuite suite = new TestSuite(AdjacencyIndexedGraphTest.class);
+        
+        return suite;
+    }
+
+    protected Graph create() {
+        Graph g = new PrimaryGraph();
+        g.hint(Hint.FAST_ADJACENCY_TEST);
+        return g;
+    }
+
+    protected boolean isPrimary() {
+        return true;
+    }
+    
+    public void testHintAfterEdgesExist() {
+        Graph g = new PrimaryGraph();
+        Node[] n = g.newNodes(3);
+        Edge e = g.newEdge(n[0], n[1]);
+        g.hint(Hint.FAST_ADJACENCY_TEST);
+        assertTrue(g.areAdjacent(n[0], n[1]));
+        assertTrue(g.areAdjacent(n[1], n[0]));
+        assertFalse(g.areAdjacent(n[0], n[1], Direction.IN));
+        assertSame(e, g.anEdge(n[1], n[0], Direction.IN));
+        assertFalse(g.areAdjacent(n[0], n[2]));
+        try {
+            g.anEdge(n[0], n[2]);
+            fail();
+        } catch (java.util.NoSuchElementException ok) { }
+        g.removeEdge(e);
+        assertFalse(g.areAdjacent(n[0], n[1]));
+    }
+    
+    public void testAgreesWithScanning() {
+        Graph indexed = new PrimaryGraph();
+        indexed.hint(Hint.FAST_ADJACENCY_TEST);
+        SecondaryGraph secondary = new SecondaryGraph();
+        secondary.hint(Hint.FAST_ADJACENCY_TEST);
+        for (int i = 0; i < 1500; i++) {
+            RandomMutator.mutate(indexed);
+            secondary.retainGraph(indexed);
+            secondary.adoptGraph(indexed);
+            if (i % 100 != 0) {
+                continue;
+            }
+            List<Node> nodes = indexed.nodes().drainToList();
+            for (Node n1 : nodes) {
+                for (Node n2 : nodes) {
+                    for (Direction direction : Direction.values()) {
+                        Set<Edge> expected = scan(indexed, n1, n2, direction);
+                        assertEquals(expected, new HashSet<Edge>(indexed.edges(n1, n2, direction).drainToList()));
+                        assertEquals(!expected.isEmpty(), indexed.areAdjacent(n1, n2, direction));
+                        expected = scan(secondary, n1, n2, direction);
+                        assertEquals(expected, new HashSet<Edge>(secondary.edges(n1, n2, direction).drainToList()));
+                        assertEquals(!expected.isEmpty(), secondary.areAdjacent(n1, n2, direction));
+                    }
+                }
+            }
+        }
+    }
+    
+    private static Set<Edge> scan(InspectableGraph g, Node n1, Node n2, Direction direction) {
+        Set<Edge> edges = new HashSet<Edge>();
+        for (Edge e : g.edges(n1, direction)) {
+            if (e.opposite(n1) == n2) {
+                edges.add(e);
+            }
+        }
+        return edges;
+    }
+}
@@ -0,0 +1,61 @@
+package gr.forth.ics.graph;
+
+import java.util.Random;
+
+/**
+ * Compares areAdjacent queries with and without {@link Hint#FAST_ADJACENCY_TEST}, on a graph with
+ * some high degree nodes, and reports the memory taken by the adjacency index. Not a unit test;
+ * run its main method.
+ */
+public class AdjacencyTestBenchmark {
+    public static void main(String[] args) {
+        int nodeCount = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int edgeCount = nodeCount * 10;
+        int queries = 2000000;
+        Graph g = new PrimaryGraph();
+        Node[] nodes = g.newNodes(nodeCount);
+        Random random = new Random(0);
+        for (int i = 0; i < edgeCount; i++) {
+            //a fifth of the edges touch one of a hundred hubs
+            Node source = random.nextInt(5) == 0 ? nodes[random.nextInt(100)] : nodes[random.nextInt(nodeCount)];
+            g.newEdge(source, nodes[random.nextInt(nodeCount)]);
+        }
+        Node[] from = new Node[queries];
+        Node[] to = new Node[queries];
+        for (int i = 0; i < queries; i++) {
+            from[i] = nodes[random.nextInt(100)];
+            to[i] = nodes[random.nextInt(nodeCount)];
+        }
+        System.out.printf("scanning: %5d ms%n", run(g, from, to));
+        long before = usedMemory();
+        g.hint(Hint.FAST_ADJACENCY_TEST);
+        g.areAdjacent(nodes[0], nodes[1]); //builds the index
+        long after = usedMemory();
+        System.out.printf("index: %.1f bytes per edge (%d edges)%n", (double)(after - before) / edgeCount, edgeCount);
+        for (int round = 0; round < 3; round++) {
+            System.out.printf("indexed:  %5d ms%n", run(g, from, to));
+        }
+    }
+
+    private static long run(Graph g, Node[] from, Node[] to) {
+        long start = System.nanoTime();
+        int adjacent = 0;
+        for (int i = 0; i < from.length; i++) {
+            if (g.areAdjacent(from[i], to[i])) {
+                adjacent++;
+            }
+        }
+        if (adjacent < 0) {
+            System.out.println();
+        }
+        return (System.nanoTime() - start) / 1000000;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,52 @@
+package gr.forth.ics.graph;
+
+import gr.forth.ics.graph.column.EdgeDoubleColumn;
+import java.util.Random;
+
+/**
+ * Compares loading edges into a {@link PrimaryGraph} one at a time with {@link Graph#newEdges(Node[], Node[])}.
+ * Also measures the same with an {@link EdgeDoubleColumn} attached, i.e. with a (bulk-aware) listener.
+ * Only the latter is expected to differ: batching saves the dispatch of an event per edge, not the linking
+ * of each edge to its nodes.
+ * Not a unit test; run its main method, with a heap large enough for the requested number of edges
+ * (roughly 200 bytes per edge).
+ */
+public class BulkLoadBenchmark {
+    public static void main(String[] args) {
+        int edgeCount = args.length > 0 ? Integer.parseInt(args[0]) : 5000000;
+        int nodeCount = Math.max(1, edgeCount / 10);
+        for (int round = 0; round < 5; round++) {
+            System.out.printf("%d edges: newEdge %5d ms, newEdges %5d ms; with a column: newEdge %5d ms, newEdges %5d ms%n",
+                    edgeCount,
+                    load(nodeCount, edgeCount, false, false), load(nodeCount, edgeCount, true, false),
+                    load(nodeCount, edgeCount, false, true), load(nodeCount, edgeCount, true, true));
+        }
+    }
+
+    private static long load(int nodeCount, int edgeCount, boolean bulk, boolean withColumn) {
+        System.gc();
+        Random random = new Random(0);
+        long start = System.nanoTime();
+        PrimaryGraph g = new PrimaryGraph();
+        EdgeDoubleColumn column = withColumn ? new EdgeDoubleColumn(g) : null;
+        Node[] nodes = g.newNodes(nodeCount);
+        Node[] sources = new Node[edgeCount];
+        Node[] targets = new Node[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            sources[i] = nodes[random.nextInt(nodeCount)];
+            targets[i] = nodes[random.nextInt(nodeCount)];
+        }
+        if (bulk) {
+            g.newEdges(sources, targets);
+        } else {
+            for (int i = 0; i < edgeCount; i++) {
+                g.newEdge(sources[i], targets[i]);
+            }
+        }
+        long elapsed = (System.nanoTime() - start) / 1000000;
+        if (column != null && column.get(g.anEdge()) != 0.0) {
+            System.out.println();
+        }
+        return elapsed;
+    }
+}
@@ -0,0 +1,53 @@
+package gr.forth.ics.graph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the throughput of edge insertions into a {@link ConcurrentPrimaryGraph} by an increasing
+ * number of threads, each inserting edges among random nodes of a shared set. Not a unit test;
+ * run its main method.
+ */
+public class ConcurrentIngestBenchmark {
+    public static void main(String[] args) throws Exception {
+        int nodeCount = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int edgeCount = args.length > 1 ? Integer.parseInt(args[1]) : 2000000;
+        int maxThreads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        for (int round = 0; round < 3; round++) {
+            for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                long time = run(nodeCount, edgeCount, threads);
+                System.out.printf("%2d threads: %5d ms, %6d edges/ms%n", threads, time, edgeCount / Math.max(1, time));
+            }
+        }
+    }
+
+    private static long run(int nodeCount, int edgeCount, int threads) throws Exception {
+        final Graph g = new ConcurrentPrimaryGraph();
+        final Node[] nodes = g.newNodes(nodeCount);
+        final int perThread = edgeCount / threads;
+        List<Thread> workers = new ArrayList<Thread>();
+        for (int t = 0; t < threads; t++) {
+            final Random random = new Random(t);
+            workers.add(new Thread() {
+                public void run() {
+                    for (int i = 0; i < perThread; i++) {
+                        g.newEdge(nodes[random.nextInt(nodes.length)], nodes[random.nextInt(nodes.length)]);
+                    }
+                }
+            });
+        }
+        long start = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long time = (System.nanoTime() - start) / 1000000;
+        if (g.edgeCount() != perThread * threads) {
+            throw new AssertionError();
+        }
+        return time;
+    }
+}
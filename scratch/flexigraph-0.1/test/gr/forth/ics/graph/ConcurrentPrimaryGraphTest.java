@@ -0,0 +1,327 @@
+package gr.forth.ics.graph;
+
+import gr.forth.ics.graph.event.EmptyGraphListener;
+import gr.forth.ics.graph.event.GraphEvent;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import junit.framework.*;
+
+public class ConcurrentPrimaryGraphTest extends GraphTest {
+
+    public ConcurrentPrimaryGraphTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        TestSuite suite = new TestSuite(ConcurrentPrimaryGraphTest.class);
+        return suite;
+    }
+
+    protected Graph create() {
+        return new ConcurrentPrimaryGraph();
+    }
+
+    protected boolean isPrimary() {
+        return true;
+    }
+
+    public void testConcurrentMutation() throws Exception {
+        final ConcurrentPrimaryGraph g = new ConcurrentPrimaryGraph(4);
+        final Node[] shared = g.newNodes(200);
+        final int threads = 4;
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final List<Set<Edge>> alive = new ArrayList<Set<Edge>>();
+        final List<Set<Node>> ownNodes = new ArrayList<Set<Node>>();
+        List<Thread> workers = new ArrayList<Thread>();
+        for (int t = 0; t < threads; t++) {
+            final Set<Edge> edges = new HashSet<Edge>();
+            final Set<Node> nodes = new HashSet<Node>();
+            alive.add(edges);
+            ownNodes.add(nodes);
+            final Random random = new Random(t);
+            Thread worker = new Thread() {
+                public void run() {
+                    try {
+                        start.await();
+                        List<Node> mine = new ArrayList<Node>();
+                        List<Edge> created = new ArrayList<Edge>();
+                        for (int i = 0; i < 30000; i++) {
+                            switch (random.nextInt(8)) {
+                                case 0:
+                                    mine.add(g.newNode());
+                                    break;
+                                case 1: case 2: case 3: case 4: {
+                                    //edges among shared nodes contend with other threads
+                                    Node n1 = shared[random.nextInt(shared.length)];
+                                    Node n2 = mine.isEmpty() || random.nextBoolean() ?
+                                        shared[random.nextInt(shared.length)] : mine.get(random.nextInt(mine.size()));
+                                    created.add(g.newEdge(n1, n2));
+                                    break;
+                                }
+                                case 5: case 6:
+                                    if (!created.isEmpty()) {
+                                        Edge e = created.remove(random.nextInt(created.size()));
+                                        assertEquals(g.containsNode(e.n2()), g.removeEdge(e));
+                                    }
+                                    break;
+                                case 7:
+                                    if (!mine.isEmpty()) {
+                                        assertTrue(g.removeNode(mine.remove(random.nextInt(mine.size()))));
+                                    }
+                                    break;
+                            }
+                        }
+                        for (Edge e : created) {
+                            if (g.containsEdge(e)) {
+                                edges.add(e);
+                            }
+                        }
+                        nodes.addAll(mine);
+                    } catch (Throwable ex) {
+                        failure.compareAndSet(null, ex);
+                    }
+                }
+            };
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+
+        Set<Edge> expectedEdges = new HashSet<Edge>();
+        for (Set<Edge> edges : alive) {
+            expectedEdges.addAll(edges);
+        }
+        Set<Node> expectedNodes = new HashSet<Node>();
+        for (Node n : shared) {
+            expectedNodes.add(n);
+        }
+        for (Set<Node> nodes : ownNodes) {
+            expectedNodes.addAll(nodes);
+        }
+        assertEquals(expectedNodes, new HashSet<Node>(g.nodes().drainToList()));
+        assertEquals(expectedEdges, new HashSet<Edge>(g.edges().drainToList()));
+        assertEquals(expectedNodes.size(), g.nodeCount());
+        assertEquals(expectedEdges.size(), g.edgeCount());
+        int out = 0;
+        int in = 0;
+        for (Node n : g.nodes()) {
+            out += g.outDegree(n);
+            in += g.inDegree(n);
+            for (Edge e : g.edges(n)) {
+                assertTrue(g.containsNode(e.opposite(n)));
+            }
+        }
+        assertEquals(g.edgeCount(), out);
+        assertEquals(g.edgeCount(), in);
+    }
+
+    public void testNodesCannotJoinAnotherPrimaryGraph() {
+        ConcurrentPrimaryGraph g = new ConcurrentPrimaryGraph();
+        Node n = g.newNode();
+        try {
+            new PrimaryGraph().reinsertNode(n);
+            fail();
+        } catch (IllegalArgumentException ok) { }
+        g.removeNode(n);
+        Graph other = new PrimaryGraph();
+        assertTrue(other.reinsertNode(n));
+        try {
+            g.reinsertNode(n);
+            fail();
+        } catch (IllegalArgumentException ok) { }
+    }
+
+    public void testRacingRemovalsNotifyOnce() throws Exception {
+        final ConcurrentPrimaryGraph g = new ConcurrentPrimaryGraph(4);
+        final Node[] nodes = g.newNodes(2000);
+        for (int i = 0; i < nodes.length; i++) {
+            g.newEdge(nodes[i], nodes[(i + 1) % nodes.length]);
+        }
+        //plain sets: the listener is never notified concurrently
+        final Set<Node> removedNodes = new HashSet<Node>();
+        final Set<Edge> removedEdges = new HashSet<Edge>();
+        final AtomicInteger duplicates = new AtomicInteger();
+        g.addGraphListener(new EmptyGraphListener() {
+            @Override public void nodeRemoved(GraphEvent e) {
+                if (!removedNodes.add(e.getNode())) {
+                    duplicates.incrementAndGet();
+                }
+            }
+
+            @Override public void edgeRemoved(GraphEvent e) {
+                if (!removedEdges.add(e.getEdge())) {
+                    duplicates.incrementAndGet();
+                }
+            }
+        });
+        final AtomicInteger removals = new AtomicInteger();
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<Thread>();
+        for (int t = 0; t < 4; t++) {
+            Thread worker = new Thread() {
+                public void run() {
+                    try {
+                        start.await();
+                        for (Node n : nodes) {
+                            if (g.removeNode(n)) {
+                                removals.incrementAndGet();
+                            }
+                        }
+                    } catch (Throwable ex) {
+                        failure.compareAndSet(null, ex);
+                    }
+                }
+            };
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        assertEquals(0, duplicates.get());
+        assertEquals(nodes.length, removals.get());
+        assertEquals(nodes.length, removedNodes.size());
+        assertEquals(nodes.length, removedEdges.size());
+        assertEquals(0, g.nodeCount());
+        assertEquals(0, g.edgeCount());
+    }
+
+    public void testRacingReinsertionsInsertOnce() throws Exception {
+        final ConcurrentPrimaryGraph g = new ConcurrentPrimaryGraph(4);
+        final Node[] nodes = g.newNodes(2000);
+        for (Node n : nodes) {
+            g.removeNode(n);
+        }
+        final AtomicInteger reinsertions = new AtomicInteger();
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<Thread>();
+        for (int t = 0; t < 4; t++) {
+            Thread worker = new Thread() {
+                public void run() {
+                    try {
+                        start.await();
+                        for (Node n : nodes) {
+                            if (g.reinsertNode(n)) {
+                                reinsertions.incrementAndGet();
+                            }
+                        }
+                    } catch (Throwable ex) {
+                        failure.compareAndSet(null, ex);
+                    }
+                }
+            };
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        assertEquals(nodes.length, reinsertions.get());
+        assertEquals(nodes.length, g.nodeCount());
+        assertEquals(nodes.length, g.nodes().size());
+        assertEquals(nodes.length, new HashSet<Node>(g.nodes().drainToList()).size());
+    }
+
+    public void testEdgeToRemovedNodeNotifiesNothing() {
+        Graph g = create();
+        Node n1 = g.newNode();
+        Node n2 = g.newNode();
+        final List<GraphEvent> events = new ArrayList<GraphEvent>();
+        g.addGraphListener(new EmptyGraphListener() {
+            @Override public void edgeToBeAdded(GraphEvent e) {
+                events.add(e);
+            }
+        });
+        g.removeNode(n2);
+        try {
+            g.newEdge(n1, n2);
+            fail();
+        } catch (IllegalArgumentException ok) { }
+        assertTrue(events.isEmpty());
+    }
+
+    //the order manager is not supported
+
+    @Override public void testNodeReordering() {
+        assertNoOrderManager();
+    }
+
+    @Override public void testEdgeReordering() {
+        assertNoOrderManager();
+    }
+
+    @Override public void testNodeReorderingEvent() {
+        assertNoOrderManager();
+    }
+
+    @Override public void testEdgeReorderingEvent() {
+        assertNoOrderManager();
+    }
+
+    @Override public void testReorderIllegalNode() {
+        assertNoOrderManager();
+    }
+
+    @Override public void testReorderIllegalEdge() {
+        assertNoOrderManager();
+    }
+
+    private void assertNoOrderManager() {
+        Graph g = create();
+        g.newNodes(2);
+        try {
+            g.getOrderManager();
+            fail();
+        } catch (UnsupportedOperationException ok) { }
+    }
+
+    //cursors, like iterators, walk a copy of the adjacency taken at reset, so removed edges still appear
+
+    @Override public void testCursorToleratesRemovals() {
+        Graph g = create();
+        Node center = g.newNode();
+        Node[] outer = g.newNodes(10);
+        for (int i = 0; i < outer.length; i++) {
+            g.newEdge(center, outer[i]);
+        }
+        EdgeCursor cursor = g.edgeCursor();
+        cursor.reset(center, Direction.EITHER);
+        int visited = 0;
+        while (cursor.next()) {
+            Edge e = cursor.edge();
+            assertSame(outer[visited++], e.n2());
+            if (visited == 1) {
+                //remove every edge, before the cursor reaches the rest
+                for (Edge removed : g.edges(center)) {
+                    assertTrue(g.removeEdge(removed));
+                }
+            }
+            assertFalse(g.containsEdge(e));
+        }
+        assertEquals(0, g.degree(center));
+        assertEquals(outer.length, visited);
+    }
+}
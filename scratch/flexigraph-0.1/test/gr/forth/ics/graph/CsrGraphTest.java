@@ -0,0 +1,155 @@
+package gr.forth.ics.graph;
+
+import gr.forth.ics.graph.algo.Bfs;
+import gr.forth.ics.graph.algo.Clusterer;
+import gr.forth.ics.graph.algo.Clusterers;
+import gr.forth.ics.graph.algo.Generators;
+import gr.forth.ics.graph.metrics.Metrics;
+import gr.forth.ics.graph.metrics.NodeMetric;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import junit.framework.*;
+
+public class CsrGraphTest extends TestCase {
+
+    public CsrGraphTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        TestSuite suite = new TestSuite(CsrGraphTest.class);
+
+        return suite;
+    }
+
+    private Graph g;
+    private CsrGraph csr;
+
+    protected void setUp() {
+        g = new PrimaryGraph();
+        Generators.createRandom(g, new Random(0), 60, 0.08);
+        Node[] n = g.nodes().drainToList().toArray(new Node[0]);
+        g.newEdge(n[0], n[0]);
+        g.newEdge(n[1], n[2]);
+        g.newEdge(n[1], n[2]);
+        csr = Graphs.freeze(g);
+    }
+
+    public void testSameElements() {
+        assertEquals(g.nodeCount(), csr.nodeCount());
+        assertEquals(g.edgeCount(), csr.edgeCount());
+        assertTrue(Graphs.equalGraphs(g, csr));
+        assertEquals(g.nodes().drainToList(), csr.nodes().drainToList());
+        assertEquals(g.edges().drainToList(), csr.edges().drainToList());
+        assertEquals(g.edges().drainToList(), csr.edges().parallelStream().collect(Collectors.toList()));
+        assertEquals(csr.nodeCount(), csr.nodes().spliterator().getExactSizeIfKnown());
+        assertSame(csr, Graphs.freeze(csr));
+    }
+
+    public void testAdjacency() {
+        for (Node n : g.nodes()) {
+            for (Direction d : Direction.values()) {
+                assertEquals(g.degree(n, d), csr.degree(n, d));
+                assertEquals(new HashSet<Edge>(g.edges(n, d).drainToList()),
+                        new HashSet<Edge>(csr.edges(n, d).drainToList()));
+                assertEquals(g.edges(n, d).drainToList().size(), csr.edges(n, d).drainToList().size());
+                assertEquals(g.adjacentNodes(n, d).drainToList().size(), csr.adjacentNodes(n, d).drainToList().size());
+            }
+            assertEquals(g.edges(n, Direction.OUT).drainToList(), csr.edges(n, Direction.OUT).drainToList());
+            for (Node m : g.nodes()) {
+                for (Direction d : Direction.values()) {
+                    assertEquals(g.areAdjacent(n, m, d), csr.areAdjacent(n, m, d));
+                    assertEquals(g.edges(n, m, d).drainToList().size(), csr.edges(n, m, d).drainToList().size());
+                }
+            }
+        }
+    }
+
+    public void testCursor() {
+        NodeCursor cursor = csr.nodeCursor();
+        for (Node n : g.nodes()) {
+            for (Direction d : Direction.values()) {
+                List<Edge> edges = new ArrayList<Edge>();
+                List<Node> nodes = new ArrayList<Node>();
+                cursor.reset(n, d);
+                while (cursor.next()) {
+                    edges.add(cursor.edge());
+                    nodes.add(cursor.node());
+                }
+                assertEquals(csr.edges(n, d).drainToList(), edges);
+                assertEquals(csr.adjacentNodes(n, d).drainToList(), nodes);
+            }
+        }
+    }
+
+    public void testIndexes() {
+        for (int i = 0; i < csr.nodeCount(); i++) {
+            assertEquals(i, csr.indexOf(csr.nodeAt(i)));
+        }
+        int[] outOffsets = csr.outOffsets();
+        for (int i = 0; i < csr.edgeCount(); i++) {
+            Edge e = csr.edgeAt(i);
+            assertEquals(i, csr.indexOf(e));
+            assertSame(e.n1(), csr.nodeAt(csr.edgeSource(i)));
+            assertSame(e.n2(), csr.nodeAt(csr.edgeTarget(i)));
+            int source = csr.edgeSource(i);
+            assertTrue(outOffsets[source] <= i && i < outOffsets[source + 1]);
+        }
+        int[] inOffsets = csr.inOffsets();
+        for (int n = 0; n < csr.nodeCount(); n++) {
+            for (int i = inOffsets[n]; i < inOffsets[n + 1]; i++) {
+                Edge e = csr.edgeAt(csr.inEdges()[i]);
+                assertSame(csr.nodeAt(n), e.n2());
+                assertSame(csr.nodeAt(csr.inSources()[i]), e.n1());
+            }
+        }
+        assertEquals(-1, csr.indexOf(new PrimaryGraph().newNode()));
+        assertFalse(csr.containsNode(null));
+        assertFalse(csr.containsEdge(null));
+    }
+
+    public void testSnapshotIsIndependent() {
+        Node n = g.aNode();
+        int degree = g.degree(n);
+        g.removeNode(n);
+        assertTrue(csr.containsNode(n));
+        assertEquals(degree, csr.degree(n));
+        try {
+            csr.nodes().iterator().remove();
+            fail();
+        } catch (RuntimeException ok) { }
+    }
+
+    public void testAlgorithms() {
+        Bfs bfs1 = new Bfs(g, g.aNode(), Direction.OUT);
+        bfs1.execute();
+        Bfs bfs2 = new Bfs(csr, g.aNode(), Direction.OUT);
+        bfs2.execute();
+        for (Node n : g.nodes()) {
+            assertEquals(bfs1.getLevel(n), bfs2.getLevel(n));
+        }
+
+        assertEquals(clusters(Clusterers.stronglyConnectedComponents(g)),
+                clusters(Clusterers.stronglyConnectedComponents(csr)));
+        assertEquals(clusters(Clusterers.connectedComponents(g)),
+                clusters(Clusterers.connectedComponents(csr)));
+
+        NodeMetric m1 = Metrics.degreeMetric(g);
+        NodeMetric m2 = Metrics.degreeMetric(csr);
+        for (Node n : g.nodes()) {
+            assertEquals(m1.getValue(n), m2.getValue(n));
+        }
+    }
+
+    private static Set<Set<Node>> clusters(Clusterer clusterer) {
+        Set<Set<Node>> clusters = new HashSet<Set<Node>>();
+        for (Object c : clusterer.getClusters()) {
+            clusters.add(new HashSet<Node>(clusterer.getCluster(c)));
+        }
+        return clusters;
+    }
+}
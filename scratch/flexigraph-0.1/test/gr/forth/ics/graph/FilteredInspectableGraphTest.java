@@ -0,0 +1,122 @@
+package gr.forth.ics.graph;
+
+import gr.forth.ics.graph.event.EmptyGraphListener;
+import gr.forth.ics.graph.event.GraphEvent;
+import gr.forth.ics.util.Filter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import junit.framework.*;
+
+public class FilteredInspectableGraphTest extends TestCase {
+    private Graph g;
+    private Node[] n;
+    private Edge e01, e12, e23, e30, e13;
+    private InspectableGraph view;
+
+    public FilteredInspectableGraphTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        TestSuite suite = new TestSuite(FilteredInspectableGraphTest.class);
+        return suite;
+    }
+
+    @Override
+    protected void setUp() {
+        g = new PrimaryGraph();
+        n = g.newNodes(0, 1, 2, 3);
+        e01 = g.newEdge(n[0], n[1], "a");
+        e12 = g.newEdge(n[1], n[2], "b");
+        e23 = g.newEdge(n[2], n[3], "c");
+        e30 = g.newEdge(n[3], n[0], "d");
+        e13 = g.newEdge(n[1], n[3], "x");
+        //hides node 2 and the edges labeled "x"
+        view = Graphs.filter(g, new Filter<Node>() {
+            public boolean accept(Node node) {
+                return !node.getValue().equals(2);
+            }
+        }, new Filter<Edge>() {
+            public boolean accept(Edge edge) {
+                return !"x".equals(edge.getValue());
+            }
+        });
+    }
+
+    public void testContents() {
+        assertEquals(3, view.nodeCount());
+        assertEquals(2, view.edgeCount());
+        assertEquals(Arrays.asList(n[0], n[1], n[3]), view.nodes().drainToList());
+        assertEquals(Arrays.asList(e01, e30), view.edges().drainToList());
+        assertTrue(view.containsNode(n[1]));
+        assertFalse(view.containsNode(n[2]));
+        assertTrue(view.containsEdge(e01));
+        assertFalse(view.containsEdge(e12));
+        assertFalse(view.containsEdge(e13));
+    }
+
+    public void testAdjacency() {
+        assertEquals(Arrays.asList(e01), view.edges(n[1]).drainToList());
+        assertEquals(Arrays.asList(n[0]), view.adjacentNodes(n[1]).drainToList());
+        assertEquals(1, view.degree(n[1]));
+        assertEquals(0, view.outDegree(n[1]));
+        assertEquals(1, view.inDegree(n[1]));
+        assertEquals(2, view.degree(n[0]));
+        assertTrue(view.edges(n[1], n[3]).drainToList().isEmpty());
+        assertEquals(Arrays.asList(e30), view.edges(n[3], n[0]).drainToList());
+
+        NodeCursor cursor = view.nodeCursor();
+        cursor.reset(n[0], Direction.EITHER);
+        List<Node> adjacent = new ArrayList<Node>();
+        while (cursor.next()) {
+            adjacent.add(cursor.node());
+        }
+        assertEquals(Arrays.asList(n[1], n[3]), adjacent);
+        try {
+            cursor.reset(n[2], Direction.OUT);
+            fail();
+        } catch (IllegalArgumentException ok) { }
+        try {
+            view.edges(n[2], Direction.OUT);
+            fail();
+        } catch (IllegalArgumentException ok) { }
+    }
+
+    public void testReflectsModifications() {
+        assertEquals(2, view.edgeCount());
+        Node n4 = g.newNode(4);
+        g.newEdge(n4, n[0]);
+        g.newEdge(n4, n[2]);
+        assertEquals(4, view.nodeCount());
+        assertEquals(3, view.edgeCount());
+        g.removeNode(n[0]);
+        assertEquals(3, view.nodeCount());
+        assertEquals(0, view.edgeCount());
+        e13.setValue("y");
+        //values are not tracked; a changed predicate is only seen after the next modification
+        g.newNode(5);
+        assertEquals(1, view.edgeCount());
+    }
+
+    public void testEvents() {
+        final List<Object> seen = new ArrayList<Object>();
+        view.addGraphListener(new EmptyGraphListener() {
+            @Override
+            public void nodeAdded(GraphEvent e) {
+                seen.add(e.getData());
+            }
+
+            @Override
+            public void edgeAdded(GraphEvent e) {
+                seen.add(e.getData());
+            }
+        });
+        Node n2 = g.newNode(2);
+        Node n4 = g.newNode(4);
+        g.newEdge(n2, n[0]);
+        g.newEdge(n4, n[0], "x");
+        Edge e = g.newEdge(n4, n[0]);
+        assertEquals(Arrays.asList(n4, e), seen);
+    }
+}
@@ -0,0 +1,123 @@
+package gr.forth.ics.graph;
+
+import gr.forth.ics.graph.algo.Generators;
+import gr.forth.ics.util.Filter;
+import java.util.Map;
+import junit.framework.*;
+
+public class GraphClonerTest extends TestCase {
+
+    public GraphClonerTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        TestSuite suite = new TestSuite(GraphClonerTest.class);
+        return suite;
+    }
+
+    public void testCopy() {
+        Graph g = new PrimaryGraph();
+        Node[] n = g.newNodes("a", "b", "c");
+        n[0].put("weight", 3);
+        Edge e = g.newEdge(n[0], n[1], "ab");
+        g.newEdge(n[2], n[2]);
+
+        GraphCloner cloner = new GraphCloner(true, Direction.EITHER, Direction.OUT);
+        Graph copy = cloner.copy(g, new PrimaryGraph());
+        assertEquals(3, copy.nodeCount());
+        assertEquals(2, copy.edgeCount());
+        Map<Node, Node> nodeMap = cloner.getNodeMap();
+        assertEquals(6, nodeMap.size());
+        Node ca = nodeMap.get(n[0]);
+        assertEquals("a", ca.getValue());
+        assertEquals(3, ca.getInt("weight"));
+        assertSame(n[0], nodeMap.get(ca));
+        Edge ce = cloner.getEdgeMap().get(e);
+        assertEquals("ab", ce.getValue());
+        assertSame(ca, ce.n1());
+        assertEquals(2, cloner.getEdgeMap().size());
+
+        cloner = new GraphCloner(false, null, Direction.IN);
+        copy = cloner.copy(g, new PrimaryGraph());
+        assertNull(cloner.getNodeMap());
+        assertNull(copy.aNode().getValue());
+        assertTrue(cloner.getEdgeMap().containsValue(e));
+    }
+
+    public void testCopyMapped() {
+        Graph g = new PrimaryGraph();
+        Generators.createRandom(g, 50, 0.1);
+        //make the indexes of the source sparse
+        g.removeNode(g.aNode());
+        for (Node n : g.nodes()) {
+            n.setValue(n.toString());
+        }
+        Graph copy = new PrimaryGraph();
+        GraphCloner.GraphMapper mapper = new GraphCloner(true, null, null).copyMapped(g, copy);
+        assertMapped(g, copy, mapper);
+    }
+
+    public void testCopyMappedFromUnindexedGraph() {
+        Graph g = new PrimaryGraph();
+        Generators.createRandom(g, 50, 0.1);
+        InspectableGraph view = Graphs.filter(g, new Filter<Node>() {
+            public boolean accept(Node n) {
+                return n.hashCode() % 3 != 0;
+            }
+        }, new Filter<Edge>() {
+            public boolean accept(Edge e) {
+                return true;
+            }
+        });
+        Graph copy = new PrimaryGraph();
+        GraphCloner.GraphMapper mapper = new GraphCloner(false, null, null).copyMapped(view, copy);
+        assertMapped(view, copy, mapper);
+        for (Node n : g.nodes()) {
+            assertEquals(view.containsNode(n), mapper.nodeId(n) >= 0);
+        }
+    }
+
+    public void testParallelCopy() {
+        Graph g = new PrimaryGraph();
+        Node[] nodes = g.newNodes(20000);
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i].setValue(i);
+            nodes[i].put("square", i * i);
+            g.newEdge(nodes[i], nodes[(i + 1) % nodes.length], -i);
+        }
+        Graph copy = new PrimaryGraph();
+        GraphCloner.GraphMapper mapper = new GraphCloner(true, null, null).copyMapped(g, copy, true);
+        assertMapped(g, copy, mapper);
+        for (int i = 0; i < nodes.length; i++) {
+            Node n = mapper.copyOf(nodes[i]);
+            assertEquals(i, n.getValue());
+            assertEquals(i * i, n.getInt("square"));
+            assertEquals(-i, copy.anEdge(n, Direction.OUT).getValue());
+        }
+    }
+
+    private static void assertMapped(InspectableGraph source, Graph copy, GraphCloner.GraphMapper mapper) {
+        assertEquals(source.nodeCount(), copy.nodeCount());
+        assertEquals(source.edgeCount(), copy.edgeCount());
+        assertEquals(source.nodeCount(), mapper.getNodeMap().size());
+        int id = 0;
+        for (Node n : source.nodes()) {
+            assertEquals(id, mapper.nodeId(n));
+            assertSame(n, mapper.sourceNode(id));
+            Node c = mapper.copyNode(id++);
+            assertSame(c, mapper.copyOf(n));
+            assertSame(c, mapper.getNodeMap().get(n));
+            assertEquals(n.getValue(), c.getValue());
+            assertEquals(source.degree(n), copy.degree(c));
+        }
+        for (Edge e : source.edges()) {
+            Edge c = mapper.copyOf(e);
+            assertSame(c, mapper.getEdgeMap().get(e));
+            assertSame(mapper.copyOf(e.n1()), c.n1());
+            assertSame(mapper.copyOf(e.n2()), c.n2());
+        }
+        assertEquals(-1, mapper.nodeId(copy.aNode()));
+        assertFalse(mapper.getNodeMap().containsKey("not a node"));
+    }
+}
@@ -1,6 +1,8 @@
 package gr.forth.ics.graph;
 
 import gr.forth.ics.graph.Graph.OrderManager;
+import gr.forth.ics.graph.event.BulkEdgeListener;
+import gr.forth.ics.graph.event.BulkNodeListener;
 import gr.forth.ics.graph.event.EdgeListener;
 import gr.forth.ics.graph.event.EmptyGraphListener;
 import gr.forth.ics.graph.event.GraphEvent;
@@ -9,6 +11,8 @@ import gr.forth.ics.graph.event.NodeListener;
 
 import gr.forth.ics.graph.algo.Generators;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 import org.jmock.Mock;
@@ -805,6 +809,88 @@ public abstract class GraphTest extends MockObjectTestCase {
         assertEquals(e.size(), pos);
     }
     
+    public void testCursors() {
+        Graph g = create();
+        Generators.createRandom(g, 40, 0.1);
+        Node[] n = g.newNodes(2);
+        g.newEdge(n[0], n[0]);
+        g.newEdge(n[0], n[1]);
+        g.newEdge(n[0], n[1]);
+        EdgeCursor edgeCursor = g.edgeCursor();
+        NodeCursor nodeCursor = g.nodeCursor();
+        for (Node node : g.nodes()) {
+            for (Direction d : Direction.values()) {
+                List<Edge> edges = new ArrayList<Edge>();
+                edgeCursor.reset(node, d);
+                while (edgeCursor.next()) {
+                    edges.add(edgeCursor.edge());
+                }
+                assertEquals(g.edges(node, d).drainToList(), edges);
+                List<Node> nodes = new ArrayList<Node>();
+                nodeCursor.reset(node, d);
+                while (nodeCursor.next()) {
+                    nodes.add(nodeCursor.node());
+                }
+                assertEquals(g.adjacentNodes(node, d).drainToList(), nodes);
+            }
+        }
+        nodeCursor.reset(n[1], Direction.OUT);
+        assertFalse(nodeCursor.next());
+        try {
+            nodeCursor.edge();
+            fail();
+        } catch (NoSuchElementException ok) { }
+        try {
+            nodeCursor.reset(g.newNode(), null);
+            fail();
+        } catch (RuntimeException ok) { }
+    }
+    
+    public void testStreams() {
+        Graph g = create();
+        Generators.createRandom(g, 300, 0.02);
+        assertEquals(g.nodes().drainToList(), g.nodes().stream().collect(Collectors.toList()));
+        assertEquals(g.nodes().drainToList(), g.nodes().parallelStream().collect(Collectors.toList()));
+        assertEquals(g.edges().drainToList(), g.edges().stream().collect(Collectors.toList()));
+        assertEquals(g.edges().drainToList(), g.edges().parallelStream().collect(Collectors.toList()));
+        assertEquals(g.edgeCount(), g.edges().parallelStream().count());
+        Spliterator<Node> nodes = g.nodes().spliterator();
+        if (nodes.hasCharacteristics(Spliterator.SIZED)) {
+            assertEquals(g.nodeCount(), nodes.getExactSizeIfKnown());
+        }
+        Spliterator<Edge> edges = g.edges().spliterator();
+        if (edges.hasCharacteristics(Spliterator.SIZED)) {
+            assertEquals(g.edgeCount(), edges.getExactSizeIfKnown());
+        }
+        Node n = g.aNode();
+        assertEquals(g.edges(n).drainToList(), g.edges(n).stream().collect(Collectors.toList()));
+    }
+    
+    public void testCursorToleratesRemovals() {
+        Graph g = create();
+        Node center = g.newNode();
+        Node[] outer = g.newNodes(10);
+        for (int i = 0; i < outer.length; i++) {
+            outer[i].setValue(i);
+            g.newEdge(center, outer[i]);
+        }
+        EdgeCursor cursor = g.edgeCursor();
+        cursor.reset(center, Direction.EITHER);
+        int visited = 0;
+        while (cursor.next()) {
+            Edge e = cursor.edge();
+            visited++;
+            int i = (Integer)e.n2().getValue();
+            g.removeEdge(e);
+            //remove the following edge too, before the cursor reaches it
+            if (i + 1 < outer.length) {
+                g.removeEdge(g.anEdge(center, outer[i + 1]));
+            }
+        }
+        assertEquals(0, g.degree(center));
+        assertEquals(5, visited);
+    }
+    
     private Node[] createPath(Graph g, int n) {
         Node[] nodes = g.newNodes(n);
         for (int i = 0; i < n; i++) {
@@ -1135,6 +1221,250 @@ public abstract class GraphTest extends MockObjectTestCase {
         //no exception
     }
     
+    public void testDenseIndexes() {
+        Graph g = create();
+        if (!(g instanceof IndexedInspectableGraph)) {
+            return;
+        }
+        IndexedInspectableGraph indexed = (IndexedInspectableGraph)g;
+        int maxNodes = 0;
+        int maxEdges = 0;
+        for (int i = 0; i < 2000; i++) {
+            RandomMutator.mutate(g);
+            maxNodes = Math.max(maxNodes, g.nodeCount());
+            maxEdges = Math.max(maxEdges, g.edgeCount());
+            assertTrue(indexed.nodeIndexCapacity() <= maxNodes);
+            assertTrue(indexed.edgeIndexCapacity() <= maxEdges);
+        }
+        Set<Integer> seen = new HashSet<Integer>();
+        for (Node n : g.nodes()) {
+            int index = indexed.indexOf(n);
+            assertTrue(index >= 0 && index < indexed.nodeIndexCapacity());
+            assertTrue(seen.add(index));
+            assertSame(n, indexed.nodeAt(index));
+        }
+        seen.clear();
+        for (Edge e : g.edges()) {
+            int index = indexed.indexOf(e);
+            assertTrue(index >= 0 && index < indexed.edgeIndexCapacity());
+            assertTrue(seen.add(index));
+            assertSame(e, indexed.edgeAt(index));
+        }
+        Node n = g.aNode();
+        int index = indexed.indexOf(n);
+        g.removeNode(n);
+        assertEquals(-1, indexed.indexOf(n));
+        assertNull(index < indexed.nodeIndexCapacity() ? indexed.nodeAt(index) : null);
+        Node added = g.newNode();
+        assertTrue(indexed.indexOf(added) < indexed.nodeIndexCapacity());
+        assertEquals(-1, indexed.indexOf((Node)null));
+        assertEquals(-1, indexed.indexOf((Edge)null));
+    }
+    
+    public void testBulkAdditions() {
+        final Graph g = create();
+        final int[] bulkEvents = new int[1];
+        final List<Node> singleNodes = new ArrayList<Node>();
+        final List<Edge> singleEdges = new ArrayList<Edge>();
+        g.addGraphListener(new BulkListener() {
+            public void nodesAdded(GraphEvent e) {
+                bulkEvents[0]++;
+                for (Node n : e.getNodes()) {
+                    assertTrue(g.containsNode(n));
+                }
+            }
+            
+            public void edgesToBeAdded(GraphEvent e) {
+                for (Edge edge : e.getEdges()) {
+                    assertFalse(g.containsEdge(edge));
+                }
+            }
+            
+            public void edgesAdded(GraphEvent e) {
+                bulkEvents[0]++;
+                for (Edge edge : e.getEdges()) {
+                    assertTrue(g.containsEdge(edge));
+                }
+            }
+        });
+        g.addGraphListener(new EmptyGraphListener() {
+            public void nodeAdded(GraphEvent e) {
+                singleNodes.add(e.getNode());
+            }
+            
+            public void edgeAdded(GraphEvent e) {
+                singleEdges.add(e.getEdge());
+            }
+        });
+        Node[] n = g.newNodes(4);
+        Edge[] e = g.newEdges(new Node[] { n[0], n[1], n[2], n[3] }, new Node[] { n[1], n[2], n[3], n[3] });
+        assertEquals(4, g.nodeCount());
+        assertEquals(4, g.edgeCount());
+        assertEquals(Arrays.asList(n), singleNodes);
+        assertEquals(Arrays.asList(e), singleEdges);
+        if (g instanceof AbstractListGraph) {
+            assertEquals(2, bulkEvents[0]);
+        }
+        for (int i = 0; i < 3; i++) {
+            assertSame(n[i], e[i].n1());
+            assertSame(n[i + 1], e[i].n2());
+            assertTrue(g.areAdjacent(n[i], n[i + 1], Direction.OUT));
+        }
+        assertTrue(e[3].isSelfLoop());
+        assertEquals(3, g.degree(n[3]));
+        
+        try {
+            g.newEdges(new Node[] { n[0] }, new Node[0]);
+            fail();
+        } catch (IllegalArgumentException ok) { }
+        try {
+            g.newEdges(new Node[] { n[0], n[0] }, new Node[] { n[1], new PrimaryGraph().newNode() });
+            fail();
+        } catch (IllegalArgumentException ok) { }
+        assertEquals(4, g.edgeCount());
+        assertEquals(0, g.newEdges(new Node[0], new Node[0]).length);
+    }
+    
+    public void testModCount() {
+        Graph g = create();
+        long count = g.modCount();
+        Node[] n = g.newNodes(3);
+        assertTrue(g.modCount() > count);
+        count = g.modCount();
+        Edge e = g.newEdge(n[0], n[1]);
+        assertTrue(g.modCount() > count);
+        count = g.modCount();
+        g.nodes().drainToList();
+        g.edges(n[0]).drainToList();
+        n[0].setValue("not structural");
+        assertEquals(count, g.modCount());
+        g.removeEdge(e);
+        assertTrue(g.modCount() > count);
+        count = g.modCount();
+        g.reinsertEdge(e);
+        assertTrue(g.modCount() > count);
+        count = g.modCount();
+        g.removeNode(n[2]);
+        assertTrue(g.modCount() > count);
+        count = g.modCount();
+        assertFalse(g.removeNode(n[2]));
+        assertEquals(count, g.modCount());
+        
+        InspectableGraph view = Graphs.inverted(g);
+        count = view.modCount();
+        g.newNode();
+        assertTrue(view.modCount() > count);
+    }
+    
+    public void testFailFastIteration() {
+        Graph g = create();
+        if (!(g instanceof AbstractListGraph)) {
+            return;
+        }
+        g.hint(Hint.FAIL_FAST_ITERATION);
+        Node[] n = g.newNodes(4);
+        g.newEdge(n[0], n[1]);
+        g.newEdge(n[0], n[2]);
+        g.newEdge(n[0], n[3]);
+        
+        Iterator<Node> nodes = g.nodes().iterator();
+        nodes.next();
+        g.newNode();
+        try {
+            nodes.next();
+            fail();
+        } catch (ConcurrentModificationException ok) { }
+        
+        Iterator<Edge> edges = g.edges(n[0]).iterator();
+        edges.next();
+        g.removeNode(n[3]);
+        try {
+            edges.next();
+            fail();
+        } catch (ConcurrentModificationException ok) { }
+        
+        //removals through the iterator itself are allowed
+        for (Iterator<Edge> i = g.edges().iterator(); i.hasNext(); ) {
+            i.next();
+            i.remove();
+        }
+        assertEquals(0, g.edgeCount());
+    }
+    
+    public void testFailFastNodeRemoval() {
+        Graph g = create();
+        if (!(g instanceof AbstractListGraph)) {
+            return;
+        }
+        g.hint(Hint.FAIL_FAST_ITERATION);
+        Node[] n = g.newNodes(4);
+        g.newEdge(n[0], n[1]);
+        g.newEdge(n[2], n[0]);
+        g.newEdge(n[0], n[3]);
+        g.newEdge(n[1], n[2]);
+        
+        g.removeNode(n[0]);
+        assertFalse(g.containsNode(n[0]));
+        assertEquals(1, g.edgeCount());
+        
+        for (Iterator<Node> i = g.nodes().iterator(); i.hasNext(); ) {
+            i.next();
+            i.remove();
+        }
+        assertEquals(0, g.nodeCount());
+        assertEquals(0, g.edgeCount());
+    }
+    
+    public void testFailFastSpliterator() {
+        Graph g = create();
+        if (!(g instanceof AbstractListGraph)) {
+            return;
+        }
+        g.hint(Hint.FAIL_FAST_ITERATION);
+        Node[] n = g.newNodes(3);
+        g.newEdge(n[0], n[1]);
+        g.newEdge(n[0], n[2]);
+        
+        Spliterator<Node> nodes = g.nodes().spliterator();
+        assertTrue(nodes.hasCharacteristics(Spliterator.SIZED));
+        assertEquals(3, nodes.getExactSizeIfKnown());
+        
+        assertTrue(nodes.tryAdvance(new Consumer<Node>() {
+            public void accept(Node node) { }
+        }));
+        g.newNode();
+        try {
+            nodes.tryAdvance(new Consumer<Node>() {
+                public void accept(Node node) { }
+            });
+            fail();
+        } catch (ConcurrentModificationException ok) { }
+    }
+    
+    public void testBulkAdditionVeto() {
+        Graph g = create();
+        Node[] n = g.newNodes(2);
+        g.addGraphListener(new EmptyGraphListener() {
+            public void edgeToBeAdded(GraphEvent e) {
+                if (e.getEdge().isSelfLoop()) {
+                    throw new RuntimeException();
+                }
+            }
+        });
+        try {
+            g.newEdges(new Node[] { n[0], n[1] }, new Node[] { n[1], n[1] });
+            fail();
+        } catch (RuntimeException ok) { }
+        assertEquals(0, g.edgeCount());
+    }
+    
+    private static abstract class BulkListener extends EmptyGraphListener implements BulkNodeListener, BulkEdgeListener {
+        public void nodesToBeAdded(GraphEvent e) { }
+        public void nodesAdded(GraphEvent e) { }
+        public void edgesToBeAdded(GraphEvent e) { }
+        public void edgesAdded(GraphEvent e) { }
+    }
+    
     private Node[] createClique(Graph g, int nodeCount) {
         Node[] nodes = g.newNodes(nodeCount);
         int pos = 0;
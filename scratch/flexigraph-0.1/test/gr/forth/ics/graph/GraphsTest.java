@@ -202,6 +202,54 @@ public class GraphsTest extends RandomizedTestCase {
         assertTrue(xor.containsEdge(e));
     }
     
+    public void testSetAlgebraViews() {
+        Graph g1 = new PrimaryGraph();
+        Node[] n = g1.newNodes(0, 1, 2, 3);
+        Edge e01 = g1.newEdge(n[0], n[1]);
+        Edge e12 = g1.newEdge(n[1], n[2]);
+        Edge e23 = g1.newEdge(n[2], n[3]);
+        SecondaryGraph g2 = new SecondaryGraph(g1);
+        g2.removeEdge(e01);
+        g2.removeNode(n[3]);
+        Node n4 = g2.newNode(4);
+        Edge e41 = g2.newEdge(n4, n[1]);
+        
+        InspectableGraph union = Graphs.unionView(g1, g2);
+        assertEquals(5, union.nodeCount());
+        assertEquals(4, union.edgeCount());
+        assertEquals(3, union.degree(n[1]));
+        assertTrue(Graphs.equalGraphs(Graphs.union(g1, g2), union));
+        
+        InspectableGraph intersection = Graphs.intersectionView(g1, g2);
+        assertEquals(3, intersection.nodeCount());
+        assertEquals(java.util.Arrays.asList(e12), intersection.edges().drainToList());
+        assertEquals(1, intersection.degree(n[1]));
+        assertFalse(intersection.containsNode(n4));
+        try {
+            intersection.edges(n4);
+            fail();
+        } catch (IllegalArgumentException ok) { }
+        
+        InspectableGraph subtraction = Graphs.subtractionView(g1, g2);
+        assertEquals(java.util.Arrays.asList(n[3]), subtraction.nodes().drainToList());
+        //e01 is only in g1, but its endpoints are subtracted
+        assertFalse(subtraction.containsEdge(e01));
+        assertEquals(0, subtraction.edgeCount());
+        
+        InspectableGraph xor = Graphs.xorView(g1, g2);
+        assertEquals(java.util.Arrays.asList(n[3], n4), xor.nodes().drainToList());
+        assertFalse(xor.containsEdge(e23));
+        assertFalse(xor.containsEdge(e41));
+        
+        //views reflect later modifications
+        g2.removeNode(n[1]);
+        assertTrue(xor.containsNode(n[1]));
+        //n[0] and n[2] are still in both graphs
+        assertTrue(xor.edges(n[1]).drainToList().isEmpty());
+        assertEquals(2, union.degree(n[1]));
+        assertEquals(2, intersection.nodeCount());
+    }
+    
     //randomized test
     private final Graph g1 = new PrimaryGraph();
     private final Graph g2 = new SecondaryGraph();
@@ -209,6 +257,8 @@ public class GraphsTest extends RandomizedTestCase {
     private final InspectableGraph intersection = Graphs.intersection(g1, g2);
     private final InspectableGraph subtraction = Graphs.subtraction(g1, g2);
     private final InspectableGraph xor = Graphs.xor(g1, g2);
+    private final InspectableGraph[] views = {
+        Graphs.unionView(g1, g2), Graphs.intersectionView(g1, g2), Graphs.subtractionView(g1, g2), Graphs.xorView(g1, g2) };
     
     @Prob(1)
     void randomAddNode() {
@@ -249,6 +299,18 @@ public class GraphsTest extends RandomizedTestCase {
         checkIntersection();
         checkSubtraction();
         checkXor();
+        checkViews();
+    }
+    
+    private void checkViews() {
+        InspectableGraph[] eager = { union, intersection, subtraction, xor };
+        for (int i = 0; i < eager.length; i++) {
+            invariant(Graphs.equalGraphs(eager[i], views[i]));
+            for (Node n : eager[i].nodes()) {
+                invariant(eager[i].edges(n).drainToSet().equals(views[i].edges(n).drainToSet()));
+                invariant(eager[i].degree(n) == views[i].degree(n));
+            }
+        }
     }
     
     private void checkUnion() {
@@ -41,4 +41,27 @@ public class InvertedInspectableGraphTest extends TestCase {
             assertEquals(1, cw.size());
             assertTrue(cw.contains(e1));
     }
+    
+    public void testCursor() {
+        Graph g = new PrimaryGraph();
+        Node n1 = g.newNode();
+        Node n2 = g.newNode();
+        Edge e1 = g.newEdge(n1, n2);
+        Edge e2 = g.newEdge(n2, n1);
+        Edge e3 = g.newEdge(n2, n1);
+        
+        InvertedInspectableGraph ig = new InvertedInspectableGraph(g);
+        NodeCursor cursor = ig.nodeCursor();
+        cursor.reset(n1, Direction.OUT);
+        assertTrue(cursor.next());
+        assertSame(e2, cursor.edge());
+        assertSame(n2, cursor.node());
+        assertTrue(cursor.next());
+        assertSame(e3, cursor.edge());
+        assertFalse(cursor.next());
+        cursor.reset(n1, Direction.IN);
+        assertTrue(cursor.next());
+        assertSame(e1, cursor.edge());
+        assertFalse(cursor.next());
+    }
 }
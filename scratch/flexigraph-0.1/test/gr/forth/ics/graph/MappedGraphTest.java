@@ -0,0 +1,238 @@
+package gr.forth.ics.graph;
+
+import gr.forth.ics.graph.algo.Bfs;
+import gr.forth.ics.graph.algo.Clusterer;
+import gr.forth.ics.graph.algo.Clusterers;
+import gr.forth.ics.graph.algo.Generators;
+import gr.forth.ics.graph.algo.Orders;
+import gr.forth.ics.graph.metrics.EdgeMetric;
+import gr.forth.ics.graph.metrics.NodeMetric;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.ref.WeakReference;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import junit.framework.*;
+
+public class MappedGraphTest extends TestCase {
+
+    public MappedGraphTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        TestSuite suite = new TestSuite(MappedGraphTest.class);
+
+        return suite;
+    }
+
+    private File dir;
+    private Graph g;
+    private CsrGraph csr;
+    private MappedGraph mapped;
+
+    protected void setUp() throws Exception {
+        dir = File.createTempFile("mapped", "");
+        dir.delete();
+        g = new PrimaryGraph();
+        Generators.createRandom(g, new Random(0), 1500, 0.002);
+        Node[] n = g.nodes().drainToList().toArray(new Node[0]);
+        g.newEdge(n[0], n[0]);
+        g.newEdge(n[1], n[2]);
+        g.newEdge(n[1], n[2]);
+        csr = Graphs.freeze(g);
+        new MappedGraphWriter(csr)
+                .nodeColumn("degree", new NodeMetric() {
+                    public double getValue(Node node) {
+                        return g.degree(node);
+                    }
+                })
+                .edgeColumn("weight", new EdgeMetric() {
+                    public double getValue(Edge edge) {
+                        return csr.indexOf(edge) / 2.0;
+                    }
+                })
+                .write(dir);
+        mapped = new MappedGraph(dir);
+    }
+
+    protected void tearDown() {
+        for (File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+    }
+
+    private Node original(Node node) {
+        return csr.nodeAt(mapped.indexOf(node));
+    }
+
+    private Node mapped(Node node) {
+        return mapped.nodeAt(csr.indexOf(node));
+    }
+
+    public void testStructure() {
+        assertEquals(csr.nodeCount(), mapped.nodeCount());
+        assertEquals(csr.edgeCount(), mapped.edgeCount());
+        for (int i = 0; i < csr.edgeCount(); i++) {
+            Edge e = mapped.edgeAt(i);
+            assertEquals(i, mapped.indexOf(e));
+            assertSame(csr.edgeAt(i).n1(), original(e.n1()));
+            assertSame(csr.edgeAt(i).n2(), original(e.n2()));
+        }
+        for (Node n : csr.nodes()) {
+            Node m = mapped(n);
+            assertSame(m, mapped.nodeAt(csr.indexOf(n)));
+            for (Direction d : Direction.values()) {
+                assertEquals(csr.degree(n, d), mapped.degree(m, d));
+                Set<Node> expected = new HashSet<Node>(csr.adjacentNodes(n, d).drainToList());
+                Set<Node> actual = new HashSet<Node>();
+                for (Node a : mapped.adjacentNodes(m, d)) {
+                    actual.add(original(a));
+                }
+                assertEquals(expected, actual);
+                assertEquals(csr.edges(n, d).drainToList().size(), mapped.edges(m, d).drainToList().size());
+                for (Edge e : mapped.edges(m, d)) {
+                    assertTrue(e.isIncident(m));
+                }
+            }
+        }
+        Node[] n = mapped.nodes().drainToList().toArray(new Node[0]);
+        assertTrue(mapped.areAdjacent(n[1], n[2], Direction.OUT));
+        assertEquals(2, mapped.edges(n[1], n[2], Direction.OUT).drainToList().size());
+        assertEquals(2, mapped.edges(n[2], n[1], Direction.EITHER).drainToList().size());
+        assertFalse(mapped.areAdjacent(n[2], n[1], Direction.OUT));
+        assertTrue(mapped.anEdge(n[0], n[0]).isSelfLoop());
+        assertEquals(-1, mapped.indexOf(g.aNode()));
+        assertFalse(mapped.containsNode(null));
+        try {
+            mapped.degree(g.aNode());
+            fail();
+        } catch (IllegalArgumentException ok) { }
+    }
+
+    public void testAlgorithms() {
+        Bfs bfs1 = new Bfs(csr, csr.nodeAt(0), Direction.OUT);
+        bfs1.execute();
+        Bfs bfs2 = new Bfs(mapped, mapped.nodeAt(0), Direction.OUT);
+        bfs2.execute();
+        for (Node n : csr.nodes()) {
+            assertEquals(bfs1.getLevel(n), bfs2.getLevel(mapped(n)));
+        }
+        assertEquals(clusters(Clusterers.connectedComponents(csr), false),
+                clusters(Clusterers.connectedComponents(mapped), true));
+    }
+
+    public void testTopologicalOrder() throws Exception {
+        Graph dag = new PrimaryGraph();
+        Node[] n = dag.newNodes(50);
+        Random random = new Random(1);
+        for (int i = 0; i < 200; i++) {
+            int a = random.nextInt(n.length);
+            int b = random.nextInt(n.length);
+            if (a != b) {
+                dag.newEdge(n[Math.min(a, b)], n[Math.max(a, b)]);
+            }
+        }
+        tearDown();
+        new MappedGraphWriter(dag).write(dir);
+        MappedGraph mappedDag = new MappedGraph(dir);
+        List<Node> order = Orders.topological(mappedDag);
+        assertEquals(n.length, order.size());
+        for (Edge e : mappedDag.edges()) {
+            assertTrue(order.indexOf(e.n1()) < order.indexOf(e.n2()));
+        }
+    }
+
+    public void testColumns() {
+        MappedGraph.NodeColumn degree = mapped.nodeColumn("degree");
+        MappedGraph.EdgeColumn weight = mapped.edgeColumn("weight");
+        for (Node n : mapped.nodes()) {
+            assertEquals((double)g.degree(original(n)), degree.get(n));
+            assertEquals(degree.get(n), n.getDouble("degree"));
+            assertTrue(n.has("degree"));
+        }
+        for (Edge e : mapped.edges()) {
+            assertEquals(mapped.indexOf(e) / 2.0, weight.getValue(e));
+            assertEquals(weight.get(e), e.getDouble("weight"));
+            assertFalse(e.has("degree"));
+        }
+        assertEquals(1.5, weight.getAt(3));
+        try {
+            mapped.nodeAt(0).put("degree", 1.0);
+            fail();
+        } catch (UnsupportedOperationException ok) { }
+        try {
+            mapped.nodeColumn("weight");
+            fail();
+        } catch (IllegalArgumentException ok) { }
+        try {
+            new MappedGraphWriter(g).nodeColumn("../x", degree);
+            fail();
+        } catch (IllegalArgumentException ok) { }
+    }
+
+    public void testAttributesSurviveReclamation() {
+        mapped.nodeAt(1000).put("key", "value");
+        mapped.edgeAt(5).putWeakly("key", "weak");
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            for (Node n : mapped.nodes()) {
+                n.getValue();
+            }
+        }
+        assertEquals("value", mapped.nodeAt(1000).get("key"));
+        assertEquals("weak", mapped.edgeAt(5).get("key"));
+        assertFalse(mapped.nodeAt(0).has("key"));
+    }
+
+    public void testPagesAreReleased() {
+        Node node = mapped.nodeAt(1000);
+        node.put("key", "value");
+        node.remove("key");
+        WeakReference<Node> strong = new WeakReference<Node>(node);
+
+        Object key = new Object();
+        node = mapped.nodeAt(1200);
+        node.putWeakly(key, "weak");
+        WeakReference<Node> weak = new WeakReference<Node>(node);
+        node = null;
+        key = null;
+        for (int i = 0; i < 5 && (strong.get() != null || weak.get() != null); i++) {
+            System.gc();
+            //creating an element lets the graph drop the pages of reclaimed keys
+            mapped.edgeAt(i);
+        }
+        assertNull(strong.get());
+        assertNull(weak.get());
+    }
+
+    public void testSerialization() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(mapped);
+        out.close();
+        MappedGraph copy = (MappedGraph)new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+        assertEquals(mapped.nodeCount(), copy.nodeCount());
+        assertEquals(mapped.edgeCount(), copy.edgeCount());
+        assertEquals(mapped.nodeColumnNames(), copy.nodeColumnNames());
+        assertEquals(mapped.degree(mapped.nodeAt(7)), copy.degree(copy.nodeAt(7)));
+    }
+
+    private Set<Set<Node>> clusters(Clusterer clusterer, boolean unmap) {
+        Set<Set<Node>> clusters = new HashSet<Set<Node>>();
+        for (Object c : clusterer.getClusters()) {
+            Set<Node> cluster = new HashSet<Node>();
+            for (Node n : clusterer.getCluster(c)) {
+                cluster.add(unmap ? original(n) : n);
+            }
+            clusters.add(cluster);
+        }
+        return clusters;
+    }
+}
@@ -1,6 +1,8 @@
 package gr.forth.ics.graph;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import junit.framework.*;
 
 public class SecondaryGraphTest extends GraphTest {
@@ -175,6 +177,95 @@ public class SecondaryGraphTest extends GraphTest {
         assertTrue(sg.containsNode(n[0]));
     }
     
+    public void testManyGraphsSharingElements() {
+        Graph g = new PrimaryGraph();
+        Node[] n = g.newNodes(4);
+        connect(g, n);
+        List<SecondaryGraph> graphs = new ArrayList<SecondaryGraph>();
+        for (int i = 0; i < 128; i++) {
+            graphs.add(new SecondaryGraph(g));
+        }
+        for (int i = 0; i < graphs.size(); i++) {
+            SecondaryGraph sg = graphs.get(i);
+            sg.removeNode(n[i % n.length]);
+        }
+        for (int i = 0; i < graphs.size(); i++) {
+            SecondaryGraph sg = graphs.get(i);
+            Node removed = n[i % n.length];
+            assertEquals(3, sg.nodeCount());
+            assertFalse(sg.containsNode(removed));
+            for (Node node : n) {
+                if (node != removed) {
+                    assertTrue(sg.containsNode(node));
+                    assertSame(node, sg.nodeAt(sg.indexOf(node)));
+                }
+            }
+            int edges = 0;
+            for (Edge e : g.edges()) {
+                boolean expected = !e.isIncident(removed);
+                assertEquals(expected, sg.containsEdge(e));
+                if (expected) {
+                    edges++;
+                }
+            }
+            assertEquals(edges, sg.edgeCount());
+        }
+    }
+
+    public void testMembershipsGrowWithContainingGraphsOnly() {
+        Graph g = new PrimaryGraph();
+        Node[] n = g.newNodes(2);
+        Edge e = g.newEdge(n[0], n[1]);
+        NodeImpl node = (NodeImpl)n[0];
+        EdgeImpl edge = (EdgeImpl)e;
+        List<SecondaryGraph> graphs = new ArrayList<SecondaryGraph>();
+        for (int i = 0; i < 8; i++) {
+            graphs.add(new SecondaryGraph(g));
+            new SecondaryGraph().adoptNode(n[1]);
+        }
+        assertEquals(8, records(node.memberships));
+        assertEquals(8, records(edge.memberships));
+        assertTrue(node.memberships.length < 16);
+        for (SecondaryGraph sg : graphs) {
+            sg.removeNode(n[0]);
+        }
+        assertNull(node.memberships);
+        assertNull(edge.memberships);
+        graphs.get(0).adoptNode(n[0]);
+        assertEquals(1, node.memberships.length);
+        assertTrue(graphs.get(0).containsNode(n[0]));
+    }
+
+    public void testRecordsOfCollectedGraphsAreReused() {
+        Memberships.Owner collected = new Memberships.Owner(new SecondaryGraph());
+        Memberships.Owner live = new Memberships.Owner(new SecondaryGraph());
+        Memberships.Record stale = record(collected);
+        Object[] memberships = Memberships.put(null, stale);
+        collected.clear();
+        Memberships.Record record = record(live);
+        assertSame(memberships, Memberships.put(memberships, record));
+        assertEquals(1, memberships.length);
+        assertSame(record, Memberships.get(memberships, live));
+        assertNull(Memberships.get(memberships, collected));
+        assertNull(Memberships.remove(memberships, live));
+    }
+
+    private static int records(Object[] memberships) {
+        int count = 0;
+        for (Object record : memberships) {
+            if (record != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static Memberships.Record record(Memberships.Owner owner) {
+        Memberships.Record record = new Memberships.Record() { };
+        record.owner = owner;
+        return record;
+    }
+    
     private void connect(Graph g, Node[] nodes) {
         for (int i = 1; i < nodes.length; i++) {
             g.newEdge(nodes[i - 1], nodes[i]);
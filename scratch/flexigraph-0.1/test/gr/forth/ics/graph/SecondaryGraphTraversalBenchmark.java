@@ -0,0 +1,42 @@
+package gr.forth.ics.graph;
+
+import java.util.Random;
+
+/**
+ * Compares the cost of traversing the adjacency lists of a {@link SecondaryGraph} with that of the
+ * {@link PrimaryGraph} it was adopted from. Not a unit test; run its main method.
+ */
+public class SecondaryGraphTraversalBenchmark {
+    public static void main(String[] args) {
+        int nodeCount = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        int edgeCount = nodeCount * 5;
+        Graph primary = new PrimaryGraph();
+        Node[] nodes = primary.newNodes(nodeCount);
+        Random random = new Random(0);
+        for (int i = 0; i < edgeCount; i++) {
+            primary.newEdge(nodes[random.nextInt(nodeCount)], nodes[random.nextInt(nodeCount)]);
+        }
+        SecondaryGraph secondary = new SecondaryGraph(primary);
+        for (int round = 0; round < 5; round++) {
+            System.out.printf("primary: %5d ms, secondary: %5d ms%n",
+                    traverse(primary, nodes), traverse(secondary, nodes));
+        }
+    }
+
+    private static long traverse(InspectableGraph g, Node[] nodes) {
+        long start = System.nanoTime();
+        long sum = 0;
+        for (int i = 0; i < 10; i++) {
+            for (Node n : nodes) {
+                for (Edge e : g.edges(n, Direction.OUT)) {
+                    sum += g.containsEdge(e) ? 1 : 0;
+                }
+                sum += g.degree(n);
+            }
+        }
+        if (sum == 42) {
+            System.out.println();
+        }
+        return (System.nanoTime() - start) / 1000000;
+    }
+}
@@ -0,0 +1,48 @@
+package gr.forth.ics.graph;
+
+import java.util.Random;
+
+/**
+ * Measures what snapshots cost the writer of a graph: the time of a batch of edge insertions and
+ * removals without snapshots, and with a snapshot taken every few modifications. Not a unit test;
+ * run its main method.
+ */
+public class SnapshotBenchmark {
+    public static void main(String[] args) {
+        int nodeCount = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int modifications = 500000;
+        for (int round = 0; round < 3; round++) {
+            System.out.printf("no snapshots:             %5d ms%n", run(nodeCount, modifications, 0));
+            System.out.printf("snapshot every 1000 ops:  %5d ms%n", run(nodeCount, modifications, 1000));
+            System.out.printf("snapshot every 10 ops:    %5d ms%n", run(nodeCount, modifications, 10));
+        }
+    }
+
+    private static long run(int nodeCount, int modifications, int snapshotPeriod) {
+        Graph g = new PrimaryGraph();
+        Node[] nodes = g.newNodes(nodeCount);
+        Random random = new Random(0);
+        Edge[] edges = new Edge[nodeCount * 4];
+        for (int i = 0; i < edges.length; i++) {
+            edges[i] = g.newEdge(nodes[random.nextInt(nodeCount)], nodes[random.nextInt(nodeCount)]);
+        }
+        if (snapshotPeriod > 0) {
+            g.snapshot();
+        }
+        InspectableGraph snapshot = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < modifications; i++) {
+            int pos = random.nextInt(edges.length);
+            g.removeEdge(edges[pos]);
+            edges[pos] = g.newEdge(nodes[random.nextInt(nodeCount)], nodes[random.nextInt(nodeCount)]);
+            if (snapshotPeriod > 0 && i % snapshotPeriod == 0) {
+                snapshot = g.snapshot();
+            }
+        }
+        long time = (System.nanoTime() - start) / 1000000;
+        if (snapshot != null && snapshot.edgeCount() != edges.length) {
+            throw new AssertionError();
+        }
+        return time;
+    }
+}
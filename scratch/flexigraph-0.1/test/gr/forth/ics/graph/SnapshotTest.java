@@ -0,0 +1,208 @@
+package gr.forth.ics.graph;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import junit.framework.*;
+
+public class SnapshotTest extends TestCase {
+
+    public SnapshotTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        TestSuite suite = new TestSuite(SnapshotTest.class);
+
+        return suite;
+    }
+
+    public void testSnapshotsAreFrozen() {
+        Graph g = new PrimaryGraph();
+        List<InspectableGraph> snapshots = new ArrayList<InspectableGraph>();
+        List<InspectableGraph> copies = new ArrayList<InspectableGraph>();
+        for (int i = 0; i < 3000; i++) {
+            RandomMutator.mutate(g);
+            if (i % 150 == 0) {
+                snapshots.add(g.snapshot());
+                copies.add(new CsrGraph(g));
+            }
+        }
+        for (int i = 0; i < snapshots.size(); i++) {
+            assertSameGraph(copies.get(i), snapshots.get(i));
+        }
+        assertSameGraph(g, g.snapshot());
+    }
+
+    public void testUnchangedGraphGivesSameSnapshot() {
+        Graph g = new PrimaryGraph();
+        Node[] n = g.newNodes(3);
+        InspectableGraph s1 = g.snapshot();
+        assertSame(s1, g.snapshot());
+        g.newEdge(n[0], n[1]);
+        InspectableGraph s2 = g.snapshot();
+        assertNotSame(s1, s2);
+        assertEquals(0, s1.edgeCount());
+        assertEquals(1, s2.edgeCount());
+    }
+
+    public void testRemovalsAndSelfLoops() {
+        Graph g = new PrimaryGraph();
+        Node[] n = g.newNodes(4);
+        Edge loop = g.newEdge(n[0], n[0]);
+        List<Edge> edges = new ArrayList<Edge>();
+        for (int i = 0; i < 100; i++) {
+            edges.add(g.newEdge(n[1], n[2]));
+        }
+        InspectableGraph before = g.snapshot();
+        g.removeNode(n[0]);
+        for (int i = 0; i < edges.size(); i += 3) {
+            g.removeEdge(edges.get(i));
+        }
+        assertSameGraph(g, g.snapshot());
+        assertTrue(before.containsEdge(loop));
+        assertEquals(2, before.degree(n[0]));
+        assertEquals(100, before.edges(n[1], n[2], Direction.OUT).drainToList().size());
+        assertEquals(edges, before.edges(n[1], Direction.OUT).drainToList());
+        assertFalse(g.snapshot().containsNode(n[0]));
+        try {
+            g.snapshot().degree(n[0]);
+            fail();
+        } catch (IllegalArgumentException ok) { }
+        try {
+            before.nodes().iterator().remove();
+            fail();
+        } catch (RuntimeException ok) { }
+    }
+
+    public void testNodesMovedToAnotherGraph() {
+        Graph g1 = new PrimaryGraph();
+        Node[] n = g1.newNodes(5);
+        g1.newEdge(n[3], n[4]);
+        InspectableGraph before = g1.snapshot();
+        Graph g2 = new PrimaryGraph();
+        g2.newNodes(7);
+        g2.importGraph(g1, Arrays.asList(n[3], n[4]));
+        assertTrue(g2.containsNode(n[3]));
+        assertTrue(before.containsNode(n[3]));
+        assertEquals(1, before.degree(n[4]));
+        assertEquals(3, g1.snapshot().nodeCount());
+        assertFalse(g1.snapshot().containsNode(n[4]));
+        assertSameGraph(g2, g2.snapshot());
+    }
+
+    public void testConcurrentReaders() throws Exception {
+        final Graph g = new PrimaryGraph();
+        //snapshots are kept reachable, so that the store is never dropped and rebuilt during modifications
+        final InspectableGraph initial = g.snapshot();
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        List<Thread> readers = new ArrayList<Thread>();
+        for (int r = 0; r < 3; r++) {
+            Thread reader = new Thread() {
+                private InspectableGraph latest;
+
+                public void run() {
+                    try {
+                        while (!done.get()) {
+                            latest = g.snapshot();
+                            checkConsistent(latest);
+                        }
+                    } catch (Throwable t) {
+                        failure.set(t);
+                    }
+                }
+            };
+            readers.add(reader);
+            reader.start();
+        }
+        Random random = new Random(0);
+        List<Node> nodes = new ArrayList<Node>();
+        List<Edge> edges = new ArrayList<Edge>();
+        for (int i = 0; i < 200000; i++) {
+            int op = random.nextInt(10);
+            if (op < 3 || nodes.isEmpty()) {
+                nodes.add(g.newNode());
+            } else if (op < 8) {
+                edges.add(g.newEdge(nodes.get(random.nextInt(nodes.size())), nodes.get(random.nextInt(nodes.size()))));
+            } else if (op < 9 && !edges.isEmpty()) {
+                //edges of removed nodes are dropped lazily
+                g.removeEdge(edges.remove(random.nextInt(edges.size())));
+            } else {
+                Node n = nodes.remove(random.nextInt(nodes.size()));
+                g.removeNode(n);
+            }
+            if (nodes.size() > 500) {
+                Node n = nodes.remove(0);
+                g.removeNode(n);
+            }
+        }
+        done.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        assertSameGraph(g, g.snapshot());
+        assertEquals(0, initial.nodeCount());
+    }
+
+    public void testStoreIsDroppedWithItsSnapshots() {
+        PrimaryGraph g = new PrimaryGraph();
+        Node[] n = g.newNodes(3);
+        InspectableGraph snapshot = g.snapshot();
+        g.newEdge(n[0], n[1]);
+        assertNotNull(g.snapshots);
+        assertEquals(0, snapshot.edgeCount());
+        WeakReference<InspectableGraph> ref = new WeakReference<InspectableGraph>(snapshot);
+        snapshot = null;
+        for (int i = 0; i < 100 && g.snapshots != null; i++) {
+            System.gc();
+            g.newNode();
+        }
+        assertNull(ref.get());
+        assertNull(g.snapshots);
+        g.newEdge(n[1], n[2]);
+        assertSameGraph(g, g.snapshot());
+        assertNotNull(g.snapshots);
+    }
+
+    private static void checkConsistent(InspectableGraph s) {
+        int nodes = 0;
+        int out = 0;
+        int in = 0;
+        for (Node n : s.nodes()) {
+            nodes++;
+            out += s.outDegree(n);
+            in += s.inDegree(n);
+            for (Edge e : s.edges(n, Direction.OUT)) {
+                assertSame(n, e.n1());
+                assertTrue(s.containsNode(e.n2()));
+            }
+        }
+        assertEquals(s.nodeCount(), nodes);
+        assertEquals(s.edgeCount(), out);
+        assertEquals(s.edgeCount(), in);
+        assertEquals(s.edgeCount(), s.edges().drainToList().size());
+    }
+
+    private static void assertSameGraph(InspectableGraph expected, InspectableGraph actual) {
+        assertTrue(Graphs.equalGraphs(expected, actual));
+        assertTrue(Graphs.equalGraphs(actual, expected));
+        for (Node n : expected.nodes()) {
+            for (Direction d : Direction.values()) {
+                assertEquals(expected.degree(n, d), actual.degree(n, d));
+                assertEquals(new HashSet<Edge>(expected.edges(n, d).drainToList()),
+                        new HashSet<Edge>(actual.edges(n, d).drainToList()));
+                assertEquals(expected.adjacentNodes(n, d).drainToList().size(),
+                        actual.adjacentNodes(n, d).drainToList().size());
+            }
+        }
+    }
+}
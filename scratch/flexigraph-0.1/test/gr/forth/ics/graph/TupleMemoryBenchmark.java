@@ -0,0 +1,76 @@
+package gr.forth.ics.graph;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Measures the heap footprint per node of a graph whose nodes carry one or two attributes,
+ * comparing the storage of {@link TupleImpl} with the previous representation (a WeakHashMap
+ * allocated for the first attribute of each tuple, emulated here by a map per node).
+ * Not a unit test; run its main method with a large heap (e.g. -Xmx2g).
+ */
+public class TupleMemoryBenchmark {
+    private static final int NODES = 1000000;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : NODES;
+        System.out.printf("%d nodes, no attributes: %6.1f bytes/node%n", count, bytesPerNode(count, 0, false));
+        for (int keys = 1; keys <= 2; keys++) {
+            System.out.printf("%d key(s) per node, before (WeakHashMap): %6.1f bytes/node%n",
+                    keys, bytesPerNode(count, keys, true));
+            System.out.printf("%d key(s) per node, after  (TupleImpl)  : %6.1f bytes/node%n",
+                    keys, bytesPerNode(count, keys, false));
+        }
+    }
+
+    private static double bytesPerNode(int count, int keys, boolean weakHashMaps) {
+        Object key0 = new Object();
+        Object key1 = new Object();
+        long base = usedMemory();
+        Graph g = new PrimaryGraph();
+        Map<?, ?>[] maps = weakHashMaps ? new Map<?, ?>[count] : null;
+        for (int i = 0; i < count; i++) {
+            Node n = g.newNode();
+            if (keys == 0) {
+                continue;
+            }
+            if (weakHashMaps) {
+                Map<Object, Object> map = new WeakHashMap<Object, Object>(1);
+                map.put(key0, Boolean.TRUE);
+                if (keys > 1) {
+                    map.put(key1, Boolean.TRUE);
+                }
+                maps[i] = map;
+            } else {
+                //as SecondaryGraph does for its node data
+                n.putWeakly(key0, Boolean.TRUE);
+                if (keys > 1) {
+                    n.put(key1, Boolean.TRUE);
+                }
+            }
+        }
+        long used = usedMemory() - base;
+        keepAlive(g, maps, key0, key1);
+        return (double)used / count;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static volatile Object sink;
+
+    private static void keepAlive(Object... objects) {
+        sink = objects;
+        sink = null;
+    }
+}
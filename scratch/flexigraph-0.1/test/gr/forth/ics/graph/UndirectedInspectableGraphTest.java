@@ -2,6 +2,7 @@ package gr.forth.ics.graph;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import junit.framework.*;
 
 public class UndirectedInspectableGraphTest extends TestCase {
@@ -73,6 +74,37 @@ public class UndirectedInspectableGraphTest extends TestCase {
         checkNode(ug, n[3]);
     }
     
+    public void testCursor() {
+        Graph g = new PrimaryGraph();
+        Node[] n = g.newNodes(4);
+        Edge e01 = g.newEdge(n[0], n[1]);
+        Edge e12 = g.newEdge(n[1], n[2]);
+        Edge e20 = g.newEdge(n[2], n[0]);
+        Edge e23 = g.newEdge(n[2], n[3]);
+        UndirectedInspectableGraph ug = new UndirectedInspectableGraph(g);
+        
+        checkCursor(ug, n[0], e01, e20);
+        checkCursor(ug, n[1], e01, e12);
+        checkCursor(ug, n[2], e20, e12, e23);
+        checkCursor(ug, n[3], e23);
+        
+        g.removeEdge(e20);
+        checkCursor(ug, n[0], e01);
+        checkCursor(ug, n[2], e12, e23);
+    }
+    
+    private void checkCursor(UndirectedInspectableGraph ug, Node node, Edge ... edges) {
+        EdgeCursor cursor = ug.edgeCursor();
+        for (Direction d : Direction.values()) {
+            Collection<Edge> cursorEdges = new HashSet<Edge>();
+            cursor.reset(node, d);
+            while (cursor.next()) {
+                cursorEdges.add(cursor.edge());
+            }
+            assertEquals(new HashSet<Edge>(Arrays.asList(edges)), cursorEdges);
+        }
+    }
+    
     private void checkNode(UndirectedInspectableGraph ug, Node node, Edge ... edges) {
         Collection<Edge> edgesCollection = Arrays.asList(edges);
         int degree = edges.length;
@@ -0,0 +1,40 @@
+package gr.forth.ics.graph.algo;
+
+import gr.forth.ics.graph.Graph;
+import gr.forth.ics.graph.PrimaryGraph;
+
+/**
+ * Measures the latency of analyses requested through an {@link AnalysisCache}: cold (the graph was just
+ * modified, so the analysis is computed) and warm (answered by the cache). Not a unit test; run its main method.
+ */
+public class AnalysisCacheBenchmark {
+    public static void main(String[] args) {
+        int nodeCount = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        double p = args.length > 1 ? Double.parseDouble(args[1]) : 0.02;
+        Graph g = new PrimaryGraph();
+        Generators.createRandom(g, nodeCount, p);
+        AnalysisCache cache = new AnalysisCache(g, 16);
+        for (int round = 0; round < 3; round++) {
+            run("brandes metrics", cache, AnalysisCache.brandesMetrics(false), g);
+            run("clustering metrics", cache, AnalysisCache.clusteringMetrics(false), g);
+            run("k-cores", cache, AnalysisCache.kCoreDecomposition(), g);
+            run("connected components", cache, AnalysisCache.connectedComponents(), g);
+        }
+        System.out.printf("hits: %d, misses: %d, evictions: %d%n", cache.hits(), cache.misses(), cache.evictions());
+    }
+    
+    private static void run(String name, AnalysisCache cache, AnalysisCache.Analysis<?> analysis, Graph g) {
+        //a structural modification invalidates the cache
+        g.removeNode(g.newNode());
+        long start = System.nanoTime();
+        cache.get(analysis);
+        long cold = System.nanoTime() - start;
+        int warmRequests = 1000;
+        start = System.nanoTime();
+        for (int i = 0; i < warmRequests; i++) {
+            cache.get(analysis);
+        }
+        long warm = (System.nanoTime() - start) / warmRequests;
+        System.out.printf("%-22s cold: %9.3f ms, warm: %7d ns%n", name, cold / 1e6, warm);
+    }
+}
@@ -0,0 +1,87 @@
+package gr.forth.ics.graph.algo;
+
+import gr.forth.ics.graph.Graph;
+import gr.forth.ics.graph.InspectableGraph;
+import gr.forth.ics.graph.Node;
+import gr.forth.ics.graph.PrimaryGraph;
+import gr.forth.ics.graph.metrics.BrandesMetrics;
+import junit.framework.*;
+
+public class AnalysisCacheTest extends TestCase {
+    
+    public AnalysisCacheTest(String testName) {
+        super(testName);
+    }
+    
+    public static Test suite() {
+        TestSuite suite = new TestSuite(AnalysisCacheTest.class);
+        return suite;
+    }
+    
+    public void testMemoizesUntilModified() {
+        Graph g = new PrimaryGraph();
+        Node[] n = g.newNodes(4);
+        g.newEdge(n[0], n[1]);
+        g.newEdge(n[2], n[3]);
+        AnalysisCache cache = new AnalysisCache(g, 10);
+        
+        Clusterer components = cache.get(AnalysisCache.connectedComponents());
+        assertEquals(2, components.getClusters().size());
+        assertSame(components, cache.get(AnalysisCache.connectedComponents()));
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+        
+        BrandesMetrics directed = cache.get(AnalysisCache.brandesMetrics(true));
+        assertNotSame(directed, cache.get(AnalysisCache.brandesMetrics(false)));
+        assertSame(directed, cache.get(AnalysisCache.brandesMetrics(true)));
+        assertEquals(3, cache.size());
+        
+        n[0].setValue("not structural");
+        assertSame(components, cache.get(AnalysisCache.connectedComponents()));
+        
+        g.newEdge(n[1], n[2]);
+        Clusterer recomputed = cache.get(AnalysisCache.connectedComponents());
+        assertNotSame(components, recomputed);
+        assertEquals(1, recomputed.getClusters().size());
+        assertEquals(1, cache.size());
+        assertEquals(0, cache.evictions());
+    }
+    
+    public void testEviction() {
+        Graph g = new PrimaryGraph();
+        Generators.createRandom(g, 20, 0.2);
+        AnalysisCache cache = new AnalysisCache(g, 2);
+        cache.get(AnalysisCache.connectedComponents());
+        cache.get(AnalysisCache.kCoreDecomposition());
+        //touch the components, so the k-cores are the least recently used
+        cache.get(AnalysisCache.connectedComponents());
+        cache.get(AnalysisCache.clusteringMetrics(false));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictions());
+        
+        long misses = cache.misses();
+        cache.get(AnalysisCache.connectedComponents());
+        assertEquals(misses, cache.misses());
+        cache.get(AnalysisCache.kCoreDecomposition());
+        assertEquals(misses + 1, cache.misses());
+    }
+    
+    public void testCustomAnalysis() {
+        Graph g = new PrimaryGraph();
+        g.newNodes(3);
+        final int[] computations = new int[1];
+        AnalysisCache.Analysis<Integer> nodeCount = new AnalysisCache.Analysis<Integer>() {
+            public Integer compute(InspectableGraph graph) {
+                computations[0]++;
+                return graph.nodeCount();
+            }
+        };
+        AnalysisCache cache = new AnalysisCache(g, 4);
+        assertEquals(3, (int)cache.get(nodeCount));
+        assertEquals(3, (int)cache.get(nodeCount));
+        assertEquals(1, computations[0]);
+        cache.clear();
+        assertEquals(3, (int)cache.get(nodeCount));
+        assertEquals(2, computations[0]);
+    }
+}
@@ -0,0 +1,82 @@
+package gr.forth.ics.graph.algo;
+
+import gr.forth.ics.graph.CsrGraph;
+import gr.forth.ics.graph.Direction;
+import gr.forth.ics.graph.Edge;
+import gr.forth.ics.graph.Graphs;
+import gr.forth.ics.graph.InspectableGraph;
+import gr.forth.ics.graph.Node;
+import gr.forth.ics.graph.PrimaryGraph;
+import gr.forth.ics.util.IdentityIntMap;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares {@link Bfs} with {@link DirectionOptimizingBfs} on low-diameter graphs: a Watts-Strogatz small world
+ * ({@link Generators#createSmallWorld_Watts}) and a Barabasi-Albert graph ({@link BarabasiAlbertGenerator}),
+ * both searched with undirected semantics, on the {@link PrimaryGraph} itself and on a {@link CsrGraph}
+ * holding both orientations of every edge (searched in the {@link Direction#OUT OUT} direction).
+ * Not a unit test; run its main method.
+ */
+public class DirectionOptimizingBfsBenchmark {
+    public static void main(String[] args) {
+        int nodeCount = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+
+        PrimaryGraph watts = new PrimaryGraph();
+        Generators.createSmallWorld_Watts(watts, new Random(0), nodeCount, 5, 0.1);
+        run("Watts-Strogatz", watts);
+
+        //the generator attaches nodes by rejection sampling, which is quadratic, so this one is smaller
+        PrimaryGraph barabasi = new PrimaryGraph();
+        new BarabasiAlbertGenerator(nodeCount / 10, 5, 5, false).generate(barabasi);
+        run("Barabasi-Albert", barabasi);
+    }
+
+    private static void run(String name, PrimaryGraph g) {
+        CsrGraph csr = symmetric(g);
+        List<Node> nodes = g.nodes().drainToList();
+        System.out.printf("%s: %d nodes, %d edges%n", name, g.nodeCount(), g.edgeCount());
+        for (int round = 0; round < 5; round++) {
+            Node start = nodes.get(round);
+            Bfs bfs = new Bfs(g, start, Direction.EITHER);
+            System.gc();
+            long begin = System.nanoTime();
+            bfs.execute();
+            long bfsTime = millisSince(begin);
+            System.gc();
+            begin = System.nanoTime();
+            DirectionOptimizingBfs fast = DirectionOptimizingBfs.execute(g, start, Direction.EITHER);
+            long fastTime = millisSince(begin);
+            System.gc();
+            begin = System.nanoTime();
+            DirectionOptimizingBfs.execute(csr, csr.nodeAt(round), Direction.OUT);
+            long csrTime = millisSince(begin);
+            System.out.printf("  Bfs: %5d ms, direction-optimizing: %5d ms, on csr: %5d ms"
+                    + " (levels: %d, top-down steps: %d, bottom-up steps: %d)%n",
+                    bfsTime, fastTime, csrTime, fast.getLayerCount(), fast.getTopDownSteps(), fast.getBottomUpSteps());
+        }
+    }
+
+    private static long millisSince(long begin) {
+        return (System.nanoTime() - begin) / 1000000;
+    }
+
+    //a snapshot of a copy of the graph, with an edge of each orientation for every edge of the graph;
+    //the i-th node of the snapshot is the copy of the i-th node of the graph
+    private static CsrGraph symmetric(InspectableGraph g) {
+        PrimaryGraph copy = new PrimaryGraph();
+        Node[] nodes = g.nodes().drainToList().toArray(new Node[0]);
+        IdentityIntMap<Node> ids = new IdentityIntMap<Node>(nodes.length);
+        for (int i = 0; i < nodes.length; i++) {
+            ids.put(nodes[i], i);
+        }
+        Node[] copies = copy.newNodes(nodes.length);
+        for (Edge e : g.edges()) {
+            Node n1 = copies[ids.get(e.n1())];
+            Node n2 = copies[ids.get(e.n2())];
+            copy.newEdge(n1, n2);
+            copy.newEdge(n2, n1);
+        }
+        return Graphs.freeze(copy);
+    }
+}
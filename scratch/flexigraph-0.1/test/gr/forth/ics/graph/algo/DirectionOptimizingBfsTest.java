@@ -0,0 +1,123 @@
+package gr.forth.ics.graph.algo;
+
+import gr.forth.ics.graph.Direction;
+import gr.forth.ics.graph.Edge;
+import gr.forth.ics.graph.Graph;
+import gr.forth.ics.graph.Graphs;
+import gr.forth.ics.graph.InspectableGraph;
+import gr.forth.ics.graph.Node;
+import gr.forth.ics.graph.PrimaryGraph;
+import gr.forth.ics.graph.path.Path;
+import gr.forth.ics.graph.path.Paths;
+import java.util.Random;
+import junit.framework.*;
+
+public class DirectionOptimizingBfsTest extends TestCase {
+
+    public DirectionOptimizingBfsTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        TestSuite suite = new TestSuite(DirectionOptimizingBfsTest.class);
+        return suite;
+    }
+
+    public void testSameLevelsAsBfs() {
+        Random random = new Random(5);
+        int bottomUpSteps = 0;
+        for (int round = 0; round < 30; round++) {
+            Graph g = new PrimaryGraph();
+            int nodes = 1 + random.nextInt(300);
+            Generators.createRandom(g, random, nodes, Math.min(1.0, random.nextDouble() * 8.0 / nodes));
+            for (Direction direction : Direction.values()) {
+                bottomUpSteps += assertSameLevels(g, direction);
+                bottomUpSteps += assertSameLevels(Graphs.freeze(g), direction);
+                bottomUpSteps += assertSameLevels(Graphs.inverted(g), direction);
+            }
+            bottomUpSteps += assertSameLevels(Graphs.undirected(g), Direction.OUT);
+        }
+        assertTrue(bottomUpSteps > 0);
+    }
+
+    private static int assertSameLevels(InspectableGraph g, Direction direction) {
+        Bfs bfs = new Bfs(g, null, direction);
+        bfs.execute();
+        DirectionOptimizingBfs fast = DirectionOptimizingBfs.execute(g, bfs.getStartNode(), direction);
+        assertEquals(bfs.getComponentCount(), fast.getComponentCount());
+        assertEquals(bfs.getLayerCount(), fast.getLayerCount());
+        for (Node n : g.nodes()) {
+            assertTrue(fast.isVisited(n));
+            assertEquals(bfs.getLevel(n), fast.getLevel(n));
+            Edge parentEdge = fast.getParentEdge(n);
+            if (parentEdge == null) {
+                assertEquals(0, fast.getLevel(n));
+            } else {
+                Node parent = fast.getParent(n);
+                assertEquals(fast.getLevel(n) - 1, fast.getLevel(parent));
+                assertEquals(fast.getComponentIdentifier(parent), fast.getComponentIdentifier(n));
+                assertTrue(g.edges(parent, n, direction).drainToList().contains(parentEdge));
+                assertTrue(fast.isTreeEdge(parentEdge));
+                assertEquals(fast.getLevel(n), fast.getPath(n).size());
+            }
+        }
+        for (Edge e : g.edges()) {
+            assertTrue(fast.isTreeEdge(e) ^ fast.isCrossEdge(e));
+        }
+        return fast.getBottomUpSteps();
+    }
+
+    public void testFindPath() {
+        Graph g = new PrimaryGraph();
+        Node[] n = g.newNodes(1000);
+        for (int i = 0; i < n.length; i++) {
+            g.newEdge(n[i], n[(i + 1) % n.length]);
+            g.newEdge(n[i], n[(i * 7 + 3) % n.length]);
+        }
+        Random random = new Random(1);
+        for (int round = 0; round < 20; round++) {
+            Node start = n[random.nextInt(n.length)];
+            Node target = n[random.nextInt(n.length)];
+            Bfs bfs = new Bfs(g, start, Direction.OUT);
+            bfs.execute();
+            Path path = Paths.findShortestPath(g, start, target, Direction.OUT);
+            assertSame(start, path.headNode());
+            assertSame(target, path.tailNode());
+            assertEquals(bfs.getLevel(target), path.size());
+        }
+        Node isolated = g.newNode();
+        assertNull(Paths.findShortestPath(g, n[0], isolated, Direction.EITHER));
+        assertEquals(0, Paths.findShortestPath(g, isolated, isolated, Direction.EITHER).size());
+    }
+
+    public void testLayerer() {
+        Graph g = new PrimaryGraph();
+        Node root = Generators.createRandomTree(g, new Random(2), 2000, Direction.OUT);
+        Layerer layerer = Layerers.bfs(g, root, Direction.OUT);
+        int total = 0;
+        for (Object cluster : layerer.getClusters()) {
+            for (Node n : layerer.getCluster(cluster)) {
+                assertEquals(cluster, layerer.findClusterOf(n));
+                assertEquals(cluster, layerer.findLayerOf(n));
+                total++;
+            }
+        }
+        assertEquals(g.nodeCount(), total);
+        assertEquals(layerer.getLayerCount() + 1, layerer.getClusters().size());
+        assertTrue(layerer.getLayer(layerer.getLayerCount() + 1).isEmpty());
+        assertTrue(layerer.getCluster("0").isEmpty());
+
+        Node isolated = g.newNode();
+        layerer = Layerers.bfs(g, root, Direction.OUT);
+        assertEquals(0, layerer.findLayerOf(isolated));
+        assertTrue(layerer.getLayer(0).contains(root));
+        assertTrue(layerer.getLayer(0).contains(isolated));
+    }
+
+    public void testEmptyGraph() {
+        Layerer layerer = Layerers.bfs(new PrimaryGraph(), Direction.OUT);
+        assertTrue(layerer.getClusters().isEmpty());
+        assertTrue(layerer.getLayer(0).isEmpty());
+        assertFalse(layerer.iterator().hasNext());
+    }
+}
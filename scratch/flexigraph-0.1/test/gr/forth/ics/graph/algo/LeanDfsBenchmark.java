@@ -0,0 +1,80 @@
+package gr.forth.ics.graph.algo;
+
+import gr.forth.ics.graph.Direction;
+import gr.forth.ics.graph.GraphChecker;
+import gr.forth.ics.graph.Node;
+import gr.forth.ics.graph.PrimaryGraph;
+import gr.forth.ics.graph.path.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares a full search of {@link Dfs} (which builds a path per explored edge) with one of {@link LeanDfs},
+ * both computing a reverse topological order of a large random dag, and times {@link Orders#topological}
+ * and {@link GraphChecker#isAcyclic}, which are built on the latter.
+ * Not a unit test; run its main method, with a heap large enough for the graph (roughly 200 bytes per edge).
+ */
+public class LeanDfsBenchmark {
+    public static void main(String[] args) {
+        int nodeCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int edgeCount = args.length > 1 ? Integer.parseInt(args[1]) : 4000000;
+
+        Random random = new Random(0);
+        PrimaryGraph g = new PrimaryGraph();
+        Node[] nodes = g.newNodes(nodeCount);
+        Node[] sources = new Node[edgeCount];
+        Node[] targets = new Node[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            //edges from lower to higher positions, so the graph is acyclic
+            int a;
+            int b;
+            do {
+                a = random.nextInt(nodeCount);
+                b = random.nextInt(nodeCount);
+            } while (a == b);
+            sources[i] = nodes[Math.min(a, b)];
+            targets[i] = nodes[Math.max(a, b)];
+        }
+        g.newEdges(sources, targets);
+        sources = targets = nodes = null;
+        System.out.printf("%d nodes, %d edges, acyclic: %b%n", g.nodeCount(), g.edgeCount(), GraphChecker.isAcyclic(g));
+
+        for (int round = 0; round < 5; round++) {
+            System.gc();
+            final List<Node> order = new ArrayList<Node>(nodeCount);
+            long start = System.nanoTime();
+            new Dfs(g, Direction.OUT) {
+                @Override
+                protected boolean visitPost(Path path) {
+                    order.add(path.tailNode());
+                    return false;
+                }
+            }.execute();
+            long dfsTime = (System.nanoTime() - start) / 1000000;
+
+            System.gc();
+            order.clear();
+            start = System.nanoTime();
+            new LeanDfs(g, Direction.OUT) {
+                @Override
+                protected boolean visitPost(Node node) {
+                    order.add(node);
+                    return false;
+                }
+            }.execute();
+            long leanTime = (System.nanoTime() - start) / 1000000;
+
+            System.gc();
+            start = System.nanoTime();
+            int size = Orders.topological(g).size();
+            long topologicalTime = (System.nanoTime() - start) / 1000000;
+
+            start = System.nanoTime();
+            boolean acyclic = GraphChecker.isAcyclic(g);
+            long acyclicTime = (System.nanoTime() - start) / 1000000;
+            System.out.printf("Dfs: %5d ms, LeanDfs: %5d ms, topological: %5d ms (%d), isAcyclic: %5d ms (%b)%n",
+                    dfsTime, leanTime, topologicalTime, size, acyclicTime, acyclic);
+        }
+    }
+}
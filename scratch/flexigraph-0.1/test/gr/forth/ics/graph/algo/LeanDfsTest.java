@@ -0,0 +1,114 @@
+package gr.forth.ics.graph.algo;
+
+import gr.forth.ics.graph.Direction;
+import gr.forth.ics.graph.Edge;
+import gr.forth.ics.graph.Graph;
+import gr.forth.ics.graph.Graphs;
+import gr.forth.ics.graph.InspectableGraph;
+import gr.forth.ics.graph.Node;
+import gr.forth.ics.graph.PrimaryGraph;
+import gr.forth.ics.graph.path.Cycles;
+import gr.forth.ics.graph.path.Path;
+import java.util.Random;
+import junit.framework.*;
+
+public class LeanDfsTest extends TestCase {
+
+    public LeanDfsTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        TestSuite suite = new TestSuite(LeanDfsTest.class);
+        return suite;
+    }
+
+    public void testSameAsDfs() {
+        Random random = new Random(3);
+        for (int round = 0; round < 40; round++) {
+            Graph g = new PrimaryGraph();
+            Generators.createRandom(g, random, 1 + random.nextInt(25), random.nextDouble() * 0.2);
+            for (Direction direction : Direction.values()) {
+                assertSameAsDfs(g, direction);
+                assertSameAsDfs(Graphs.freeze(g), direction);
+                assertSameAsDfs(Graphs.inverted(g), direction);
+            }
+            assertSameAsDfs(Graphs.undirected(g), Direction.OUT);
+        }
+    }
+
+    private static void assertSameAsDfs(InspectableGraph g, Direction direction) {
+        Dfs dfs = new Dfs(g, direction);
+        dfs.execute();
+        LeanDfs lean = new LeanDfs(g, direction);
+        lean.execute(dfs.getStartNode());
+        assertEquals(dfs.getComponentCount(), lean.getComponentCount());
+        for (Node n : g.nodes()) {
+            assertEquals(dfs.getTime(n).getStart(), lean.getDiscoveryTime(n));
+            assertEquals(dfs.getTime(n).getFinish(), lean.getFinishTime(n));
+            assertSame(dfs.getParentEdge(n), lean.getParentEdge(n));
+            assertTrue(lean.isVisited(n));
+            Path path = lean.getPath(n);
+            assertSame(n, path.tailNode());
+            assertNull(lean.getParent(path.headNode()));
+        }
+        for (Edge e : g.edges()) {
+            assertEquals(dfs.isTreeEdge(e), lean.isTreeEdge(e));
+            assertEquals(dfs.isForwardEdge(e), lean.isForwardEdge(e));
+            assertEquals(dfs.isBackEdge(e), lean.isBackEdge(e));
+            assertEquals(dfs.isCrossEdge(e), lean.isCrossEdge(e));
+        }
+    }
+
+    public void testCycle() {
+        Graph g = new PrimaryGraph();
+        Node[] n = g.newNodes(0, 1, 2, 3, 4);
+        g.newEdge(n[0], n[1]);
+        g.newEdge(n[1], n[2]);
+        g.newEdge(n[2], n[3]);
+        Edge back = g.newEdge(n[3], n[1]);
+        g.newEdge(n[3], n[4]);
+        Path cycle = Cycles.findCycle(g);
+        assertEquals(3, cycle.size());
+        assertSame(n[1], cycle.headNode());
+        assertSame(n[1], cycle.tailNode());
+        assertSame(back, cycle.tailEdge());
+
+        g.removeEdge(back);
+        assertNull(Cycles.findCycle(g));
+    }
+
+    public void testDeepGraph() {
+        Graph g = new PrimaryGraph();
+        Node[] n = g.newNodes(100000);
+        for (int i = 0; i < n.length - 1; i++) {
+            g.newEdge(n[i], n[i + 1]);
+        }
+        LeanDfs dfs = new LeanDfs(g, Direction.OUT);
+        dfs.execute(n[0]);
+        assertEquals(1, dfs.getComponentCount());
+        assertEquals(n.length - 1, dfs.getDiscoveryTime(n[n.length - 1]));
+        assertEquals(n.length, dfs.getFinishTime(n[n.length - 1]));
+        assertEquals(n.length - 1, dfs.getPath(n[n.length - 1]).size());
+        assertEquals(n.length, Orders.topological(g).size());
+        assertSame(n[0], Orders.topological(g).get(0));
+        g.newEdge(n[n.length - 1], n[0]);
+        assertEquals(n.length, Cycles.findCycle(g).size());
+    }
+
+    public void testBreak() {
+        Graph g = new PrimaryGraph();
+        Node[] n = g.newNodes(0, 1, 2);
+        g.newEdge(n[0], n[1]);
+        LeanDfs dfs = new LeanDfs(g, Direction.OUT) {
+            @Override
+            protected boolean visitPre(Node node) {
+                return node.getValue().equals(1);
+            }
+        };
+        dfs.execute();
+        assertTrue(dfs.isVisiting(n[0]));
+        assertTrue(dfs.isVisiting(n[1]));
+        assertTrue(dfs.isUnexplored(n[2]));
+    }
+}
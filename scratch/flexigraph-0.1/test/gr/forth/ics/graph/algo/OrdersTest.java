@@ -63,6 +63,12 @@ public class OrdersTest extends TestCase {
         assertEquals("[6, 5, 4, 3, 2, 1]", topo.toString());
     }
     
+    public void testEmptyGraph() {
+        Graph g = new PrimaryGraph();
+        assertTrue(Orders.topological(g).isEmpty());
+        assertTrue(Orders.reverseTopological(g).isEmpty());
+    }
+    
     public void testCycleForbidden() {
         Graph g = new PrimaryGraph();
         Node n1 = g.newNode();
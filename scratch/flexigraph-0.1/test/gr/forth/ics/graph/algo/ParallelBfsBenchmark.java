@@ -0,0 +1,61 @@
+package gr.forth.ics.graph.algo;
+
+import gr.forth.ics.graph.CsrGraph;
+import gr.forth.ics.graph.Direction;
+import gr.forth.ics.graph.Graphs;
+import gr.forth.ics.graph.InspectableGraph;
+import gr.forth.ics.graph.Node;
+import gr.forth.ics.graph.PrimaryGraph;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures the scaling of {@link ParallelBfs} with the number of threads of its {@link ForkJoinPool}
+ * (1, 2, 4, 8 and 16), on a {@link CsrGraph} snapshot of a random graph, with {@link Layerers#bfs(InspectableGraph, Node, Direction)} as the
+ * single-threaded baseline. Speedups are bounded by the number of available processors, which is printed too.
+ * Not a unit test; run its main method.
+ */
+public class ParallelBfsBenchmark {
+    private static final int[] THREADS = { 1, 2, 4, 8, 16 };
+
+    public static void main(String[] args) {
+        int nodeCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int edgeCount = args.length > 1 ? Integer.parseInt(args[1]) : 5 * nodeCount;
+
+        PrimaryGraph g = new PrimaryGraph();
+        Random random = new Random(0);
+        Node[] nodes = g.newNodes(nodeCount);
+        for (int i = 0; i < edgeCount; i++) {
+            g.newEdge(nodes[random.nextInt(nodeCount)], nodes[random.nextInt(nodeCount)]);
+        }
+        CsrGraph csr = Graphs.freeze(g);
+        g = null;
+        Node start = csr.nodeAt(0);
+        System.out.printf("%d nodes, %d edges, %d available processors%n",
+                nodeCount, edgeCount, Runtime.getRuntime().availableProcessors());
+
+        long baseline = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            System.gc();
+            long begin = System.nanoTime();
+            Layerers.bfs(csr, start, Direction.OUT);
+            baseline = Math.min(baseline, System.nanoTime() - begin);
+        }
+        System.out.printf("  Layerers.bfs: %5d ms%n", baseline / 1000000);
+
+        for (int threads : THREADS) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            long best = Long.MAX_VALUE;
+            int layers = 0;
+            for (int round = 0; round < 5; round++) {
+                System.gc();
+                long begin = System.nanoTime();
+                layers = ParallelBfs.execute(csr, start, Direction.OUT, pool).getLayerCount();
+                best = Math.min(best, System.nanoTime() - begin);
+            }
+            pool.shutdown();
+            System.out.printf("  ParallelBfs, %2d threads: %5d ms (%.2fx Layerers.bfs, levels: %d)%n",
+                    threads, best / 1000000, (double)baseline / best, layers);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package gr.forth.ics.graph.algo;
+
+import gr.forth.ics.graph.Direction;
+import gr.forth.ics.graph.Graph;
+import gr.forth.ics.graph.Graphs;
+import gr.forth.ics.graph.InspectableGraph;
+import gr.forth.ics.graph.Node;
+import gr.forth.ics.graph.PrimaryGraph;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import junit.framework.*;
+
+public class ParallelBfsTest extends TestCase {
+    private ForkJoinPool pool;
+
+    public ParallelBfsTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        TestSuite suite = new TestSuite(ParallelBfsTest.class);
+        return suite;
+    }
+
+    @Override
+    protected void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @Override
+    protected void tearDown() {
+        pool.shutdown();
+    }
+
+    public void testSameLayersAsBfs() {
+        Random random = new Random(7);
+        for (int round = 0; round < 30; round++) {
+            Graph g = new PrimaryGraph();
+            int nodes = 1 + random.nextInt(300);
+            Generators.createRandom(g, random, nodes, Math.min(1.0, random.nextDouble() * 8.0 / nodes));
+            for (Direction direction : Direction.values()) {
+                assertSameLayers(g, direction);
+                assertSameLayers(Graphs.freeze(g), direction);
+                assertSameLayers(Graphs.inverted(g), direction);
+            }
+            assertSameLayers(Graphs.undirected(g), Direction.OUT);
+        }
+    }
+
+    public void testLargeFrontiers() {
+        //wide levels, so that they are split among several tasks
+        Graph g = new PrimaryGraph();
+        Random random = new Random(3);
+        Node[] n = g.newNodes(20000);
+        for (int i = 0; i < 60000; i++) {
+            g.newEdge(n[random.nextInt(n.length)], n[random.nextInt(n.length)]);
+        }
+        assertSameLayers(g, Direction.OUT);
+        assertSameLayers(g, Direction.EITHER);
+        assertSameLayers(Graphs.freeze(g), Direction.IN);
+    }
+
+    private void assertSameLayers(InspectableGraph g, Direction direction) {
+        Layerer expected = Layerers.bfs(g, direction);
+        Layerer actual = ParallelBfs.execute(g, direction, pool);
+        assertSameLayers(expected, actual);
+        if (!g.isEmpty()) {
+            Node start = g.aNode();
+            assertSameLayers(Layerers.bfs(g, start, direction), ParallelBfs.execute(g, start, direction, pool));
+        }
+    }
+
+    private static void assertSameLayers(Layerer expected, Layerer actual) {
+        assertEquals(expected.getLayerCount(), actual.getLayerCount());
+        assertEquals(expected.getClusters(), actual.getClusters());
+        int total = 0;
+        for (Object cluster : expected.getClusters()) {
+            int layer = (Integer)cluster;
+            assertEquals(new HashSet<Node>(expected.getLayer(layer)), new HashSet<Node>(actual.getLayer(layer)));
+            for (Node n : actual.getCluster(cluster)) {
+                assertEquals(cluster, actual.findClusterOf(n));
+                assertEquals(layer, actual.findLayerOf(n));
+                total++;
+            }
+        }
+        int visited = 0;
+        for (Node n : expected.getGraph().nodes()) {
+            assertEquals(expected.findClusterOf(n), actual.findClusterOf(n));
+            if (expected.findClusterOf(n) != null) {
+                visited++;
+            }
+        }
+        assertEquals(visited, total);
+    }
+
+    public void testLayerer() {
+        Graph g = new PrimaryGraph();
+        Node root = Generators.createRandomTree(g, new Random(2), 2000, Direction.OUT);
+        Layerer layerer = Layerers.parallelBfs(g, root, Direction.OUT);
+        Trees.NodeLevelFinder levels = Trees.findNodeLevels(g, root, Direction.OUT);
+        for (Node n : g.nodes()) {
+            assertEquals(levels.getLayersAbove(n), layerer.findLayerOf(n));
+        }
+        int layers = 0;
+        for (Object layer : layerer) {
+            layers++;
+        }
+        assertEquals(layerer.getLayerCount() + 1, layers);
+        assertTrue(layerer.getLayer(layerer.getLayerCount() + 1).isEmpty());
+
+        Node isolated = g.newNode();
+        layerer = Layerers.parallelBfs(g, root, Direction.OUT);
+        assertEquals(0, layerer.findLayerOf(isolated));
+        assertTrue(layerer.getLayer(0).contains(root));
+    }
+
+    public void testUnknownClusters() {
+        Graph g = new PrimaryGraph();
+        g.newEdge(g.newNode(), g.newNode());
+        ParallelBfs bfs = ParallelBfs.execute(g, Direction.OUT, pool);
+        assertTrue(bfs.getCluster("0").isEmpty());
+        assertTrue(bfs.getCluster(null).isEmpty());
+        assertTrue(bfs.getCluster(-1).isEmpty());
+        assertTrue(bfs.getCluster(2).isEmpty());
+        assertEquals(1, bfs.getCluster(0).size());
+    }
+}
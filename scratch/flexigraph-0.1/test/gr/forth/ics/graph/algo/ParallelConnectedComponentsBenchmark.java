@@ -0,0 +1,66 @@
+package gr.forth.ics.graph.algo;
+
+import gr.forth.ics.graph.CsrGraph;
+import gr.forth.ics.graph.Graphs;
+import gr.forth.ics.graph.InspectableGraph;
+import gr.forth.ics.graph.Node;
+import gr.forth.ics.graph.PrimaryGraph;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Compares {@link Clusterers#connectedComponents(InspectableGraph)} with
+ * {@link Clusterers#parallelConnectedComponents(InspectableGraph, ForkJoinPool)} on pools of 1, 2, 4, 8 and
+ * 16 threads, on a random graph (as a {@link PrimaryGraph}, and as a {@link CsrGraph} snapshot).
+ * Speedups are bounded by the number of available processors, which is printed too.
+ * Not a unit test; run its main method.
+ */
+public class ParallelConnectedComponentsBenchmark {
+    private static final int[] THREADS = { 1, 2, 4, 8, 16 };
+
+    public static void main(String[] args) {
+        int nodeCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int edgeCount = args.length > 1 ? Integer.parseInt(args[1]) : 5 * nodeCount;
+
+        PrimaryGraph g = new PrimaryGraph();
+        Random random = new Random(0);
+        Node[] nodes = g.newNodes(nodeCount);
+        for (int i = 0; i < edgeCount; i++) {
+            g.newEdge(nodes[random.nextInt(nodeCount)], nodes[random.nextInt(nodeCount)]);
+        }
+        nodes = null;
+        CsrGraph csr = Graphs.freeze(g);
+        System.out.printf("%d nodes, %d edges, %d available processors%n",
+                nodeCount, edgeCount, Runtime.getRuntime().availableProcessors());
+
+        long sequential = Long.MAX_VALUE;
+        int components = 0;
+        for (int round = 0; round < 3; round++) {
+            System.gc();
+            long begin = System.nanoTime();
+            components = Clusterers.connectedComponents(csr).getClusters().size();
+            sequential = Math.min(sequential, System.nanoTime() - begin);
+        }
+        System.out.printf("  connectedComponents, on csr: %5d ms (%d components)%n", sequential / 1000000, components);
+
+        for (int threads : THREADS) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            long best = Long.MAX_VALUE;
+            long bestCsr = Long.MAX_VALUE;
+            for (int round = 0; round < 3; round++) {
+                System.gc();
+                long begin = System.nanoTime();
+                Clusterers.parallelConnectedComponents(g, pool);
+                best = Math.min(best, System.nanoTime() - begin);
+                System.gc();
+                begin = System.nanoTime();
+                components = Clusterers.parallelConnectedComponents(csr, pool).getClusters().size();
+                bestCsr = Math.min(bestCsr, System.nanoTime() - begin);
+            }
+            pool.shutdown();
+            System.out.printf("  parallelConnectedComponents, %2d threads: %5d ms, on csr: %5d ms"
+                    + " (%.1fx connectedComponents, %d components)%n",
+                    threads, best / 1000000, bestCsr / 1000000, (double)sequential / bestCsr, components);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package gr.forth.ics.graph.algo;
+
+import gr.forth.ics.graph.Direction;
+import gr.forth.ics.graph.Graph;
+import gr.forth.ics.graph.Graphs;
+import gr.forth.ics.graph.InspectableGraph;
+import gr.forth.ics.graph.Node;
+import gr.forth.ics.graph.PrimaryGraph;
+import gr.forth.ics.graph.SecondaryGraph;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import junit.framework.*;
+
+public class ParallelConnectedComponentsTest extends TestCase {
+    private ForkJoinPool pool;
+
+    public ParallelConnectedComponentsTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        TestSuite suite = new TestSuite(ParallelConnectedComponentsTest.class);
+        return suite;
+    }
+
+    @Override
+    protected void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @Override
+    protected void tearDown() {
+        pool.shutdown();
+    }
+
+    //the fixture of ConnectedComponentsTest.test()
+    public void test() {
+        Graph g1 = new PrimaryGraph();
+        Node[] n1 = g1.newNodes(2);
+        g1.newEdge(n1[0], n1[1]);
+
+        Graph g2 = new PrimaryGraph();
+        Node[] n2 = g2.newNodes(2);
+        g2.newEdge(n2[0], n2[1]);
+
+        SecondaryGraph sg = new SecondaryGraph();
+        sg.adoptGraph(g1);
+        sg.adoptGraph(g2);
+
+        Clusterer cc = Clusterers.parallelConnectedComponents(sg, pool);
+
+        Collection<Object> components = cc.getClusters();
+        assertEquals(2, components.size());
+
+        Iterator<Object> iterator = components.iterator();
+        Object c1 = iterator.next();
+        Object c2 = iterator.next();
+        assertTrue(c1 != c2);
+        assertTrue(components.contains(c1));
+        assertTrue(components.contains(c2));
+
+        Collection<Node> comp1 = cc.getCluster(c1);
+        assertTrue(comp1.containsAll(Arrays.asList(n1)));
+
+        Collection<Node> comp2 = cc.getCluster(c2);
+        assertTrue(comp2.containsAll(Arrays.asList(n2)));
+
+        assertTrue(cc.getCluster(c1).contains(n1[0]));
+        assertTrue(cc.getCluster(c2).contains(n2[0]));
+        assertSame(sg, cc.getGraph());
+    }
+
+    //the fixture of ConnectedComponentsTest.testRandomized()
+    public void testRandomized() {
+        Graph g = new PrimaryGraph();
+        Node root1 = Generators.createRandomTree(g, 10, Direction.OUT);
+        Node root2 = Generators.createRandomTree(g, 10, Direction.IN);
+
+        Clusterer cc = Clusterers.parallelConnectedComponents(g, pool);
+        assertEquals(2, cc.getClusters().size());
+        assertSameComponents(Clusterers.connectedComponents(g), cc);
+
+        g.newEdge(root1, root2);
+        cc = Clusterers.parallelConnectedComponents(g, pool);
+        assertEquals(1, cc.getClusters().size());
+        assertSameComponents(Clusterers.connectedComponents(g), cc);
+    }
+
+    public void testSameAsSequential() {
+        Random random = new Random(9);
+        for (int round = 0; round < 30; round++) {
+            Graph g = new PrimaryGraph();
+            int nodes = 1 + random.nextInt(10000);
+            Node[] n = g.newNodes(nodes);
+            int edges = random.nextInt(nodes + nodes / 2);
+            for (int i = 0; i < edges; i++) {
+                g.newEdge(n[random.nextInt(nodes)], n[random.nextInt(nodes)]);
+            }
+            //leaves unused indexes
+            for (int i = 0; i < nodes / 10; i++) {
+                Node node = n[random.nextInt(nodes)];
+                if (g.containsNode(node)) {
+                    g.removeNode(node);
+                }
+            }
+            Clusterer expected = Clusterers.connectedComponents(g);
+            assertSameComponents(expected, Clusterers.parallelConnectedComponents(g, pool));
+            assertSameComponents(expected, Clusterers.parallelConnectedComponents(Graphs.freeze(g), pool));
+            assertSameComponents(expected, Clusterers.parallelConnectedComponents(Graphs.inverted(g), pool));
+            assertSameComponents(expected, Clusterers.parallelConnectedComponents(Graphs.undirected(g), pool));
+        }
+    }
+
+    public void testEmpty() {
+        Clusterer cc = Clusterers.parallelConnectedComponents(new PrimaryGraph(), pool);
+        assertTrue(cc.getClusters().isEmpty());
+        assertFalse(cc.iterator().hasNext());
+        assertNull(cc.findClusterOf(new PrimaryGraph().newNode()));
+        assertTrue(cc.getCluster(0).isEmpty());
+    }
+
+    private static void assertSameComponents(Clusterer expected, Clusterer actual) {
+        assertEquals(expected.getClusters().size(), actual.getClusters().size());
+        Set<Set<Node>> expectedComponents = new HashSet<Set<Node>>();
+        for (Collection<Node> component : expected) {
+            expectedComponents.add(new HashSet<Node>(component));
+        }
+        int count = 0;
+        for (Object cluster : actual.getClusters()) {
+            Collection<Node> component = actual.getCluster(cluster);
+            assertTrue(expectedComponents.contains(new HashSet<Node>(component)));
+            for (Node n : component) {
+                assertEquals(cluster, actual.findClusterOf(n));
+            }
+            count++;
+        }
+        assertEquals(expectedComponents.size(), count);
+    }
+}
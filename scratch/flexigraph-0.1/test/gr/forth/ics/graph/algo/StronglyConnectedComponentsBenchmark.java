@@ -0,0 +1,56 @@
+package gr.forth.ics.graph.algo;
+
+import gr.forth.ics.graph.CsrGraph;
+import gr.forth.ics.graph.Graphs;
+import gr.forth.ics.graph.Node;
+import gr.forth.ics.graph.PrimaryGraph;
+import java.util.Random;
+
+/**
+ * Measures {@link Clusterers#stronglyConnectedComponents(gr.forth.ics.graph.InspectableGraph)} on a large
+ * random graph, both on a {@link PrimaryGraph} (which includes freezing it) and on a {@link CsrGraph}.
+ * The graph has the same distribution as {@link Generators#createRandom(gr.forth.ics.graph.Graph, int, double)}
+ * with <code>p = degree / nodes</code>, but edges are sampled directly, since testing every pair of nodes
+ * is infeasible at this size. Not a unit test; run its main method with a heap large enough for the graph
+ * (roughly 200 bytes per edge).
+ */
+public class StronglyConnectedComponentsBenchmark {
+    public static void main(String[] args) {
+        int nodeCount = args.length > 0 ? Integer.parseInt(args[0]) : 10000000;
+        double degree = args.length > 1 ? Double.parseDouble(args[1]) : 1.0;
+        int edgeCount = (int)(nodeCount * degree);
+
+        Random random = new Random(0);
+        PrimaryGraph g = new PrimaryGraph();
+        Node[] nodes = g.newNodes(nodeCount);
+        Node[] sources = new Node[edgeCount];
+        Node[] targets = new Node[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            sources[i] = nodes[random.nextInt(nodeCount)];
+            targets[i] = nodes[random.nextInt(nodeCount)];
+        }
+        g.newEdges(sources, targets);
+        sources = targets = nodes = null;
+        System.out.printf("%d nodes, %d edges%n", g.nodeCount(), g.edgeCount());
+
+        CsrGraph csr = Graphs.freeze(g);
+        for (int round = 0; round < 5; round++) {
+            System.gc();
+            long start = System.nanoTime();
+            Clusterer scc = Clusterers.stronglyConnectedComponents(g);
+            long graphTime = (System.nanoTime() - start) / 1000000;
+
+            System.gc();
+            start = System.nanoTime();
+            Clusterer csrScc = Clusterers.stronglyConnectedComponents(csr);
+            long csrTime = (System.nanoTime() - start) / 1000000;
+
+            int largest = 0;
+            for (Object cluster : csrScc.getClusters()) {
+                largest = Math.max(largest, csrScc.getCluster(cluster).size());
+            }
+            System.out.printf("graph: %5d ms, csr: %5d ms, components: %d, largest: %d%n",
+                    graphTime, csrTime, scc.getClusters().size(), largest);
+        }
+    }
+}
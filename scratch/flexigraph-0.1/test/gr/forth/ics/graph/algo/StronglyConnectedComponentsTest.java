@@ -2,11 +2,16 @@ package gr.forth.ics.graph.algo;
 
 import gr.forth.ics.graph.algo.Clusterer;
 import gr.forth.ics.graph.algo.Clusterers;
+import gr.forth.ics.graph.Direction;
+import gr.forth.ics.graph.Edge;
 import gr.forth.ics.graph.Graph;
 import gr.forth.ics.graph.Node;
 import gr.forth.ics.graph.PrimaryGraph;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Random;
 import java.util.Set;
 import junit.framework.TestCase;
 
@@ -47,4 +52,70 @@ public class StronglyConnectedComponentsTest extends TestCase {
         assertTrue(clusters.contains(new HashSet<Node>(Arrays.asList(n[6]))));
         assertTrue(clusters.contains(new HashSet<Node>(Arrays.asList(n[7]))));
     }
+
+    public void testLongCycle() {
+        //deep enough to overflow the call stack of a recursive search
+        Graph g = new PrimaryGraph();
+        Node[] n = g.newNodes(300000);
+        for (int i = 0; i < n.length - 1; i++) {
+            g.newEdge(n[i], n[i + 1]);
+        }
+        Node tail = g.newNode();
+        g.newEdge(n[n.length - 1], tail);
+        g.newEdge(n[n.length - 1], n[0]);
+        Clusterer scc = Clusterers.stronglyConnectedComponents(g);
+        assertEquals(2, scc.getClusters().size());
+        //components are numbered in completion order
+        assertEquals(0, scc.findClusterOf(tail));
+        assertEquals(1, scc.findClusterOf(n[12345]));
+        assertEquals(n.length, scc.getCluster(1).size());
+        assertNull(scc.findClusterOf(new PrimaryGraph().newNode()));
+        assertTrue(scc.getCluster(2).isEmpty());
+    }
+
+    public void testRandom() {
+        Random random = new Random(7);
+        for (int round = 0; round < 50; round++) {
+            Graph g = new PrimaryGraph();
+            Generators.createRandom(g, random, 1 + random.nextInt(30), random.nextDouble() * 0.15);
+            Clusterer scc = Clusterers.stronglyConnectedComponents(g);
+            int total = 0;
+            int id = 0;
+            for (Collection<Node> component : scc) {
+                for (Node node : component) {
+                    assertEquals(id, scc.findClusterOf(node));
+                }
+                total += component.size();
+                id++;
+            }
+            assertEquals(g.nodeCount(), total);
+            assertEquals(id, scc.getClusters().size());
+            for (Node u : g.nodes()) {
+                Set<Node> reachable = reachable(g, u);
+                for (Node v : g.nodes()) {
+                    boolean mutual = reachable.contains(v) && reachable(g, v).contains(u);
+                    assertEquals(mutual, scc.findClusterOf(u).equals(scc.findClusterOf(v)));
+                }
+            }
+            for (Edge e : g.edges()) {
+                //reverse topological order of the condensation
+                assertTrue((Integer)scc.findClusterOf(e.n1()) >= (Integer)scc.findClusterOf(e.n2()));
+            }
+        }
+    }
+
+    private static Set<Node> reachable(Graph g, Node source) {
+        Set<Node> visited = new HashSet<Node>();
+        LinkedList<Node> queue = new LinkedList<Node>();
+        visited.add(source);
+        queue.add(source);
+        while (!queue.isEmpty()) {
+            for (Node next : g.adjacentNodes(queue.removeFirst(), Direction.OUT)) {
+                if (visited.add(next)) {
+                    queue.add(next);
+                }
+            }
+        }
+        return visited;
+    }
 }
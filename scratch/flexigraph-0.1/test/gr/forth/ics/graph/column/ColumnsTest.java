@@ -0,0 +1,126 @@
+package gr.forth.ics.graph.column;
+
+import gr.forth.ics.graph.Edge;
+import gr.forth.ics.graph.Graph;
+import gr.forth.ics.graph.Node;
+import gr.forth.ics.graph.PrimaryGraph;
+import gr.forth.ics.graph.SecondaryGraph;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import junit.framework.*;
+
+public class ColumnsTest extends TestCase {
+    
+    public ColumnsTest(String testName) {
+        super(testName);
+    }
+    
+    public static Test suite() {
+        TestSuite suite = new TestSuite(ColumnsTest.class);
+        
+        return suite;
+    }
+    
+    public void testNodeColumnsFollowGraph() {
+        PrimaryGraph g = new PrimaryGraph();
+        Node[] n = g.newNodes(5);
+        NodeDoubleColumn weights = new NodeDoubleColumn(g, -1.0);
+        NodeIntColumn counts = new NodeIntColumn(g);
+        for (Node node : n) {
+            assertEquals(-1.0, weights.get(node));
+            assertEquals(0, counts.get(node));
+        }
+        weights.set(n[2], 2.5);
+        counts.set(n[2], 7);
+        assertEquals(2.5, weights.getValue(n[2]));
+        assertEquals(7.0, counts.getValue(n[2]));
+        assertEquals(2.5, weights.getAt(g.indexOf(n[2])));
+        
+        g.removeNode(n[2]);
+        try {
+            weights.get(n[2]);
+            fail();
+        } catch (IllegalArgumentException ok) { }
+        Node recycled = g.newNode();
+        assertEquals(-1.0, weights.get(recycled));
+        assertEquals(0, counts.get(recycled));
+        
+        Node[] more = g.newNodes(1000);
+        weights.set(more[999], 3.0);
+        assertEquals(3.0, weights.get(more[999]));
+        assertEquals(-1.0, weights.get(more[500]));
+    }
+    
+    public void testEdgeColumnsFollowGraph() {
+        Graph g = new SecondaryGraph();
+        Node[] n = g.newNodes(3);
+        Edge e1 = g.newEdge(n[0], n[1]);
+        EdgeDoubleColumn weights = new EdgeDoubleColumn(new SecondaryGraph());
+        EdgeLongColumn stamps = new EdgeLongColumn((SecondaryGraph)g, 42L);
+        assertEquals(42L, stamps.get(e1));
+        stamps.set(e1, Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, stamps.get(e1));
+        Edge e2 = g.newEdge(n[1], n[2]);
+        assertEquals(42L, stamps.get(e2));
+        g.removeNode(n[1]);
+        try {
+            stamps.get(e1);
+            fail();
+        } catch (IllegalArgumentException ok) { }
+        try {
+            weights.get(e1);
+            fail();
+        } catch (IllegalArgumentException ok) { }
+    }
+    
+    public void testBulkAdditions() {
+        PrimaryGraph g = new PrimaryGraph();
+        Node[] n = g.newNodes(3);
+        EdgeLongColumn ids = new EdgeLongColumn(g, -1L);
+        Edge e = g.newEdge(n[0], n[1]);
+        ids.set(e, 5L);
+        g.removeEdge(e);
+        Node[] sources = new Node[100];
+        Node[] targets = new Node[100];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = n[i % 3];
+            targets[i] = n[(i + 1) % 3];
+        }
+        Edge[] edges = g.newEdges(sources, targets);
+        for (Edge edge : edges) {
+            //including the one that recycled the index of the removed edge
+            assertEquals(-1L, ids.get(edge));
+        }
+        ids.set(edges[99], 99L);
+        assertEquals(99L, ids.get(edges[99]));
+    }
+    
+    public void testRandomMutations() {
+        PrimaryGraph g = new PrimaryGraph();
+        NodeDoubleColumn column = new NodeDoubleColumn(g);
+        Map<Node, Double> expected = new HashMap<Node, Double>();
+        Random random = new Random(0);
+        for (int i = 0; i < 5000; i++) {
+            if (random.nextInt(3) > 0 || g.nodeCount() == 0) {
+                Node node = g.newNode();
+                double value = random.nextDouble();
+                column.set(node, value);
+                expected.put(node, value);
+            } else {
+                List<Node> nodes = g.nodes().drainToList();
+                Node node = nodes.get(random.nextInt(nodes.size()));
+                g.removeNode(node);
+                expected.remove(node);
+            }
+        }
+        while (g.nodeCount() > 10) {
+            g.removeNode(g.aNode());
+        }
+        expected.keySet().retainAll(g.nodes().drainToSet());
+        for (Node node : g.nodes()) {
+            assertEquals(expected.get(node), column.get(node));
+        }
+    }
+}
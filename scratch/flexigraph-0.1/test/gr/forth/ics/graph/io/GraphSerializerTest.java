@@ -0,0 +1,164 @@
+package gr.forth.ics.graph.io;
+
+import gr.forth.ics.graph.Edge;
+import gr.forth.ics.graph.Graph;
+import gr.forth.ics.graph.Graphs;
+import gr.forth.ics.graph.Node;
+import gr.forth.ics.graph.PrimaryGraph;
+import gr.forth.ics.graph.SecondaryGraph;
+import gr.forth.ics.graph.algo.Generators;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.util.Iterator;
+import junit.framework.*;
+
+public class GraphSerializerTest extends TestCase {
+
+    public GraphSerializerTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        TestSuite suite = new TestSuite(GraphSerializerTest.class);
+        return suite;
+    }
+
+    public void testRoundTrip() throws IOException {
+        Graph g = new PrimaryGraph();
+        Graphs.attachNodeNamer(g);
+        Generators.createRandom(g, 300, 0.05);
+        Node[] n = g.newNodes(2);
+        g.newEdge(n[0], n[0], 1.5);
+        g.newEdge(n[1], n[0], "parallel");
+        g.newEdge(n[1], n[0], 'c');
+        //more edges than a batch
+        for (int i = 0; i < 5000; i++) {
+            g.newEdge(n[i % 2], g.aNode(), (long)i << 40);
+        }
+
+        Graph g2 = new PrimaryGraph();
+        GraphIO.read(Format.BINARY, g2, new ByteArrayInputStream(write(GraphSerializer.instance(), g)));
+        assertSameGraph(g, g2);
+    }
+
+    public void testEmptyGraph() throws IOException {
+        Graph g = new PrimaryGraph();
+        Graph g2 = new PrimaryGraph();
+        GraphSerializer.instance().read(g2, null, new ByteArrayInputStream(write(GraphSerializer.instance(), g)));
+        assertEquals(0, g2.nodeCount());
+    }
+
+    public void testValueTypes() throws IOException {
+        Object[] values = { null, "", "\u03b1\u03b2\u03b3", Integer.MIN_VALUE, -1, Integer.MAX_VALUE, Long.MIN_VALUE,
+            (short)-3, (byte)7, Double.NaN, -0.5f, true, false, '\u20ac' };
+        Graph g = new PrimaryGraph();
+        g.newNodes(values);
+        Graph g2 = new PrimaryGraph();
+        GraphSerializer.instance().read(g2, null, new ByteArrayInputStream(write(GraphSerializer.instance(), g)));
+        int i = 0;
+        for (Node n : g2.nodes()) {
+            assertEquals(values[i++], n.getValue());
+        }
+        assertEquals(values.length, i);
+    }
+
+    public void testUnsupportedValue() {
+        Graph g = new PrimaryGraph();
+        g.newNode(new Object());
+        try {
+            write(GraphSerializer.instance(), g);
+            fail();
+        } catch (NotSerializableException ok) {
+        } catch (IOException e) {
+            fail();
+        }
+    }
+
+    public void testCodecs() throws IOException {
+        Graph g = new PrimaryGraph();
+        Node[] n = g.newNodes("a", "b");
+        n[0].put("weight", 3);
+        n[0].putWeakly("color", "red");
+        g.newEdge(n[0], n[1], "e").put(1, 2L);
+
+        GraphSerializer tuples = new GraphSerializer(AttributeCodecs.tuples(), AttributeCodecs.none());
+        Graph g2 = new PrimaryGraph();
+        tuples.read(g2, null, new ByteArrayInputStream(write(tuples, g)));
+        Node a = g2.aNode();
+        assertEquals("a", a.getValue());
+        assertEquals(3, a.getInt("weight"));
+        assertFalse(a.has("color"));
+        Edge e = g2.anEdge();
+        assertNull(e.getValue());
+        assertFalse(e.has(1));
+    }
+
+    public void testEmbeddedInStream() throws IOException {
+        Graph g = new PrimaryGraph();
+        Generators.createRandom(g, 20, 0.2);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        GraphSerializer.instance().write(g, out);
+        out.writeUTF("trailer");
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        Graph g2 = new PrimaryGraph();
+        GraphSerializer.instance().read(g2, in);
+        assertEquals("trailer", in.readUTF());
+        assertSameGraph(g, g2);
+    }
+
+    public void testCorruptedInput() throws IOException {
+        try {
+            GraphSerializer.instance().read(new PrimaryGraph(), null, new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5 }));
+            fail();
+        } catch (StreamCorruptedException ok) { }
+    }
+
+    public void testExternalizableGraph() throws Exception {
+        Graph g = new PrimaryGraph();
+        Node[] n = g.newNodes(1, 2, 3, 4);
+        g.newEdge(n[0], n[1], "x");
+        g.newEdge(n[2], n[3]);
+        g.newEdge(n[3], n[0]);
+        SecondaryGraph secondary = new SecondaryGraph(g, java.util.Arrays.asList(n[0], n[1], n[3]));
+        secondary.adoptEdges(g.edges(n[0], n[1]));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(new ExternalizableGraph(g));
+        out.writeObject(new ExternalizableGraph(secondary));
+        out.close();
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertSameGraph(g, ((ExternalizableGraph)in.readObject()).getGraph());
+        Graph restored = ((ExternalizableGraph)in.readObject()).getGraph();
+        assertSameGraph(secondary, restored);
+        assertTrue(restored.isPrimary());
+    }
+
+    private static byte[] write(GraphSerializer serializer, Graph g) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serializer.write(g, null, out);
+        return out.toByteArray();
+    }
+
+    private static void assertSameGraph(Graph expected, Graph actual) {
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(expected.nodeCount(), actual.nodeCount());
+        assertEquals(expected.edgeCount(), actual.edgeCount());
+        Iterator<Edge> edges = actual.edges().iterator();
+        for (Edge e : expected.edges()) {
+            Edge e2 = edges.next();
+            assertEquals(e.getValue(), e2.getValue());
+            assertEquals(e.n1().getValue(), e2.n1().getValue());
+            assertEquals(e.n2().getValue(), e2.n2().getValue());
+        }
+    }
+}
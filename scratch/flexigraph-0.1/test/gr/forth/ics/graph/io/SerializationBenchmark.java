@@ -0,0 +1,97 @@
+package gr.forth.ics.graph.io;
+
+import gr.forth.ics.graph.Graph;
+import gr.forth.ics.graph.Node;
+import gr.forth.ics.graph.PrimaryGraph;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+
+/**
+ * Compares checkpointing (writing to a byte array) and restoring a graph with default Java serialization,
+ * with {@link GraphSerializer}, and with {@link ExternalizableGraph}. Not a unit test; run its main method.
+ * Default serialization recurses along the adjacency lists, so it needs a large stack (e.g. -Xss512m).
+ */
+public class SerializationBenchmark {
+    public static void main(String[] args) throws Exception {
+        int nodeCount = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int edgeCount = args.length > 1 ? Integer.parseInt(args[1]) : 500000;
+        Graph g = new PrimaryGraph();
+        Node[] nodes = g.newNodes(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            nodes[i].setValue("node" + i);
+        }
+        Random random = new Random(0);
+        for (int i = 0; i < edgeCount; i++) {
+            g.newEdge(nodes[random.nextInt(nodeCount)], nodes[random.nextInt(nodeCount)], random.nextDouble());
+        }
+        for (int round = 0; round < 3; round++) {
+            run("java serialization", new JavaSerialization(), g);
+            run("GraphSerializer", new BinarySerialization(), g);
+            run("ExternalizableGraph", new ExternalizedSerialization(), g);
+        }
+    }
+
+    private static void run(String name, Codec codec, Graph g) throws Exception {
+        long start = System.nanoTime();
+        byte[] bytes = codec.checkpoint(g);
+        long written = System.nanoTime();
+        Graph restored = codec.restore(bytes);
+        long read = System.nanoTime();
+        if (restored.edgeCount() != g.edgeCount()) {
+            throw new AssertionError();
+        }
+        System.out.printf("%-20s checkpoint: %5d ms, restore: %5d ms, %,11d bytes%n", name,
+                (written - start) / 1000000, (read - written) / 1000000, bytes.length);
+    }
+
+    private interface Codec {
+        byte[] checkpoint(Graph g) throws IOException;
+        Graph restore(byte[] bytes) throws Exception;
+    }
+
+    private static class JavaSerialization implements Codec {
+        public byte[] checkpoint(Graph g) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectOutputStream out = new ObjectOutputStream(bytes);
+            out.writeObject(g);
+            out.close();
+            return bytes.toByteArray();
+        }
+
+        public Graph restore(byte[] bytes) throws Exception {
+            return (Graph)new ObjectInputStream(new ByteArrayInputStream(bytes)).readObject();
+        }
+    }
+
+    private static class BinarySerialization implements Codec {
+        public byte[] checkpoint(Graph g) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            GraphIO.write(Format.BINARY, g, bytes);
+            return bytes.toByteArray();
+        }
+
+        public Graph restore(byte[] bytes) throws Exception {
+            Graph g = new PrimaryGraph();
+            GraphIO.read(Format.BINARY, g, new ByteArrayInputStream(bytes));
+            return g;
+        }
+    }
+
+    private static class ExternalizedSerialization implements Codec {
+        public byte[] checkpoint(Graph g) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectOutputStream out = new ObjectOutputStream(bytes);
+            out.writeObject(new ExternalizableGraph(g));
+            out.close();
+            return bytes.toByteArray();
+        }
+
+        public Graph restore(byte[] bytes) throws Exception {
+            return ((ExternalizableGraph)new ObjectInputStream(new ByteArrayInputStream(bytes)).readObject()).getGraph();
+        }
+    }
+}
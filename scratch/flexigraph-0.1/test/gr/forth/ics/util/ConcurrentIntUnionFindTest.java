@@ -0,0 +1,96 @@
+package gr.forth.ics.util;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import junit.framework.TestCase;
+
+/**
+ *
+ * @author Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
+ */
+public class ConcurrentIntUnionFindTest extends TestCase {
+
+    public ConcurrentIntUnionFindTest(String testName) {
+        super(testName);
+    }
+
+    public void testSequential() {
+        ConcurrentIntUnionFind uf = new ConcurrentIntUnionFind(4);
+        assertEquals(4, uf.size());
+        assertFalse(uf.areMerged(0, 1));
+        assertTrue(uf.union(0, 1));
+        assertFalse(uf.union(1, 0));
+        assertTrue(uf.union(2, 3));
+        assertTrue(uf.union(3, 0));
+        for (int i = 0; i < 4; i++) {
+            assertEquals(uf.find(0), uf.find(i));
+        }
+        try {
+            uf.union(0, 4);
+            fail();
+        } catch (IllegalArgumentException ok) {
+        }
+    }
+
+    public void testParallelUnionsAgainstSequential() {
+        final int size = 50000;
+        Random random = new Random(3);
+        final int[] pairs = new int[2 * 40000];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = random.nextInt(size);
+        }
+        final ConcurrentIntUnionFind concurrent = new ConcurrentIntUnionFind(size);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            pool.invoke(new Unions(concurrent, pairs, 0, pairs.length / 2));
+        } finally {
+            pool.shutdown();
+        }
+        IntUnionFind sequential = new IntUnionFind(size);
+        for (int i = 0; i < pairs.length; i += 2) {
+            sequential.union(pairs[i], pairs[i + 1]);
+        }
+        //same partition: the representatives correspond one to one
+        int[] concurrentToSequential = new int[size];
+        Arrays.fill(concurrentToSequential, -1);
+        int roots = 0;
+        for (int i = 0; i < size; i++) {
+            int root = concurrent.find(i);
+            if (concurrentToSequential[root] < 0) {
+                concurrentToSequential[root] = sequential.find(i);
+                roots++;
+            } else {
+                assertEquals(concurrentToSequential[root], sequential.find(i));
+            }
+        }
+        assertEquals(sequential.setCount(), roots);
+    }
+
+    private static class Unions extends RecursiveAction {
+        private final ConcurrentIntUnionFind uf;
+        private final int[] pairs;
+        private final int from, to;
+
+        Unions(ConcurrentIntUnionFind uf, int[] pairs, int from, int to) {
+            this.uf = uf;
+            this.pairs = pairs;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 256) {
+                for (int i = from; i < to; i++) {
+                    uf.union(pairs[2 * i], pairs[2 * i + 1]);
+                    assertTrue(uf.areMerged(pairs[2 * i], pairs[2 * i + 1]));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Unions(uf, pairs, from, mid), new Unions(uf, pairs, mid, to));
+        }
+    }
+}
@@ -33,6 +33,20 @@ public class ExtendedIterableTest extends TestCase {
         assertEquals("[0, 2, 4]", i.drainToList().toString());
     }
     
+    public void testStream() {
+        List<Integer> list = Arrays.asList(0, 1, 2, 3, 4);
+        ExtendedIterable<Integer> i = new ExtendedIterable<Integer>(list);
+        assertEquals(5, i.spliterator().getExactSizeIfKnown());
+        assertEquals(list, i.parallelStream().collect(java.util.stream.Collectors.toList()));
+        i.filter(new Filter<Integer>() {
+            public boolean accept(Integer element) {
+                return element % 2 == 0;
+            }
+        });
+        assertEquals(-1, i.spliterator().getExactSizeIfKnown());
+        assertEquals(3, i.stream().count());
+    }
+    
     public void testToString() {
         assertEquals("[1, 2]", new ExtendedIterable<Integer>(Arrays.asList(1, 2)).toString());
     }
@@ -0,0 +1,100 @@
+package gr.forth.ics.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the memory footprint of {@link FastLinkedList} (bytes per element, including the accessors),
+ * the time to iterate it, and the time to remove and re-add elements through their accessors.
+ * Many small lists are measured as well, since graphs keep two lists per node. Not a unit test;
+ * run its main method.
+ */
+public class FastLinkedListBenchmark {
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        for (int round = 0; round < 3; round++) {
+            System.out.printf("one list of %d:     %5.1f bytes/element%n", size, bytesPerElement(size, 1));
+            System.out.printf("%d lists of 4:     %5.1f bytes/element%n", size / 4, bytesPerElement(4, size / 4));
+            iterate(size);
+            churn(size);
+        }
+    }
+
+    private static double bytesPerElement(int listSize, int lists) {
+        //accessors are kept, as graphs do; the array keeping them is allocated beforehand
+        Object[] accessors = new Object[listSize * lists];
+        List<FastLinkedList<Integer>> kept = new ArrayList<FastLinkedList<Integer>>(lists);
+        Integer element = 0;
+        long before = usedMemory();
+        for (int i = 0, pos = 0; i < lists; i++) {
+            FastLinkedList<Integer> list = new FastLinkedList<Integer>();
+            for (int j = 0; j < listSize; j++) {
+                accessors[pos++] = list.addLast(element);
+            }
+            kept.add(list);
+        }
+        long after = usedMemory();
+        if (kept.size() != lists || accessors[accessors.length - 1] == null) {
+            throw new AssertionError();
+        }
+        return (after - before) / (double)(listSize * lists);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void iterate(int size) {
+        FastLinkedList<Integer> list = new FastLinkedList<Integer>();
+        List<Accessor<Integer>> accessors = new ArrayList<Accessor<Integer>>(size);
+        for (int i = 0; i < size; i++) {
+            accessors.add(list.addLast(i));
+        }
+        System.out.printf("iteration:            %5d ms (20 passes)%n", iterate(list));
+        //move every element once, in random order, so the list is no longer laid out in allocation order
+        Collections.shuffle(accessors, new Random(0));
+        for (Accessor<Integer> accessor : accessors) {
+            accessor.moveToBack();
+        }
+        System.out.printf("iteration, shuffled:  %5d ms (20 passes)%n", iterate(list));
+    }
+
+    private static long iterate(FastLinkedList<Integer> list) {
+        long sum = 0;
+        long start = System.nanoTime();
+        for (int pass = 0; pass < 20; pass++) {
+            for (Integer i : list) {
+                sum += i;
+            }
+        }
+        long time = (System.nanoTime() - start) / 1000000;
+        if (sum != 20L * list.size() * (list.size() - 1) / 2) {
+            throw new AssertionError();
+        }
+        return time;
+    }
+
+    private static void churn(int size) {
+        FastLinkedList<Integer> list = new FastLinkedList<Integer>();
+        List<Accessor<Integer>> accessors = new ArrayList<Accessor<Integer>>(size);
+        for (int i = 0; i < size; i++) {
+            accessors.add(list.addLast(i));
+        }
+        Collections.shuffle(accessors, new Random(0));
+        long start = System.nanoTime();
+        for (int i = 0; i < size; i++) {
+            Accessor<Integer> accessor = accessors.get(i);
+            Integer value = accessor.get();
+            accessor.remove();
+            accessors.set(i, list.addLast(value));
+        }
+        long time = (System.nanoTime() - start) / 1000000;
+        System.out.printf("remove and re-add:    %5d ms%n", time);
+    }
+}
@@ -741,6 +741,81 @@ public class FastLinkedListTest extends TestCase {
          assertNull(acc.owner());
     }
 
+    public void testSpliterator() {
+        FastLinkedList<Integer> list = new FastLinkedList<Integer>();
+        for (int i = 0; i < 1000; i++) {
+            list.addLast(i);
+        }
+        //remove some, so chunks are unevenly filled
+        for (int i = 0; i < 1000; i += 7) {
+            list.accessorFor(i).remove();
+        }
+        List<Integer> expected = new ArrayList<Integer>(list);
+        assertEquals(list.size(), list.spliterator().getExactSizeIfKnown());
+        List<Integer> actual = new ArrayList<Integer>();
+        drain(list.spliterator(), actual);
+        assertEquals(expected, actual);
+        assertEquals(expected, list.parallelStream().collect(java.util.stream.Collectors.toList()));
+        assertEquals(0, new FastLinkedList<Integer>().spliterator().estimateSize());
+    }
+
+    private static void drain(Spliterator<Integer> spliterator, final List<Integer> to) {
+        long size = spliterator.getExactSizeIfKnown();
+        int before = to.size();
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        if (prefix != null) {
+            assertEquals(size, prefix.getExactSizeIfKnown() + spliterator.getExactSizeIfKnown());
+            drain(prefix, to);
+            //the suffix is drained one element at a time
+            while (spliterator.tryAdvance(new java.util.function.Consumer<Integer>() {
+                public void accept(Integer i) {
+                    to.add(i);
+                }
+            })) { }
+        } else {
+            spliterator.forEachRemaining(new java.util.function.Consumer<Integer>() {
+                public void accept(Integer i) {
+                    to.add(i);
+                }
+            });
+        }
+        assertEquals(size, to.size() - before);
+    }
+
+    public void testCursor() {
+        FastLinkedList<Integer> list = new FastLinkedList<Integer>();
+        List<Accessor<Integer>> accessors = new ArrayList<Accessor<Integer>>();
+        for (int i = 0; i < 100; i++) {
+            accessors.add(list.addLast(i));
+        }
+        FastLinkedList.Cursor<Integer> cursor = new FastLinkedList.Cursor<Integer>();
+        assertFalse(cursor.next());
+        cursor.reset(list);
+        try {
+            cursor.get();
+            fail();
+        } catch (NoSuchElementException ok) { }
+        int expected = 0;
+        while (cursor.next()) {
+            assertEquals(expected, (int)cursor.get());
+            //removing the current and the following element is tolerated
+            accessors.get(expected).remove();
+            if (expected + 1 < accessors.size()) {
+                accessors.get(expected + 1).remove();
+            }
+            expected += 2;
+        }
+        assertEquals(100, expected);
+        assertTrue(list.isEmpty());
+
+        cursor.reset(new FastLinkedList<Integer>(Arrays.asList(7, 8)));
+        assertTrue(cursor.next());
+        assertEquals(7, (int)cursor.get());
+        assertTrue(cursor.next());
+        assertEquals(8, (int)cursor.get());
+        assertFalse(cursor.next());
+    }
+
     private static void assertEqualLists(FastLinkedList list, Integer... contents) {
         assertEquals(Arrays.asList(contents), list);
     }
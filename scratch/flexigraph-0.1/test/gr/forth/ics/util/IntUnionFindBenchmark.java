@@ -0,0 +1,89 @@
+package gr.forth.ics.util;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Compares {@link Partition}, {@link IntUnionFind} and {@link ConcurrentIntUnionFind} (on one thread, and in
+ * parallel on the common {@link ForkJoinPool}) by the time to merge random pairs of elements, as when
+ * merging the endpoints of the edges of a random graph. Not a unit test; run its main method.
+ */
+public class IntUnionFindBenchmark {
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+        int unions = args.length > 1 ? Integer.parseInt(args[1]) : 2 * size;
+        Random random = new Random(0);
+        final int[] pairs = new int[2 * unions];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = random.nextInt(size);
+        }
+        System.out.printf("%d elements, %d unions, %d available processors%n",
+                size, unions, Runtime.getRuntime().availableProcessors());
+        for (int round = 0; round < 5; round++) {
+            System.gc();
+            long start = System.nanoTime();
+            Partition<?>[] partitions = new Partition<?>[size];
+            for (int i = 0; i < size; i++) {
+                partitions[i] = Partition.singleton(null);
+            }
+            for (int i = 0; i < pairs.length; i += 2) {
+                partitions[pairs[i]].merge(partitions[pairs[i + 1]]);
+            }
+            long partitionTime = System.nanoTime() - start;
+
+            System.gc();
+            start = System.nanoTime();
+            IntUnionFind uf = new IntUnionFind(size);
+            for (int i = 0; i < pairs.length; i += 2) {
+                uf.union(pairs[i], pairs[i + 1]);
+            }
+            long intTime = System.nanoTime() - start;
+
+            System.gc();
+            start = System.nanoTime();
+            ConcurrentIntUnionFind concurrent = new ConcurrentIntUnionFind(size);
+            for (int i = 0; i < pairs.length; i += 2) {
+                concurrent.union(pairs[i], pairs[i + 1]);
+            }
+            long concurrentTime = System.nanoTime() - start;
+
+            System.gc();
+            start = System.nanoTime();
+            ConcurrentIntUnionFind parallel = new ConcurrentIntUnionFind(size);
+            ForkJoinPool.commonPool().invoke(new Unions(parallel, pairs, 0, unions));
+            long parallelTime = System.nanoTime() - start;
+
+            System.out.printf("Partition: %5d ms, IntUnionFind: %5d ms, ConcurrentIntUnionFind: %5d ms,"
+                    + " in parallel: %5d ms (%d sets)%n",
+                    partitionTime / 1000000, intTime / 1000000, concurrentTime / 1000000, parallelTime / 1000000,
+                    uf.setCount());
+        }
+    }
+
+    private static class Unions extends RecursiveAction {
+        private static final int THRESHOLD = 4096;
+        private final ConcurrentIntUnionFind uf;
+        private final int[] pairs;
+        private final int from, to;
+
+        Unions(ConcurrentIntUnionFind uf, int[] pairs, int from, int to) {
+            this.uf = uf;
+            this.pairs = pairs;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    uf.union(pairs[2 * i], pairs[2 * i + 1]);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Unions(uf, pairs, from, mid), new Unions(uf, pairs, mid, to));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package gr.forth.ics.util;
+
+import java.util.Random;
+import junit.framework.TestCase;
+
+/**
+ *
+ * @author Andreou Dimitris, email: jim.andreou (at) gmail (dot) com
+ */
+public class IntUnionFindTest extends TestCase {
+
+    public IntUnionFindTest(String testName) {
+        super(testName);
+    }
+
+    public void testSingletons() {
+        IntUnionFind uf = new IntUnionFind(3);
+        assertEquals(3, uf.size());
+        assertEquals(3, uf.setCount());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i, uf.find(i));
+        }
+        assertFalse(uf.areMerged(0, 1));
+    }
+
+    public void testUnionWithEqualRank() {
+        IntUnionFind uf = new IntUnionFind(2);
+        int root = uf.union(0, 1);
+        assertEquals(root, uf.find(0));
+        assertEquals(root, uf.find(1));
+        assertTrue(uf.areMerged(0, 1));
+        assertEquals(1, uf.setCount());
+        assertEquals(root, uf.union(1, 0));
+        assertEquals(1, uf.setCount());
+    }
+
+    public void testUnionWithDifferentRank() {
+        IntUnionFind uf = new IntUnionFind(3);
+        int big = uf.union(1, 2);
+        //the small is attached to the big
+        assertEquals(big, uf.union(0, 1));
+        assertEquals(big, uf.union(big, 0));
+        assertEquals(big, uf.find(0));
+    }
+
+    public void testAdd() {
+        IntUnionFind uf = new IntUnionFind(0);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, uf.add());
+            if (i > 0) {
+                uf.union(i - 1, i);
+            }
+        }
+        assertEquals(100, uf.size());
+        assertEquals(1, uf.setCount());
+        assertTrue(uf.areMerged(0, 99));
+        try {
+            uf.find(100);
+            fail();
+        } catch (IllegalArgumentException ok) {
+        }
+    }
+
+    public void testAgainstPartition() {
+        Random random = new Random(11);
+        int size = 2000;
+        IntUnionFind uf = new IntUnionFind(size);
+        Partition<?>[] partitions = new Partition<?>[size];
+        for (int i = 0; i < size; i++) {
+            partitions[i] = Partition.singleton(i);
+        }
+        for (int round = 0; round < 3000; round++) {
+            int a = random.nextInt(size);
+            int b = random.nextInt(size);
+            uf.union(a, b);
+            partitions[a].merge(partitions[b]);
+            int c = random.nextInt(size);
+            int d = random.nextInt(size);
+            assertEquals(Partition.areMerged(partitions[c], partitions[d]), uf.areMerged(c, d));
+        }
+    }
+}